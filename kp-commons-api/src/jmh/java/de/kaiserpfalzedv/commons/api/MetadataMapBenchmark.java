@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the labels and annotations of a million {@link Metadata} instances kept as {@link CompactMap} with the
+ * unmodifiable {@link LinkedHashMap} Immutables created before.
+ * <p>
+ * The footprint (bytes per instance for both maps, measured as used heap after a full GC) is printed by the setup of
+ * every trial, the lookup of a label is measured by the benchmark. The keys are new strings for every instance, like
+ * the keys read from JSON, the values are shared by both representations.
+ *
+ * <pre>
+ *     gradle :kp-commons-api:jmh
+ * </pre>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class MetadataMapBenchmark {
+    private static final int INSTANCES = 1_000_000;
+    private static final String[] KEYS = {
+            "app", "tier", "region", "team", "version", "environment", "owner", "cost-center"
+    };
+    private static final String[] VALUES = new String[1024];
+
+    static {
+        for (int i = 0; i < VALUES.length; i++) {
+            VALUES[i] = "value-" + i;
+        }
+    }
+
+    @Param({"LINKED_HASH_MAP", "COMPACT_MAP"})
+    public String representation;
+
+    @Param({"2", "8"})
+    public int entries;
+
+    private Map<?, ?>[] labels;
+    private Map<?, ?>[] annotations;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        long before = usedHeap();
+
+        labels = new Map<?, ?>[INSTANCES];
+        annotations = new Map<?, ?>[INSTANCES];
+        for (int i = 0; i < INSTANCES; i++) {
+            labels[i] = create(i);
+            annotations[i] = create(i + 1);
+        }
+
+        long after = usedHeap();
+        System.out.printf("%n%s with %d entries: %d bytes per metadata%n",
+                representation, entries, (after - before) / INSTANCES);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        labels = null;
+        annotations = null;
+    }
+
+    private Map<String, String> create(final int seed) {
+        Map<String, String> result = new LinkedHashMap<>();
+        for (int i = 0; i < entries; i++) {
+            result.put(new String(KEYS[i].toCharArray()), VALUES[(seed + i) & (VALUES.length - 1)]);
+        }
+
+        if ("COMPACT_MAP".equals(representation)) {
+            return CompactMap.copyOf(result);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Benchmark
+    public Object lookupLabel() {
+        int index = next;
+        next = (index + 7919) % INSTANCES;
+        return labels[index].get(KEYS[index % entries]);
+    }
+
+    @Benchmark
+    public Object lookupMissingAnnotation() {
+        int index = next;
+        next = (index + 7919) % INSTANCES;
+        return annotations[index].get("missing");
+    }
+}
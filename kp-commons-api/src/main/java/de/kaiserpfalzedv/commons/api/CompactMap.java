@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An immutable map of strings stored as a single sorted array of keys and values.
+ * <p>
+ * Labels and annotations have only a few entries, a hash table needs more memory for its table and entry objects than
+ * for the data. This map holds one array ({@code key, value, key, value, ...}, sorted by key) and looks up keys by a
+ * linear scan for small maps and by binary search for bigger ones. Keys are shared across all maps by a bounded
+ * dictionary, so the same label key is stored once per JVM.
+ * <p>
+ * The map is a normal {@link Map} (equal to any map with the same entries) and is written and read by Jackson as JSON
+ * object. Null keys or values are not allowed.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class CompactMap extends AbstractMap<String, String> implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * The maximum number of keys kept in the dictionary, keys seen later are not shared.
+     */
+    static final int DICTIONARY_SIZE = 4096;
+
+    /**
+     * Maps up to this size are scanned linearly.
+     */
+    private static final int LINEAR_SCAN = 8;
+
+    private static final ConcurrentHashMap<String, String> KEYS = new ConcurrentHashMap<>();
+    private static final CompactMap EMPTY = new CompactMap(new String[0]);
+
+    private final String[] entries;
+    private transient int hash;
+    private transient Set<Entry<String, String>> entrySet;
+
+    private CompactMap(final String[] entries) {
+        this.entries = entries;
+    }
+
+    /**
+     * @return the empty map.
+     */
+    public static CompactMap of() {
+        return EMPTY;
+    }
+
+    /**
+     * @param map the entries of the map.
+     * @return an immutable copy of the map (the map itself if it is a compact map already).
+     * @throws NullPointerException if a key or value is null.
+     */
+    @JsonCreator(mode = JsonCreator.Mode.DELEGATING)
+    public static CompactMap copyOf(final Map<String, String> map) {
+        if (map instanceof CompactMap) {
+            return (CompactMap) map;
+        }
+        return builder().putAll(map).build();
+    }
+
+    /**
+     * @return a builder for a compact map.
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return the shared instance of the key.
+     */
+    static String dictionary(final String key) {
+        String result = KEYS.get(key);
+        if (result != null) {
+            return result;
+        }
+
+        if (KEYS.size() >= DICTIONARY_SIZE) {
+            return key;
+        }
+        result = KEYS.putIfAbsent(key, key);
+        return result != null ? result : key;
+    }
+
+    /**
+     * @return the index of the key within {@link #entries} or -1.
+     */
+    private int indexOf(final Object key) {
+        int size = entries.length >>> 1;
+
+        if (size <= LINEAR_SCAN) {
+            for (int i = 0; i < entries.length; i += 2) {
+                if (entries[i] == key || entries[i].equals(key)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        if (!(key instanceof String)) {
+            return -1;
+        }
+
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int result = entries[middle << 1].compareTo((String) key);
+
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle << 1;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public String get(final Object key) {
+        int index = indexOf(key);
+        return index >= 0 ? entries[index + 1] : null;
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public int size() {
+        return entries.length >>> 1;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entries.length == 0;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet() {
+        Set<Entry<String, String>> result = entrySet;
+        if (result == null) {
+            result = new EntrySet();
+            entrySet = result;
+        }
+        return result;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (o instanceof CompactMap) {
+            return Arrays.equals(entries, ((CompactMap) o).entries);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = hash;
+        if (result == 0) {
+            for (int i = 0; i < entries.length; i += 2) {
+                result += entries[i].hashCode() ^ entries[i + 1].hashCode();
+            }
+            hash = result;
+        }
+        return result;
+    }
+
+    /**
+     * Shares the keys with the dictionary after deserialization.
+     */
+    private Object readResolve() {
+        if (entries.length == 0) {
+            return EMPTY;
+        }
+
+        for (int i = 0; i < entries.length; i += 2) {
+            entries[i] = dictionary(entries[i]);
+        }
+        return this;
+    }
+
+    private final class EntrySet extends AbstractSet<Entry<String, String>> {
+        @Override
+        public Iterator<Entry<String, String>> iterator() {
+            return new Iterator<>() {
+                private int index = 0;
+
+                @Override
+                public boolean hasNext() {
+                    return index < entries.length;
+                }
+
+                @Override
+                public Entry<String, String> next() {
+                    if (index >= entries.length) {
+                        throw new NoSuchElementException();
+                    }
+
+                    Entry<String, String> result = new SimpleImmutableEntry<>(entries[index], entries[index + 1]);
+                    index += 2;
+                    return result;
+                }
+            };
+        }
+
+        @Override
+        public int size() {
+            return entries.length >>> 1;
+        }
+    }
+
+    /**
+     * Collects the entries of a compact map. Later entries replace earlier ones with the same key.
+     */
+    public static final class Builder {
+        private final TreeMap<String, String> entries = new TreeMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * @param key   the key of the entry.
+         * @param value the value of the entry.
+         * @return this builder.
+         * @throws NullPointerException if the key or value is null.
+         */
+        public Builder put(final String key, final String value) {
+            entries.put(Objects.requireNonNull(key, "key"), Objects.requireNonNull(value, "value"));
+            return this;
+        }
+
+        /**
+         * @param map the entries to add.
+         * @return this builder.
+         * @throws NullPointerException if a key or value is null.
+         */
+        public Builder putAll(final Map<String, String> map) {
+            for (Entry<String, String> entry : map.entrySet()) {
+                put(entry.getKey(), entry.getValue());
+            }
+            return this;
+        }
+
+        /**
+         * @return the immutable map of the entries added.
+         */
+        public CompactMap build() {
+            if (entries.isEmpty()) {
+                return EMPTY;
+            }
+
+            String[] result = new String[entries.size() << 1];
+            int index = 0;
+            for (Entry<String, String> entry : entries.entrySet()) {
+                result[index++] = dictionary(entry.getKey());
+                result[index++] = entry.getValue();
+            }
+            return new CompactMap(result);
+        }
+    }
+}
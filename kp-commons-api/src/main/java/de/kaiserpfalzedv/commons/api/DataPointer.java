@@ -33,4 +33,8 @@ import org.immutables.value.Value;
 @JsonSerialize
 @JsonDeserialize
 public interface DataPointer extends DataObject {
+    /**
+     * Copied into the generated immutable, so the serialized form does not change with the attributes.
+     */
+    long serialVersionUID = 1L;
 }
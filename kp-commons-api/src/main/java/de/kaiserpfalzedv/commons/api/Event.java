@@ -35,4 +35,8 @@ import java.io.Serializable;
 @JsonSerialize
 @JsonDeserialize
 public interface Event extends DataSet<Serializable> {
+    /**
+     * Copied into the generated immutable, so the serialized form does not change with the attributes.
+     */
+    long serialVersionUID = 1L;
 }
@@ -25,9 +25,8 @@ import de.kaiserpfalzedv.commons.version.Version;
 import org.immutables.value.Value;
 
 import java.io.Serializable;
-import java.net.URL;
+import java.net.URI;
 import java.time.OffsetDateTime;
-import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -44,6 +43,11 @@ import java.util.UUID;
 @JsonDeserialize
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public interface Metadata extends Serializable {
+    /**
+     * Copied into the generated immutable, so the serialized form does not change with the attributes.
+     */
+    long serialVersionUID = 1L;
+
     String kind();
     Version apiVersion();
 
@@ -68,9 +72,12 @@ public interface Metadata extends Serializable {
     Optional<Version> version();
 
     /**
+     * The URL is kept as {@link URI}: {@link java.net.URL#equals(Object)} and {@link java.net.URL#hashCode()} resolve
+     * the host name, so comparing or hashing the metadata could block on DNS. The JSON form (a string) is the same.
+     *
      * @return the authoritative URL for this dataset
      */
-    Optional<URL> url();
+    Optional<URI> url();
 
     /**
      * The dataset may be part of another one or "owned" by another dataset.
@@ -96,11 +103,15 @@ public interface Metadata extends Serializable {
     Optional<OffsetDateTime> deleted();
 
     /**
-     * Technical annotations to this dataset.
+     * Technical annotations to this dataset. Like the labels they are kept as {@link CompactMap}, which is created by
+     * {@link CompactMap#builder()} or {@link CompactMap#copyOf(java.util.Map)}.
      *
      * @return the annotations of this dataset in an immutable map
      */
-    Map<String, String> annotations();
+    @Value.Default
+    default CompactMap annotations() {
+        return CompactMap.of();
+    }
 
     /**
      * Every dataset can be labeled. These labels are free purpose for other
@@ -108,5 +119,8 @@ public interface Metadata extends Serializable {
      *
      * @return the labels of the dataset in an immutable map
      */
-    Map<String, String> labels();
+    @Value.Default
+    default CompactMap labels() {
+        return CompactMap.of();
+    }
 }
@@ -40,6 +40,11 @@ import java.util.UUID;
 @JsonSerialize
 @JsonDeserialize
 public interface State extends Serializable {
+    /**
+     * Copied into the generated immutable, so the serialized form does not change with the attributes.
+     */
+    long serialVersionUID = 1L;
+
     /**
      * The object got created.
      */
@@ -28,6 +28,7 @@ import org.immutables.value.Value;
 
 import java.beans.Transient;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
 import java.util.Optional;
 
 /**
@@ -44,13 +45,47 @@ import java.util.Optional;
 @JsonDeserialize
 @JsonInclude(JsonInclude.Include.NON_EMPTY)
 public interface Version extends Serializable {
+    /**
+     * Copied into the generated immutable, so the serialized form does not change with the attributes.
+     */
+    long serialVersionUID = 1L;
+
     static Version from(final Version orig) {
         return VersionImmutable.copyOf(orig);
     }
 
     static Version from(final String version, final VersionType type) {
-        Semver semver = new Semver(version, Semver.SemverType.valueOf(type.name()));
+        return from(new Semver(version, Semver.SemverType.valueOf(type.name())));
+    }
 
+    /**
+     * Parses a version from UTF-8 (or ASCII) encoded bytes without decoding them into a string first.
+     *
+     * @param data   the data containing the version.
+     * @param offset the index of the first byte of the version.
+     * @param length the number of bytes of the version.
+     * @param type   the type of the version.
+     * @return the version.
+     */
+    static Version from(final byte[] data, final int offset, final int length, final VersionType type) {
+        return from(new Semver(data, offset, length, Semver.SemverType.valueOf(type.name())));
+    }
+
+    /**
+     * Parses a version from an UTF-8 (or ASCII) encoded buffer without decoding it into a string first. The position
+     * of the buffer is not changed.
+     *
+     * @param data   the buffer containing the version.
+     * @param offset the absolute index of the first byte of the version within the buffer.
+     * @param length the number of bytes of the version.
+     * @param type   the type of the version.
+     * @return the version.
+     */
+    static Version from(final ByteBuffer data, final int offset, final int length, final VersionType type) {
+        return from(new Semver(data, offset, length, Semver.SemverType.valueOf(type.name())));
+    }
+
+    private static Version from(final Semver semver) {
         VersionImmutable.Builder result = VersionImmutable.builder()
                 .major(semver.getMajor());
 
@@ -66,6 +101,10 @@ public interface Version extends Serializable {
         if (semver.getBuild() != null)
             result.build(semver.getBuild());
 
+        // the maven ordering differs from the default (loose) one
+        if (semver.getType() == Semver.SemverType.MAVEN)
+            result.type(VersionType.MAVEN);
+
         return result.build();
     }
 
@@ -101,7 +140,7 @@ public interface Version extends Serializable {
 
     @Transient
     @JsonIgnore
-    @Value.Default
+    @Value.Lazy
     default String value() {
         return semver().getValue();
     }
@@ -116,7 +155,7 @@ public interface Version extends Serializable {
     @Transient
     @JsonIgnore
     @Deprecated
-    @Value.Default
+    @Value.Lazy
     default Semver semver() {
         return Semver.create(Semver.SemverType.valueOf(type().orElse(VersionType.LOOSE).name()),
                              major(), minor().orElse(null), patch().orElse(null),
@@ -223,6 +262,10 @@ public interface Version extends Serializable {
     @JsonIgnore
     @Value.Default
     default boolean isStable() {
+        if (type().isPresent() && type().get() == VersionType.MAVEN) {
+            // maven qualifiers like "Final" or "sp1" are stable
+            return semver().isStable();
+        }
         return major() > 0 && suffixes().isEmpty();
     }
 
@@ -288,7 +331,14 @@ public interface Version extends Serializable {
          * Supports dynamic parts (eg: 4.2.+) and ranges
          * See http://ant.apache.org/ivy/history/latest-milestone/ivyfile/dependency.html
          */
-        IVY
+        IVY,
+
+        /**
+         * Follows the rules of Maven (ComparableVersion).
+         * Supports qualifiers (eg: 1.0-SNAPSHOT, 2.0-M1, 1.0.Final) and ranges (eg: [1.0,2.0))
+         * See https://maven.apache.org/pom.html#Version_Order_Specification
+         */
+        MAVEN
     }
 
     /**
@@ -25,6 +25,8 @@
 package de.kaiserpfalzedv.commons.version;
 
 public class VersionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
     public VersionException(final String msg) {
         super(msg);
     }
@@ -0,0 +1,328 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import de.kaiserpfalzedv.commons.version.VersionException;
+import de.kaiserpfalzedv.commons.version.semver.CanonicalRequirement;
+import de.kaiserpfalzedv.commons.version.semver.CompiledRequirement;
+import de.kaiserpfalzedv.commons.version.semver.Requirement;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads the NPM requirements of {@code package.json}, {@code package-lock.json} (lockfile version 1 to 3) and
+ * {@code yarn.lock} files without loading the whole file.
+ * <p>
+ * JSON files are read with the Jackson streaming parser, {@code yarn.lock} files line by line. Every dependency is
+ * reported to a {@link Listener} as pair of package name and requirement. The requirements are kept within a bounded
+ * LRU cache: the same requirement string yields the same instance and requirements with the same
+ * {@link CanonicalRequirement canonical form} share a single instance, so the compiled form is shared, too. The memory
+ * used does not depend on the size of the file.
+ * <p>
+ * Specifications that are no version ranges (git or file URLs, tags, workspace references) are reported as invalid.
+ * A reader is not thread safe, but may be used for any number of files.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class DependencyReader {
+    public static final int DEFAULT_CACHE_SIZE = 4096;
+
+    private static final JsonFactory JSON = new JsonFactory();
+
+    private final Map<String, Requirement> requirements;
+    private final Map<CanonicalRequirement, Requirement> canonical;
+
+    public DependencyReader() {
+        this(DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param cacheSize the maximum number of requirements kept in the caches.
+     */
+    public DependencyReader(final int cacheSize) {
+        this.requirements = lru(cacheSize);
+        this.canonical = lru(cacheSize);
+    }
+
+    private static <K, V> Map<K, V> lru(final int size) {
+        return new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<K, V> eldest) {
+                return size() > size;
+            }
+        };
+    }
+
+    /**
+     * Receives the dependencies read.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * @param name        the name of the package depended on.
+         * @param requirement the required versions of the package.
+         */
+        void onDependency(String name, CompiledRequirement requirement);
+
+        /**
+         * @param name          the name of the package depended on.
+         * @param specification the specification that is no version range.
+         */
+        default void onInvalid(final String name, final String specification) {
+        }
+    }
+
+    /**
+     * Reads the dependencies, dev, peer and optional dependencies of a {@code package.json}.
+     *
+     * @param in       the UTF-8 encoded file.
+     * @param listener the listener receiving the dependencies.
+     * @return the number of dependencies reported to {@link Listener#onDependency(String, CompiledRequirement)}.
+     * @throws IOException if the file could not be read or is no valid JSON.
+     */
+    public long readPackageJson(final InputStream in, final Listener listener) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            expectObject(parser);
+
+            long result = 0;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                result += readPackage(parser, listener);
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads the requirements of all packages in a {@code package-lock.json} or {@code npm-shrinkwrap.json}. Version
+     * 1 lockfiles are read from the nested {@code dependencies} ({@code requires} of every package), version 2 and 3
+     * lockfiles from the {@code packages} (the legacy section of version 2 is skipped).
+     *
+     * @param in       the UTF-8 encoded file.
+     * @param listener the listener receiving the dependencies.
+     * @return the number of dependencies reported to {@link Listener#onDependency(String, CompiledRequirement)}.
+     * @throws IOException if the file could not be read or is no valid JSON.
+     */
+    public long readPackageLock(final InputStream in, final Listener listener) throws IOException {
+        try (JsonParser parser = JSON.createParser(in)) {
+            expectObject(parser);
+
+            long result = 0;
+            boolean modern = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("lockfileVersion".equals(field) && value == JsonToken.VALUE_NUMBER_INT) {
+                    modern |= parser.getIntValue() >= 2;
+                } else if ("packages".equals(field) && value == JsonToken.START_OBJECT) {
+                    modern = true;
+                    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                        if (parser.nextToken() == JsonToken.START_OBJECT) {
+                            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                                result += readPackage(parser, listener);
+                            }
+                        } else {
+                            parser.skipChildren();
+                        }
+                    }
+                } else if ("dependencies".equals(field) && value == JsonToken.START_OBJECT && !modern) {
+                    result += readLegacyDependencies(parser, listener);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            return result;
+        }
+    }
+
+    /**
+     * Reads the requirements of a {@code yarn.lock} (classic and berry format). Every entry of the lockfile is keyed
+     * by the requirements it has been resolved for, these requirements are reported. So every distinct requirement of
+     * the project is reported once.
+     *
+     * @param in       the UTF-8 encoded file.
+     * @param listener the listener receiving the dependencies.
+     * @return the number of dependencies reported to {@link Listener#onDependency(String, CompiledRequirement)}.
+     * @throws IOException if the file could not be read.
+     */
+    public long readYarnLock(final InputStream in, final Listener listener) throws IOException {
+        return readYarnLock(new InputStreamReader(in, StandardCharsets.UTF_8), listener);
+    }
+
+    /**
+     * @see #readYarnLock(InputStream, Listener)
+     */
+    public long readYarnLock(final Reader in, final Listener listener) throws IOException {
+        BufferedReader reader = in instanceof BufferedReader ? (BufferedReader) in : new BufferedReader(in);
+
+        long result = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty() || line.charAt(0) == '#' || Character.isWhitespace(line.charAt(0)) || !line.endsWith(":")) {
+                continue;
+            }
+
+            // "@babel/code-frame@^7.0.0", "@babel/code-frame@^7.10.4":
+            String header = line.substring(0, line.length() - 1);
+            int start = 0;
+            while (start < header.length()) {
+                int end = header.indexOf(',', start);
+                if (end < 0) {
+                    end = header.length();
+                }
+
+                String specification = unquote(header.substring(start, end).trim());
+                int at = specification.indexOf('@', 1);
+                if (at > 0) {
+                    result += report(specification.substring(0, at), specification.substring(at + 1), listener);
+                }
+                start = end + 1;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the cached requirement for a NPM specification.
+     *
+     * @param specification the specification (like {@code ^1.2.0} or {@code npm:other@^1.2.0}).
+     * @return the requirement or null if the specification is no version range.
+     */
+    public Requirement requirement(final String specification) {
+        Requirement result = requirements.get(specification);
+        if (result != null) {
+            return result;
+        }
+
+        String range = specification.trim();
+        if (range.startsWith("npm:")) {
+            // alias: npm:other-package@^1.2.0 (yarn berry: npm:^1.2.0)
+            range = range.substring(4);
+            int at = range.lastIndexOf('@');
+            if (at > 0) {
+                range = range.substring(at + 1);
+            }
+        }
+        if (range.indexOf(':') >= 0 || range.indexOf('/') >= 0) {
+            return null;
+        }
+
+        try {
+            result = Requirement.buildNPM(range);
+        } catch (VersionException e) {
+            return null;
+        }
+
+        Requirement shared = canonical.putIfAbsent(result.canonicalize(), result);
+        if (shared != null) {
+            result = shared;
+        }
+        requirements.put(specification, result);
+        return result;
+    }
+
+    private long readPackage(final JsonParser parser, final Listener listener) throws IOException {
+        String field = parser.getCurrentName();
+        JsonToken value = parser.nextToken();
+
+        if (value == JsonToken.START_OBJECT && isDependencySection(field)) {
+            return readDependencies(parser, listener);
+        }
+
+        parser.skipChildren();
+        return 0;
+    }
+
+    private long readDependencies(final JsonParser parser, final Listener listener) throws IOException {
+        long result = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            if (parser.nextToken() == JsonToken.VALUE_STRING) {
+                result += report(name, parser.getText(), listener);
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return result;
+    }
+
+    private long readLegacyDependencies(final JsonParser parser, final Listener listener) throws IOException {
+        long result = 0;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+
+                if ("requires".equals(field) && value == JsonToken.START_OBJECT) {
+                    result += readDependencies(parser, listener);
+                } else if ("dependencies".equals(field) && value == JsonToken.START_OBJECT) {
+                    result += readLegacyDependencies(parser, listener);
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return result;
+    }
+
+    private int report(final String name, final String specification, final Listener listener) {
+        Requirement requirement = requirement(specification);
+        if (requirement == null) {
+            listener.onInvalid(name, specification);
+            return 0;
+        }
+
+        listener.onDependency(name, requirement.compile());
+        return 1;
+    }
+
+    private static boolean isDependencySection(final String field) {
+        return "dependencies".equals(field)
+                || "devDependencies".equals(field)
+                || "peerDependencies".equals(field)
+                || "optionalDependencies".equals(field);
+    }
+
+    private static void expectObject(final JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IOException("Expected a JSON object at " + parser.getCurrentLocation());
+        }
+    }
+
+    private static String unquote(final String text) {
+        if (text.length() >= 2 && text.charAt(0) == '"' && text.charAt(text.length() - 1) == '"') {
+            return text.substring(1, text.length() - 1);
+        }
+        return text;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.semver.Semver;
+import de.kaiserpfalzedv.commons.version.semver.VersionKey;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Compares two snapshots of resolved dependencies in a single merge pass.
+ * <p>
+ * Both snapshots have to be sorted by package name. A package may be resolved to more than one version, these
+ * entries have to follow each other, their order does not matter. Only the entries of a single package are held in
+ * memory, so snapshots of any size can be compared while they are read. Unchanged versions are matched first, the
+ * remaining versions are paired in ascending order and reported as upgrade or downgrade; surplus versions are reported
+ * as added or removed. The difference is classified on the {@link VersionKey packed keys} and only versions of the
+ * same core are compared with {@link Semver#diff(Semver)}.
+ *
+ * <pre>
+ *     long changes = LockfileDiff.diff(before.iterator(), after.iterator(), listener);
+ * </pre>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class LockfileDiff {
+    private static final Comparator<ResolvedDependency> VERSION_ORDER = Comparator
+            .comparingLong(ResolvedDependency::getKey)
+            .thenComparing(ResolvedDependency::getVersion);
+
+    private LockfileDiff() {
+        // utility class
+    }
+
+    /**
+     * Receives the differences found.
+     */
+    public interface Listener {
+        default void onAdded(final ResolvedDependency dependency) {
+        }
+
+        default void onRemoved(final ResolvedDependency dependency) {
+        }
+
+        /**
+         * Versions of the same precedence with a different build are reported as upgrade with the difference
+         * {@link Semver.VersionDiff#BUILD}.
+         */
+        default void onUpgraded(final ResolvedDependency before, final ResolvedDependency after, final Semver.VersionDiff diff) {
+        }
+
+        default void onDowngraded(final ResolvedDependency before, final ResolvedDependency after, final Semver.VersionDiff diff) {
+        }
+    }
+
+    /**
+     * @see #diff(Iterator, Iterator, Listener)
+     */
+    public static long diff(final Stream<ResolvedDependency> before, final Stream<ResolvedDependency> after,
+                            final Listener listener) {
+        return diff(before.iterator(), after.iterator(), listener);
+    }
+
+    /**
+     * @param before   the old snapshot, sorted by package name.
+     * @param after    the new snapshot, sorted by package name.
+     * @param listener the listener receiving the differences.
+     * @return the number of differences reported.
+     * @throws IllegalArgumentException if a snapshot is not sorted by package name.
+     */
+    public static long diff(final Iterator<ResolvedDependency> before, final Iterator<ResolvedDependency> after,
+                            final Listener listener) {
+        List<ResolvedDependency> old = new ArrayList<>();
+        List<ResolvedDependency> current = new ArrayList<>();
+
+        ResolvedDependency left = next(before, null);
+        ResolvedDependency right = next(after, null);
+
+        long result = 0;
+        while (left != null || right != null) {
+            String name;
+            if (left == null) {
+                name = right.getName();
+            } else if (right == null || left.getName().compareTo(right.getName()) <= 0) {
+                name = left.getName();
+            } else {
+                name = right.getName();
+            }
+
+            old.clear();
+            while (left != null && left.getName().equals(name)) {
+                old.add(left);
+                left = next(before, left);
+            }
+            current.clear();
+            while (right != null && right.getName().equals(name)) {
+                current.add(right);
+                right = next(after, right);
+            }
+
+            result += compare(old, current, listener);
+        }
+        return result;
+    }
+
+    private static ResolvedDependency next(final Iterator<ResolvedDependency> snapshot, final ResolvedDependency previous) {
+        if (!snapshot.hasNext()) {
+            return null;
+        }
+
+        ResolvedDependency result = snapshot.next();
+        if (previous != null && result.getName().compareTo(previous.getName()) < 0) {
+            throw new IllegalArgumentException("Snapshot is not sorted by name: " + result + " follows " + previous);
+        }
+        return result;
+    }
+
+    private static int compare(final List<ResolvedDependency> before, final List<ResolvedDependency> after,
+                               final Listener listener) {
+        if (before.size() == 1 && after.size() == 1) {
+            // the common case: a single version on both sides.
+            return change(before.get(0), after.get(0), listener);
+        }
+
+        for (int i = before.size() - 1; i >= 0; i--) {
+            if (after.remove(before.get(i))) {
+                before.remove(i);
+            }
+        }
+        before.sort(VERSION_ORDER);
+        after.sort(VERSION_ORDER);
+
+        int result = 0;
+        int paired = Math.min(before.size(), after.size());
+        for (int i = 0; i < paired; i++) {
+            result += change(before.get(i), after.get(i), listener);
+        }
+        for (int i = paired; i < before.size(); i++) {
+            listener.onRemoved(before.get(i));
+            result++;
+        }
+        for (int i = paired; i < after.size(); i++) {
+            listener.onAdded(after.get(i));
+            result++;
+        }
+        return result;
+    }
+
+    private static int change(final ResolvedDependency before, final ResolvedDependency after, final Listener listener) {
+        long oldKey = before.getKey();
+        long newKey = after.getKey();
+
+        Semver.VersionDiff diff;
+        int order;
+        if (oldKey != newKey && oldKey != VersionKey.INVALID && newKey != VersionKey.INVALID) {
+            diff = VersionKey.diff(oldKey, newKey);
+            order = Long.compare(newKey, oldKey);
+        } else if (before.getVersion().equals(after.getVersion())) {
+            return 0;
+        } else {
+            diff = before.getVersion().diff(after.getVersion());
+            order = after.getVersion().compareTo(before.getVersion());
+        }
+
+        if (order < 0) {
+            listener.onDowngraded(before, after, diff);
+        } else {
+            listener.onUpgraded(before, after, diff);
+        }
+        return 1;
+    }
+}
@@ -0,0 +1,401 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.semver.Requirement;
+import de.kaiserpfalzedv.commons.version.semver.Semver;
+import de.kaiserpfalzedv.commons.version.semver.VersionKey;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * The published versions of many packages within a single file that is mapped into memory.
+ * <p>
+ * Opening a catalog only maps the file, nothing is parsed. Packages are found by binary search within the sorted
+ * package table, versions by binary search within the sorted {@link VersionKey packed keys} of the package, so
+ * {@link #maxSatisfying(String, Requirement)} and {@link #scan(String, Requirement, Consumer)} only read the part of
+ * the file they need and only create the versions they return. The pages of the file are shared by all JVMs on the
+ * host mapping the same file.
+ * <p>
+ * File format (big endian):
+ * <pre>
+ *     header:   int magic, int format, int packages, int versions,
+ *               long package table offset, long version table offset, long string pool offset, long string pool length
+ *     packages: int name offset, int name length, int first version, int version count  (sorted by UTF-8 name)
+ *     versions: long key, int suffix offset, int suffix length  (sorted by precedence within every package)
+ *     strings:  UTF-8 encoded package names and prerelease suffixes (shared by all versions using them)
+ * </pre>
+ * Builds are not stored. Versions that can not be packed (like maven versions) are not written. A file is limited to
+ * 2 GiB, larger sets of packages have to be split into several files. A catalog is immutable and thread safe.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class MappedVersionCatalog {
+    public static final int MAGIC = 0x4B505643; // "KPVC"
+    public static final int FORMAT = 1;
+
+    private static final int HEADER_SIZE = 48;
+    private static final int PACKAGE_SIZE = 16;
+    private static final int VERSION_SIZE = 16;
+
+    private static final Comparator<Semver> PRECEDENCE = Comparator
+            .comparingLong((Semver version) -> VersionKey.of(version))
+            .thenComparing(Comparator.naturalOrder());
+
+    private final ByteBuffer data;
+    private final int packages;
+    private final int packageTable;
+    private final int versionTable;
+    private final int strings;
+
+    private MappedVersionCatalog(final ByteBuffer data) throws IOException {
+        if (data.capacity() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new IOException("No version catalog.");
+        }
+        if (data.getInt(4) != FORMAT) {
+            throw new IOException("Unsupported catalog format: " + data.getInt(4));
+        }
+
+        this.data = data;
+        this.packages = data.getInt(8);
+        this.packageTable = (int) data.getLong(16);
+        this.versionTable = (int) data.getLong(24);
+        this.strings = (int) data.getLong(32);
+
+        if ((long) strings + data.getLong(40) > data.capacity()) {
+            throw new IOException("Version catalog is truncated.");
+        }
+    }
+
+    /**
+     * Maps a catalog file into memory. The file must not be changed while it is mapped, replace it instead (like
+     * {@link #write(Path, Map)} does).
+     *
+     * @param file the catalog file.
+     * @return the catalog.
+     * @throws IOException if the file could not be mapped or is no catalog.
+     */
+    public static MappedVersionCatalog open(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Version catalog is too big: " + file);
+            }
+            return new MappedVersionCatalog(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /**
+     * Writes a catalog file. The file is written next to the target and moved into place, so catalogs already mapped
+     * keep their (old) content.
+     *
+     * @param file     the catalog file.
+     * @param packages the versions by package name.
+     * @throws IOException if the file could not be written or the catalog would be too big.
+     */
+    public static void write(final Path file, final Map<String, ? extends Collection<Semver>> packages) throws IOException {
+        List<String> names = new ArrayList<>(packages.keySet());
+        Map<String, byte[]> encoded = new HashMap<>();
+        for (String name : names) {
+            encoded.put(name, name.getBytes(StandardCharsets.UTF_8));
+        }
+        names.sort((name1, name2) -> Arrays.compareUnsigned(encoded.get(name1), encoded.get(name2)));
+
+        StringPool pool = new StringPool();
+        int[] packageTable = new int[names.size() * 4];
+        List<long[]> versions = new ArrayList<>(names.size());
+        int count = 0;
+
+        for (int i = 0; i < names.size(); i++) {
+            String name = names.get(i);
+            List<Semver> sorted = new ArrayList<>();
+            for (Semver version : packages.get(name)) {
+                if (VersionKey.of(version) != VersionKey.INVALID) {
+                    sorted.add(version);
+                }
+            }
+            sorted.sort(PRECEDENCE);
+
+            long[] records = new long[sorted.size() * 2];
+            int size = 0;
+            for (Semver version : sorted) {
+                long key = VersionKey.of(version);
+                String suffix = String.join(".", version.getSuffixTokens());
+                long reference = suffix.isEmpty() ? -1L << 32 : pool.add(suffix.getBytes(StandardCharsets.UTF_8));
+
+                if (size > 0 && records[2 * size - 2] == key && records[2 * size - 1] == reference) {
+                    // same version with another build
+                    continue;
+                }
+                records[2 * size] = key;
+                records[2 * size + 1] = reference;
+                size++;
+            }
+            versions.add(Arrays.copyOf(records, 2 * size));
+
+            long reference = pool.add(encoded.get(name));
+            packageTable[4 * i] = (int) (reference >> 32);
+            packageTable[4 * i + 1] = (int) reference;
+            packageTable[4 * i + 2] = count;
+            packageTable[4 * i + 3] = size;
+            count += size;
+        }
+
+        long versionTable = HEADER_SIZE + (long) names.size() * PACKAGE_SIZE;
+        long stringTable = versionTable + (long) count * VERSION_SIZE;
+        if (stringTable + pool.size() > Integer.MAX_VALUE) {
+            throw new IOException("Version catalog is too big, split the packages into several files.");
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temporary), 1 << 16))) {
+                out.writeInt(MAGIC);
+                out.writeInt(FORMAT);
+                out.writeInt(names.size());
+                out.writeInt(count);
+                out.writeLong(HEADER_SIZE);
+                out.writeLong(versionTable);
+                out.writeLong(stringTable);
+                out.writeLong(pool.size());
+
+                for (int value : packageTable) {
+                    out.writeInt(value);
+                }
+                for (long[] records : versions) {
+                    for (int i = 0; i < records.length; i += 2) {
+                        out.writeLong(records[i]);
+                        out.writeInt((int) (records[i + 1] >> 32));
+                        out.writeInt((int) records[i + 1]);
+                    }
+                }
+                pool.writeTo(out);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    /**
+     * @return the number of packages within the catalog.
+     */
+    public int size() {
+        return packages;
+    }
+
+    /**
+     * @param name the name of the package.
+     * @return true if the catalog contains the package.
+     */
+    public boolean contains(final String name) {
+        return find(name) >= 0;
+    }
+
+    /**
+     * @param name the name of the package.
+     * @return the number of versions of the package (0 if the package is unknown).
+     */
+    public int versionCount(final String name) {
+        int index = find(name);
+        return index >= 0 ? count(index) : 0;
+    }
+
+    /**
+     * @param name the name of the package.
+     * @return the latest release of the package or null.
+     */
+    public Semver latest(final String name) {
+        int index = find(name);
+        if (index < 0) {
+            return null;
+        }
+
+        for (int version = first(index) + count(index) - 1; version >= first(index); version--) {
+            if (VersionKey.isRelease(key(version))) {
+                return version(version);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the greatest version of a package satisfying a requirement. Only the versions within the key intervals
+     * of the {@link Requirement#compile() compiled} requirement are read, starting with the greatest one.
+     *
+     * @param name        the name of the package.
+     * @param requirement the requirement to satisfy.
+     * @return the greatest satisfying version or null.
+     */
+    public Semver maxSatisfying(final String name, final Requirement requirement) {
+        int index = find(name);
+        if (index < 0) {
+            return null;
+        }
+
+        int from = first(index);
+        Semver[] result = {null};
+        requirement.compile().walk(from, from + count(index), this::key, this::version, true, version -> {
+            result[0] = version(version);
+            return false;
+        });
+        return result[0];
+    }
+
+    /**
+     * Passes all versions of a package satisfying a requirement in ascending order to a consumer.
+     *
+     * @param name        the name of the package.
+     * @param requirement the requirement to satisfy.
+     * @param consumer    the consumer of the satisfying versions.
+     * @return the number of satisfying versions.
+     */
+    public long scan(final String name, final Requirement requirement, final Consumer<Semver> consumer) {
+        int index = find(name);
+        if (index < 0) {
+            return 0;
+        }
+
+        int from = first(index);
+        return requirement.compile().walk(from, from + count(index), this::key, this::version, false, version -> {
+            consumer.accept(version(version));
+            return true;
+        });
+    }
+
+    /**
+     * @return the index of the package or -1.
+     */
+    private int find(final String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+
+        int low = 0;
+        int high = packages - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int result = compareName(middle, bytes);
+
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    private int compareName(final int index, final byte[] name) {
+        int offset = strings + data.getInt(packageTable + index * PACKAGE_SIZE);
+        int length = data.getInt(packageTable + index * PACKAGE_SIZE + 4);
+
+        for (int i = 0; i < length && i < name.length; i++) {
+            int result = Byte.toUnsignedInt(data.get(offset + i)) - Byte.toUnsignedInt(name[i]);
+            if (result != 0) {
+                return result;
+            }
+        }
+        return length - name.length;
+    }
+
+    private int first(final int index) {
+        return data.getInt(packageTable + index * PACKAGE_SIZE + 8);
+    }
+
+    private int count(final int index) {
+        return data.getInt(packageTable + index * PACKAGE_SIZE + 12);
+    }
+
+    private long key(final int version) {
+        return data.getLong(versionTable + version * VERSION_SIZE);
+    }
+
+    private Semver version(final int version) {
+        long key = key(version);
+        StringBuilder result = new StringBuilder(24)
+                .append(VersionKey.major(key)).append('.')
+                .append(VersionKey.minor(key)).append('.')
+                .append(VersionKey.patch(key));
+
+        int offset = data.getInt(versionTable + version * VERSION_SIZE + 8);
+        int length = data.getInt(versionTable + version * VERSION_SIZE + 12);
+        if (offset >= 0) {
+            byte[] suffix = new byte[length];
+            for (int i = 0; i < length; i++) {
+                suffix[i] = data.get(strings + offset + i);
+            }
+            result.append('-').append(new String(suffix, StandardCharsets.UTF_8));
+        }
+        return new Semver(result.toString(), Semver.SemverType.STRICT);
+    }
+
+    @Override
+    public String toString() {
+        return "MappedVersionCatalog[packages=" + packages + "]";
+    }
+
+    /**
+     * Collects the strings of the catalog. Every string is stored once.
+     */
+    private static final class StringPool {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final Map<String, Long> references = new HashMap<>();
+
+        /**
+         * @return the offset (upper 32 bits) and length (lower 32 bits) of the string.
+         */
+        private long add(final byte[] value) {
+            String text = new String(value, StandardCharsets.ISO_8859_1);
+            Long result = references.get(text);
+            if (result == null) {
+                result = ((long) bytes.size() << 32) | value.length;
+                bytes.write(value, 0, value.length);
+                references.put(text, result);
+            }
+            return result;
+        }
+
+        private int size() {
+            return bytes.size();
+        }
+
+        private void writeTo(final DataOutputStream out) throws IOException {
+            bytes.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import de.kaiserpfalzedv.commons.api.Immutable;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.immutables.value.Value;
+
+import java.io.Serializable;
+import java.util.Optional;
+
+/**
+ * The available upgrades of a single dependency, created by the {@link OutdatedReport}.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+@Immutable
+@Value.Immutable
+@JsonSerialize
+@JsonDeserialize
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public interface OutdatedDependency extends Serializable {
+    // copied into the generated immutable like in Version.
+    long serialVersionUID = 1L;
+
+    /**
+     * @return the name of the package.
+     */
+    String name();
+
+    /**
+     * @return the version currently used.
+     */
+    Version current();
+
+    /**
+     * @return the latest release with the same major and minor number (if newer than the current version).
+     */
+    Optional<Version> latestPatch();
+
+    /**
+     * @return the latest release with the same major and a greater minor number (if any).
+     */
+    Optional<Version> latestMinor();
+
+    /**
+     * @return the latest release with a greater major number (if any).
+     */
+    Optional<Version> latestMajor();
+
+    /**
+     * @return the greatest difference between the current version and the latest upgrade.
+     */
+    Version.VersionDiff diff();
+
+    /**
+     * @return the latest upgrade (if any).
+     */
+    @JsonIgnore
+    default Optional<Version> latest() {
+        return latestMajor().or(this::latestMinor).or(this::latestPatch);
+    }
+
+    /**
+     * @return true if there is any upgrade.
+     */
+    @JsonIgnore
+    default boolean isOutdated() {
+        return diff() != Version.VersionDiff.NONE;
+    }
+}
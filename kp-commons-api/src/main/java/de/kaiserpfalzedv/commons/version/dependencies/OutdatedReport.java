@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.Version;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+/**
+ * Computes the available upgrades of many dependencies at once.
+ * <p>
+ * The packages are analyzed in parallel. Every package is looked up within its {@link VersionCatalog} by binary
+ * search, no version of the catalog is compared with the current version one by one. Packages without catalog are
+ * not contained within the result.
+ *
+ * <pre>
+ *     Map&lt;String, OutdatedDependency&gt; report = OutdatedReport.analyze(dependencies, catalogs);
+ *     report.values().stream().filter(OutdatedDependency::isOutdated).forEach(...);
+ * </pre>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class OutdatedReport {
+    private OutdatedReport() {
+        // utility class
+    }
+
+    /**
+     * Analyzes the dependencies within the common fork join pool.
+     *
+     * @param dependencies the current version by package name.
+     * @param catalogs     the catalog by package name.
+     * @return the upgrades by package name.
+     */
+    public static Map<String, OutdatedDependency> analyze(final Map<String, Version> dependencies,
+                                                          final Map<String, VersionCatalog> catalogs) {
+        return dependencies.entrySet().parallelStream()
+                .filter(dependency -> catalogs.containsKey(dependency.getKey()))
+                .map(dependency -> analyze(dependency.getKey(), dependency.getValue(), catalogs.get(dependency.getKey())))
+                .collect(Collectors.toConcurrentMap(OutdatedDependency::name, dependency -> dependency));
+    }
+
+    /**
+     * Analyzes the dependencies within the given pool.
+     *
+     * @param dependencies the current version by package name.
+     * @param catalogs     the catalog by package name.
+     * @param pool         the pool to run the analysis in.
+     * @return the upgrades by package name.
+     * @throws InterruptedException if the thread has been interrupted while waiting for the result.
+     */
+    public static Map<String, OutdatedDependency> analyze(final Map<String, Version> dependencies,
+                                                          final Map<String, VersionCatalog> catalogs,
+                                                          final ForkJoinPool pool) throws InterruptedException {
+        try {
+            return pool.submit(() -> analyze(dependencies, catalogs)).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * @param name    the name of the package.
+     * @param current the version currently used.
+     * @param catalog the published versions of the package.
+     * @return the upgrades of the package.
+     */
+    public static OutdatedDependency analyze(final String name, final Version current, final VersionCatalog catalog) {
+        Optional<Version> patch = Optional.ofNullable(catalog.latestPatch(current));
+        Optional<Version> minor = Optional.ofNullable(catalog.latestMinor(current));
+        Optional<Version> major = Optional.ofNullable(catalog.latestMajor(current));
+
+        return OutdatedDependencyImmutable.builder()
+                .name(name)
+                .current(current)
+                .latestPatch(patch)
+                .latestMinor(minor)
+                .latestMajor(major)
+                .diff(diff(current, patch, minor, major))
+                .build();
+    }
+
+    private static Version.VersionDiff diff(final Version current, final Optional<Version> patch,
+                                            final Optional<Version> minor, final Optional<Version> major) {
+        if (major.isPresent()) {
+            return Version.VersionDiff.MAJOR;
+        }
+        if (minor.isPresent()) {
+            return Version.VersionDiff.MINOR;
+        }
+        if (patch.isPresent()) {
+            // the same core is only an upgrade from a prerelease to its release.
+            return patch.get().patch().equals(current.patch()) ? Version.VersionDiff.SUFFIX : Version.VersionDiff.PATCH;
+        }
+        return Version.VersionDiff.NONE;
+    }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.semver.Semver;
+import de.kaiserpfalzedv.commons.version.semver.VersionKey;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A package resolved to a single version, like an entry of a lockfile. The {@link VersionKey} of the version is
+ * computed once when the entry is created.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class ResolvedDependency implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String name;
+    private final Semver version;
+    private final long key;
+
+    public ResolvedDependency(final String name, final Semver version) {
+        this.name = Objects.requireNonNull(name, "name");
+        this.version = Objects.requireNonNull(version, "version");
+        this.key = VersionKey.of(version);
+    }
+
+    /**
+     * @param name    the name of the package.
+     * @param version the resolved version (parsed as {@link Semver.SemverType#LOOSE}).
+     * @return the resolved dependency.
+     */
+    public static ResolvedDependency of(final String name, final String version) {
+        return new ResolvedDependency(name, new Semver(version, Semver.SemverType.LOOSE));
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Semver getVersion() {
+        return version;
+    }
+
+    /**
+     * @return the packed version or {@link VersionKey#INVALID}.
+     */
+    public long getKey() {
+        return key;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof ResolvedDependency)) return false;
+        ResolvedDependency that = (ResolvedDependency) o;
+        return name.equals(that.name) && version.equals(that.version);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(name, version);
+    }
+
+    @Override
+    public String toString() {
+        return name + "@" + version;
+    }
+}
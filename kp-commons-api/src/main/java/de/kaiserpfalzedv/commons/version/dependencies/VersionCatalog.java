@@ -0,0 +1,387 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.Version;
+import de.kaiserpfalzedv.commons.version.semver.CompiledRequirement;
+import de.kaiserpfalzedv.commons.version.semver.Requirement;
+import de.kaiserpfalzedv.commons.version.semver.Semver;
+import de.kaiserpfalzedv.commons.version.semver.VersionKey;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * The published versions of a single package, sorted once so that upgrade candidates are found by binary search.
+ * <p>
+ * Every version is packed into a {@link VersionKey}. The latest release below a key limit is found within the sorted
+ * release keys, so the latest patch, minor and major upgrade of a version need three binary searches instead of
+ * comparing the version with every entry of the catalog. Versions that can not be packed (missing minor or patch
+ * number, numbers too big for the key, maven versions) are ignored. A catalog is immutable and thread safe.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class VersionCatalog {
+    private static final Comparator<Entry> ORDER = Comparator
+            .comparingLong((Entry entry) -> entry.key)
+            .thenComparing(entry -> entry.semver);
+
+    private static final VersionCatalog EMPTY = new VersionCatalog(new Version[0], new Semver[0], new long[0]);
+
+    /**
+     * All versions in ascending order.
+     */
+    private final Version[] versions;
+    private final Semver[] semvers;
+    private final long[] keys;
+
+    /**
+     * The indexes of the releases within {@link #versions} and their keys.
+     */
+    private final int[] releases;
+    private final long[] releaseKeys;
+
+    private VersionCatalog(final Version[] versions, final Semver[] semvers, final long[] keys) {
+        this.versions = versions;
+        this.semvers = semvers;
+        this.keys = keys;
+
+        int count = 0;
+        for (long key : keys) {
+            if (VersionKey.isRelease(key)) {
+                count++;
+            }
+        }
+
+        releases = new int[count];
+        releaseKeys = new long[count];
+        for (int i = 0, j = 0; i < keys.length; i++) {
+            if (VersionKey.isRelease(keys[i])) {
+                releases[j] = i;
+                releaseKeys[j++] = keys[i];
+            }
+        }
+    }
+
+    /**
+     * @return a catalog without any version.
+     */
+    public static VersionCatalog empty() {
+        return EMPTY;
+    }
+
+    /**
+     * @param versions the published versions of the package (in any order).
+     * @return the catalog of the versions.
+     */
+    public static VersionCatalog of(final Collection<Version> versions) {
+        List<Entry> entries = new ArrayList<>(versions.size());
+        for (Version version : versions) {
+            long key = key(version);
+            if (key != VersionKey.INVALID) {
+                entries.add(new Entry(key, version));
+            }
+        }
+        entries.sort(ORDER);
+
+        Version[] sorted = new Version[entries.size()];
+        Semver[] semvers = new Semver[entries.size()];
+        long[] keys = new long[entries.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = entries.get(i).version;
+            semvers[i] = entries.get(i).semver;
+            keys[i] = entries.get(i).key;
+        }
+        return new VersionCatalog(sorted, semvers, keys);
+    }
+
+    /**
+     * @param versions the published versions of the package (in any order).
+     * @param type     the type of the versions.
+     * @return the catalog of the versions.
+     */
+    public static VersionCatalog of(final Collection<String> versions, final Version.VersionType type) {
+        List<Version> result = new ArrayList<>(versions.size());
+        for (String version : versions) {
+            result.add(Version.from(version, type));
+        }
+        return of(result);
+    }
+
+    /**
+     * @return the key of a complete version or {@link VersionKey#INVALID}.
+     */
+    static long key(final Version version) {
+        if (version.minor().isEmpty() || version.patch().isEmpty() || isMaven(version)) {
+            return VersionKey.INVALID;
+        }
+
+        return VersionKey.of(version.major(), version.minor().get(), version.patch().get(), version.suffixes().isEmpty());
+    }
+
+    /**
+     * @return the key of a version, missing minor or patch numbers are handled as 0.
+     */
+    private static long coreKey(final Version version) {
+        if (isMaven(version)) {
+            return VersionKey.INVALID;
+        }
+        return VersionKey.of(version.major(), version.minor().orElse(0), version.patch().orElse(0), version.suffixes().isEmpty());
+    }
+
+    private static boolean isMaven(final Version version) {
+        return version.type().isPresent() && version.type().get() == Version.VersionType.MAVEN;
+    }
+
+    public int size() {
+        return versions.length;
+    }
+
+    public boolean isEmpty() {
+        return versions.length == 0;
+    }
+
+    /**
+     * @param index the index of the version (0 is the lowest version).
+     * @return the version.
+     */
+    public Version get(final int index) {
+        return versions[index];
+    }
+
+    /**
+     * @param index the index of the version (0 is the lowest version).
+     * @return the version as semver.
+     */
+    Semver semver(final int index) {
+        return semvers[index];
+    }
+
+    /**
+     * @return all versions in ascending order.
+     */
+    public List<Version> versions() {
+        return Collections.unmodifiableList(Arrays.asList(versions));
+    }
+
+    /**
+     * @return the latest release or null if the catalog contains no release.
+     */
+    public Version latest() {
+        return releases.length > 0 ? versions[releases[releases.length - 1]] : null;
+    }
+
+    /**
+     * @param version the current version.
+     * @return the latest release with the same major and minor number greater than the version or null.
+     */
+    public Version latestPatch(final Version version) {
+        long current = coreKey(version);
+        if (current == VersionKey.INVALID) {
+            return null;
+        }
+
+        int major = VersionKey.major(current);
+        int minor = VersionKey.minor(current);
+        int index = lastRelease(VersionKey.of(major, minor, VersionKey.MAX_PATCH, true));
+        if (index < 0 || releaseKeys[index] <= current || VersionKey.major(releaseKeys[index]) != major
+                || VersionKey.minor(releaseKeys[index]) != minor) {
+            return null;
+        }
+        return versions[releases[index]];
+    }
+
+    /**
+     * @param version the current version.
+     * @return the latest release with the same major and a greater minor number than the version or null.
+     */
+    public Version latestMinor(final Version version) {
+        long current = coreKey(version);
+        if (current == VersionKey.INVALID) {
+            return null;
+        }
+
+        int major = VersionKey.major(current);
+        int index = lastRelease(VersionKey.of(major, VersionKey.MAX_MINOR, VersionKey.MAX_PATCH, true));
+        if (index < 0 || VersionKey.major(releaseKeys[index]) != major
+                || VersionKey.minor(releaseKeys[index]) <= VersionKey.minor(current)) {
+            return null;
+        }
+        return versions[releases[index]];
+    }
+
+    /**
+     * @param version the current version.
+     * @return the latest release with a greater major number than the version or null.
+     */
+    public Version latestMajor(final Version version) {
+        long current = coreKey(version);
+        if (current == VersionKey.INVALID || releaseKeys.length == 0
+                || VersionKey.major(releaseKeys[releaseKeys.length - 1]) <= VersionKey.major(current)) {
+            return null;
+        }
+        return versions[releases[releases.length - 1]];
+    }
+
+    /**
+     * @param version the version to look up.
+     * @return the greatest version of the catalog lower than or equal to the version or null.
+     */
+    public Version floor(final Version version) {
+        int index = search(version);
+        if (index < 0) {
+            index = -index - 2;
+        }
+        return index >= 0 ? versions[index] : null;
+    }
+
+    /**
+     * @param version the version to look up.
+     * @return the lowest version of the catalog greater than or equal to the version or null.
+     */
+    public Version ceiling(final Version version) {
+        int index = search(version);
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return index < versions.length ? versions[index] : null;
+    }
+
+    /**
+     * Returns the greatest version satisfying the requirement. The catalog is scanned from the latest version
+     * downwards, the requirement is compiled once.
+     *
+     * @param requirement the requirement to satisfy.
+     * @return the greatest satisfying version or null.
+     */
+    public Version maxSatisfying(final Requirement requirement) {
+        CompiledRequirement compiled = requirement.compile();
+        for (int i = versions.length - 1; i >= 0; i--) {
+            if (compiled.isSatisfiedBy(semvers[i])) {
+                return versions[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return the set of all versions of the catalog.
+     */
+    public VersionSet all() {
+        return VersionSet.range(this, 0, versions.length);
+    }
+
+    /**
+     * Selects the versions satisfying the requirement. If the requirement can be converted into key intervals, the
+     * versions within the intervals are found by binary search and releases are decided by their key. Only the
+     * prereleases within the intervals are checked against the requirement.
+     *
+     * @param requirement the requirement to satisfy.
+     * @return the set of the satisfying versions.
+     */
+    public VersionSet select(final Requirement requirement) {
+        long[] words = new long[(versions.length + 63) >>> 6];
+        requirement.compile().walk(0, versions.length, version -> keys[version], version -> semvers[version], false,
+                version -> {
+                    words[version >>> 6] |= 1L << version;
+                    return true;
+                });
+        return VersionSet.of(this, words);
+    }
+
+    /**
+     * @return the index of the last release with a key lower than or equal to the limit or -1.
+     */
+    private int lastRelease(final long limit) {
+        int index = Arrays.binarySearch(releaseKeys, limit);
+        if (index < 0) {
+            return -index - 2;
+        }
+
+        while (index + 1 < releaseKeys.length && releaseKeys[index + 1] == limit) {
+            index++;
+        }
+        return index;
+    }
+
+    /**
+     * @return the index of the version or (-(insertion point) - 1) like {@link Arrays#binarySearch(long[], long)}.
+     */
+    private int search(final Version version) {
+        long key = coreKey(version);
+        if (key == VersionKey.INVALID) {
+            // too big for the key (or a maven version, which is never part of the catalog).
+            return -versions.length - 1;
+        }
+
+        // only prereleases with the same key are compared by their semver, which is created at most once.
+        Semver semver = null;
+        int low = 0;
+        int high = versions.length - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+
+            int result = Long.compare(keys[middle], key);
+            if (result == 0 && !VersionKey.isRelease(key)) {
+                if (semver == null) {
+                    semver = semver(version);
+                }
+                result = semvers[middle].compareTo(semver);
+            }
+
+            if (result < 0) {
+                low = middle + 1;
+            } else if (result > 0) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * @return the semver of the version, created like the deprecated {@code Version.semver()} does.
+     */
+    private static Semver semver(final Version version) {
+        Semver.SemverType type = Semver.SemverType.valueOf(version.type().orElse(Version.VersionType.LOOSE).name());
+        return Semver.create(type, version.major(), version.minor().orElse(null), version.patch().orElse(null),
+                version.suffixes().orElse(new String[0]), version.build().orElse(null));
+    }
+
+    @Override
+    public String toString() {
+        return "VersionCatalog" + versions();
+    }
+
+    private static final class Entry {
+        private final long key;
+        private final Version version;
+        private final Semver semver;
+
+        private Entry(final long key, final Version version) {
+            this.key = key;
+            this.version = version;
+            this.semver = semver(version);
+        }
+    }
+}
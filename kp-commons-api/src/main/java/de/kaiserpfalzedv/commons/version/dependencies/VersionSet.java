@@ -0,0 +1,343 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.Version;
+import de.kaiserpfalzedv.commons.version.semver.Semver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.IntConsumer;
+
+/**
+ * A set of versions of a {@link VersionCatalog}, stored as bitmap over the indexes of the versions within the catalog.
+ * <p>
+ * Requirements select connected ranges of the sorted catalog, so only the 64 bit words between the first and the last
+ * selected version are stored. Intersections, unions and differences work word by word on the overlapping words and
+ * the cardinality is counted by {@link Long#bitCount(long)}, combining the requirements of hundreds of dependents
+ * needs no version comparison at all. Sets are created by {@link VersionCatalog#select(de.kaiserpfalzedv.commons.version.semver.Requirement)}
+ * and are immutable. Only sets of the same catalog can be combined.
+ *
+ * <pre>
+ *     VersionSet accepted = catalog.all();
+ *     for (Requirement requirement : dependents) {
+ *         accepted = accepted.and(catalog.select(requirement));
+ *     }
+ *     Semver best = accepted.last();
+ * </pre>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class VersionSet implements Iterable<Semver> {
+    private static final long[] NO_WORDS = new long[0];
+
+    private final VersionCatalog catalog;
+
+    /**
+     * The index of the first stored word: bit {@code i} of {@code words[j]} is the version
+     * {@code (offset + j) * 64 + i} of the catalog.
+     */
+    private final int offset;
+    private final long[] words;
+
+    private VersionSet(final VersionCatalog catalog, final int offset, final long[] words) {
+        this.catalog = catalog;
+        this.offset = offset;
+        this.words = words;
+    }
+
+    /**
+     * Creates the set from a complete bitmap, the empty words at both ends are dropped.
+     */
+    static VersionSet of(final VersionCatalog catalog, final long[] words) {
+        return trim(catalog, 0, words, 0, words.length);
+    }
+
+    /**
+     * @return the set of the versions with an index within [from, to).
+     */
+    static VersionSet range(final VersionCatalog catalog, final int from, final int to) {
+        if (from >= to) {
+            return trim(catalog, 0, NO_WORDS, 0, 0);
+        }
+
+        int first = from >>> 6;
+        int last = (to - 1) >>> 6;
+        long[] words = new long[last - first + 1];
+        Arrays.fill(words, -1L);
+        words[0] &= -1L << from;
+        words[words.length - 1] &= -1L >>> (63 - ((to - 1) & 63));
+        return new VersionSet(catalog, first, words);
+    }
+
+    private static VersionSet trim(final VersionCatalog catalog, final int offset, final long[] words,
+                                   final int from, final int to) {
+        int start = from;
+        int end = to;
+        while (start < end && words[start] == 0L) {
+            start++;
+        }
+        while (end > start && words[end - 1] == 0L) {
+            end--;
+        }
+
+        if (start == end) {
+            return new VersionSet(catalog, 0, NO_WORDS);
+        }
+        if (start == 0 && end == words.length) {
+            return new VersionSet(catalog, offset, words);
+        }
+        return new VersionSet(catalog, offset + start, Arrays.copyOfRange(words, start, end));
+    }
+
+    /**
+     * @return the catalog the indexes refer to.
+     */
+    public VersionCatalog catalog() {
+        return catalog;
+    }
+
+    /**
+     * @param other a set of the same catalog.
+     * @return the versions contained in both sets.
+     */
+    public VersionSet and(final VersionSet other) {
+        checkCatalog(other);
+
+        int from = Math.max(offset, other.offset);
+        int to = Math.min(offset + words.length, other.offset + other.words.length);
+        if (from >= to) {
+            return trim(catalog, 0, NO_WORDS, 0, 0);
+        }
+
+        long[] result = new long[to - from];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = words[from - offset + i] & other.words[from - other.offset + i];
+        }
+        return trim(catalog, from, result, 0, result.length);
+    }
+
+    /**
+     * @param other a set of the same catalog.
+     * @return the versions contained in any of the sets.
+     */
+    public VersionSet or(final VersionSet other) {
+        checkCatalog(other);
+        if (other.words.length == 0) {
+            return this;
+        }
+        if (words.length == 0) {
+            return other;
+        }
+
+        int from = Math.min(offset, other.offset);
+        int to = Math.max(offset + words.length, other.offset + other.words.length);
+
+        long[] result = new long[to - from];
+        System.arraycopy(words, 0, result, offset - from, words.length);
+        for (int i = 0; i < other.words.length; i++) {
+            result[other.offset - from + i] |= other.words[i];
+        }
+        return new VersionSet(catalog, from, result);
+    }
+
+    /**
+     * @param other a set of the same catalog.
+     * @return the versions of this set not contained in the other set.
+     */
+    public VersionSet andNot(final VersionSet other) {
+        checkCatalog(other);
+
+        int from = Math.max(offset, other.offset);
+        int to = Math.min(offset + words.length, other.offset + other.words.length);
+        if (from >= to) {
+            return this;
+        }
+
+        long[] result = words.clone();
+        for (int i = from; i < to; i++) {
+            result[i - offset] &= ~other.words[i - other.offset];
+        }
+        return trim(catalog, offset, result, 0, result.length);
+    }
+
+    /**
+     * Intersects the given sets, starting with the smallest one so the result shrinks as fast as possible.
+     *
+     * @param sets sets of the same catalog.
+     * @return the versions contained in all sets.
+     * @throws IllegalArgumentException if no set is given.
+     */
+    public static VersionSet and(final Collection<VersionSet> sets) {
+        if (sets.isEmpty()) {
+            throw new IllegalArgumentException("At least one version set is needed.");
+        }
+
+        List<VersionSet> sorted = new ArrayList<>(sets);
+        sorted.sort((a, b) -> Integer.compare(a.words.length, b.words.length));
+
+        VersionSet result = sorted.get(0);
+        for (int i = 1; i < sorted.size() && !result.isEmpty(); i++) {
+            result = result.and(sorted.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of versions.
+     */
+    public int cardinality() {
+        int result = 0;
+        for (long word : words) {
+            result += Long.bitCount(word);
+        }
+        return result;
+    }
+
+    public boolean isEmpty() {
+        return words.length == 0;
+    }
+
+    /**
+     * @param index the index of the version within the catalog.
+     * @return true if the version is part of the set.
+     */
+    public boolean contains(final int index) {
+        int word = (index >>> 6) - offset;
+        return index >= 0 && word >= 0 && word < words.length && (words[word] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return the index of the lowest version within the catalog or -1 if the set is empty.
+     */
+    public int firstIndex() {
+        if (words.length == 0) {
+            return -1;
+        }
+        return (offset << 6) + Long.numberOfTrailingZeros(words[0]);
+    }
+
+    /**
+     * @return the index of the greatest version within the catalog or -1 if the set is empty.
+     */
+    public int lastIndex() {
+        if (words.length == 0) {
+            return -1;
+        }
+        int last = words.length - 1;
+        return ((offset + last) << 6) + 63 - Long.numberOfLeadingZeros(words[last]);
+    }
+
+    /**
+     * @return the lowest version or null if the set is empty.
+     */
+    public Semver first() {
+        return words.length == 0 ? null : catalog.semver(firstIndex());
+    }
+
+    /**
+     * @return the greatest version or null if the set is empty.
+     */
+    public Semver last() {
+        return words.length == 0 ? null : catalog.semver(lastIndex());
+    }
+
+    /**
+     * Calls the consumer with the indexes of the versions in ascending order.
+     *
+     * @param consumer the consumer of the indexes within the catalog.
+     */
+    public void forEachIndex(final IntConsumer consumer) {
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0L) {
+                consumer.accept(((offset + i) << 6) + Long.numberOfTrailingZeros(word));
+                word &= word - 1;
+            }
+        }
+    }
+
+    /**
+     * @return the versions in ascending order.
+     */
+    public List<Version> versions() {
+        List<Version> result = new ArrayList<>(cardinality());
+        forEachIndex(index -> result.add(catalog.get(index)));
+        return result;
+    }
+
+    /**
+     * @return the versions in ascending order.
+     */
+    @Override
+    public Iterator<Semver> iterator() {
+        return new Iterator<>() {
+            private int word = 0;
+            private long bits = words.length > 0 ? words[0] : 0L;
+
+            @Override
+            public boolean hasNext() {
+                while (bits == 0L && word + 1 < words.length) {
+                    bits = words[++word];
+                }
+                return bits != 0L;
+            }
+
+            @Override
+            public Semver next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+
+                int index = ((offset + word) << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+                return catalog.semver(index);
+            }
+        };
+    }
+
+    private void checkCatalog(final VersionSet other) {
+        if (other.catalog != catalog) {
+            throw new IllegalArgumentException("Version sets of different catalogs can not be combined.");
+        }
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof VersionSet)) return false;
+        VersionSet set = (VersionSet) o;
+        return catalog == set.catalog && offset == set.offset && Arrays.equals(words, set.words);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * offset + Arrays.hashCode(words);
+    }
+
+    @Override
+    public String toString() {
+        List<Semver> result = new ArrayList<>(cardinality());
+        forEach(result::add);
+        return "VersionSet" + result;
+    }
+}
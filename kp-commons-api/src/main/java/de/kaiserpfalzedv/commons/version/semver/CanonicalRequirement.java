@@ -0,0 +1,80 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import java.io.Serializable;
+
+/**
+ * The canonical form of a {@link Requirement}. Two requirements with equal canonical forms are satisfied by the same
+ * versions, so the canonical form can be used as key in caches and indexes instead of the requirement itself.
+ * <p>
+ * The canonical string lists the disjoint version intervals of the requirement in interval notation, joined by
+ * {@code ||}. Every interval is annotated with the versions that may be prereleases: {@code pre(*)} for all
+ * prereleases within the interval, {@code pre(1.2.3)} for prereleases of the listed versions only and no annotation
+ * if prereleases are not allowed. {@code ^1.2.0} is written as {@code [1.2.0,2.0.0)}, {@code >=1.0.0} as
+ * {@code [1.0.0,) pre(*)}. A requirement no version satisfies is written as <code>{}</code>.
+ * <p>
+ * Requirements containing versions without minor or patch number (like {@code >=1.2}) are compared slightly different
+ * by this library and can not be converted exactly. Their canonical form is the structure of the requirement itself.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class CanonicalRequirement implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private final String value;
+    private final boolean exact;
+
+    CanonicalRequirement(final String value, final boolean exact) {
+        this.value = value;
+        this.exact = exact;
+    }
+
+    /**
+     * @return the canonical string of the requirement.
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * @return true if the canonical form has been computed from the versions satisfying the requirement, false if it
+     * falls back to the structure of the requirement.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof CanonicalRequirement)) return false;
+        CanonicalRequirement that = (CanonicalRequirement) o;
+        return exact == that.exact && value.equals(that.value);
+    }
+
+    @Override
+    public int hashCode() {
+        return value.hashCode() * 31 + (exact ? 1 : 0);
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
@@ -0,0 +1,393 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.IntFunction;
+import java.util.function.IntPredicate;
+import java.util.function.IntToLongFunction;
+
+/**
+ * A requirement prepared for evaluating it very often.
+ * <p>
+ * Releases are checked against the {@link IntervalSet intervals} of the requirement using their {@link VersionKey}.
+ * The first evaluations walk the interval bounds. After a number of evaluations (system property
+ * {@value #THRESHOLD_PROPERTY}, default {@value #DEFAULT_THRESHOLD}) the intervals are compiled into a method handle
+ * with the bounds bound as constants, which the JIT can inline completely. Prereleases, versions without key and
+ * requirements whose intervals are not exact are always checked by the requirement itself.
+ * <p>
+ * Instances are thread safe. Use {@link Requirement#compile()} to get the shared instance of a requirement.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class CompiledRequirement {
+    public static final String THRESHOLD_PROPERTY = "de.kaiserpfalzedv.commons.version.compile-threshold";
+    public static final int DEFAULT_THRESHOLD = 1000;
+
+    private static final int THRESHOLD = Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+
+    private static final MethodHandle WITHIN;
+    private static final MethodHandle AT_LEAST;
+    private static final MethodHandle BELOW;
+
+    static {
+        try {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            MethodType bounds = MethodType.methodType(boolean.class, long.class, long.class, long.class);
+            MethodType bound = MethodType.methodType(boolean.class, long.class, long.class);
+
+            WITHIN = lookup.findStatic(CompiledRequirement.class, "within", bounds);
+            AT_LEAST = lookup.findStatic(CompiledRequirement.class, "atLeast", bound);
+            BELOW = lookup.findStatic(CompiledRequirement.class, "below", bound);
+        } catch (NoSuchMethodException | IllegalAccessException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private final Requirement requirement;
+    private final int threshold;
+
+    /**
+     * The inclusive lower and exclusive upper keys of the intervals, null if the requirement can not be checked by
+     * keys.
+     */
+    private final long[] lower;
+    private final long[] upper;
+
+    /**
+     * The intervals as sorted, disjoint pairs of inclusive lower and exclusive upper key. Clauses allowing different
+     * prereleases are not merged by the {@link IntervalSet}, so the intervals of the clauses may overlap.
+     */
+    private final long[] intervals;
+
+    private volatile MethodHandle compiled;
+
+    /**
+     * Counts the evaluations until the intervals are compiled. Not synchronized, so the threshold is only
+     * approximately met under contention.
+     */
+    private int evaluations;
+
+    CompiledRequirement(final Requirement requirement) {
+        this(requirement, THRESHOLD);
+    }
+
+    CompiledRequirement(final Requirement requirement, final int threshold) {
+        this.requirement = requirement;
+        this.threshold = threshold;
+
+        IntervalSet intervals = requirement.intervals();
+        long[] lower = null;
+        long[] upper = null;
+        if (requirement.canonicalize().isExact()) {
+            List<IntervalSet.Clause> clauses = intervals.clauses();
+            lower = new long[clauses.size()];
+            upper = new long[clauses.size()];
+
+            for (int i = 0; i < clauses.size() && lower != null; i++) {
+                IntervalSet.Clause clause = clauses.get(i);
+                lower[i] = clause.lower == null ? Long.MIN_VALUE : VersionKey.of(clause.lower);
+                upper[i] = clause.upper == null ? Long.MAX_VALUE : VersionKey.of(clause.upper);
+
+                if (lower[i] == VersionKey.INVALID || upper[i] == VersionKey.INVALID) {
+                    lower = null;
+                    upper = null;
+                } else {
+                    // normalize to [lower, upper)
+                    if (clause.lower != null && !clause.lowerInclusive) lower[i]++;
+                    if (clause.upper != null && clause.upperInclusive) upper[i]++;
+                }
+            }
+        }
+        this.lower = lower;
+        this.upper = upper;
+        this.intervals = lower != null ? merge(lower, upper) : null;
+
+        if (lower != null && threshold <= 0) {
+            compiled = compile(lower, upper);
+        }
+    }
+
+    /**
+     * @return the requirement this instance has been prepared for.
+     */
+    public Requirement getRequirement() {
+        return requirement;
+    }
+
+    /**
+     * @return true if the requirement has been compiled into a method handle.
+     */
+    public boolean isCompiled() {
+        return compiled != null;
+    }
+
+    /**
+     * Returns the {@link VersionKey keys} of the releases satisfying the requirement, so sorted keys can be searched
+     * for satisfying releases instead of testing every key. Prereleases have to be checked by
+     * {@link #isSatisfiedBy(Semver)}.
+     *
+     * @return pairs of inclusive lower and exclusive upper key in ascending order, disjoint and not adjacent (unbounded
+     * sides are {@link Long#MIN_VALUE} and {@link Long#MAX_VALUE}), or null if the requirement can not be checked by
+     * keys. An interval may contain no release at all, if only prereleases near its bounds satisfy the requirement.
+     */
+    public long[] getKeyIntervals() {
+        return intervals != null ? intervals.clone() : null;
+    }
+
+    /**
+     * Checks a release key against all {@link #getKeyIntervals() key intervals}.
+     *
+     * @param key the key of a release.
+     * @return true if the key is within one of the intervals.
+     * @throws IllegalStateException if the requirement can not be checked by keys.
+     */
+    public boolean containsKey(final long key) {
+        if (intervals == null) {
+            throw new IllegalStateException("The requirement can not be checked by keys: " + requirement);
+        }
+
+        // the last interval with a lower bound not greater than the key
+        int low = 0;
+        int high = intervals.length / 2;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (intervals[2 * middle] <= key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low > 0 && key < intervals[2 * low - 1];
+    }
+
+    /**
+     * Walks a list of versions sorted by their {@link VersionKey keys} and passes the indexes of the versions
+     * satisfying the requirement to a consumer. If the requirement can be checked by keys, only the versions within
+     * the {@link #getKeyIntervals() key intervals} are read (found by binary search) and releases are decided by their
+     * key. Prereleases with the same core as a bound may satisfy the requirement outside of the interval, so the
+     * window of an interval reaches from the lowest key of the core of its lower bound to the highest key of the core
+     * of its upper bound. Otherwise every version is checked against the requirement.
+     *
+     * @param from       the index of the first version.
+     * @param to         the index after the last version.
+     * @param keys       the key of the version at an index, ascending with the index.
+     * @param versions   the version at an index.
+     * @param descending true to start with the greatest version.
+     * @param consumer   gets the index of every satisfying version and returns false to stop the walk.
+     * @return the number of satisfying versions passed to the consumer.
+     */
+    public int walk(final int from, final int to, final IntToLongFunction keys, final IntFunction<Semver> versions,
+                    final boolean descending, final IntPredicate consumer) {
+        int result = 0;
+        if (intervals == null) {
+            for (int i = 0; i < to - from; i++) {
+                int version = descending ? to - 1 - i : from + i;
+                if (isSatisfiedBy(versions.apply(version))) {
+                    result++;
+                    if (!consumer.test(version)) {
+                        return result;
+                    }
+                }
+            }
+            return result;
+        }
+
+        // the windows of neighbouring intervals may overlap, the versions behind next have been walked already.
+        int next = descending ? to : from;
+        int count = intervals.length / 2;
+        for (int i = 0; i < count; i++) {
+            int interval = 2 * (descending ? count - 1 - i : i);
+            long lower = intervals[interval];
+            long upper = intervals[interval + 1];
+
+            int low = lower == Long.MIN_VALUE ? from : search(from, to, keys, VersionKey.coreFloor(lower));
+            int high = upper == Long.MAX_VALUE ? to : search(low, to, keys, VersionKey.coreCeiling(upper));
+            if (descending) {
+                high = Math.min(high, next);
+                next = Math.min(next, low);
+            } else {
+                low = Math.max(low, next);
+                next = Math.max(next, high);
+            }
+
+            for (int j = 0; j < high - low; j++) {
+                int version = descending ? high - 1 - j : low + j;
+                long key = keys.applyAsLong(version);
+
+                // a release within the window of an interval may still be within the next one.
+                boolean satisfied = key != VersionKey.INVALID && VersionKey.isRelease(key)
+                        ? key >= lower && key < upper || containsKey(key)
+                        : isSatisfiedBy(versions.apply(version));
+                if (satisfied) {
+                    result++;
+                    if (!consumer.test(version)) {
+                        return result;
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the index of the first version within [from, to) with a key not lower than the given one.
+     */
+    private static int search(final int from, final int to, final IntToLongFunction keys, final long key) {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (keys.applyAsLong(middle) < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Checks if the requirement is satisfied by a version.
+     *
+     * @param version the version that will be checked
+     * @return true if the version satisfies the requirement
+     * @see Requirement#isSatisfiedBy(Semver)
+     */
+    public boolean isSatisfiedBy(final Semver version) {
+        long key = VersionKey.of(version);
+        if (lower == null || key == VersionKey.INVALID || !VersionKey.isRelease(key)) {
+            return requirement.isSatisfiedBy(version);
+        }
+        return test(key);
+    }
+
+    /**
+     * Checks if the requirement is satisfied by the version a cursor points to.
+     *
+     * @param version the cursor pointing to the version that will be checked
+     * @return true if the version satisfies the requirement
+     * @see Requirement#isSatisfiedBy(VersionCursor)
+     */
+    public boolean isSatisfiedBy(final VersionCursor version) {
+        long key = VersionKey.of(version);
+        if (lower == null || key == VersionKey.INVALID || !VersionKey.isRelease(key)) {
+            return requirement.isSatisfiedBy(version);
+        }
+        return test(key);
+    }
+
+    private boolean test(final long key) {
+        MethodHandle handle = compiled;
+        if (handle != null) {
+            try {
+                return (boolean) handle.invokeExact(key);
+            } catch (Throwable e) {
+                throw new VersionException("Code error. Compiled requirement failed: " + requirement, e);
+            }
+        }
+
+        if (++evaluations == threshold) {
+            compiled = compile(lower, upper);
+        }
+
+        for (int i = 0; i < lower.length; i++) {
+            if (key < lower[i]) {
+                // the intervals are sorted by their lower bound
+                return false;
+            }
+            if (key < upper[i]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Sorts the intervals by their lower bound and merges overlapping or adjacent ones. Intervals without releases are
+     * kept, prereleases with the core of their bounds may still satisfy the requirement.
+     */
+    private static long[] merge(final long[] lower, final long[] upper) {
+        Integer[] order = new Integer[lower.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong(i -> lower[i]));
+
+        long[] result = new long[lower.length * 2];
+        int size = 0;
+        for (int i : order) {
+            if (size > 0 && lower[i] <= result[2 * size - 1]) {
+                result[2 * size - 1] = Math.max(result[2 * size - 1], upper[i]);
+            } else {
+                result[2 * size] = lower[i];
+                result[2 * size + 1] = upper[i];
+                size++;
+            }
+        }
+        return Arrays.copyOf(result, 2 * size);
+    }
+
+    /**
+     * Chains the intervals into a single method handle {@code (long)boolean}. Unbounded sides are left out.
+     */
+    private static MethodHandle compile(final long[] lower, final long[] upper) {
+        MethodHandle matched = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, true), 0, long.class);
+        MethodHandle result = MethodHandles.dropArguments(MethodHandles.constant(boolean.class, false), 0, long.class);
+
+        for (int i = lower.length - 1; i >= 0; i--) {
+            MethodHandle test;
+            if (lower[i] == Long.MIN_VALUE && upper[i] == Long.MAX_VALUE) {
+                return matched;
+            } else if (lower[i] == Long.MIN_VALUE) {
+                test = MethodHandles.insertArguments(BELOW, 0, upper[i]);
+            } else if (upper[i] == Long.MAX_VALUE) {
+                test = MethodHandles.insertArguments(AT_LEAST, 0, lower[i]);
+            } else {
+                test = MethodHandles.insertArguments(WITHIN, 0, lower[i], upper[i]);
+            }
+
+            result = MethodHandles.guardWithTest(test, matched, result);
+        }
+        return result;
+    }
+
+    private static boolean within(final long lower, final long upper, final long key) {
+        return key >= lower && key < upper;
+    }
+
+    private static boolean atLeast(final long lower, final long key) {
+        return key >= lower;
+    }
+
+    private static boolean below(final long upper, final long key) {
+        return key < upper;
+    }
+
+    @Override
+    public String toString() {
+        return requirement.toString();
+    }
+}
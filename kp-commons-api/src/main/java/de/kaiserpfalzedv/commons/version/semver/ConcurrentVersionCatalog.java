@@ -0,0 +1,310 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A catalog of the versions of packages that is updated while it is read.
+ * <p>
+ * The versions of every package are kept as an immutable {@link Snapshot}: the versions sorted by their
+ * {@link VersionKey key} and precedence. Publishing or yanking a version copies the snapshot of that package only and
+ * replaces it atomically, so the costs of an update do not depend on the size of the catalog. Readers never lock:
+ * they work on the snapshot current when they started and see either all or nothing of an update. Yanked versions stay
+ * in the catalog (so they are still {@link Snapshot#contains(Semver) known}), but are no longer selected by
+ * {@link Snapshot#latest()} or {@link Snapshot#maxSatisfying(Requirement)}.
+ * <p>
+ * Only versions with a {@link VersionKey key} may be published. The build of a version is not taken into account, a
+ * version differing from a published one only by its build is not published again.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class ConcurrentVersionCatalog {
+    private final ConcurrentHashMap<String, Snapshot> packages = new ConcurrentHashMap<>();
+
+    /**
+     * Publishes a version of a package.
+     *
+     * @param name    the name of the package.
+     * @param version the version to publish.
+     * @return true if the version has been added, false if it has been published before.
+     * @throws VersionException if the version has no {@link VersionKey key}.
+     */
+    public boolean publish(final String name, final Semver version) {
+        long key = VersionKey.of(version);
+        if (key == VersionKey.INVALID) {
+            throw new VersionException("Version can not be cataloged: " + version);
+        }
+
+        boolean[] added = new boolean[1];
+        packages.compute(name, (k, snapshot) -> {
+            Snapshot current = snapshot != null ? snapshot : Snapshot.EMPTY;
+            int index = current.indexOf(key, version);
+            if (index >= 0) {
+                return current;
+            }
+
+            added[0] = true;
+            return current.insert(-index - 1, key, version);
+        });
+        return added[0];
+    }
+
+    /**
+     * Yanks a published version of a package. The version stays in the catalog but is not selected any more.
+     *
+     * @param name    the name of the package.
+     * @param version the version to yank.
+     * @return true if the version has been yanked, false if it has not been published or was yanked before.
+     */
+    public boolean yank(final String name, final Semver version) {
+        long key = VersionKey.of(version);
+        if (key == VersionKey.INVALID) {
+            return false;
+        }
+
+        boolean[] yanked = new boolean[1];
+        packages.computeIfPresent(name, (k, current) -> {
+            int index = current.indexOf(key, version);
+            if (index < 0 || current.yanked[index]) {
+                return current;
+            }
+
+            yanked[0] = true;
+            return current.yank(index);
+        });
+        return yanked[0];
+    }
+
+    /**
+     * @param name the name of the package.
+     * @return the current versions of the package (an empty snapshot if the package is unknown).
+     */
+    public Snapshot snapshot(final String name) {
+        Snapshot result = packages.get(name);
+        return result != null ? result : Snapshot.EMPTY;
+    }
+
+    /**
+     * @param name        the name of the package.
+     * @param requirement the requirement to satisfy.
+     * @return the highest version of the package satisfying the requirement that is not yanked or null.
+     * @see Snapshot#maxSatisfying(Requirement)
+     */
+    public Semver maxSatisfying(final String name, final Requirement requirement) {
+        return snapshot(name).maxSatisfying(requirement);
+    }
+
+    /**
+     * @return the names of the packages with published versions (a live view).
+     */
+    public Set<String> packages() {
+        return Collections.unmodifiableSet(packages.keySet());
+    }
+
+    /**
+     * @return the number of packages.
+     */
+    public int size() {
+        return packages.size();
+    }
+
+    /**
+     * The versions of a package at a point in time. A snapshot is immutable and may be shared between threads.
+     */
+    public static final class Snapshot {
+        static final Snapshot EMPTY = new Snapshot(new long[0], new Semver[0], new boolean[0], -1);
+
+        private final long[] keys;
+        private final Semver[] versions;
+        private final boolean[] yanked;
+        private final int latest;
+
+        private Snapshot(final long[] keys, final Semver[] versions, final boolean[] yanked, final int latest) {
+            this.keys = keys;
+            this.versions = versions;
+            this.yanked = yanked;
+            this.latest = latest;
+        }
+
+        private Snapshot insert(final int index, final long key, final Semver version) {
+            int size = keys.length;
+
+            long[] newKeys = new long[size + 1];
+            Semver[] newVersions = new Semver[size + 1];
+            boolean[] newYanked = new boolean[size + 1];
+
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(versions, 0, newVersions, 0, index);
+            System.arraycopy(yanked, 0, newYanked, 0, index);
+            newKeys[index] = key;
+            newVersions[index] = version;
+            System.arraycopy(keys, index, newKeys, index + 1, size - index);
+            System.arraycopy(versions, index, newVersions, index + 1, size - index);
+            System.arraycopy(yanked, index, newYanked, index + 1, size - index);
+
+            int newLatest = latest >= index ? latest + 1 : latest;
+            if (VersionKey.isRelease(key) && (newLatest < 0 || index > newLatest)) {
+                newLatest = index;
+            }
+            return new Snapshot(newKeys, newVersions, newYanked, newLatest);
+        }
+
+        private Snapshot yank(final int index) {
+            boolean[] newYanked = Arrays.copyOf(yanked, yanked.length);
+            newYanked[index] = true;
+
+            int newLatest = latest;
+            if (index == latest) {
+                newLatest = -1;
+                for (int i = index - 1; i >= 0; i--) {
+                    if (!newYanked[i] && VersionKey.isRelease(keys[i])) {
+                        newLatest = i;
+                        break;
+                    }
+                }
+            }
+            return new Snapshot(keys, versions, newYanked, newLatest);
+        }
+
+        /**
+         * @return the index of the version or {@code -(insertion point) - 1}.
+         */
+        private int indexOf(final long key, final Semver version) {
+            int low = search(key);
+            int high = search(key + 1);
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                int result = versions[middle].compareTo(version);
+
+                if (result < 0) {
+                    low = middle + 1;
+                } else if (result > 0) {
+                    high = middle;
+                } else {
+                    return middle;
+                }
+            }
+            return -low - 1;
+        }
+
+        /**
+         * @return the index of the first version with a key not lower than the given one.
+         */
+        private int search(final long key) {
+            int low = 0;
+            int high = keys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (keys[middle] < key) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        /**
+         * @return the number of versions (including the yanked ones).
+         */
+        public int size() {
+            return versions.length;
+        }
+
+        /**
+         * @return true if there are no versions.
+         */
+        public boolean isEmpty() {
+            return versions.length == 0;
+        }
+
+        /**
+         * @param version the version to look for.
+         * @return true if the version has been published (it may be yanked).
+         */
+        public boolean contains(final Semver version) {
+            long key = VersionKey.of(version);
+            return key != VersionKey.INVALID && indexOf(key, version) >= 0;
+        }
+
+        /**
+         * @param version the version to check.
+         * @return true if the version has been published and yanked.
+         */
+        public boolean isYanked(final Semver version) {
+            long key = VersionKey.of(version);
+            if (key == VersionKey.INVALID) {
+                return false;
+            }
+
+            int index = indexOf(key, version);
+            return index >= 0 && yanked[index];
+        }
+
+        /**
+         * @return the versions that are not yanked in ascending order.
+         */
+        public List<Semver> versions() {
+            List<Semver> result = new ArrayList<>(versions.length);
+            for (int i = 0; i < versions.length; i++) {
+                if (!yanked[i]) {
+                    result.add(versions[i]);
+                }
+            }
+            return Collections.unmodifiableList(result);
+        }
+
+        /**
+         * @return the highest release that is not yanked or null.
+         */
+        public Semver latest() {
+            return latest >= 0 ? versions[latest] : null;
+        }
+
+        /**
+         * Selects the highest version satisfying the requirement. If the requirement can be converted into key
+         * intervals, only the versions within these intervals are checked (found by binary search), starting with the
+         * greatest interval; releases are decided by their key.
+         *
+         * @param requirement the requirement to satisfy.
+         * @return the highest version satisfying the requirement that is not yanked or null.
+         * @see CompiledRequirement#walk
+         */
+        public Semver maxSatisfying(final Requirement requirement) {
+            int[] result = {-1};
+            requirement.compile().walk(0, versions.length, version -> keys[version], version -> versions[version], true,
+                    version -> {
+                        if (yanked[version]) {
+                            return true;
+                        }
+                        result[0] = version;
+                        return false;
+                    });
+            return result[0] >= 0 ? versions[result[0]] : null;
+        }
+    }
+}
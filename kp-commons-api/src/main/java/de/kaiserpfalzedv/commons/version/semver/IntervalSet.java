@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The set of versions satisfying a {@link Requirement} as a sorted list of disjoint clauses.
+ * <p>
+ * Every clause is an interval of versions and the set of version cores (major, minor and patch) that may be
+ * prereleases. A version is within a clause if it is within the interval and it is either no prerelease or its core
+ * is allowed. This mirrors the rule of {@link Requirement#isSatisfiedBy(Semver)}: a single range allows all
+ * prereleases, a conjunction of ranges only allows prereleases of the cores used by its prerelease bounds.
+ * <p>
+ * All bounds are normalized to strict versions without build. Since the library compares versions with missing minor
+ * or patch numbers slightly differently (depending on the type of the compared version), such bounds are widened to
+ * all versions starting with the given numbers. Bounds of {@link Semver.SemverType#MAVEN maven} versions are not
+ * bounding at all. The resulting set is marked as not {@link #isExact() exact}, it contains at least all versions
+ * satisfying the requirement.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+final class IntervalSet {
+    private static final Comparator<Clause> BY_LOWER_BOUND = (c1, c2) -> {
+        if (c1.lower == null || c2.lower == null) {
+            return c1.lower == null ? (c2.lower == null ? 0 : -1) : 1;
+        }
+
+        int result = c1.lower.compareTo(c2.lower);
+        if (result == 0 && c1.lowerInclusive != c2.lowerInclusive) {
+            result = c1.lowerInclusive ? -1 : 1;
+        }
+        return result;
+    };
+
+    private final List<Clause> clauses;
+    private final boolean exact;
+
+    private IntervalSet(final List<Clause> clauses, final boolean exact) {
+        this.clauses = Collections.unmodifiableList(clauses);
+        this.exact = exact;
+    }
+
+    /**
+     * Converts a requirement into its interval representation.
+     *
+     * @param requirement the requirement to convert.
+     * @return the set of versions satisfying the requirement.
+     */
+    static IntervalSet of(final Requirement requirement) {
+        boolean[] exact = {true};
+        List<Clause> clauses = normalize(clauses(requirement, exact));
+
+        return new IntervalSet(clauses, exact[0]);
+    }
+
+    private static List<Clause> clauses(final Requirement requirement, final boolean[] exact) {
+        if (requirement.range != null) {
+            return Collections.singletonList(leaf(requirement.range, exact).withPrereleases(null));
+        }
+
+        switch (requirement.op) {
+            case AND:
+                Range[] conjunction = requirement.getConjunction();
+                if (conjunction != null) {
+                    return Collections.singletonList(conjunction(conjunction, exact));
+                }
+
+                List<Clause> result = new ArrayList<>();
+                List<Clause> right = clauses(requirement.req2, exact);
+                for (Clause left : clauses(requirement.req1, exact)) {
+                    for (Clause clause : right) {
+                        result.add(left.intersect(clause));
+                    }
+                }
+                return normalize(result);
+            case OR:
+                List<Clause> union = new ArrayList<>(clauses(requirement.req1, exact));
+                union.addAll(clauses(requirement.req2, exact));
+                return normalize(union);
+        }
+        throw new RuntimeException("Code error. Unknown RequirementOperator: " + requirement.op); // Should never happen
+    }
+
+    private static Clause conjunction(final Range[] ranges, final boolean[] exact) {
+        Clause result = new Clause(null, false, null, false, null);
+        List<Semver> prereleases = new ArrayList<>();
+        boolean widened = false;
+
+        for (Range range : ranges) {
+            widened |= !isComplete(range.version) || range.version.getType() == Semver.SemverType.MAVEN;
+            result = result.intersect(leaf(range, exact));
+
+            if (range.version.getSuffixTokens().length > 0) {
+                prereleases.add(Semver.create(Semver.SemverType.STRICT, range.version.getMajor(),
+                        zeroIfNull(range.version.getMinor()), zeroIfNull(range.version.getPatch()), null, null));
+            }
+        }
+
+        return result.withPrereleases(widened ? null : prereleases);
+    }
+
+    private static Clause leaf(final Range range, final boolean[] exact) {
+        Semver version = range.version;
+        if (version.getType() == Semver.SemverType.MAVEN) {
+            // the maven ordering can not be expressed as semver intervals.
+            exact[0] = false;
+            return new Clause(null, false, null, false, null);
+        }
+        if (!isComplete(version)) {
+            exact[0] = false;
+            return widenedLeaf(range);
+        }
+
+        Semver bound = Semver.create(Semver.SemverType.STRICT, version.getMajor(), version.getMinor(), version.getPatch(),
+                version.getSuffixTokens(), null);
+        if (bound.compareTo(version) != 0) {
+            // the numbers and suffix do not describe the version, like 2.0.03.x parsed from ">=2.0.0 3.x".
+            exact[0] = false;
+            return widenedLeaf(range);
+        }
+
+        switch (range.op) {
+            case EQ:
+                return new Clause(bound, true, bound, true, Collections.emptyList());
+            case LT:
+                return new Clause(null, false, bound, false, Collections.emptyList());
+            case LTE:
+                return new Clause(null, false, bound, true, Collections.emptyList());
+            case GT:
+                return new Clause(bound, false, null, false, Collections.emptyList());
+            case GTE:
+                return new Clause(bound, true, null, false, Collections.emptyList());
+        }
+        throw new RuntimeException("Code error. Unknown RangeOperator: " + range.op); // Should never happen
+    }
+
+    /**
+     * Versions with the same major number as an incomplete bound may or may not satisfy the range (NPM versions are
+     * equivalent to all versions with the same major number if the patch number is missing), so they are always
+     * included: {@code <1.2} becomes {@code <2.0.0}, {@code =1.2} becomes {@code >=1.0.0-0 <2.0.0}.
+     */
+    private static Clause widenedLeaf(final Range range) {
+        Semver version = range.version;
+        Semver floor = Semver.create(Semver.SemverType.STRICT, version.getMajor(), 0, 0, new String[]{"0"}, null);
+        Semver ceiling = Semver.create(Semver.SemverType.STRICT, version.getMajor() + 1, 0, 0, null, null);
+
+        switch (range.op) {
+            case EQ:
+                return new Clause(floor, true, ceiling, false, null);
+            case LT:
+            case LTE:
+                return new Clause(null, false, ceiling, false, null);
+            case GT:
+            case GTE:
+                return new Clause(floor, true, null, false, null);
+        }
+        throw new RuntimeException("Code error. Unknown RangeOperator: " + range.op); // Should never happen
+    }
+
+    private static boolean isComplete(final Semver version) {
+        return version.getMinor() != null && version.getPatch() != null;
+    }
+
+    private static int zeroIfNull(final Integer number) {
+        return number != null ? number : 0;
+    }
+
+    /**
+     * Removes empty clauses, prunes the allowed prereleases and merges overlapping or adjacent clauses allowing the
+     * same prereleases.
+     */
+    private static List<Clause> normalize(final List<Clause> clauses) {
+        List<Clause> sorted = new ArrayList<>(clauses.size());
+        for (Clause clause : clauses) {
+            if (!clause.isEmpty()) {
+                sorted.add(clause.withPrereleases(clause.prereleases));
+            }
+        }
+        sorted.sort(BY_LOWER_BOUND);
+
+        List<Clause> result = new ArrayList<>(sorted.size());
+        for (Clause clause : sorted) {
+            int last = result.size() - 1;
+            if (last >= 0 && result.get(last).isMergeableWith(clause)) {
+                result.set(last, result.get(last).merge(clause));
+            } else {
+                result.add(clause);
+            }
+        }
+
+        // merging may bring clauses with different prereleases next to each other
+        for (int i = 0; i < result.size(); i++) {
+            for (int j = i + 1; j < result.size(); j++) {
+                if (result.get(i).isMergeableWith(result.get(j))) {
+                    result.set(i, result.get(i).merge(result.remove(j)));
+                    j = i;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return the clauses of this set, sorted by their lower bound.
+     */
+    List<Clause> clauses() {
+        return clauses;
+    }
+
+    /**
+     * @return true if the set has been computed from complete versions only and matches the requirement exactly.
+     */
+    boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * @return true if no version satisfies the requirement.
+     */
+    boolean isEmpty() {
+        return clauses.isEmpty();
+    }
+
+    @Override
+    public String toString() {
+        if (clauses.isEmpty()) {
+            return "{}";
+        }
+
+        StringBuilder result = new StringBuilder();
+        for (Clause clause : clauses) {
+            if (result.length() > 0) {
+                result.append(" || ");
+            }
+            result.append(clause);
+        }
+        return result.toString();
+    }
+
+    /**
+     * Compares the major, minor and patch numbers of two normalized versions.
+     */
+    static int compareCore(final Semver version1, final Semver version2) {
+        int result = Integer.compare(version1.getMajor(), version2.getMajor());
+        if (result == 0) {
+            result = Integer.compare(version1.getMinor(), version2.getMinor());
+        }
+        if (result == 0) {
+            result = Integer.compare(version1.getPatch(), version2.getPatch());
+        }
+        return result;
+    }
+
+    /**
+     * A single interval of versions with the cores that are allowed to be prereleases.
+     */
+    static final class Clause {
+        /**
+         * The lower bound, null if unbounded.
+         */
+        final Semver lower;
+        final boolean lowerInclusive;
+
+        /**
+         * The upper bound, null if unbounded.
+         */
+        final Semver upper;
+        final boolean upperInclusive;
+
+        /**
+         * The sorted cores (as versions without suffix) that may be prereleases, null if all prereleases within the
+         * interval are allowed.
+         */
+        final List<Semver> prereleases;
+
+        Clause(final Semver lower, final boolean lowerInclusive, final Semver upper, final boolean upperInclusive,
+               final List<Semver> prereleases) {
+            this.lower = lower;
+            this.lowerInclusive = lower != null && lowerInclusive;
+            this.upper = upper;
+            this.upperInclusive = upper != null && upperInclusive;
+            this.prereleases = prereleases;
+        }
+
+        boolean isEmpty() {
+            if (lower == null || upper == null) {
+                return false;
+            }
+
+            int cmp = lower.compareTo(upper);
+            return cmp > 0 || (cmp == 0 && !(lowerInclusive && upperInclusive));
+        }
+
+        /**
+         * @return true if the interval only contains a single version.
+         */
+        boolean isPoint() {
+            return lower != null && lowerInclusive && upperInclusive && lower.equals(upper);
+        }
+
+        /**
+         * @param core a version without suffix.
+         * @return true if prereleases of this core are allowed and within the interval.
+         */
+        boolean allowsPrereleasesOf(final Semver core) {
+            if (prereleases != null && Collections.binarySearch(prereleases, core, IntervalSet::compareCore) < 0) {
+                return false;
+            }
+
+            return containsPrereleasesOf(core);
+        }
+
+        /**
+         * Prereleases of a core are lower than the core and greater than all versions with a lower core. There is
+         * always another prerelease between two prereleases.
+         */
+        private boolean containsPrereleasesOf(final Semver core) {
+            if (lower != null) {
+                int cmp = compareCore(lower, core);
+                if (cmp > 0 || (cmp == 0 && lower.getSuffixTokens().length == 0)) {
+                    return false;
+                }
+            }
+            return upper == null || compareCore(upper, core) >= 0;
+        }
+
+        Clause intersect(final Clause other) {
+            Semver lower = this.lower;
+            boolean lowerInclusive = this.lowerInclusive;
+            if (lower == null || (other.lower != null && other.lower.compareTo(lower) >= 0)) {
+                lowerInclusive = lower != null && other.lower.compareTo(lower) == 0
+                        ? lowerInclusive && other.lowerInclusive
+                        : other.lowerInclusive;
+                lower = other.lower;
+            }
+
+            Semver upper = this.upper;
+            boolean upperInclusive = this.upperInclusive;
+            if (upper == null || (other.upper != null && other.upper.compareTo(upper) <= 0)) {
+                upperInclusive = upper != null && other.upper.compareTo(upper) == 0
+                        ? upperInclusive && other.upperInclusive
+                        : other.upperInclusive;
+                upper = other.upper;
+            }
+
+            List<Semver> prereleases = this.prereleases;
+            if (prereleases == null) {
+                prereleases = other.prereleases;
+            } else if (other.prereleases != null) {
+                prereleases = new ArrayList<>(this.prereleases);
+                prereleases.removeIf(p -> Collections.binarySearch(other.prereleases, p, IntervalSet::compareCore) < 0);
+            }
+
+            return new Clause(lower, lowerInclusive, upper, upperInclusive, prereleases)
+                    .withPrereleases(prereleases);
+        }
+
+        /**
+         * Creates a copy of this clause with the allowed prereleases reduced to the ones possible within the interval.
+         * If the interval only can contain prereleases of a single core, the set is always finite.
+         */
+        Clause withPrereleases(final List<Semver> prereleases) {
+            List<Semver> result = null;
+
+            if (lower != null && upper != null && compareCore(lower, upper) == 0) {
+                Semver core = lower.withClearedSuffixAndBuild();
+                result = new ArrayList<>(1);
+                if (!isEmpty() && (prereleases == null || contains(prereleases, core)) && containsPrereleasesOf(core)) {
+                    result.add(core);
+                }
+            } else if (prereleases != null) {
+                result = new ArrayList<>(prereleases.size());
+                for (Semver core : prereleases) {
+                    if (containsPrereleasesOf(core) && !contains(result, core)) {
+                        result.add(core);
+                    }
+                }
+                result.sort(IntervalSet::compareCore);
+            }
+
+            return new Clause(lower, lowerInclusive, upper, upperInclusive,
+                    result != null ? Collections.unmodifiableList(result) : null);
+        }
+
+        private static boolean contains(final List<Semver> cores, final Semver core) {
+            for (Semver candidate : cores) {
+                if (compareCore(candidate, core) == 0) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * Clauses can be merged if they allow the same prereleases and they overlap or touch (with no other versions
+         * in between).
+         */
+        boolean isMergeableWith(final Clause other) {
+            if (!Objects.equals(prereleases, other.prereleases)) {
+                return false;
+            }
+
+            Clause first = BY_LOWER_BOUND.compare(this, other) <= 0 ? this : other;
+            Clause second = first == this ? other : this;
+
+            if (first.upper == null || second.lower == null) {
+                return true;
+            }
+
+            int cmp = first.upper.compareTo(second.lower);
+            if (cmp > 0 || (cmp == 0 && (first.upperInclusive || second.lowerInclusive))) {
+                return true;
+            }
+
+            // x.y.z and x.y.(z+1) only have prereleases of x.y.(z+1) in between. They are not allowed if the second
+            // clause starts with the release (otherwise the core would have been pruned from the list).
+            return prereleases != null
+                    && first.upperInclusive && second.lowerInclusive
+                    && first.upper.getSuffixTokens().length == 0 && second.lower.getSuffixTokens().length == 0
+                    && first.upper.getMajor().equals(second.lower.getMajor())
+                    && first.upper.getMinor().equals(second.lower.getMinor())
+                    && first.upper.getPatch() + 1 == second.lower.getPatch();
+        }
+
+        Clause merge(final Clause other) {
+            Clause first = BY_LOWER_BOUND.compare(this, other) <= 0 ? this : other;
+            Clause second = first == this ? other : this;
+
+            Semver upper = first.upper;
+            boolean upperInclusive = first.upperInclusive;
+            if (upper != null) {
+                if (second.upper == null) {
+                    upper = null;
+                } else {
+                    int cmp = second.upper.compareTo(upper);
+                    if (cmp > 0 || (cmp == 0 && second.upperInclusive)) {
+                        upper = second.upper;
+                        upperInclusive = second.upperInclusive || (cmp == 0 && upperInclusive);
+                    }
+                }
+            }
+
+            return new Clause(first.lower, first.lowerInclusive, upper, upperInclusive, prereleases)
+                    .withPrereleases(prereleases);
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder result = new StringBuilder();
+
+            if (isPoint()) {
+                result.append('[').append(lower).append(']');
+            } else {
+                result.append(lowerInclusive ? '[' : '(')
+                        .append(lower != null ? lower : "")
+                        .append(',')
+                        .append(upper != null ? upper : "")
+                        .append(upperInclusive ? ']' : ')');
+            }
+
+            if (prereleases == null) {
+                result.append(" pre(*)");
+            } else if (!prereleases.isEmpty()) {
+                result.append(" pre(");
+                for (int i = 0; i < prereleases.size(); i++) {
+                    if (i > 0) {
+                        result.append(',');
+                    }
+                    result.append(prereleases.get(i));
+                }
+                result.append(')');
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,475 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+
+import java.io.Serializable;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * The ordering of {@link Semver.SemverType#MAVEN} versions, following the rules of Maven's {@code ComparableVersion}.
+ * <p>
+ * A version is split at dots, hyphens and transitions between digits and letters into numbers and qualifiers; a
+ * hyphen or transition starts a nested list. Trailing zeros and release qualifiers ({@code ga}, {@code final},
+ * {@code release}) are removed. Known qualifiers are ordered {@code alpha < beta < milestone < rc < snapshot < release
+ * < sp}, unknown qualifiers are greater and ordered lexically. So {@code 1.0-SNAPSHOT < 1.0 = 1.0.0.Final < 1.0-sp1}.
+ * <p>
+ * The item tree is flattened into an array of longs (kind in the upper 4 bits, number, qualifier index or list length
+ * in the lower bits) when the version is parsed. Comparing two versions walks both arrays and does not create any
+ * objects.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+final class MavenVersion implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    private static final int INT = 0;
+    private static final int STRING = 1;
+    private static final int LIST = 2;
+
+    private static final long PAYLOAD = (1L << 60) - 1;
+    private static final int MAX_DIGITS = 18;
+
+    private static final String[] QUALIFIERS = {"alpha", "beta", "milestone", "rc", "snapshot", "", "sp"};
+    private static final long RELEASE = 5;
+    private static final long UNKNOWN = QUALIFIERS.length;
+
+    private static final Long ZERO = 0L;
+
+    private final String value;
+    private final Integer major;
+    private final Integer minor;
+    private final Integer patch;
+    private final String qualifier;
+
+    /**
+     * The flattened item tree. Index 0 is the root list.
+     */
+    private final long[] items;
+
+    /**
+     * The unknown qualifiers referenced by the items.
+     */
+    private final String[] qualifiers;
+
+    private MavenVersion(final String value, final Integer major, final Integer minor, final Integer patch,
+                         final String qualifier, final long[] items, final String[] qualifiers) {
+        this.value = value;
+        this.major = major;
+        this.minor = minor;
+        this.patch = patch;
+        this.qualifier = qualifier;
+        this.items = items;
+        this.qualifiers = qualifiers;
+    }
+
+    /**
+     * Parses a Maven version. Maven accepts nearly anything as version, but a version has to start with a number to be
+     * usable as {@link Semver}: up to three leading numbers separated by dots are major, minor and patch, the rest is
+     * the qualifier.
+     *
+     * @param text the version.
+     * @return the parsed version.
+     * @throws VersionException if the version does not start with a number or contains a number with more than 18
+     *                          digits.
+     */
+    static MavenVersion of(final String text) {
+        String value = text.trim();
+
+        Integer[] numbers = new Integer[3];
+        int end = 0;
+        for (int i = 0; i < numbers.length; i++) {
+            int start = i == 0 ? 0 : end + 1;
+            if (i > 0 && (end >= value.length() || value.charAt(end) != '.')) {
+                break;
+            }
+
+            int digits = start;
+            while (digits < value.length() && isDigit(value.charAt(digits))) {
+                digits++;
+            }
+            if (digits == start) {
+                break;
+            }
+
+            try {
+                numbers[i] = Integer.valueOf(value.substring(start, digits));
+            } catch (NumberFormatException e) {
+                throw new VersionException("Invalid version (number too big): " + value);
+            }
+            end = digits;
+        }
+        if (numbers[0] == null) {
+            throw new VersionException("Invalid version (no major version): " + value);
+        }
+
+        String qualifier = value.substring(end);
+        if (qualifier.startsWith("-")) {
+            qualifier = qualifier.substring(1);
+        }
+
+        List<Object> root = parse(value.toLowerCase(Locale.ENGLISH));
+        long[] items = new long[size(root)];
+        List<String> unknown = new ArrayList<>();
+        flatten(root, items, 0, unknown);
+
+        return new MavenVersion(value, numbers[0], numbers[1], numbers[2], qualifier.isEmpty() ? null : qualifier,
+                items, unknown.isEmpty() ? null : unknown.toArray(new String[0]));
+    }
+
+    /**
+     * Builds the item tree like {@code ComparableVersion.parseVersion}.
+     */
+    private static List<Object> parse(final String version) {
+        List<Object> root = new ArrayList<>();
+        Deque<List<Object>> stack = new ArrayDeque<>();
+        stack.push(root);
+
+        List<Object> list = root;
+        boolean digit = false;
+        int start = 0;
+        for (int i = 0; i < version.length(); i++) {
+            char c = version.charAt(i);
+
+            if (c == '.' || c == '-') {
+                list.add(i == start ? ZERO : item(version.substring(start, i), digit, false));
+                start = i + 1;
+
+                if (c == '-') {
+                    list = sublist(list, stack);
+                }
+            } else if (isDigit(c)) {
+                if (!digit && i > start) {
+                    list.add(item(version.substring(start, i), false, true));
+                    start = i;
+                    list = sublist(list, stack);
+                }
+                digit = true;
+            } else {
+                if (digit && i > start) {
+                    list.add(item(version.substring(start, i), true, false));
+                    start = i;
+                    list = sublist(list, stack);
+                }
+                digit = false;
+            }
+        }
+        if (version.length() > start) {
+            // a trailing ".X" is treated as "-X" for any qualifier X, so 1.0.0.X1 < 1.0.0-X2.
+            if (!digit && !list.isEmpty()) {
+                list = sublist(list, stack);
+            }
+            list.add(item(version.substring(start), digit, false));
+        }
+
+        while (!stack.isEmpty()) {
+            normalize(stack.pop());
+        }
+        return root;
+    }
+
+    private static List<Object> sublist(final List<Object> parent, final Deque<List<Object>> stack) {
+        List<Object> result = new ArrayList<>();
+        parent.add(result);
+        stack.push(result);
+        return result;
+    }
+
+    private static Object item(final String token, final boolean digit, final boolean followedByDigit) {
+        if (digit) {
+            int start = 0;
+            while (start < token.length() - 1 && token.charAt(start) == '0') {
+                start++;
+            }
+            if (token.length() - start > MAX_DIGITS) {
+                throw new VersionException("Invalid version (number too big): " + token);
+            }
+            return Long.valueOf(token.substring(start));
+        }
+
+        if (followedByDigit && token.length() == 1) {
+            switch (token.charAt(0)) {
+                case 'a':
+                    return "alpha";
+                case 'b':
+                    return "beta";
+                case 'm':
+                    return "milestone";
+                default:
+                    break;
+            }
+        }
+
+        switch (token) {
+            case "ga":
+            case "final":
+            case "release":
+                return "";
+            case "cr":
+                return "rc";
+            default:
+                return token;
+        }
+    }
+
+    /**
+     * Removes trailing null items (zeros, release qualifiers, empty lists), but only up to the last number or
+     * qualifier.
+     */
+    private static void normalize(final List<Object> list) {
+        for (int i = list.size() - 1; i >= 0; i--) {
+            Object item = list.get(i);
+            if (isNull(item)) {
+                list.remove(i);
+            } else if (!(item instanceof List)) {
+                break;
+            }
+        }
+    }
+
+    private static boolean isNull(final Object item) {
+        if (item instanceof Long) {
+            return (Long) item == 0;
+        } else if (item instanceof String) {
+            return ((String) item).isEmpty();
+        }
+        return ((List<?>) item).isEmpty();
+    }
+
+    /**
+     * @return the number of items of the list including the list itself.
+     */
+    private static int size(final List<?> list) {
+        int result = 1;
+        for (Object item : list) {
+            result += item instanceof List ? size((List<?>) item) : 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return the index after the list.
+     */
+    @SuppressWarnings("unchecked")
+    private static int flatten(final List<Object> list, final long[] items, final int index, final List<String> unknown) {
+        int next = index + 1;
+        for (Object item : list) {
+            if (item instanceof Long) {
+                items[next++] = encode(INT, (Long) item);
+            } else if (item instanceof String) {
+                items[next++] = encode(STRING, qualifier((String) item, unknown));
+            } else {
+                next = flatten((List<Object>) item, items, next, unknown);
+            }
+        }
+
+        items[index] = encode(LIST, next - index - 1);
+        return next;
+    }
+
+    private static long qualifier(final String qualifier, final List<String> unknown) {
+        for (int i = 0; i < QUALIFIERS.length; i++) {
+            if (QUALIFIERS[i].equals(qualifier)) {
+                return i;
+            }
+        }
+
+        unknown.add(qualifier);
+        return UNKNOWN + unknown.size() - 1;
+    }
+
+    private static long encode(final int kind, final long payload) {
+        return ((long) kind << 60) | payload;
+    }
+
+    private static int kind(final long item) {
+        return (int) (item >>> 60);
+    }
+
+    private static long payload(final long item) {
+        return item & PAYLOAD;
+    }
+
+    private static boolean isDigit(final char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    /**
+     * Compares two versions without creating any objects.
+     *
+     * @param other the version to compare with.
+     * @return a negative number, zero or a positive number if this version is lower, equal or greater.
+     */
+    int compareTo(final MavenVersion other) {
+        return compare(this, 0, other, 0);
+    }
+
+    /**
+     * Compares the item at index i of x with the item at index j of y. An index of -1 denotes a missing item.
+     */
+    private static int compare(final MavenVersion x, final int i, final MavenVersion y, final int j) {
+        if (i < 0) {
+            return j < 0 ? 0 : -compare(y, j, x, -1);
+        }
+
+        long item = x.items[i];
+        int other = j < 0 ? -1 : kind(y.items[j]);
+        switch (kind(item)) {
+            case INT:
+                if (other < 0) {
+                    return payload(item) == 0 ? 0 : 1;
+                }
+                return other == INT ? Long.compare(payload(item), payload(y.items[j])) : 1;
+            case STRING:
+                if (other < 0) {
+                    return compareQualifiers(x, payload(item), null, RELEASE);
+                }
+                return other == STRING ? compareQualifiers(x, payload(item), y, payload(y.items[j])) : -1;
+            case LIST:
+                if (other < 0) {
+                    return payload(item) == 0 ? 0 : compare(x, i + 1, y, -1);
+                }
+                if (other == INT) {
+                    return -1;
+                } else if (other == STRING) {
+                    return 1;
+                }
+                return compareLists(x, i, y, j);
+        }
+        throw new RuntimeException("Code error. Unknown item kind: " + kind(item)); // Should never happen
+    }
+
+    private static int compareLists(final MavenVersion x, final int i, final MavenVersion y, final int j) {
+        int left = i + 1;
+        int leftEnd = left + (int) payload(x.items[i]);
+        int right = j + 1;
+        int rightEnd = right + (int) payload(y.items[j]);
+
+        while (left < leftEnd || right < rightEnd) {
+            int result = compare(x, left < leftEnd ? left : -1, y, right < rightEnd ? right : -1);
+            if (result != 0) {
+                return result;
+            }
+
+            if (left < leftEnd) {
+                left += size(x.items[left]);
+            }
+            if (right < rightEnd) {
+                right += size(y.items[right]);
+            }
+        }
+        return 0;
+    }
+
+    private static int size(final long item) {
+        return kind(item) == LIST ? 1 + (int) payload(item) : 1;
+    }
+
+    /**
+     * Known qualifiers are ordered by their index, unknown qualifiers are greater and ordered lexically.
+     */
+    private static int compareQualifiers(final MavenVersion x, final long a, final MavenVersion y, final long b) {
+        if (a < UNKNOWN || b < UNKNOWN) {
+            return Long.compare(Math.min(a, UNKNOWN), Math.min(b, UNKNOWN));
+        }
+        return x.qualifiers[(int) (a - UNKNOWN)].compareTo(y.qualifiers[(int) (b - UNKNOWN)]);
+    }
+
+    /**
+     * @return true if the version is lower than its numeric part (like {@code 1.0-SNAPSHOT} or {@code 1.0-rc1}).
+     */
+    boolean isPrerelease() {
+        if (qualifier == null) {
+            return false;
+        }
+
+        StringBuilder core = new StringBuilder().append(major);
+        if (minor != null) {
+            core.append('.').append(minor);
+        }
+        if (patch != null) {
+            core.append('.').append(patch);
+        }
+        return compareTo(of(core.toString())) < 0;
+    }
+
+    String getValue() {
+        return value;
+    }
+
+    Integer getMajor() {
+        return major;
+    }
+
+    Integer getMinor() {
+        return minor;
+    }
+
+    Integer getPatch() {
+        return patch;
+    }
+
+    /**
+     * @return the part after the numbers (without a leading hyphen) or null.
+     */
+    String getQualifier() {
+        return qualifier;
+    }
+
+    /**
+     * @return true if the other version is a maven version comparing as equal.
+     */
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof MavenVersion)) return false;
+        return compareTo((MavenVersion) o) == 0;
+    }
+
+    /**
+     * Hashes the leading numbers of the item tree without trailing zeros: versions comparing as equal may only differ
+     * in zeros compared with missing items.
+     */
+    @Override
+    public int hashCode() {
+        int end = 1;
+        int last = 1 + (int) payload(items[0]);
+        while (end < last && kind(items[end]) == INT) {
+            end++;
+        }
+        while (end > 1 && payload(items[end - 1]) == 0) {
+            end--;
+        }
+
+        int result = 1;
+        for (int i = 1; i < end; i++) {
+            result = 31 * result + Long.hashCode(payload(items[i]));
+        }
+        return result;
+    }
+
+    @Override
+    public String toString() {
+        return value;
+    }
+}
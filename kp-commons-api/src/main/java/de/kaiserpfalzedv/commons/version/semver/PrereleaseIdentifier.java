@@ -0,0 +1,262 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import java.util.Arrays;
+
+/**
+ * Classifies the suffix (prerelease) tokens of a version once at parse time.
+ * <p>
+ * Every token is encoded as a long key: the upper half holds the kind of the token, the lower half its value. Numeric
+ * tokens carry their int value, well known identifiers like {@code alpha}, {@code beta} or {@code rc} carry their rank
+ * in a global symbol table that is sorted in the order of {@link String#compareToIgnoreCase(String)}. Comparing two
+ * keys of the same kind is a plain integer comparison. Only tokens that are neither numeric nor known identifiers need
+ * a (case insensitive) comparison of their characters.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+final class PrereleaseIdentifier {
+    /**
+     * The token is an integer (as accepted by {@link Integer#parseInt(String)}).
+     */
+    static final int NUMERIC = 0;
+
+    /**
+     * The token is a well known identifier contained in the symbol table.
+     */
+    static final int SYMBOL = 1;
+
+    /**
+     * Any other token. Needs to be compared by its characters.
+     */
+    static final int TEXT = 2;
+
+    /**
+     * The global symbol table. All entries start with a letter, so they are always greater than numeric tokens.
+     */
+    private static final String[] SYMBOLS;
+
+    static {
+        String[] symbols = {
+                "a", "alpha", "b", "beta", "build", "canary", "cr", "dev", "experimental", "final", "ga", "m",
+                "milestone", "next", "nightly", "pre", "preview", "rc", "release", "snapshot", "sp", "stable", "test"
+        };
+        Arrays.sort(symbols, String.CASE_INSENSITIVE_ORDER);
+        SYMBOLS = symbols;
+    }
+
+    private static final long[] NO_KEYS = new long[0];
+
+    private PrereleaseIdentifier() {
+        // utility class
+    }
+
+    /**
+     * Classifies all tokens of a suffix.
+     *
+     * @param tokens the suffix tokens of a version.
+     * @return the keys of the tokens (in the same order).
+     */
+    static long[] classify(final String[] tokens) {
+        if (tokens == null || tokens.length == 0) {
+            return NO_KEYS;
+        }
+
+        long[] result = new long[tokens.length];
+        for (int i = 0; i < tokens.length; i++) {
+            result[i] = classify(tokens[i], 0, tokens[i].length());
+        }
+        return result;
+    }
+
+    /**
+     * Classifies a single token.
+     *
+     * @param chars the characters containing the token.
+     * @param start the first character of the token.
+     * @param end   the index after the last character of the token.
+     * @return the key of the token.
+     */
+    static long classify(final CharSequence chars, final int start, final int end) {
+        long value = parseInt(chars, start, end);
+        if (value != Long.MIN_VALUE) {
+            return key(NUMERIC, (int) value);
+        }
+
+        int rank = rank(chars, start, end);
+        if (rank >= 0) {
+            return key(SYMBOL, rank);
+        }
+
+        return key(TEXT, 0);
+    }
+
+    /**
+     * @param key the key of a token.
+     * @return the kind of the token ({@link #NUMERIC}, {@link #SYMBOL} or {@link #TEXT}).
+     */
+    static int kind(final long key) {
+        return (int) (key >>> 32);
+    }
+
+    /**
+     * @param key the key of a token.
+     * @return the numeric value or the symbol rank of the token.
+     */
+    static int value(final long key) {
+        return (int) key;
+    }
+
+    /**
+     * @param key the key of a token.
+     * @return true if the token is of kind {@link #TEXT} and can only be compared by its characters.
+     */
+    static boolean isText(final long key) {
+        return kind(key) == TEXT;
+    }
+
+    /**
+     * Compares two classified tokens that are not of kind {@link #TEXT} by their keys only.
+     *
+     * @see #compare(long, CharSequence, long, CharSequence)
+     */
+    static int compareKeys(final long key1, final long key2) {
+        int kind1 = kind(key1);
+        int kind2 = kind(key2);
+
+        if (kind1 == kind2) {
+            return Integer.compare(value(key1), value(key2));
+        }
+
+        // numeric tokens start with a digit or sign, symbols with a letter.
+        return kind1 == NUMERIC ? -1 : 1;
+    }
+
+    /**
+     * Compares two classified tokens. The result has the same sign as comparing the numeric values of two numeric
+     * tokens and as {@link String#compareToIgnoreCase(String)} for all other combinations.
+     *
+     * @param key1   key of the first token.
+     * @param token1 the first token.
+     * @param key2   key of the second token.
+     * @param token2 the second token.
+     * @return a negative number, zero or a positive number if the first token is lower, equal or greater.
+     */
+    static int compare(final long key1, final CharSequence token1, final long key2, final CharSequence token2) {
+        return compare(key1, token1, 0, token1.length(), key2, token2, 0, token2.length());
+    }
+
+    /**
+     * Compares two classified tokens given as character ranges.
+     *
+     * @see #compare(long, CharSequence, long, CharSequence)
+     */
+    static int compare(final long key1, final CharSequence chars1, final int start1, final int end1,
+                       final long key2, final CharSequence chars2, final int start2, final int end2) {
+        if (!isText(key1) && !isText(key2)) {
+            return compareKeys(key1, key2);
+        }
+
+        return compareIgnoreCase(chars1, start1, end1, chars2, start2, end2);
+    }
+
+    /**
+     * Compares two character ranges the same way {@link String#compareToIgnoreCase(String)} compares strings.
+     */
+    static int compareIgnoreCase(final CharSequence s1, final int start1, final int end1,
+                                 final CharSequence s2, final int start2, final int end2) {
+        int len1 = end1 - start1;
+        int len2 = end2 - start2;
+        int min = Math.min(len1, len2);
+
+        for (int i = 0; i < min; i++) {
+            char c1 = s1.charAt(start1 + i);
+            char c2 = s2.charAt(start2 + i);
+            if (c1 != c2) {
+                c1 = Character.toUpperCase(c1);
+                c2 = Character.toUpperCase(c2);
+                if (c1 != c2) {
+                    c1 = Character.toLowerCase(c1);
+                    c2 = Character.toLowerCase(c2);
+                    if (c1 != c2) {
+                        return c1 - c2;
+                    }
+                }
+            }
+        }
+
+        return len1 - len2;
+    }
+
+    private static long key(final int kind, final int value) {
+        return ((long) kind << 32) | (value & 0xFFFFFFFFL);
+    }
+
+    private static int rank(final CharSequence chars, final int start, final int end) {
+        int low = 0;
+        int high = SYMBOLS.length - 1;
+
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            String symbol = SYMBOLS[mid];
+            int cmp = compareIgnoreCase(symbol, 0, symbol.length(), chars, start, end);
+
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Parses an int like {@link Integer#parseInt(String)} (ASCII digits only) but signals invalid numbers by returning
+     * {@link Long#MIN_VALUE} instead of throwing an exception.
+     */
+    private static long parseInt(final CharSequence chars, final int start, final int end) {
+        int i = start;
+        boolean negative = false;
+
+        if (i < end && (chars.charAt(i) == '-' || chars.charAt(i) == '+')) {
+            negative = chars.charAt(i) == '-';
+            i++;
+        }
+        if (i >= end || end - i > 10) {
+            return Long.MIN_VALUE;
+        }
+
+        long result = 0;
+        for (; i < end; i++) {
+            char c = chars.charAt(i);
+            if (c < '0' || c > '9') {
+                return Long.MIN_VALUE;
+            }
+            result = result * 10 + (c - '0');
+        }
+
+        result = negative ? -result : result;
+        if (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE) {
+            return Long.MIN_VALUE;
+        }
+        return result;
+    }
+}
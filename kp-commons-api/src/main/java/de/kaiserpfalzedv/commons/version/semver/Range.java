@@ -62,6 +62,23 @@ public class Range {
         throw new RuntimeException("Code error. Unknown RangeOperator: " + this.op); // Should never happen
     }
 
+    public boolean isSatisfiedBy(VersionCursor version) {
+        switch (this.op) {
+            case EQ:
+                return version.isEquivalentTo(this.version);
+            case LT:
+                return version.isLowerThan(this.version);
+            case LTE:
+                return version.isLowerThan(this.version) || version.isEquivalentTo(this.version);
+            case GT:
+                return version.isGreaterThan(this.version);
+            case GTE:
+                return version.isGreaterThan(this.version) || version.isEquivalentTo(this.version);
+        }
+
+        throw new RuntimeException("Code error. Unknown RangeOperator: " + this.op); // Should never happen
+    }
+
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
@@ -71,6 +71,24 @@ public class Requirement {
     protected final RequirementOperator op;
     protected final Requirement req2;
 
+    /**
+     * All ranges of this requirement if it only consists of AND combined ranges, null if there is an OR within.
+     */
+    private final Range[] conjunction;
+
+    /**
+     * True if the requirement contains {@link SemverType#MAVEN maven} versions. Maven qualifiers are no prereleases,
+     * so the prerelease rule of NPM does not apply.
+     */
+    private final boolean maven;
+
+    /**
+     * The interval representation and canonical form of this requirement. Computed on first use.
+     */
+    private volatile IntervalSet intervals;
+    private volatile CanonicalRequirement canonical;
+    private volatile CompiledRequirement compiled;
+
     /**
      * Builds a requirement. (private use only)
      * <p>
@@ -86,6 +104,24 @@ public class Requirement {
         this.req1 = req1;
         this.op = op;
         this.req2 = req2;
+        this.conjunction = conjunction(range, req1, op, req2);
+        this.maven = range != null
+                ? range.version != null && range.version.getType() == SemverType.MAVEN
+                : req1.maven || req2.maven;
+    }
+
+    private static Range[] conjunction(final Range range, final Requirement req1, final RequirementOperator op, final Requirement req2) {
+        if (range != null) {
+            return new Range[]{range};
+        }
+        if (op != RequirementOperator.AND || req1.conjunction == null || req2.conjunction == null) {
+            return null;
+        }
+
+        Range[] result = new Range[req1.conjunction.length + req2.conjunction.length];
+        System.arraycopy(req1.conjunction, 0, result, 0, req1.conjunction.length);
+        System.arraycopy(req2.conjunction, 0, result, req1.conjunction.length, req2.conjunction.length);
+        return result;
     }
 
     /**
@@ -213,6 +249,98 @@ public class Requirement {
         throw new VersionException("Invalid requirement");
     }
 
+    /**
+     * Builds a requirement following the rules of Maven. Supports a single version ({@code 1.0}, which is handled like
+     * the hard requirement {@code [1.0]}) and comma separated ranges with inclusive ({@code []}) and exclusive
+     * ({@code ()}) bounds: {@code [1.0,2.0)}, {@code (,1.0]}, {@code [1.5,)} or {@code (,1.0],[1.2,)}.
+     *
+     * @param requirement the requirement as a string
+     * @return the generated requirement
+     * @see <a href="https://maven.apache.org/pom.html#Dependency_Version_Requirement_Specification">Maven version ranges</a>
+     */
+    public static Requirement buildMaven(final String requirement) {
+        String spec = requirement.trim();
+        if (spec.isEmpty()) {
+            throw new VersionException("Invalid requirement: " + requirement);
+        }
+        if (spec.charAt(0) != '[' && spec.charAt(0) != '(') {
+            return build(new Semver(spec, SemverType.MAVEN));
+        }
+
+        Requirement result = null;
+        int start = 0;
+        while (start < spec.length()) {
+            char open = spec.charAt(start);
+            int close = start + 1;
+            while (close < spec.length() && spec.charAt(close) != ']' && spec.charAt(close) != ')') {
+                close++;
+            }
+            if ((open != '[' && open != '(') || close == spec.length()) {
+                throw new VersionException("Invalid requirement: " + requirement);
+            }
+
+            Requirement range = mavenRange(spec.substring(start + 1, close), open == '[', spec.charAt(close) == ']', requirement);
+            result = result == null ? range : new Requirement(null, result, RequirementOperator.OR, range);
+
+            start = close + 1;
+            while (start < spec.length() && Character.isWhitespace(spec.charAt(start))) {
+                start++;
+            }
+            if (start < spec.length()) {
+                if (spec.charAt(start) != ',' || start == spec.length() - 1) {
+                    throw new VersionException("Invalid requirement: " + requirement);
+                }
+                start++;
+                while (start < spec.length() && Character.isWhitespace(spec.charAt(start))) {
+                    start++;
+                }
+            }
+        }
+        return result;
+    }
+
+    private static Requirement mavenRange(final String bounds, final boolean lowerInclusive, final boolean upperInclusive,
+                                          final String requirement) {
+        int comma = bounds.indexOf(',');
+        if (comma < 0) {
+            // [1.0]: exactly this version
+            if (!lowerInclusive || !upperInclusive) {
+                throw new VersionException("Invalid requirement (single version has to be inclusive): " + requirement);
+            }
+            return build(new Semver(bounds, SemverType.MAVEN));
+        }
+        if (bounds.indexOf(',', comma + 1) >= 0) {
+            throw new VersionException("Invalid requirement: " + requirement);
+        }
+
+        String lower = bounds.substring(0, comma).trim();
+        String upper = bounds.substring(comma + 1).trim();
+        if (lower.isEmpty() && upper.isEmpty()) {
+            throw new VersionException("Invalid requirement (unbounded range): " + requirement);
+        }
+
+        Requirement lowerRequirement = null;
+        if (!lower.isEmpty()) {
+            Range.RangeOperator op = lowerInclusive ? Range.RangeOperator.GTE : Range.RangeOperator.GT;
+            lowerRequirement = new Requirement(new Range(new Semver(lower, SemverType.MAVEN), op), null, null, null);
+        }
+        Requirement upperRequirement = null;
+        if (!upper.isEmpty()) {
+            Range.RangeOperator op = upperInclusive ? Range.RangeOperator.LTE : Range.RangeOperator.LT;
+            upperRequirement = new Requirement(new Range(new Semver(upper, SemverType.MAVEN), op), null, null, null);
+        }
+
+        if (lowerRequirement == null) {
+            return upperRequirement;
+        } else if (upperRequirement == null) {
+            return lowerRequirement;
+        }
+        if (lowerRequirement.range.version.isGreaterThan(upperRequirement.range.version)) {
+            throw new VersionException("Invalid requirement (lower bound is greater than upper bound): " + requirement);
+        }
+        return new Requirement(null, lowerRequirement, RequirementOperator.AND, upperRequirement);
+    }
+
     /**
      * Return parenthesized expression, giving lowest priority to OR operator
      *
@@ -554,6 +682,8 @@ public class Requirement {
     public boolean isSatisfiedBy(final String version) {
         if (this.range != null) {
             return this.isSatisfiedBy(new Semver(version, this.range.version.getType()));
+        } else if (this.maven) {
+            return this.isSatisfiedBy(new Semver(version, SemverType.MAVEN));
         } else {
             return this.isSatisfiedBy(new Semver(version));
         }
@@ -573,40 +703,39 @@ public class Requirement {
             // We have several sub-requirements
             switch (this.op) {
                 case AND:
-                    try {
-                        List<Range> set = getAllRanges(this, new ArrayList<>());
-                        for (Range range : set) {
-                            if (!range.isSatisfiedBy(version)) {
-                                return false;
-                            }
+                    if (this.conjunction == null) {
+                        // We have a OR in AND - fallback to default test
+                        return this.req1.isSatisfiedBy(version) && this.req2.isSatisfiedBy(version);
+                    }
+
+                    for (Range range : this.conjunction) {
+                        if (!range.isSatisfiedBy(version)) {
+                            return false;
                         }
-                        if (version.getSuffixTokens().length > 0) {
-                            // Find the set of versions that are allowed to have prereleases
-                            // For example, ^1.2.3-pr.1 desugars to >=1.2.3-pr.1 <2.0.0
-                            // That should allow `1.2.3-pr.2` to pass.
-                            // However, `1.2.4-alpha.notready` should NOT be allowed,
-                            // even though it's within the range set by the comparators.
-                            for (Range range : set) {
-                                if (range.version == null) {
-                                    continue;
-                                }
-                                if (range.version.getSuffixTokens().length > 0) {
-                                    Semver allowed = range.version;
-                                    if (Objects.equals(version.getMajor(), allowed.getMajor()) &&
-                                            Objects.equals(version.getMinor(), allowed.getMinor()) &&
-                                            Objects.equals(version.getPatch(), allowed.getPatch())) {
-                                        return true;
-                                    }
+                    }
+                    if (version.getSuffixTokens().length > 0 && !this.maven && version.getType() != SemverType.MAVEN) {
+                        // Find the set of versions that are allowed to have prereleases
+                        // For example, ^1.2.3-pr.1 desugars to >=1.2.3-pr.1 <2.0.0
+                        // That should allow `1.2.3-pr.2` to pass.
+                        // However, `1.2.4-alpha.notready` should NOT be allowed,
+                        // even though it's within the range set by the comparators.
+                        for (Range range : this.conjunction) {
+                            if (range.version == null) {
+                                continue;
+                            }
+                            if (range.version.getSuffixTokens().length > 0) {
+                                Semver allowed = range.version;
+                                if (Objects.equals(version.getMajor(), allowed.getMajor()) &&
+                                        Objects.equals(version.getMinor(), allowed.getMinor()) &&
+                                        Objects.equals(version.getPatch(), allowed.getPatch())) {
+                                    return true;
                                 }
                             }
-                            // Version has a -pre, but it's not one of the ones we like.
-                            return false;
                         }
-                        return true;
-                    } catch (Exception e) {
-                        // Could be that we have a OR in AND - fallback to default test
-                        return this.req1.isSatisfiedBy(version) && this.req2.isSatisfiedBy(version);
+                        // Version has a -pre, but it's not one of the ones we like.
+                        return false;
                     }
+                    return true;
                 case OR:
                     return this.req1.isSatisfiedBy(version) || this.req2.isSatisfiedBy(version);
             }
@@ -614,16 +743,120 @@ public class Requirement {
         }
     }
 
-    private List<Range> getAllRanges(final Requirement requirement, final List<Range> res) {
+    /**
+     * Checks if the requirement is satisfied by the version a cursor points to. Works like
+     * {@link #isSatisfiedBy(Semver)} but without creating any objects.
+     *
+     * @param version the cursor pointing to the version that will be checked
+     * @return true if the version satisfies the requirement
+     */
+    public boolean isSatisfiedBy(final VersionCursor version) {
+        if (this.range != null) {
+            return this.range.isSatisfiedBy(version);
+        }
+
+        switch (this.op) {
+            case AND:
+                if (this.conjunction == null) {
+                    return this.req1.isSatisfiedBy(version) && this.req2.isSatisfiedBy(version);
+                }
+
+                for (Range range : this.conjunction) {
+                    if (!range.isSatisfiedBy(version)) {
+                        return false;
+                    }
+                }
+                if (version.hasSuffix() && !this.maven) {
+                    // Same rule for prereleases as in isSatisfiedBy(Semver)
+                    for (Range range : this.conjunction) {
+                        if (range.version != null && range.version.getSuffixTokens().length > 0
+                                && version.hasSameCore(range.version)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                }
+                return true;
+            case OR:
+                return this.req1.isSatisfiedBy(version) || this.req2.isSatisfiedBy(version);
+        }
+        throw new RuntimeException("Code error. Unknown RequirementOperator: " + this.op); // Should never happen
+    }
+
+    /**
+     * Returns the canonical form of this requirement. Requirements describing the same set of versions (like
+     * {@code ^1.2.0} and {@code >=1.2.0 <2.0.0}) share the same canonical form, so it can be used as key for caches
+     * and indexes.
+     *
+     * @return the canonical form of this requirement.
+     */
+    public CanonicalRequirement canonicalize() {
+        CanonicalRequirement result = canonical;
+        if (result == null) {
+            IntervalSet intervals = intervals();
+            result = intervals.isExact()
+                    ? new CanonicalRequirement(intervals.toString(), true)
+                    : new CanonicalRequirement(structure(this), false);
+            canonical = result;
+        }
+        return result;
+    }
+
+    /**
+     * Checks if two requirements are satisfied by the same versions.
+     *
+     * @param requirement the requirement to compare
+     * @return true if both requirements have the same canonical form
+     * @see #canonicalize()
+     */
+    public boolean isEquivalentTo(final Requirement requirement) {
+        return canonicalize().equals(requirement.canonicalize());
+    }
+
+    /**
+     * Prepares this requirement for being evaluated very often. The returned instance is shared by all callers of
+     * this requirement, so it counts all evaluations before switching to the compiled form.
+     *
+     * @return the compiled requirement.
+     * @see CompiledRequirement
+     */
+    public CompiledRequirement compile() {
+        CompiledRequirement result = compiled;
+        if (result == null) {
+            result = new CompiledRequirement(this);
+            compiled = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return the set of versions satisfying this requirement as intervals.
+     */
+    IntervalSet intervals() {
+        IntervalSet result = intervals;
+        if (result == null) {
+            result = IntervalSet.of(this);
+            intervals = result;
+        }
+        return result;
+    }
+
+    /**
+     * @return all ranges of this requirement if it only consists of AND combined ranges, null otherwise.
+     */
+    Range[] getConjunction() {
+        return conjunction;
+    }
+
+    /**
+     * Renders the tree of the requirement unambiguously. Used as canonical form if the intervals are not exact.
+     */
+    private static String structure(final Requirement requirement) {
         if (requirement.range != null) {
-            res.add(requirement.range);
-        } else if (requirement.op == RequirementOperator.AND) {
-            getAllRanges(requirement.req1, res);
-            getAllRanges(requirement.req2, res);
-        } else {
-            throw new RuntimeException("OR in AND not allowed");
+            return requirement.range.toString();
         }
-        return res;
+        return "(" + structure(requirement.req1) + (requirement.op == RequirementOperator.OR ? " || " : " ")
+                + structure(requirement.req2) + ")";
     }
 
     @Override
@@ -27,6 +27,9 @@ package de.kaiserpfalzedv.commons.version.semver;
 import de.kaiserpfalzedv.commons.version.VersionException;
 
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Objects;
 
 /**
@@ -34,15 +37,29 @@ import java.util.Objects;
  * (see http://semver.org)
  */
 public class Semver implements Comparable<Semver>, Serializable {
-    private final String originalValue;
-    private final String value;
+    private static final long serialVersionUID = 1L;
+
+    private volatile String originalValue;
+    private volatile String value;
     private final Integer major;
     private final Integer minor;
     private final Integer patch;
-    private final String[] suffixTokens;
-    private final String build;
+    private volatile String[] suffixTokens;
+    private final long[] suffixKeys;
+    private volatile String build;
     private final SemverType type;
 
+    /**
+     * The Maven ordering of a {@link SemverType#MAVEN} version, null for all other types.
+     */
+    private final MavenVersion maven;
+
+    /**
+     * The bytes of a version parsed from binary data. The strings of such a version are only created when they are
+     * requested. Null for versions created from strings.
+     */
+    private final RawVersion raw;
+
     public Semver(@SuppressWarnings("CdiInjectionPointsInspection") final String value) {
         this(value, SemverType.STRICT);
     }
@@ -50,7 +67,20 @@ public class Semver implements Comparable<Semver>, Serializable {
     public Semver(String value, final SemverType type) {
         this.originalValue = value;
         this.type = type;
+        this.raw = null;
         value = value.trim();
+        if (type == SemverType.MAVEN) {
+            MavenVersion maven = MavenVersion.of(value);
+            this.value = maven.getValue();
+            this.major = maven.getMajor();
+            this.minor = maven.getMinor();
+            this.patch = maven.getPatch();
+            this.suffixTokens = maven.getQualifier() != null ? new String[]{maven.getQualifier()} : new String[0];
+            this.suffixKeys = PrereleaseIdentifier.classify(this.suffixTokens);
+            this.maven = maven;
+            return;
+        }
+        this.maven = null;
         if (type == SemverType.NPM && (value.startsWith("v") || value.startsWith("V"))) {
             value = value.substring(1).trim();
         }
@@ -132,12 +162,83 @@ public class Semver implements Comparable<Semver>, Serializable {
         } catch (IndexOutOfBoundsException ignored) {
         }
         this.suffixTokens = suffix;
+        this.suffixKeys = PrereleaseIdentifier.classify(suffix);
 
         this.build = build;
 
         this.validate(type);
     }
 
+    /**
+     * Parses a version from UTF-8 (or ASCII) encoded bytes. The numbers are parsed directly from the bytes, the strings
+     * of the version (value, suffix tokens and build) are only created when they are requested.
+     *
+     * @param data   the data containing the version.
+     * @param offset the index of the first byte of the version.
+     * @param length the number of bytes of the version.
+     * @param type   the type of the version.
+     * @throws VersionException if the data contains no valid version.
+     */
+    public Semver(final byte[] data, final int offset, final int length, final SemverType type) {
+        this(Arrays.copyOfRange(data, offset, offset + length), type);
+    }
+
+    /**
+     * Parses a version from an UTF-8 (or ASCII) encoded buffer. The position and limit of the buffer are not changed.
+     *
+     * @param data   the buffer containing the version.
+     * @param offset the absolute index of the first byte of the version within the buffer.
+     * @param length the number of bytes of the version.
+     * @param type   the type of the version.
+     * @throws VersionException if the buffer contains no valid version.
+     * @see #Semver(byte[], int, int, SemverType)
+     */
+    public Semver(final ByteBuffer data, final int offset, final int length, final SemverType type) {
+        this(copy(data, offset, length), type);
+    }
+
+    private Semver(final byte[] raw, final SemverType type) {
+        if (type == SemverType.MAVEN) {
+            // the cursor does not know the maven rules.
+            MavenVersion maven = MavenVersion.of(new String(raw, StandardCharsets.UTF_8));
+            this.type = type;
+            this.raw = null;
+            this.originalValue = new String(raw, StandardCharsets.UTF_8);
+            this.value = maven.getValue();
+            this.major = maven.getMajor();
+            this.minor = maven.getMinor();
+            this.patch = maven.getPatch();
+            this.suffixTokens = maven.getQualifier() != null ? new String[]{maven.getQualifier()} : new String[0];
+            this.suffixKeys = PrereleaseIdentifier.classify(this.suffixTokens);
+            this.maven = maven;
+            return;
+        }
+
+        VersionCursor cursor = new VersionCursor(type).point(raw, 0, raw.length);
+
+        this.type = type;
+        this.raw = new RawVersion(raw, cursor);
+        this.major = cursor.getMajor();
+        this.minor = cursor.getMinor() >= 0 ? cursor.getMinor() : null;
+        this.patch = cursor.getPatch() >= 0 ? cursor.getPatch() : null;
+        this.suffixKeys = cursor.classifySuffix();
+        this.maven = null;
+    }
+
+    private static byte[] copy(final ByteBuffer data, final int offset, final int length) {
+        byte[] result = new byte[length];
+
+        if (data.hasArray()) {
+            System.arraycopy(data.array(), data.arrayOffset() + offset, result, 0, length);
+        } else {
+            for (int i = 0; i < length; i++) {
+                result[i] = data.get(offset + i);
+            }
+        }
+
+        return result;
+    }
+
     public static Semver create(final SemverType type, final int major, final Integer minor, final Integer patch, final String[] suffix, final String build) {
         StringBuilder sb = new StringBuilder()
                 .append(major);
@@ -151,7 +252,10 @@ public class Semver implements Comparable<Semver>, Serializable {
             boolean first = true;
             for (String suffixToken : suffix) {
                 if (first) {
-                    sb.append("-");
+                    // maven qualifiers may be separated by a dot (like 1.0.Final)
+                    if (type != SemverType.MAVEN || !suffixToken.startsWith(".")) {
+                        sb.append("-");
+                    }
                     first = false;
                 } else {
                     sb.append(".");
@@ -221,6 +325,9 @@ public class Semver implements Comparable<Semver>, Serializable {
             case IVY:
                 req = Requirement.buildIvy(requirement);
                 break;
+            case MAVEN:
+                req = Requirement.buildMaven(requirement);
+                break;
             default:
                 throw new VersionException("Invalid requirement type: " + type);
         }
@@ -243,6 +350,10 @@ public class Semver implements Comparable<Semver>, Serializable {
      * @return true if the current version is greater than the provided version
      */
     public boolean isGreaterThan(final Semver version) {
+        if (this.type == SemverType.MAVEN || version.type == SemverType.MAVEN) {
+            return this.getMavenVersion().compareTo(version.getMavenVersion()) > 0;
+        }
+
         // Compare the main part
         if (this.getMajor() > version.getMajor()) return true;
         else if (this.getMajor() < version.getMajor()) return false;
@@ -259,34 +370,27 @@ public class Semver implements Comparable<Semver>, Serializable {
         if (this.getPatch() != null && this.getPatch() > otherPatch) return true;
         else if (this.getPatch() != null && this.getPatch() < otherPatch) return false;
 
-        // Let's take a look at the suffix
-        String[] tokens1 = this.getSuffixTokens();
-        String[] tokens2 = version.getSuffixTokens();
+        // Let's take a look at the suffix (the tokens have been classified while parsing)
+        long[] keys1 = this.suffixKeys;
+        long[] keys2 = version.suffixKeys;
 
         // If one of the versions has no suffix, it's greater!
-        if (tokens1.length == 0 && tokens2.length > 0) return true;
-        if (tokens2.length == 0 && tokens1.length > 0) return false;
+        if (keys1.length == 0 && keys2.length > 0) return true;
+        if (keys2.length == 0 && keys1.length > 0) return false;
 
         // Let's see if one of suffixes is greater than the other
         int i = 0;
-        while (i < tokens1.length && i < tokens2.length) {
-            int cmp;
-            try {
-                // Trying to resolve the suffix part with an integer
-                int t1 = Integer.parseInt(tokens1[i]);
-                int t2 = Integer.parseInt(tokens2[i]);
-                cmp = t1 - t2;
-            } catch (NumberFormatException e) {
-                // Else, do a string comparison
-                cmp = tokens1[i].compareToIgnoreCase(tokens2[i]);
-            }
+        while (i < keys1.length && i < keys2.length) {
+            int cmp = PrereleaseIdentifier.isText(keys1[i]) || PrereleaseIdentifier.isText(keys2[i])
+                    ? PrereleaseIdentifier.compare(keys1[i], this.getSuffixTokens()[i], keys2[i], version.getSuffixTokens()[i])
+                    : PrereleaseIdentifier.compareKeys(keys1[i], keys2[i]);
             if (cmp < 0) return false;
             else if (cmp > 0) return true;
             i++;
         }
 
         // If one of the versions has some remaining suffixes, it's greater
-        return tokens1.length > tokens2.length;
+        return keys1.length > keys2.length;
     }
 
     /**
@@ -362,6 +466,10 @@ public class Semver implements Comparable<Semver>, Serializable {
      * @return true if the current version equals the provided version (build excluded)
      */
     public boolean isEquivalentTo(final Semver version) {
+        if (this.type == SemverType.MAVEN || version.type == SemverType.MAVEN) {
+            return this.getMavenVersion().compareTo(version.getMavenVersion()) == 0;
+        }
+
         // Get versions without build
         Semver sem1 = this.getBuild() == null ? this : new Semver(this.getValue().replace("+" + this.getBuild(), ""));
         Semver sem2 = version.getBuild() == null ? version : new Semver(version.getValue().replace("+" + version.getBuild(), ""));
@@ -401,6 +509,9 @@ public class Semver implements Comparable<Semver>, Serializable {
      * @return true if the current version is stable
      */
     public boolean isStable() {
+        if (this.type == SemverType.MAVEN) {
+            return this.getMajor() > 0 && !this.maven.isPrerelease();
+        }
         return (this.getMajor() != null && this.getMajor() > 0) &&
                 (this.getSuffixTokens() == null || this.getSuffixTokens().length == 0);
     }
@@ -423,20 +534,40 @@ public class Semver implements Comparable<Semver>, Serializable {
      * @return the greatest difference
      */
     public VersionDiff diff(final Semver version) {
+        if (this.type == SemverType.MAVEN && version.type == SemverType.MAVEN) {
+            return diffMaven(version);
+        }
+
         if (!Objects.equals(this.major, version.getMajor())) return VersionDiff.MAJOR;
         if (!Objects.equals(this.minor, version.getMinor())) return VersionDiff.MINOR;
         if (!Objects.equals(this.patch, version.getPatch())) return VersionDiff.PATCH;
         if (!areSameSuffixes(version.getSuffixTokens())) return VersionDiff.SUFFIX;
-        if (!Objects.equals(this.build, version.getBuild())) return VersionDiff.BUILD;
+        if (!Objects.equals(this.getBuild(), version.getBuild())) return VersionDiff.BUILD;
         return VersionDiff.NONE;
     }
 
+    /**
+     * Maven versions differ only if they do not compare as equal, missing numbers count as 0.
+     */
+    private VersionDiff diffMaven(final Semver version) {
+        if (this.maven.compareTo(version.maven) == 0) return VersionDiff.NONE;
+        if (!Objects.equals(this.major, version.getMajor())) return VersionDiff.MAJOR;
+        if (!Objects.equals(orZero(this.minor), orZero(version.getMinor()))) return VersionDiff.MINOR;
+        if (!Objects.equals(orZero(this.patch), orZero(version.getPatch()))) return VersionDiff.PATCH;
+        return VersionDiff.SUFFIX;
+    }
+
+    private static Integer orZero(final Integer number) {
+        return number != null ? number : 0;
+    }
+
     private boolean areSameSuffixes(final String[] suffixTokens) {
-        if (this.suffixTokens == null && suffixTokens == null) return true;
-        else if (this.suffixTokens == null || suffixTokens == null) return false;
-        else if (this.suffixTokens.length != suffixTokens.length) return false;
-        for (int i = 0; i < this.suffixTokens.length; i++) {
-            if (!this.suffixTokens[i].equals(suffixTokens[i])) return false;
+        String[] ownTokens = this.getSuffixTokens();
+        if (ownTokens == null && suffixTokens == null) return true;
+        else if (ownTokens == null || suffixTokens == null) return false;
+        else if (ownTokens.length != suffixTokens.length) return false;
+        for (int i = 0; i < ownTokens.length; i++) {
+            if (!ownTokens[i].equals(suffixTokens[i])) return false;
         }
         return true;
     }
@@ -444,7 +575,7 @@ public class Semver implements Comparable<Semver>, Serializable {
     public Semver toStrict() {
         Integer minor = this.minor != null ? this.minor : 0;
         Integer patch = this.patch != null ? this.patch : 0;
-        return Semver.create(SemverType.STRICT, this.major, minor, patch, this.suffixTokens, this.build);
+        return Semver.create(SemverType.STRICT, this.major, minor, patch, this.getSuffixTokens(), this.getBuild());
     }
 
     public Semver withIncMajor() {
@@ -496,11 +627,11 @@ public class Semver implements Comparable<Semver>, Serializable {
     }
 
     public Semver withSuffix(final String suffix) {
-        return with(this.major, this.minor, this.patch, suffix.split("\\."), this.build);
+        return with(this.major, this.minor, this.patch, suffix.split("\\."), this.getBuild());
     }
 
     public Semver withBuild(final String build) {
-        return with(this.major, this.minor, this.patch, this.suffixTokens, build);
+        return with(this.major, this.minor, this.patch, this.getSuffixTokens(), build);
     }
 
     public Semver nextMajor() {
@@ -518,8 +649,8 @@ public class Semver implements Comparable<Semver>, Serializable {
     private Semver with(final int major, Integer minor, Integer patch, final boolean suffix, final boolean build) {
         minor = this.minor != null ? minor : null;
         patch = this.patch != null ? patch : null;
-        String buildStr = build ? this.build : null;
-        String[] suffixTokens = suffix ? this.suffixTokens : null;
+        String buildStr = build ? this.getBuild() : null;
+        String[] suffixTokens = suffix ? this.getSuffixTokens() : null;
         return Semver.create(this.type, major, minor, patch, suffixTokens, buildStr);
     }
 
@@ -529,17 +660,24 @@ public class Semver implements Comparable<Semver>, Serializable {
         return Semver.create(this.type, major, minor, patch, suffixTokens, build);
     }
 
+    /**
+     * Versions are equal if they have the same value. Maven versions are equal to the maven versions comparing as
+     * equal (like {@code 1.0} and {@code 1.0.0}) and to no other version.
+     */
     @Override
     public boolean equals(final Object o) {
         if (this == o) return true;
         if (!(o instanceof Semver)) return false;
         Semver version = (Semver) o;
-        return value.equals(version.value);
+        if (this.type == SemverType.MAVEN || version.type == SemverType.MAVEN) {
+            return this.type == version.type && this.maven.equals(version.maven);
+        }
+        return getValue().equals(version.getValue());
     }
 
     @Override
     public int hashCode() {
-        return value.hashCode();
+        return type == SemverType.MAVEN ? maven.hashCode() : getValue().hashCode();
     }
 
     @Override
@@ -560,7 +698,12 @@ public class Semver implements Comparable<Semver>, Serializable {
      * @return the original string passed in the constructor
      */
     public String getOriginalValue() {
-        return originalValue;
+        String result = originalValue;
+        if (result == null) {
+            result = raw.string(0, raw.bytes.length);
+            originalValue = result;
+        }
+        return result;
     }
 
     /**
@@ -569,7 +712,12 @@ public class Semver implements Comparable<Semver>, Serializable {
      * @return the version as a String
      */
     public String getValue() {
-        return value;
+        String result = value;
+        if (result == null) {
+            result = raw.string(raw.valueStart, raw.valueEnd);
+            value = result;
+        }
+        return result;
     }
 
     /**
@@ -609,7 +757,12 @@ public class Semver implements Comparable<Semver>, Serializable {
      * @return the suffix of the version
      */
     public String[] getSuffixTokens() {
-        return suffixTokens;
+        String[] result = suffixTokens;
+        if (result == null) {
+            result = raw.suffixStart >= 0 ? raw.string(raw.suffixStart, raw.suffixEnd).split("\\.") : new String[0];
+            suffixTokens = result;
+        }
+        return result;
     }
 
     /**
@@ -619,13 +772,59 @@ public class Semver implements Comparable<Semver>, Serializable {
      * @return the build of the version
      */
     public String getBuild() {
-        return build;
+        String result = build;
+        if (result == null && raw != null && raw.buildStart >= 0) {
+            result = raw.string(raw.buildStart, raw.valueEnd);
+            build = result;
+        }
+        return result;
     }
 
     public SemverType getType() {
         return type;
     }
 
+    /**
+     * @return the classification of the suffix tokens (see {@link PrereleaseIdentifier}). Must not be modified.
+     */
+    long[] getSuffixKeys() {
+        return suffixKeys;
+    }
+
+    /**
+     * @return the Maven ordering of this version (parsed from the value if this is no maven version).
+     */
+    MavenVersion getMavenVersion() {
+        return maven != null ? maven : MavenVersion.of(getValue());
+    }
+
+    /**
+     * The bytes of a version and the positions of its parts as found by the {@link VersionCursor}.
+     */
+    private static final class RawVersion implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[] bytes;
+        private final int valueStart;
+        private final int valueEnd;
+        private final int suffixStart;
+        private final int suffixEnd;
+        private final int buildStart;
+
+        private RawVersion(final byte[] bytes, final VersionCursor cursor) {
+            this.bytes = bytes;
+            this.valueStart = cursor.valueStart();
+            this.valueEnd = cursor.valueEnd();
+            this.suffixStart = cursor.suffixStart();
+            this.suffixEnd = cursor.suffixEnd();
+            this.buildStart = cursor.buildStart();
+        }
+
+        private String string(final int start, final int end) {
+            return new String(bytes, start, end - start, StandardCharsets.UTF_8);
+        }
+    }
+
     /**
      * The types of diffs between two versions.
      */
@@ -669,6 +868,13 @@ public class Semver implements Comparable<Semver>, Serializable {
          * Supports dynamic parts (eg: 4.2.+) and ranges
          * See http://ant.apache.org/ivy/history/latest-milestone/ivyfile/dependency.html
          */
-        IVY
+        IVY,
+
+        /**
+         * Follows the rules of Maven (ComparableVersion).
+         * Supports qualifiers (eg: 1.0-SNAPSHOT, 2.0-M1, 1.0.Final) and ranges (eg: [1.0,2.0))
+         * See https://maven.apache.org/pom.html#Version_Order_Specification
+         */
+        MAVEN
     }
 }
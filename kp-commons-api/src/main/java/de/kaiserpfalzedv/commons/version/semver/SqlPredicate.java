@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A parameterized SQL condition created by the {@link SqlTranslator}. The condition is meant to be used within the
+ * {@code WHERE} clause of a prepared statement, the parameters have to be bound in their order.
+ * <p>
+ * If the predicate is not {@link #isExact() exact}, the database returns a superset of the matching rows and every
+ * returned row, release or prerelease, has to be checked with {@link Requirement#isSatisfiedBy(Semver)} afterwards.
+ * Releases are widened as well if the requirement contains incomplete or {@link Semver.SemverType#MAVEN maven}
+ * versions. Rows of an exact predicate need no check.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class SqlPredicate {
+    private final String where;
+    private final List<Object> parameters;
+    private final boolean exact;
+
+    SqlPredicate(final String where, final List<Object> parameters, final boolean exact) {
+        this.where = where;
+        this.parameters = Collections.unmodifiableList(parameters);
+        this.exact = exact;
+    }
+
+    /**
+     * @return the condition with {@code ?} as placeholders for the parameters.
+     */
+    public String getWhere() {
+        return where;
+    }
+
+    /**
+     * @return the parameters (Integer and Boolean values) in the order of their placeholders.
+     */
+    public List<Object> getParameters() {
+        return parameters;
+    }
+
+    /**
+     * @return true if exactly the rows satisfying the requirement are matched.
+     */
+    public boolean isExact() {
+        return exact;
+    }
+
+    /**
+     * Binds the parameters to a statement.
+     *
+     * @param statement the statement containing the condition.
+     * @param offset    the index of the first placeholder of the condition within the statement (starting with 1).
+     * @return the index after the last placeholder of the condition.
+     * @throws SQLException if a parameter could not be set.
+     */
+    public int bind(final PreparedStatement statement, final int offset) throws SQLException {
+        int index = offset;
+        for (Object parameter : parameters) {
+            statement.setObject(index++, parameter);
+        }
+        return index;
+    }
+
+    @Override
+    public String toString() {
+        return where + " " + parameters;
+    }
+}
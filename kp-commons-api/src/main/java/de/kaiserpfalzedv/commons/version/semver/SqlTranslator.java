@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Translates a {@link Requirement} into a SQL condition, so versions stored in a database can be filtered by the
+ * database.
+ * <p>
+ * The versions have to be stored in four columns: major, minor and patch as integer columns (not null) and a boolean
+ * column which is true for prereleases. Prereleases of versions used as bounds of the requirement can not be ordered
+ * without their suffix, such rows are included and the predicate is marked as not {@link SqlPredicate#isExact()
+ * exact}. The same is true for requirements that can not be converted exactly into version intervals (see
+ * {@link CanonicalRequirement}): bounds of incomplete versions are widened to all versions with the given numbers and
+ * {@link Semver.SemverType#MAVEN maven} requirements do not bound at all, so releases are included as well. Only the
+ * rows of an exact predicate satisfy the requirement without a check, the rows of any other predicate have to be
+ * filtered with {@link Requirement#isSatisfiedBy(Semver)}.
+ *
+ * <pre>
+ *     SqlPredicate predicate = new SqlTranslator().translate(Requirement.buildNPM("^1.2.0"));
+ *     PreparedStatement statement = connection.prepareStatement("SELECT * FROM versions WHERE " + predicate.getWhere());
+ *     predicate.bind(statement, 1);
+ * </pre>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class SqlTranslator {
+    private static final Pattern COLUMN = Pattern.compile("[A-Za-z_][A-Za-z0-9_]*(\\.[A-Za-z_][A-Za-z0-9_]*)?");
+
+    private final String major;
+    private final String minor;
+    private final String patch;
+    private final String prerelease;
+
+    /**
+     * Creates a translator for the columns {@code major}, {@code minor}, {@code patch} and {@code prerelease}.
+     */
+    public SqlTranslator() {
+        this("major", "minor", "patch", "prerelease");
+    }
+
+    /**
+     * Creates a translator for the given columns. The column names may be qualified by a table alias.
+     *
+     * @param major      the column containing the major version.
+     * @param minor      the column containing the minor version.
+     * @param patch      the column containing the patch version.
+     * @param prerelease the boolean column that is true for prereleases.
+     * @throws VersionException if a column name is no plain SQL identifier.
+     */
+    public SqlTranslator(final String major, final String minor, final String patch, final String prerelease) {
+        this.major = column(major);
+        this.minor = column(minor);
+        this.patch = column(patch);
+        this.prerelease = column(prerelease);
+    }
+
+    private static String column(final String name) {
+        if (name == null || !COLUMN.matcher(name).matches()) {
+            throw new VersionException("Invalid column name: " + name);
+        }
+        return name;
+    }
+
+    /**
+     * @param requirement the requirement to translate.
+     * @return the condition matching the versions satisfying the requirement.
+     */
+    public SqlPredicate translate(final Requirement requirement) {
+        IntervalSet intervals = requirement.intervals();
+        if (intervals.isEmpty()) {
+            return new SqlPredicate("1 = 0", new ArrayList<>(), true);
+        }
+
+        StringBuilder where = new StringBuilder();
+        List<Object> parameters = new ArrayList<>();
+        boolean exact = intervals.isExact();
+
+        for (IntervalSet.Clause clause : intervals.clauses()) {
+            if (where.length() > 0) {
+                where.append(" OR ");
+            }
+
+            if (clause.lower == null && clause.upper == null && clause.prereleases == null) {
+                // everything matches.
+                return new SqlPredicate("1 = 1", new ArrayList<>(), exact);
+            }
+
+            where.append('(');
+            releases(clause, where, parameters);
+            if (clause.prereleases == null || !clause.prereleases.isEmpty()) {
+                where.append(" OR ");
+                exact &= prereleases(clause, where, parameters);
+            }
+            where.append(')');
+        }
+
+        return new SqlPredicate(where.toString(), parameters, exact);
+    }
+
+    /**
+     * Releases are greater than all prereleases of their core, so a prerelease bound works like its core.
+     */
+    private void releases(final IntervalSet.Clause clause, final StringBuilder where, final List<Object> parameters) {
+        where.append('(').append(prerelease).append(" = ?");
+        parameters.add(Boolean.FALSE);
+
+        if (clause.lower != null) {
+            boolean inclusive = clause.lowerInclusive || isPrerelease(clause.lower);
+            where.append(" AND ");
+            compare(clause.lower, ">", inclusive, where, parameters);
+        }
+        if (clause.upper != null) {
+            boolean inclusive = clause.upperInclusive && !isPrerelease(clause.upper);
+            where.append(" AND ");
+            compare(clause.upper, "<", inclusive, where, parameters);
+        }
+        where.append(')');
+    }
+
+    /**
+     * Prereleases are lower than the release of their core. Compared to a prerelease bound of the same core, the
+     * suffix decides, so these rows are included and have to be checked again.
+     *
+     * @return true if the condition is exact.
+     */
+    private boolean prereleases(final IntervalSet.Clause clause, final StringBuilder where, final List<Object> parameters) {
+        boolean exact = true;
+
+        where.append('(').append(prerelease).append(" = ?");
+        parameters.add(Boolean.TRUE);
+
+        if (clause.prereleases != null) {
+            where.append(" AND (");
+            for (int i = 0; i < clause.prereleases.size(); i++) {
+                if (i > 0) {
+                    where.append(" OR ");
+                }
+                equal(clause.prereleases.get(i), where, parameters);
+            }
+            where.append(')');
+        }
+
+        if (clause.lower != null) {
+            boolean inclusive = isPrerelease(clause.lower);
+            exact &= !inclusive || !clause.allowsPrereleasesOf(clause.lower.withClearedSuffixAndBuild());
+
+            where.append(" AND ");
+            compare(clause.lower, ">", inclusive, where, parameters);
+        }
+        if (clause.upper != null) {
+            exact &= !isPrerelease(clause.upper) || !clause.allowsPrereleasesOf(clause.upper.withClearedSuffixAndBuild());
+
+            where.append(" AND ");
+            compare(clause.upper, "<", true, where, parameters);
+        }
+        where.append(')');
+
+        return exact;
+    }
+
+    /**
+     * Compares the columns lexicographically with the core of a version:
+     * {@code major > ? OR (major = ? AND (minor > ? OR (minor = ? AND patch >= ?)))}.
+     */
+    private void compare(final Semver version, final String operator, final boolean inclusive,
+                         final StringBuilder where, final List<Object> parameters) {
+        where.append('(')
+                .append(major).append(' ').append(operator).append(" ? OR (")
+                .append(major).append(" = ? AND (")
+                .append(minor).append(' ').append(operator).append(" ? OR (")
+                .append(minor).append(" = ? AND ")
+                .append(patch).append(' ').append(operator).append(inclusive ? "=" : "").append(" ?))))");
+
+        parameters.add(version.getMajor());
+        parameters.add(version.getMajor());
+        parameters.add(version.getMinor());
+        parameters.add(version.getMinor());
+        parameters.add(version.getPatch());
+    }
+
+    private void equal(final Semver version, final StringBuilder where, final List<Object> parameters) {
+        where.append('(')
+                .append(major).append(" = ? AND ")
+                .append(minor).append(" = ? AND ")
+                .append(patch).append(" = ?)");
+
+        parameters.add(version.getMajor());
+        parameters.add(version.getMinor());
+        parameters.add(version.getPatch());
+    }
+
+    private static boolean isPrerelease(final Semver version) {
+        return version.getSuffixTokens().length > 0;
+    }
+}
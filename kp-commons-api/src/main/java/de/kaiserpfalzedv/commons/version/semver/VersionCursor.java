@@ -0,0 +1,605 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+
+/**
+ * A mutable, reusable view of a version. The cursor can be pointed at any {@link CharSequence} or byte range
+ * containing a version and offers the comparisons of {@link Semver} and the check against a {@link Requirement}
+ * without creating any objects. It is meant for loops comparing millions of versions that are dropped afterwards:
+ *
+ * <pre>
+ *     VersionCursor cursor = new VersionCursor(Semver.SemverType.NPM);
+ *     for (String row : rows) {
+ *         if (cursor.point(row).satisfies(requirement)) {
+ *             ...
+ *         }
+ *     }
+ * </pre>
+ * <p>
+ * The cursor does not copy the data it points to, so the data must not change while the cursor is used. A cursor is
+ * not thread safe. Byte ranges are read as ASCII (like versions are).
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class VersionCursor implements CharSequence {
+    private final Semver.SemverType type;
+
+    private CharSequence chars;
+    private byte[] bytes;
+    private int offset;
+    private int length;
+
+    private int valueStart;
+    private int valueEnd;
+    private int coreEnd;
+    private int major;
+    private int minor;
+    private int patch;
+    private int suffixStart;
+    private int suffixEnd;
+    private int buildStart;
+
+    /**
+     * @param type the type of the versions.
+     * @throws VersionException for {@link Semver.SemverType#MAVEN}, maven versions have to be parsed as {@link Semver}.
+     */
+    public VersionCursor(final Semver.SemverType type) {
+        if (type == Semver.SemverType.MAVEN) {
+            throw new VersionException("The cursor does not support maven versions.");
+        }
+        this.type = type;
+    }
+
+    /**
+     * Points the cursor to a new version.
+     *
+     * @param text the version.
+     * @return this cursor.
+     * @throws VersionException if the text is no valid version.
+     */
+    public VersionCursor point(final CharSequence text) {
+        return point(text, 0, text.length());
+    }
+
+    /**
+     * Points the cursor to a new version.
+     *
+     * @param text  the text containing the version.
+     * @param start the index of the first character of the version.
+     * @param end   the index after the last character of the version.
+     * @return this cursor.
+     * @throws VersionException if the text is no valid version.
+     */
+    public VersionCursor point(final CharSequence text, final int start, final int end) {
+        this.chars = text;
+        this.bytes = null;
+        this.offset = start;
+        this.length = end - start;
+
+        parse();
+        return this;
+    }
+
+    /**
+     * Points the cursor to a new version given as ASCII bytes.
+     *
+     * @param data   the data containing the version.
+     * @param offset the index of the first byte of the version.
+     * @param length the number of bytes of the version.
+     * @return this cursor.
+     * @throws VersionException if the data contains no valid version.
+     */
+    public VersionCursor point(final byte[] data, final int offset, final int length) {
+        this.chars = null;
+        this.bytes = data;
+        this.offset = offset;
+        this.length = length;
+
+        parse();
+        return this;
+    }
+
+    private void parse() {
+        int start = 0;
+        int end = length;
+        while (start < end && at(start) <= ' ') start++;
+        while (end > start && at(end - 1) <= ' ') end--;
+        if (type == Semver.SemverType.NPM && start < end && (at(start) == 'v' || at(start) == 'V')) {
+            start++;
+            while (start < end && at(start) <= ' ') start++;
+        }
+        valueStart = start;
+        valueEnd = end;
+
+        int plus = indexOf('+', start, end);
+        int hyphen = indexOf('-', start, end);
+
+        int mainEnd;
+        suffixStart = -1;
+        suffixEnd = -1;
+        buildStart = -1;
+        if (hyphen >= 0 && (plus < 0 || hyphen < plus)) {
+            if (end - 1 > hyphen && at(end - 1) == '+') {
+                throw new VersionException("The build cannot be empty.");
+            }
+
+            mainEnd = hyphen;
+            suffixStart = hyphen + 1;
+            suffixEnd = end;
+            if (plus >= 0 && indexOf('+', plus + 1, end) < 0) {
+                suffixEnd = plus;
+                buildStart = plus + 1;
+            }
+        } else {
+            if (end > start && at(end - 1) == '+') {
+                throw new VersionException("The build cannot be empty.");
+            }
+
+            mainEnd = end;
+            if (plus >= 0) {
+                mainEnd = plus;
+                if (indexOf('+', plus + 1, end) < 0) {
+                    buildStart = plus + 1;
+                }
+            }
+        }
+        coreEnd = buildStart >= 0 ? buildStart - 1 : valueEnd;
+
+        int tokenEnd = endOfToken(start, mainEnd);
+        major = parseNumber(start, tokenEnd);
+        if (major < 0) {
+            throw new VersionException("Invalid version (no major version): " + this);
+        }
+
+        minor = -1;
+        patch = -1;
+        if (tokenEnd + 1 < mainEnd) {
+            int tokenStart = tokenEnd + 1;
+            tokenEnd = endOfToken(tokenStart, mainEnd);
+            minor = parseNumber(tokenStart, tokenEnd);
+            if (minor < 0 && !isWildcard(tokenStart, tokenEnd)) {
+                throw new VersionException("Invalid version (no minor version): " + this);
+            }
+
+            if (tokenEnd + 1 < mainEnd) {
+                tokenStart = tokenEnd + 1;
+                tokenEnd = endOfToken(tokenStart, mainEnd);
+                patch = parseNumber(tokenStart, tokenEnd);
+                if (patch < 0 && !isWildcard(tokenStart, tokenEnd)) {
+                    throw new VersionException("Invalid version (no patch version): " + this);
+                }
+            } else if (type == Semver.SemverType.STRICT) {
+                throw new VersionException("Invalid version (no patch version): " + this);
+            }
+        } else if (type == Semver.SemverType.STRICT) {
+            throw new VersionException("Invalid version (no minor version): " + this);
+        }
+    }
+
+    public Semver.SemverType getType() {
+        return type;
+    }
+
+    /**
+     * @return the major part of the version.
+     */
+    public int getMajor() {
+        return major;
+    }
+
+    /**
+     * @return the minor part of the version or -1 if there is none.
+     */
+    public int getMinor() {
+        return minor;
+    }
+
+    /**
+     * @return the patch part of the version or -1 if there is none.
+     */
+    public int getPatch() {
+        return patch;
+    }
+
+    /**
+     * @return true if the version has a suffix (prerelease).
+     */
+    public boolean hasSuffix() {
+        return suffixStart >= 0;
+    }
+
+    /**
+     * @return true if the version has a build.
+     */
+    public boolean hasBuild() {
+        return buildStart >= 0;
+    }
+
+    /**
+     * Check if the version satisfies a requirement
+     *
+     * @param requirement the requirement
+     * @return true if the version satisfies the requirement
+     */
+    public boolean satisfies(final Requirement requirement) {
+        return requirement.isSatisfiedBy(this);
+    }
+
+    /**
+     * Checks if the version is greater than another version
+     *
+     * @param version the version to compare
+     * @return true if the current version is greater than the provided version
+     * @see Semver#isGreaterThan(Semver)
+     */
+    public boolean isGreaterThan(final Semver version) {
+        if (version.getType() == Semver.SemverType.MAVEN) {
+            return toSemver().isGreaterThan(version);
+        }
+
+        Integer otherMinor = version.getMinor();
+        Integer otherPatch = version.getPatch();
+        int core = compareCore(version.getMajor(), otherMinor != null ? otherMinor : -1, otherPatch != null ? otherPatch : -1);
+        if (core != 0) {
+            return core > 0;
+        }
+
+        long[] keys = version.getSuffixKeys();
+        int count = suffixTokenCount();
+        if (count == 0) {
+            return keys.length > 0;
+        }
+        if (keys.length == 0) {
+            return false;
+        }
+
+        int start = suffixStart;
+        for (int i = 0; i < count && i < keys.length; i++) {
+            int end = endOfSuffixToken(start);
+            long key = PrereleaseIdentifier.classify(this, start, end);
+            int cmp;
+            if (PrereleaseIdentifier.isText(key) || PrereleaseIdentifier.isText(keys[i])) {
+                String token = version.getSuffixTokens()[i];
+                cmp = PrereleaseIdentifier.compare(key, this, start, end, keys[i], token, 0, token.length());
+            } else {
+                cmp = PrereleaseIdentifier.compareKeys(key, keys[i]);
+            }
+            if (cmp != 0) {
+                return cmp > 0;
+            }
+            start = end + 1;
+        }
+        // trailing empty tokens do not count, like in Semver.
+        return count > keys.length;
+    }
+
+    /**
+     * Checks if the version is greater than another version
+     *
+     * @param version the version to compare
+     * @return true if the current version is greater than the provided version
+     * @see Semver#isGreaterThan(Semver)
+     */
+    public boolean isGreaterThan(final VersionCursor version) {
+        int core = compareCore(version.major, version.minor, version.patch);
+        if (core != 0) {
+            return core > 0;
+        }
+
+        int count = suffixTokenCount();
+        int otherCount = version.suffixTokenCount();
+        if (count == 0) {
+            return otherCount > 0;
+        }
+        if (otherCount == 0) {
+            return false;
+        }
+
+        int start = suffixStart;
+        int otherStart = version.suffixStart;
+        for (int i = 0; i < count && i < otherCount; i++) {
+            int end = endOfSuffixToken(start);
+            int otherEnd = version.endOfSuffixToken(otherStart);
+            int cmp = PrereleaseIdentifier.compare(
+                    PrereleaseIdentifier.classify(this, start, end), this, start, end,
+                    PrereleaseIdentifier.classify(version, otherStart, otherEnd), version, otherStart, otherEnd
+            );
+            if (cmp != 0) {
+                return cmp > 0;
+            }
+            start = end + 1;
+            otherStart = otherEnd + 1;
+        }
+        return count > otherCount;
+    }
+
+    /**
+     * Compares major, minor and patch like {@link Semver#isGreaterThan(Semver)} does.
+     *
+     * @return 1 if this version is greater, -1 if it is lower and 0 if the suffixes need to be compared.
+     */
+    private int compareCore(final int otherMajor, final int otherMinor, final int otherPatch) {
+        if (major != otherMajor) return major > otherMajor ? 1 : -1;
+
+        if (type == Semver.SemverType.NPM && otherMinor < 0) return -1;
+        int minorToCompare = Math.max(otherMinor, 0);
+        if (minor >= 0 && minor != minorToCompare) return minor > minorToCompare ? 1 : -1;
+
+        if (type == Semver.SemverType.NPM && otherPatch < 0) return -1;
+        int patchToCompare = Math.max(otherPatch, 0);
+        if (patch >= 0 && patch != patchToCompare) return patch > patchToCompare ? 1 : -1;
+
+        return 0;
+    }
+
+    /**
+     * Checks if the version equals another version, without taking the build into account.
+     *
+     * @param version the version to compare
+     * @return true if the current version equals the provided version (build excluded)
+     * @see Semver#isEquivalentTo(Semver)
+     */
+    public boolean isEquivalentTo(final Semver version) {
+        if (version.getType() == Semver.SemverType.MAVEN) {
+            return toSemver().isEquivalentTo(version);
+        }
+
+        if (type == Semver.SemverType.NPM && !hasBuild()) {
+            if (major != version.getMajor()) return false;
+            if (version.getMinor() == null) return true;
+            if (version.getPatch() == null) return true;
+        }
+
+        String value = version.getValue();
+        String build = version.getBuild();
+        int end = build == null ? value.length() : value.length() - build.length() - 1;
+
+        return regionEquals(value, 0, end);
+    }
+
+    /**
+     * Checks if the version equals another version, without taking the build into account.
+     *
+     * @param version the version to compare
+     * @return true if the current version equals the provided version (build excluded)
+     * @see Semver#isEquivalentTo(Semver)
+     */
+    public boolean isEquivalentTo(final VersionCursor version) {
+        if (type == Semver.SemverType.NPM && !hasBuild()) {
+            if (major != version.major) return false;
+            if (version.minor < 0) return true;
+            if (version.patch < 0) return true;
+        }
+
+        return regionEquals(version, version.valueStart, version.coreEnd);
+    }
+
+    public boolean isGreaterThanOrEqualTo(final Semver version) {
+        return isGreaterThan(version) || isEquivalentTo(version);
+    }
+
+    public boolean isGreaterThanOrEqualTo(final VersionCursor version) {
+        return isGreaterThan(version) || isEquivalentTo(version);
+    }
+
+    public boolean isLowerThan(final Semver version) {
+        return !isGreaterThan(version) && !isEquivalentTo(version);
+    }
+
+    public boolean isLowerThan(final VersionCursor version) {
+        return !isGreaterThan(version) && !isEquivalentTo(version);
+    }
+
+    public boolean isLowerThanOrEqualTo(final Semver version) {
+        return !isGreaterThan(version);
+    }
+
+    public boolean isLowerThanOrEqualTo(final VersionCursor version) {
+        return !isGreaterThan(version);
+    }
+
+    /**
+     * @param version the version to compare
+     * @return 1, 0 or -1 like {@link Semver#compareTo(Semver)}.
+     */
+    public int compareTo(final Semver version) {
+        if (isGreaterThan(version)) return 1;
+        else if (isLowerThan(version)) return -1;
+        return 0;
+    }
+
+    /**
+     * @param version the version to compare
+     * @return 1, 0 or -1 like {@link Semver#compareTo(Semver)}.
+     */
+    public int compareTo(final VersionCursor version) {
+        if (isGreaterThan(version)) return 1;
+        else if (isLowerThan(version)) return -1;
+        return 0;
+    }
+
+    /**
+     * Checks if major, minor and patch are the same as the ones of another version.
+     */
+    boolean hasSameCore(final Semver version) {
+        Integer otherMinor = version.getMinor();
+        Integer otherPatch = version.getPatch();
+
+        return major == version.getMajor()
+                && minor == (otherMinor != null ? otherMinor : -1)
+                && patch == (otherPatch != null ? otherPatch : -1);
+    }
+
+    /**
+     * Classifies the suffix tokens the same way {@link String#split(String)} separates them in {@link Semver}.
+     *
+     * @return the keys of the suffix tokens.
+     */
+    long[] classifySuffix() {
+        int count = suffixTokenCount();
+        long[] result = new long[count];
+        int start = suffixStart;
+        for (int i = 0; i < count; i++) {
+            int end = endOfSuffixToken(start);
+            result[i] = PrereleaseIdentifier.classify(this, start, end);
+            start = end + 1;
+        }
+        return result;
+    }
+
+    /**
+     * @return the number of suffix tokens {@link String#split(String)} returns in {@link Semver}.
+     */
+    private int suffixTokenCount() {
+        if (!hasSuffix()) {
+            return 0;
+        }
+
+        // trailing empty tokens are dropped by split, but only if there is a separator at all.
+        int tokens = 0;
+        int nonEmpty = 0;
+        for (int start = suffixStart; ; ) {
+            int end = endOfSuffixToken(start);
+            tokens++;
+            if (end > start) {
+                nonEmpty = tokens;
+            }
+            if (end >= suffixEnd) {
+                break;
+            }
+            start = end + 1;
+        }
+        return tokens == 1 ? 1 : nonEmpty;
+    }
+
+    int valueStart() {
+        return valueStart;
+    }
+
+    int valueEnd() {
+        return valueEnd;
+    }
+
+    int suffixStart() {
+        return suffixStart;
+    }
+
+    int suffixEnd() {
+        return suffixEnd;
+    }
+
+    int buildStart() {
+        return buildStart;
+    }
+
+    /**
+     * @return the version the cursor points to as a new semver.
+     */
+    public Semver toSemver() {
+        return new Semver(toString(), type);
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(final int index) {
+        if (index < 0 || index >= length) {
+            throw new IndexOutOfBoundsException("index " + index + " out of range 0.." + length);
+        }
+        return at(index);
+    }
+
+    @Override
+    public CharSequence subSequence(final int start, final int end) {
+        StringBuilder result = new StringBuilder(end - start);
+        for (int i = start; i < end; i++) {
+            result.append(charAt(i));
+        }
+        return result.toString();
+    }
+
+    @Override
+    public String toString() {
+        return subSequence(0, length).toString();
+    }
+
+    private char at(final int index) {
+        return bytes != null ? (char) (bytes[offset + index] & 0xFF) : chars.charAt(offset + index);
+    }
+
+    private int indexOf(final char c, final int start, final int end) {
+        for (int i = start; i < end; i++) {
+            if (at(i) == c) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private int endOfToken(final int start, final int end) {
+        int result = indexOf('.', start, end);
+        return result >= 0 ? result : end;
+    }
+
+    private int endOfSuffixToken(final int start) {
+        return endOfToken(start, suffixEnd);
+    }
+
+    private int parseNumber(final int start, final int end) {
+        if (start >= end || end - start > 10) {
+            return -1;
+        }
+
+        long result = 0;
+        for (int i = start; i < end; i++) {
+            char c = at(i);
+            if (c < '0' || c > '9') {
+                return -1;
+            }
+            result = result * 10 + (c - '0');
+        }
+        return result <= Integer.MAX_VALUE ? (int) result : -1;
+    }
+
+    private boolean isWildcard(final int start, final int end) {
+        if (type != Semver.SemverType.NPM || end - start != 1) {
+            return false;
+        }
+
+        char c = at(start);
+        return c == 'x' || c == 'X' || c == '*';
+    }
+
+    private boolean regionEquals(final CharSequence other, final int otherStart, final int otherEnd) {
+        if (coreEnd - valueStart != otherEnd - otherStart) {
+            return false;
+        }
+
+        for (int i = 0; i < coreEnd - valueStart; i++) {
+            if (at(valueStart + i) != other.charAt(otherStart + i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+/**
+ * Packs the core of a version into a single long that can be compared with the long comparison operators.
+ * <p>
+ * Layout: {@code major << 43 | minor << 22 | patch << 1 | release}. Major has 20 bits, minor and patch have 21 bits.
+ * The lowest bit is 1 for releases and 0 for prereleases, so all prereleases of a core are sorted directly below the
+ * release. The order of two prereleases of the same core is not contained within the key. Versions that can not be
+ * packed (missing minor or patch number, numbers too big, maven versions) have the key {@link #INVALID}.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class VersionKey {
+    /**
+     * The key of versions that can not be packed. Lower than all valid keys.
+     */
+    public static final long INVALID = -1L;
+
+    public static final int MAX_MAJOR = (1 << 20) - 1;
+    public static final int MAX_MINOR = (1 << 21) - 1;
+    public static final int MAX_PATCH = (1 << 21) - 1;
+
+    private VersionKey() {
+        // utility class
+    }
+
+    /**
+     * @param major   the major version.
+     * @param minor   the minor version.
+     * @param patch   the patch version.
+     * @param release true if the version is no prerelease.
+     * @return the key of the version or {@link #INVALID}.
+     */
+    public static long of(final int major, final int minor, final int patch, final boolean release) {
+        if (major < 0 || major > MAX_MAJOR || minor < 0 || minor > MAX_MINOR || patch < 0 || patch > MAX_PATCH) {
+            return INVALID;
+        }
+
+        return ((long) major << 43) | ((long) minor << 22) | ((long) patch << 1) | (release ? 1L : 0L);
+    }
+
+    /**
+     * @param version the version to pack.
+     * @return the key of the version or {@link #INVALID}.
+     */
+    public static long of(final Semver version) {
+        if (version.getMinor() == null || version.getPatch() == null || version.getType() == Semver.SemverType.MAVEN) {
+            return INVALID;
+        }
+
+        return of(version.getMajor(), version.getMinor(), version.getPatch(), version.getSuffixKeys().length == 0);
+    }
+
+    /**
+     * @param version the cursor pointing to the version to pack.
+     * @return the key of the version or {@link #INVALID}.
+     */
+    public static long of(final VersionCursor version) {
+        return of(version.getMajor(), version.getMinor(), version.getPatch(), !version.hasSuffix());
+    }
+
+    public static int major(final long key) {
+        return (int) (key >>> 43);
+    }
+
+    public static int minor(final long key) {
+        return (int) (key >>> 22) & MAX_MINOR;
+    }
+
+    public static int patch(final long key) {
+        return (int) (key >>> 1) & MAX_PATCH;
+    }
+
+    public static boolean isRelease(final long key) {
+        return (key & 1L) != 0;
+    }
+
+    /**
+     * @param key a valid key.
+     * @return the lowest key with the same core (the key of its prereleases).
+     */
+    public static long coreFloor(final long key) {
+        return key & ~1L;
+    }
+
+    /**
+     * @param key a valid key.
+     * @return the lowest key of the next core (the key of the prereleases of the next patch).
+     */
+    public static long coreCeiling(final long key) {
+        return (key | 1L) + 1;
+    }
+
+    /**
+     * Classifies the difference of two valid keys like {@link Semver#diff(Semver)}. Equal keys yield
+     * {@link Semver.VersionDiff#NONE}, but the versions may still differ in their suffixes or builds.
+     *
+     * @param key1 the first key.
+     * @param key2 the second key.
+     * @return the greatest difference of the keys.
+     */
+    public static Semver.VersionDiff diff(final long key1, final long key2) {
+        long difference = key1 ^ key2;
+
+        if (difference == 0) {
+            return Semver.VersionDiff.NONE;
+        } else if ((difference >>> 43) != 0) {
+            return Semver.VersionDiff.MAJOR;
+        } else if ((difference >>> 22) != 0) {
+            return Semver.VersionDiff.MINOR;
+        } else if ((difference >>> 1) != 0) {
+            return Semver.VersionDiff.PATCH;
+        }
+        return Semver.VersionDiff.SUFFIX;
+    }
+}
@@ -0,0 +1,547 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Finds all version literals within large texts (lock files, build logs, SBOMs, ...).
+ * <p>
+ * The scanner reads the input once and reports every occurrence of a version to a {@link Listener}. Neither strings
+ * nor {@link Semver} objects are created unless the listener asks for them via {@link Occurrence#text()} or
+ * {@link Occurrence#toSemver()}. The numeric core of the version is parsed while scanning.
+ * <p>
+ * The grammar is the one of {@link Semver} for the given {@link Semver.SemverType}: {@code major[.minor[.patch]]}
+ * followed by an optional {@code -suffix} and an optional {@code +build}. {@link Semver.SemverType#STRICT} requires
+ * minor and patch, {@link Semver.SemverType#NPM} accepts a leading {@code v} and the wildcards {@code x} and
+ * {@code *} for minor and patch. A version has to start at a word boundary, so {@code abc1.2.3} does not contain a
+ * version, but {@code commons-lang3-3.12.0.jar} contains {@code 3.12.0}.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public class VersionScanner {
+    /**
+     * Versions longer than this are ignored.
+     */
+    static final int MAX_LENGTH = 256;
+
+    private static final int CHUNK_SIZE = 8192;
+    private static final long MAP_SIZE = 1L << 28;
+
+    private final Semver.SemverType type;
+
+    public VersionScanner(final Semver.SemverType type) {
+        this.type = type;
+    }
+
+    /**
+     * Scans a character sequence (e.g. a {@link java.nio.CharBuffer} or a {@link String}).
+     *
+     * @param input    the text to scan.
+     * @param listener the listener receiving the occurrences.
+     * @return the number of versions found.
+     */
+    public long scan(final CharSequence input, final Listener listener) {
+        Machine machine = new Machine(type, listener);
+        for (int i = 0; i < input.length(); i++) {
+            machine.accept(input.charAt(i));
+        }
+        return machine.finish();
+    }
+
+    /**
+     * Scans a reader. The reader is read until its end but not closed.
+     *
+     * @param input    the text to scan.
+     * @param listener the listener receiving the occurrences.
+     * @return the number of versions found.
+     * @throws IOException if the reader could not be read.
+     */
+    public long scan(final Reader input, final Listener listener) throws IOException {
+        Machine machine = new Machine(type, listener);
+        char[] chunk = new char[CHUNK_SIZE];
+
+        int read;
+        while ((read = input.read(chunk)) != -1) {
+            for (int i = 0; i < read; i++) {
+                machine.accept(chunk[i]);
+            }
+        }
+        return machine.finish();
+    }
+
+    /**
+     * Scans a file by mapping it into memory. Since versions only consist of ASCII characters the file is read byte
+     * by byte, all non ASCII characters are treated as separators. The offsets reported are byte offsets.
+     *
+     * @param file     the file to scan.
+     * @param listener the listener receiving the occurrences.
+     * @return the number of versions found.
+     * @throws IOException if the file could not be read.
+     */
+    public long scan(final Path file, final Listener listener) throws IOException {
+        Machine machine = new Machine(type, listener);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            for (long position = 0; position < size; position += MAP_SIZE) {
+                MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(MAP_SIZE, size - position));
+                while (buffer.hasRemaining()) {
+                    byte b = buffer.get();
+                    machine.accept(b >= 0 ? (char) b : ' ');
+                }
+            }
+        }
+        return machine.finish();
+    }
+
+    /**
+     * Receives the versions found by the scanner.
+     */
+    @FunctionalInterface
+    public interface Listener {
+        /**
+         * Called for every version found. The occurrence is reused by the scanner and only valid during this call.
+         *
+         * @param occurrence the version found.
+         */
+        void onVersion(Occurrence occurrence);
+    }
+
+    /**
+     * A version found within the text. The object is reused for all occurrences of a scan, so it must not be stored
+     * by the listener. It is a {@link CharSequence} of the version text.
+     */
+    public static final class Occurrence implements CharSequence {
+        private final Semver.SemverType type;
+        private final char[] chars = new char[MAX_LENGTH];
+        private int length;
+        private long offset;
+        private int major;
+        private int minor;
+        private int patch;
+        private boolean suffix;
+        private boolean build;
+
+        private Occurrence(final Semver.SemverType type) {
+            this.type = type;
+        }
+
+        /**
+         * @return the offset of the first character of the version within the input.
+         */
+        public long offset() {
+            return offset;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(final int index) {
+            if (index < 0 || index >= length) {
+                throw new IndexOutOfBoundsException("index " + index + " out of range 0.." + length);
+            }
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return new String(chars, start, end - start);
+        }
+
+        /**
+         * @return the major version.
+         */
+        public int major() {
+            return major;
+        }
+
+        /**
+         * @return the minor version or -1 if the version has no minor version (or a wildcard).
+         */
+        public int minor() {
+            return minor;
+        }
+
+        /**
+         * @return the patch level or -1 if the version has no patch level (or a wildcard).
+         */
+        public int patch() {
+            return patch;
+        }
+
+        /**
+         * @return true if the version has a suffix (prerelease).
+         */
+        public boolean hasSuffix() {
+            return suffix;
+        }
+
+        /**
+         * @return true if the version has a build.
+         */
+        public boolean hasBuild() {
+            return build;
+        }
+
+        /**
+         * @return the version as text. Creates a new string.
+         */
+        public String text() {
+            return new String(chars, 0, length);
+        }
+
+        /**
+         * @return the version as semver (of the type used for scanning). Creates a new object.
+         */
+        public Semver toSemver() {
+            return new Semver(text(), type);
+        }
+
+        @Override
+        public String toString() {
+            return text();
+        }
+    }
+
+    /**
+     * The state machine doing the scanning. It is fed one character at a time, so all input types share the same
+     * implementation.
+     */
+    private static final class Machine {
+        private static final int OUTSIDE = 0;
+        private static final int PREFIX = 1;
+        private static final int MAJOR = 2;
+        private static final int MINOR_START = 3;
+        private static final int MINOR = 4;
+        private static final int PATCH_START = 5;
+        private static final int PATCH = 6;
+        private static final int EXTRA_START = 7;
+        private static final int EXTRA = 8;
+        private static final int SUFFIX_START = 9;
+        private static final int SUFFIX = 10;
+        private static final int BUILD_START = 11;
+        private static final int BUILD = 12;
+        private static final int SKIP = 13;
+
+        private final Semver.SemverType type;
+        private final Listener listener;
+        private final Occurrence occurrence;
+        private final char[] buffer = new char[MAX_LENGTH];
+
+        private int state = OUTSIDE;
+        private long position;
+        private long start;
+        private int length;
+        private char previous = ' ';
+
+        private long number;
+        private boolean wildcard;
+        private int major;
+        private int minor;
+        private int patch;
+        private int suffixStart;
+        private int buildStart;
+        private int valid;
+        private long count;
+
+        private Machine(final Semver.SemverType type, final Listener listener) {
+            this.type = type;
+            this.listener = listener;
+            this.occurrence = new Occurrence(type);
+        }
+
+        private void accept(final char c) {
+            switch (state) {
+                case OUTSIDE:
+                    outside(c);
+                    break;
+                case PREFIX:
+                    if (isDigit(c)) {
+                        if (type != Semver.SemverType.NPM) {
+                            // only NPM accepts the leading v
+                            length = 0;
+                            start = position;
+                        }
+                        startNumber(c, MAJOR);
+                    } else {
+                        state = OUTSIDE;
+                        outside(c);
+                    }
+                    break;
+                case MAJOR:
+                case MINOR:
+                case PATCH:
+                case EXTRA:
+                    number(c);
+                    break;
+                case MINOR_START:
+                    if (isDigit(c)) {
+                        startNumber(c, MINOR);
+                    } else if (isWildcard(c)) {
+                        startWildcard(c, MINOR);
+                    } else {
+                        end(c);
+                    }
+                    break;
+                case PATCH_START:
+                    if (isDigit(c)) {
+                        startNumber(c, PATCH);
+                    } else if (isWildcard(c)) {
+                        startWildcard(c, PATCH);
+                    } else {
+                        end(c);
+                    }
+                    break;
+                case EXTRA_START:
+                    if (isDigit(c)) {
+                        startNumber(c, EXTRA);
+                    } else {
+                        end(c);
+                    }
+                    break;
+                case SUFFIX_START:
+                case BUILD_START:
+                    if (isIdentifier(c)) {
+                        append(c, state == SUFFIX_START ? SUFFIX : BUILD);
+                        markValid();
+                    } else {
+                        end(c);
+                    }
+                    break;
+                case SUFFIX:
+                    if (isIdentifier(c)) {
+                        append(c, SUFFIX);
+                        markValid();
+                    } else if (c == '.') {
+                        append(c, SUFFIX_START);
+                    } else if (c == '+') {
+                        buildStart = length;
+                        append(c, BUILD_START);
+                    } else {
+                        end(c);
+                    }
+                    break;
+                case BUILD:
+                    if (isIdentifier(c)) {
+                        append(c, BUILD);
+                        markValid();
+                    } else if (c == '.') {
+                        append(c, BUILD_START);
+                    } else {
+                        end(c);
+                    }
+                    break;
+                case SKIP:
+                    if (isBoundary(c)) {
+                        state = OUTSIDE;
+                        outside(c);
+                    }
+                    break;
+                default:
+                    throw new IllegalStateException("Code error. Unknown scanner state: " + state); // Should never happen
+            }
+
+            previous = c;
+            position++;
+        }
+
+        private long finish() {
+            end(' ');
+            return count;
+        }
+
+        private void outside(final char c) {
+            if (!isBoundary(previous)) {
+                return;
+            }
+
+            if (isDigit(c)) {
+                begin();
+                startNumber(c, MAJOR);
+            } else if (c == 'v' || c == 'V') {
+                begin();
+                append(c, PREFIX);
+            }
+        }
+
+        private void begin() {
+            length = 0;
+            start = position;
+            minor = -1;
+            patch = -1;
+            suffixStart = -1;
+            buildStart = -1;
+            valid = 0;
+        }
+
+        private void startNumber(final char c, final int next) {
+            number = 0;
+            wildcard = false;
+            number(c, next);
+        }
+
+        private void startWildcard(final char c, final int next) {
+            wildcard = true;
+            append(c, next);
+            if (next == MINOR) {
+                minor = -1;
+            } else {
+                patch = -1;
+            }
+            markNumberValid(next);
+        }
+
+        private void number(final char c) {
+            if (isDigit(c)) {
+                if (wildcard) {
+                    reject();
+                } else {
+                    number(c, state);
+                }
+            } else if (c == '.') {
+                switch (state) {
+                    case MAJOR:
+                        append(c, MINOR_START);
+                        break;
+                    case MINOR:
+                        append(c, PATCH_START);
+                        break;
+                    default:
+                        append(c, EXTRA_START);
+                        break;
+                }
+            } else if (c == '-') {
+                suffixStart = length;
+                append(c, SUFFIX_START);
+            } else if (c == '+') {
+                buildStart = length;
+                append(c, BUILD_START);
+            } else if (isWordChar(c)) {
+                // something like "1.2.3a" is no valid version at all
+                reject();
+            } else {
+                end(c);
+            }
+        }
+
+        private void number(final char c, final int next) {
+            number = number * 10 + (c - '0');
+            if (number > Integer.MAX_VALUE) {
+                reject();
+                return;
+            }
+
+            if (next == MAJOR) {
+                major = (int) number;
+            } else if (next == MINOR) {
+                minor = (int) number;
+            } else if (next == PATCH) {
+                patch = (int) number;
+            }
+
+            append(c, next);
+            markNumberValid(next);
+        }
+
+        private void markNumberValid(final int part) {
+            if (part == PATCH || part == EXTRA || (type != Semver.SemverType.STRICT && (part == MAJOR || part == MINOR))) {
+                valid = length;
+            }
+        }
+
+        private void markValid() {
+            // suffix and build only count if the numeric core is valid.
+            if (valid > 0) {
+                valid = length;
+            }
+        }
+
+        private void append(final char c, final int next) {
+            if (length == MAX_LENGTH) {
+                reject();
+                return;
+            }
+
+            buffer[length++] = c;
+            state = next;
+        }
+
+        private void reject() {
+            length = 0;
+            valid = 0;
+            state = SKIP;
+        }
+
+        private void end(final char c) {
+            if (valid > 0) {
+                emit();
+            }
+
+            length = 0;
+            valid = 0;
+            state = isBoundary(c) ? OUTSIDE : SKIP;
+        }
+
+        private void emit() {
+            Occurrence result = occurrence;
+            System.arraycopy(buffer, 0, result.chars, 0, valid);
+            result.length = valid;
+            result.offset = start;
+            result.major = major;
+            result.minor = minor;
+            result.patch = patch;
+            result.suffix = suffixStart >= 0 && valid > suffixStart;
+            result.build = buildStart >= 0 && valid > buildStart;
+
+            count++;
+            listener.onVersion(result);
+        }
+
+        private boolean isWildcard(final char c) {
+            return type == Semver.SemverType.NPM && (c == 'x' || c == 'X' || c == '*');
+        }
+
+        /**
+         * A version may start after a boundary character.
+         */
+        private static boolean isBoundary(final char c) {
+            return !isWordChar(c) || c == '-' || c == '_';
+        }
+
+        private static boolean isDigit(final char c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isIdentifier(final char c) {
+            return isDigit(c) || (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '-';
+        }
+
+        private static boolean isWordChar(final char c) {
+            return isIdentifier(c) || c == '.' || c == '_' || c == '+';
+        }
+    }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompactMapTest {
+    private static Map<String, String> random(final Random random, final int size) {
+        Map<String, String> result = new HashMap<>();
+        while (result.size() < size) {
+            result.put("key-" + random.nextInt(100), "value-" + random.nextInt(1000));
+        }
+        return result;
+    }
+
+    @Test
+    public void behaves_like_other_maps() {
+        Random random = new Random(42);
+
+        for (int size = 0; size < 40; size++) {
+            Map<String, String> expected = random(random, size);
+            CompactMap sut = CompactMap.copyOf(expected);
+
+            assertEquals(expected, sut);
+            assertEquals(sut, expected);
+            assertEquals(expected.hashCode(), sut.hashCode());
+            assertEquals(expected.size(), sut.size());
+            assertEquals(expected.entrySet(), sut.entrySet());
+            assertEquals(expected.isEmpty(), sut.isEmpty());
+
+            for (int i = 0; i < 100; i++) {
+                String key = "key-" + i;
+                assertEquals(expected.get(key), sut.get(key), key);
+                assertEquals(expected.containsKey(key), sut.containsKey(key), key);
+            }
+            assertNull(sut.get(42));
+            assertFalse(sut.containsKey(null));
+        }
+    }
+
+    @Test
+    public void sorts_and_replaces_entries() {
+        CompactMap sut = CompactMap.builder()
+                .put("tier", "backend")
+                .put("app", "kp")
+                .put("tier", "frontend")
+                .build();
+
+        assertEquals("{app=kp, tier=frontend}", sut.toString());
+        assertSame(sut, CompactMap.copyOf(sut));
+        assertSame(CompactMap.of(), CompactMap.builder().build());
+    }
+
+    @Test
+    public void is_immutable_and_rejects_nulls() {
+        CompactMap sut = CompactMap.builder().put("app", "kp").build();
+
+        assertThrows(UnsupportedOperationException.class, () -> sut.put("tier", "backend"));
+        assertThrows(UnsupportedOperationException.class, () -> sut.remove("app"));
+        assertThrows(UnsupportedOperationException.class, sut::clear);
+        assertThrows(UnsupportedOperationException.class, () -> sut.entrySet().iterator().next().setValue("other"));
+        assertThrows(NullPointerException.class, () -> CompactMap.builder().put("app", null));
+        assertThrows(NullPointerException.class, () -> CompactMap.builder().put(null, "kp"));
+    }
+
+    @Test
+    public void shares_keys_between_maps() {
+        String key = new String(new char[]{'r', 'e', 'g', 'i', 'o', 'n'});
+
+        CompactMap first = CompactMap.builder().put("region", "eu").build();
+        CompactMap second = CompactMap.builder().put(key, "us").build();
+
+        assertSame(first.keySet().iterator().next(), second.keySet().iterator().next());
+    }
+
+    @Test
+    public void reads_and_writes_json_objects() throws IOException {
+        ObjectMapper mapper = new ObjectMapper();
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("app", "kp");
+        expected.put("tier", "backend");
+
+        String json = mapper.writeValueAsString(CompactMap.copyOf(expected));
+        assertEquals("{\"app\":\"kp\",\"tier\":\"backend\"}", json);
+
+        CompactMap result = mapper.readValue(json, CompactMap.class);
+        assertEquals(expected, result);
+    }
+
+    @Test
+    public void survives_java_serialization() throws IOException, ClassNotFoundException {
+        CompactMap sut = CompactMap.builder().put("app", "kp").put("tier", "backend").build();
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(sut);
+            out.writeObject(CompactMap.of());
+        }
+
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            CompactMap result = (CompactMap) in.readObject();
+            assertEquals(sut, result);
+            assertSame(sut.keySet().iterator().next(), result.keySet().iterator().next());
+            assertSame(CompactMap.of(), in.readObject());
+        }
+    }
+
+    @Test
+    public void plugs_into_metadata_builder() {
+        Metadata metadata = MetadataImmutable.builder()
+                .kind("Test")
+                .apiVersion(Version.from("1.0.0", Version.VersionType.STRICT))
+                .uuid(UUID.randomUUID())
+                .name("test")
+                .labels(CompactMap.builder().put("app", "kp").build())
+                .build();
+
+        assertEquals("kp", metadata.labels().get("app"));
+        assertTrue(metadata.annotations().isEmpty());
+    }
+}
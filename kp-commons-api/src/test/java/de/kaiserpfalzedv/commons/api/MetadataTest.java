@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.api;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jdk8.Jdk8Module;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URL;
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MetadataTest {
+    private static final UUID ID = UUID.fromString("7c1d5a5e-4d67-4f44-9c5f-2f0f6c1c3e55");
+
+    private static Metadata metadata(final String url) {
+        return MetadataImmutable.builder()
+                .kind("Test")
+                .apiVersion(Version.from("1.0.0", Version.VersionType.STRICT))
+                .uuid(ID)
+                .name("test")
+                .url(URI.create(url))
+                .build();
+    }
+
+    @Test
+    public void compares_urls_without_resolving_hosts() {
+        // java.net.URL considers both equal if localhost resolves to 127.0.0.1.
+        assertNotEquals(metadata("http://localhost/data/1"), metadata("http://127.0.0.1/data/1"));
+
+        assertEquals(metadata("http://localhost/data/1"), metadata("http://localhost/data/1"));
+        assertEquals(metadata("http://localhost/data/1").hashCode(), metadata("http://localhost/data/1").hashCode());
+    }
+
+    @Test
+    public void hashes_metadata_without_network() {
+        assertTimeoutPreemptively(Duration.ofSeconds(1), () -> {
+            Set<Metadata> set = new HashSet<>();
+            for (int i = 0; i < 1000; i++) {
+                set.add(metadata("https://host-" + i + ".unresolvable.invalid/data/" + i));
+            }
+
+            assertEquals(1000, set.size());
+            assertTrue(set.contains(metadata("https://host-7.unresolvable.invalid/data/7")));
+        });
+    }
+
+    @Test
+    public void keeps_url_as_string_in_json() throws IOException {
+        ObjectMapper mapper = new ObjectMapper()
+                .registerModule(new Jdk8Module())
+                .registerModule(new JavaTimeModule());
+        String url = "https://www.kaiserpfalz-edv.de/data/1?page=2#top";
+
+        JsonNode json = mapper.readTree(mapper.writeValueAsString(metadata(url)));
+        assertEquals(url, json.get("url").asText());
+
+        // the former URL attribute is written the same way and can be read as URI.
+        String former = mapper.writeValueAsString(new URL(url));
+        assertEquals(mapper.writeValueAsString(URI.create(url)), former);
+        assertEquals(URI.create(url), mapper.readValue(former, URI.class));
+    }
+}
@@ -28,9 +28,13 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MDC;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * @author rlichti
@@ -223,4 +227,35 @@ public class VersionTest {
                 .suffixes(SUFFIX)
                 .build();
     }
+
+    @Test
+    public void shouldParseVersionFromBuffer() {
+        MDC.put("test", "from-buffer");
+
+        ByteBuffer buffer = ByteBuffer.wrap(("\"version\":\"" + FULL_VERSION + "\"").getBytes(StandardCharsets.UTF_8));
+        Version result = Version.from(buffer, 11, FULL_VERSION.length(), TYPE);
+        LOG.trace("Parsed version from buffer. expected={}, version={}", FULL_VERSION, result);
+
+        assertEquals(FULL_VERSION, result.value());
+        assertEquals(MAJOR, result.major());
+        assertEquals(0, buffer.position());
+    }
+
+    @Test
+    public void shouldOrderMavenVersions() {
+        MDC.put("test", "maven-order");
+
+        Version snapshot = Version.from("1.0-SNAPSHOT", Version.VersionType.MAVEN);
+        Version release = Version.from("1.0.0.Final", Version.VersionType.MAVEN);
+        Version servicePack = Version.from("1.0-sp1", Version.VersionType.MAVEN);
+        LOG.trace("Parsed maven versions. snapshot={}, release={}, sp={}", snapshot, release, servicePack);
+
+        assertEquals("1.0.0.Final", release.value());
+        assertTrue(release.isGreaterThan(snapshot));
+        assertTrue(release.isEquivalentTo(Version.from("1", Version.VersionType.MAVEN)));
+        assertTrue(servicePack.isGreaterThan(release));
+        assertTrue(release.satisfies("[1.0,2.0)"));
+        assertFalse(snapshot.isStable());
+        assertTrue(release.isStable());
+    }
 }
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.semver.CompiledRequirement;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DependencyReaderTest {
+    private final DependencyReader sut = new DependencyReader();
+
+    private final List<String> dependencies = new ArrayList<>();
+    private final List<String> invalid = new ArrayList<>();
+
+    private final DependencyReader.Listener listener = new DependencyReader.Listener() {
+        @Override
+        public void onDependency(final String name, final CompiledRequirement requirement) {
+            dependencies.add(name + " " + requirement);
+        }
+
+        @Override
+        public void onInvalid(final String name, final String specification) {
+            invalid.add(name + " " + specification);
+        }
+    };
+
+    private static InputStream resource(final String name) {
+        return DependencyReaderTest.class.getResourceAsStream("/dependencies/" + name);
+    }
+
+    @Test
+    public void reads_package_json() throws IOException {
+        long count = sut.readPackageJson(resource("package.json"), listener);
+
+        assertEquals(5, count);
+        assertEquals(List.of("express >=4.17.1 <5.0.0", "lodash >=4.17.0 <5.0.0", "jest >=26.4.2 <26.5.0",
+                "typescript >=4.0.0 <4.1.0", "react >=16.8.0 <17.0.0 || >=17.0.0 <18.0.0"), dependencies);
+        assertEquals(List.of("left-pad github:left-pad/left-pad"), invalid);
+    }
+
+    @Test
+    public void reads_package_lock_version_1() throws IOException {
+        long count = sut.readPackageLock(resource("package-lock-v1.json"), listener);
+
+        assertEquals(5, count);
+        assertEquals(List.of("mime-types >=2.1.24 <2.2.0", "negotiator =0.6.2", "accepts >=1.3.7 <1.4.0",
+                "debug =2.6.9", "ms =2.0.0"), dependencies);
+    }
+
+    @Test
+    public void reads_package_lock_version_2_without_legacy_section() throws IOException {
+        long count = sut.readPackageLock(resource("package-lock-v2.json"), listener);
+
+        assertEquals(5, count);
+        assertEquals(List.of("express >=4.17.1 <5.0.0", "jest >=26.4.2 <26.5.0", "mime-types >=2.1.24 <2.2.0",
+                "negotiator =0.6.2", "accepts >=1.3.7 <1.4.0"), dependencies);
+    }
+
+    @Test
+    public void reads_yarn_lock() throws IOException {
+        long count = sut.readYarnLock(resource("yarn.lock"), listener);
+
+        assertEquals(4, count);
+        assertEquals(List.of("@babel/code-frame >=7.0.0 <8.0.0", "@babel/code-frame >=7.10.4 <8.0.0",
+                "accepts >=1.3.7 <1.4.0", "lodash >=4.17.19 <5.0.0"), dependencies);
+        assertEquals(List.of("left-pad github:left-pad/left-pad"), invalid);
+    }
+
+    @Test
+    public void deduplicates_requirements() {
+        assertSame(sut.requirement("^1.2.0"), sut.requirement("^1.2.0"));
+        assertSame(sut.requirement("^1.2.0"), sut.requirement(">=1.2.0 <2.0.0"));
+        assertSame(sut.requirement("^1.2.0"), sut.requirement("npm:other@^1.2.0"));
+        assertNull(sut.requirement("file:../local"));
+    }
+
+    @Test
+    public void streams_big_lockfiles() throws IOException {
+        int packages = 100_000;
+        Map<CompiledRequirement, Boolean> distinct = new IdentityHashMap<>();
+
+        long count = sut.readPackageLock(new GeneratedLockfile(packages), (name, requirement) -> distinct.put(requirement, true));
+
+        assertEquals(2L * packages, count);
+        assertTrue(distinct.size() <= 100, "requirements are shared: " + distinct.size());
+    }
+
+    /**
+     * Generates a version 2 lockfile with the given number of packages while it is read.
+     */
+    private static final class GeneratedLockfile extends InputStream {
+        private final int packages;
+        private int next = -1;
+        private byte[] chunk = "{\"lockfileVersion\":2,\"packages\":{".getBytes(StandardCharsets.UTF_8);
+        private int position;
+
+        private GeneratedLockfile(final int packages) {
+            this.packages = packages;
+        }
+
+        @Override
+        public int read() {
+            while (position >= chunk.length) {
+                next++;
+                if (next > packages) {
+                    return -1;
+                }
+
+                String text = next == packages
+                        ? "}}"
+                        : (next > 0 ? "," : "") + "\"node_modules/p" + next + "\":{\"version\":\"1.0." + next
+                        + "\",\"dependencies\":{\"a\":\"^" + (next % 50) + ".0.0\",\"b\":\"~1." + (next % 50) + ".0\"}}";
+                chunk = text.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return chunk[position++];
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.semver.Semver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class LockfileDiffTest {
+    private final List<String> changes = new ArrayList<>();
+
+    private final LockfileDiff.Listener listener = new LockfileDiff.Listener() {
+        @Override
+        public void onAdded(final ResolvedDependency dependency) {
+            changes.add("+ " + dependency);
+        }
+
+        @Override
+        public void onRemoved(final ResolvedDependency dependency) {
+            changes.add("- " + dependency);
+        }
+
+        @Override
+        public void onUpgraded(final ResolvedDependency before, final ResolvedDependency after, final Semver.VersionDiff diff) {
+            changes.add("^ " + before + " " + after.getVersion() + " " + diff);
+        }
+
+        @Override
+        public void onDowngraded(final ResolvedDependency before, final ResolvedDependency after, final Semver.VersionDiff diff) {
+            changes.add("v " + before + " " + after.getVersion() + " " + diff);
+        }
+    };
+
+    private static Stream<ResolvedDependency> snapshot(final String... entries) {
+        return Stream.of(entries).map(entry -> {
+            int at = entry.indexOf('@', 1);
+            return ResolvedDependency.of(entry.substring(0, at), entry.substring(at + 1));
+        });
+    }
+
+    @Test
+    public void reports_differences() {
+        long count = LockfileDiff.diff(
+                snapshot("a@1.0.0", "b@1.2.3", "c@2.0.0", "d@1.0.0-rc.1", "e@3.1.4", "f@1.0.0+1", "g@1.0.0"),
+                snapshot("a@1.0.0", "b@1.3.0", "c@1.9.9", "d@1.0.0-rc.2", "e@3.1.4", "f@1.0.0+2", "h@0.1.0"),
+                listener
+        );
+
+        assertEquals(List.of(
+                "^ b@1.2.3 1.3.0 MINOR",
+                "v c@2.0.0 1.9.9 MAJOR",
+                "^ d@1.0.0-rc.1 1.0.0-rc.2 SUFFIX",
+                "^ f@1.0.0+1 1.0.0+2 BUILD",
+                "- g@1.0.0",
+                "+ h@0.1.0"
+        ), changes);
+        assertEquals(6, count);
+    }
+
+    @Test
+    public void pairs_multiple_versions_of_a_package() {
+        LockfileDiff.diff(
+                snapshot("@scope/a@3.0.0", "@scope/a@1.0.0", "@scope/a@2.0.0", "b@1.0.0"),
+                snapshot("@scope/a@2.0.0", "@scope/a@1.0.1", "@scope/a@3.1.0", "@scope/a@4.0.0", "b@1.0.0"),
+                listener
+        );
+
+        assertEquals(List.of(
+                "^ @scope/a@1.0.0 1.0.1 PATCH",
+                "^ @scope/a@3.0.0 3.1.0 MINOR",
+                "+ @scope/a@4.0.0"
+        ), changes);
+    }
+
+    @Test
+    public void rejects_unsorted_snapshots() {
+        assertThrows(IllegalArgumentException.class,
+                () -> LockfileDiff.diff(snapshot("b@1.0.0", "a@1.0.0"), snapshot("a@1.0.0"), listener));
+    }
+
+    @Test
+    public void compares_large_snapshots_while_streaming() {
+        int size = 100_000;
+        Iterator<ResolvedDependency> before = IntStream.range(0, size)
+                .mapToObj(i -> ResolvedDependency.of(String.format("package-%06d", i), "1." + (i % 10) + ".0"))
+                .iterator();
+        Iterator<ResolvedDependency> after = IntStream.range(0, size)
+                .filter(i -> i % 1000 != 0)
+                .mapToObj(i -> ResolvedDependency.of(String.format("package-%06d", i), "1." + (i % 10) + (i % 7 == 0 ? ".1" : ".0")))
+                .iterator();
+
+        int[] counts = new int[2];
+        long count = LockfileDiff.diff(before, after, new LockfileDiff.Listener() {
+            @Override
+            public void onRemoved(final ResolvedDependency dependency) {
+                counts[0]++;
+            }
+
+            @Override
+            public void onUpgraded(final ResolvedDependency before, final ResolvedDependency after, final Semver.VersionDiff diff) {
+                assertEquals(Semver.VersionDiff.PATCH, diff);
+                counts[1]++;
+            }
+        });
+
+        int upgraded = (int) IntStream.range(0, size).filter(i -> i % 1000 != 0 && i % 7 == 0).count();
+        assertEquals(size / 1000, counts[0]);
+        assertEquals(upgraded, counts[1]);
+        assertEquals(size / 1000 + upgraded, count);
+    }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.semver.Requirement;
+import de.kaiserpfalzedv.commons.version.semver.Semver;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class MappedVersionCatalogTest {
+    private static final String[] SUFFIXES = {"alpha", "beta.2", "rc.1", "ünïcode"};
+
+    private static final String[] REQUIREMENTS = {
+            "^1.2.0", "~2.3.4", "1.x || >=4.10.0 <5.0.0", ">=2.2.4", "<0.1.0", "1.2.3", "*", "^1.2.3-beta.2",
+            ">=2.0.0-alpha <2.1.0", "<3.0.0-rc.1", ">1.2.3-alpha <=1.2.3-rc.1", ">=1.2 <2", "^0.0.5", ">3.0.0 <2.0.0",
+            // overlapping and out of order alternatives
+            ">=1.0.0 || 1.5.0", ">=0.1.0 || 1.x", "3.x || 1.x || 2.2.x", ">=1.2.0-beta.2 <1.2.0 || 1.2.0",
+            "^1.5.0 || 1.2.3 || >=1.1.0 <1.6.0", "4.x || >=2.0.0-alpha <2.1.0 || ~2.0.3",
+            // versions not described by their numbers
+            ">=2.0.0 3.x", "~2.x || >=3.0.0 0.2.1"
+    };
+
+    @TempDir
+    Path directory;
+
+    private static List<Semver> versions(final String... versions) {
+        List<Semver> result = new ArrayList<>();
+        for (String version : versions) {
+            result.add(new Semver(version, Semver.SemverType.NPM));
+        }
+        return result;
+    }
+
+    @Test
+    public void finds_versions_within_mapped_file() throws IOException {
+        Map<String, List<Semver>> packages = new HashMap<>();
+        packages.put("lodash", versions("4.17.20", "4.17.19", "4.17.21-rc.1", "3.10.1", "4.17.20+build"));
+        packages.put("@babel/core", versions("7.12.3", "7.12.3-beta.1", "6.26.3"));
+        packages.put("maven-only", Collections.singletonList(new Semver("1.0-SNAPSHOT", Semver.SemverType.MAVEN)));
+
+        Path file = directory.resolve("catalog.kpvc");
+        MappedVersionCatalog.write(file, packages);
+        MappedVersionCatalog sut = MappedVersionCatalog.open(file);
+
+        assertEquals(3, sut.size());
+        assertTrue(sut.contains("@babel/core"));
+        assertFalse(sut.contains("left-pad"));
+        assertEquals(4, sut.versionCount("lodash"));
+        assertEquals(0, sut.versionCount("maven-only"));
+
+        assertEquals("4.17.20", sut.latest("lodash").getValue());
+        assertEquals("4.17.20", sut.maxSatisfying("lodash", Requirement.buildNPM("^4.0.0")).getValue());
+        assertEquals("4.17.21-rc.1", sut.maxSatisfying("lodash", Requirement.buildNPM(">=4.17.21-alpha")).getValue());
+        assertEquals("3.10.1", sut.maxSatisfying("lodash", Requirement.buildNPM("<4")).getValue());
+        assertNull(sut.maxSatisfying("lodash", Requirement.buildNPM("^5.0.0")));
+        assertNull(sut.maxSatisfying("left-pad", Requirement.buildNPM("*")));
+
+        List<String> scanned = new ArrayList<>();
+        assertEquals(2, sut.scan("@babel/core", Requirement.buildNPM(">=7.0.0-alpha"), version -> scanned.add(version.getValue())));
+        assertEquals(List.of("7.12.3-beta.1", "7.12.3"), scanned);
+    }
+
+    @Test
+    public void matches_the_requirements() throws IOException {
+        Random random = new Random(37);
+        Map<String, List<Semver>> packages = new HashMap<>();
+        for (int i = 0; i < 200; i++) {
+            List<Semver> versions = new ArrayList<>();
+            for (int j = random.nextInt(60); j >= 0; j--) {
+                String suffix = random.nextInt(4) == 0 ? "-" + SUFFIXES[random.nextInt(SUFFIXES.length)] : "";
+                versions.add(new Semver(random.nextInt(6) + "." + random.nextInt(12) + "." + random.nextInt(12) + suffix,
+                        Semver.SemverType.STRICT));
+            }
+            packages.put("package-" + i, versions);
+        }
+
+        Path file = directory.resolve("random.kpvc");
+        MappedVersionCatalog.write(file, packages);
+        MappedVersionCatalog sut = MappedVersionCatalog.open(file);
+
+        for (String text : REQUIREMENTS) {
+            Requirement requirement = Requirement.buildNPM(text);
+
+            for (Map.Entry<String, List<Semver>> entry : packages.entrySet()) {
+                List<Semver> expected = new ArrayList<>();
+                for (Semver version : entry.getValue()) {
+                    if (requirement.isSatisfiedBy(version) && !expected.contains(version)) {
+                        expected.add(version);
+                    }
+                }
+                expected.sort(Semver::compareTo);
+
+                List<Semver> actual = new ArrayList<>();
+                sut.scan(entry.getKey(), requirement, actual::add);
+                assertEquals(expected, actual, text + " " + entry.getKey());
+
+                Semver max = sut.maxSatisfying(entry.getKey(), requirement);
+                assertEquals(expected.isEmpty() ? null : expected.get(expected.size() - 1), max, text + " " + entry.getKey());
+            }
+        }
+    }
+
+    @Test
+    public void selects_the_maximum_of_overlapping_alternatives() throws IOException {
+        Map<String, List<Semver>> packages = new HashMap<>();
+        packages.put("overlapping", versions("1.0.0", "1.5.0", "2.0.0", "3.1.4"));
+        packages.put("adjacent", versions("1.0.0-beta", "1.0.0"));
+
+        Path file = directory.resolve("overlapping.kpvc");
+        MappedVersionCatalog.write(file, packages);
+        MappedVersionCatalog sut = MappedVersionCatalog.open(file);
+
+        assertEquals("3.1.4", sut.maxSatisfying("overlapping", Requirement.buildNPM(">=1.0.0 || 1.5.0")).getValue());
+        assertEquals("3.1.4", sut.maxSatisfying("overlapping", Requirement.buildNPM(">=0.1.0 || 1.x")).getValue());
+        assertEquals("1.5.0", sut.maxSatisfying("overlapping", Requirement.buildNPM("1.x || 0.x")).getValue());
+
+        List<String> scanned = new ArrayList<>();
+        sut.scan("adjacent", Requirement.buildNPM(">=1.0.0-beta <1.0.0 || 1.0.0"), version -> scanned.add(version.getValue()));
+        assertEquals(List.of("1.0.0-beta", "1.0.0"), scanned);
+    }
+
+    @Test
+    public void rejects_other_files() throws IOException {
+        Path file = directory.resolve("other.json");
+        Files.writeString(file, "{\"name\": \"no catalog at all, but long enough for a header\"}");
+
+        assertThrows(IOException.class, () -> MappedVersionCatalog.open(file));
+    }
+}
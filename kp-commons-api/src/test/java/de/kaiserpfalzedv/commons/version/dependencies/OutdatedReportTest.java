@@ -0,0 +1,130 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.Version;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OutdatedReportTest {
+    private static Version version(final String version) {
+        return Version.from(version, Version.VersionType.STRICT);
+    }
+
+    @Test
+    public void reports_upgrades() {
+        Map<String, VersionCatalog> catalogs = new HashMap<>();
+        catalogs.put("left-pad", VersionCatalog.of(List.of("1.0.0", "1.0.1", "1.1.0", "1.3.0", "2.0.0"), Version.VersionType.STRICT));
+        catalogs.put("lodash", VersionCatalog.of(List.of("4.17.19", "4.17.20-rc.1", "4.17.20"), Version.VersionType.STRICT));
+
+        Map<String, Version> dependencies = new HashMap<>();
+        dependencies.put("left-pad", version("1.0.0"));
+        dependencies.put("lodash", version("4.17.20"));
+        dependencies.put("unknown", version("1.0.0"));
+
+        Map<String, OutdatedDependency> result = OutdatedReport.analyze(dependencies, catalogs);
+
+        assertEquals(2, result.size());
+
+        OutdatedDependency leftPad = result.get("left-pad");
+        assertEquals("1.0.1", leftPad.latestPatch().orElseThrow().value());
+        assertEquals("1.3.0", leftPad.latestMinor().orElseThrow().value());
+        assertEquals("2.0.0", leftPad.latestMajor().orElseThrow().value());
+        assertEquals("2.0.0", leftPad.latest().orElseThrow().value());
+        assertEquals(Version.VersionDiff.MAJOR, leftPad.diff());
+        assertTrue(leftPad.isOutdated());
+
+        OutdatedDependency lodash = result.get("lodash");
+        assertEquals(Version.VersionDiff.NONE, lodash.diff());
+        assertFalse(lodash.isOutdated());
+    }
+
+    @Test
+    public void reports_release_of_prerelease() {
+        OutdatedDependency result = OutdatedReport.analyze("lodash", version("4.17.20-rc.1"),
+                VersionCatalog.of(List.of("4.17.19", "4.17.20"), Version.VersionType.STRICT));
+
+        assertEquals("4.17.20", result.latestPatch().orElseThrow().value());
+        assertEquals(Version.VersionDiff.SUFFIX, result.diff());
+    }
+
+    @Test
+    public void matches_pairwise_comparison() throws InterruptedException {
+        Random random = new Random(34);
+
+        Map<String, VersionCatalog> catalogs = new HashMap<>();
+        Map<String, List<Version>> published = new HashMap<>();
+        Map<String, Version> dependencies = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            List<Version> versions = new ArrayList<>();
+            for (int j = random.nextInt(30); j >= 0; j--) {
+                versions.add(version(random.nextInt(4) + "." + random.nextInt(5) + "." + random.nextInt(5)
+                        + (random.nextInt(4) == 0 ? "-rc." + random.nextInt(3) : "")));
+            }
+
+            String name = "package-" + i;
+            published.put(name, versions);
+            catalogs.put(name, VersionCatalog.of(versions));
+            dependencies.put(name, version(random.nextInt(4) + "." + random.nextInt(5) + "." + random.nextInt(5)));
+        }
+
+        Map<String, OutdatedDependency> result = OutdatedReport.analyze(dependencies, catalogs, new ForkJoinPool(4));
+        assertEquals(dependencies.size(), result.size());
+
+        for (Map.Entry<String, Version> dependency : dependencies.entrySet()) {
+            Version current = dependency.getValue();
+
+            Version patch = null;
+            Version minor = null;
+            Version major = null;
+            for (Version candidate : published.get(dependency.getKey())) {
+                if (candidate.suffixes().isPresent() || !candidate.isGreaterThan(current)) {
+                    continue;
+                }
+
+                Version.VersionDiff diff = current.diff(candidate);
+                if (diff == Version.VersionDiff.MAJOR && (major == null || candidate.isGreaterThan(major))) {
+                    major = candidate;
+                } else if (diff == Version.VersionDiff.MINOR && (minor == null || candidate.isGreaterThan(minor))) {
+                    minor = candidate;
+                } else if (diff == Version.VersionDiff.PATCH && (patch == null || candidate.isGreaterThan(patch))) {
+                    patch = candidate;
+                }
+            }
+
+            OutdatedDependency actual = result.get(dependency.getKey());
+            assertEquals(value(patch), actual.latestPatch().map(Version::value).orElse(null), dependency.toString());
+            assertEquals(value(minor), actual.latestMinor().map(Version::value).orElse(null), dependency.toString());
+            assertEquals(value(major), actual.latestMajor().map(Version::value).orElse(null), dependency.toString());
+        }
+    }
+
+    private static String value(final Version version) {
+        return version != null ? version.value() : null;
+    }
+}
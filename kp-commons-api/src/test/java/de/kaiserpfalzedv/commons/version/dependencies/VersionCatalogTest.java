@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.Version;
+import de.kaiserpfalzedv.commons.version.semver.Requirement;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VersionCatalogTest {
+    private final VersionCatalog sut = VersionCatalog.of(Arrays.asList(
+            "2.0.0", "1.2.3", "1.2.10", "1.3.0-beta.1", "1.2.4", "1.3.0", "1.3.0-alpha", "1.4.2", "3.0.0-rc.1", "0.9.0"
+    ), Version.VersionType.STRICT);
+
+    private static Version version(final String version) {
+        return Version.from(version, Version.VersionType.STRICT);
+    }
+
+    private static String value(final Version version) {
+        return version != null ? version.value() : null;
+    }
+
+    @Test
+    public void sorts_versions() {
+        assertEquals(10, sut.size());
+        assertEquals("0.9.0", value(sut.get(0)));
+        assertEquals("1.3.0-alpha", value(sut.get(4)));
+        assertEquals("1.3.0-beta.1", value(sut.get(5)));
+        assertEquals("3.0.0-rc.1", value(sut.get(9)));
+        assertEquals("2.0.0", value(sut.latest()));
+    }
+
+    @Test
+    public void finds_upgrades() {
+        assertEquals("1.2.10", value(sut.latestPatch(version("1.2.3"))));
+        assertEquals("1.4.2", value(sut.latestMinor(version("1.2.3"))));
+        assertEquals("2.0.0", value(sut.latestMajor(version("1.2.3"))));
+
+        assertNull(sut.latestPatch(version("1.2.10")));
+        assertNull(sut.latestMinor(version("1.4.0")));
+        assertNull(sut.latestMajor(version("2.0.0")));
+        assertEquals("1.3.0", value(sut.latestPatch(version("1.3.0-beta.1"))));
+    }
+
+    @Test
+    public void finds_floor_and_ceiling() {
+        assertEquals("1.2.4", value(sut.floor(version("1.2.5"))));
+        assertEquals("1.2.10", value(sut.ceiling(version("1.2.5"))));
+        assertEquals("1.3.0-alpha", value(sut.floor(version("1.3.0-alpha.1"))));
+        assertEquals("1.3.0-beta.1", value(sut.ceiling(version("1.3.0-alpha.1"))));
+        assertEquals("1.3.0", value(sut.floor(version("1.3.0"))));
+        assertNull(sut.floor(version("0.1.0")));
+        assertNull(sut.ceiling(version("4.0.0")));
+    }
+
+    @Test
+    public void finds_max_satisfying() {
+        assertEquals("1.4.2", value(sut.maxSatisfying(Requirement.buildNPM("^1.2.0"))));
+        assertEquals("1.2.10", value(sut.maxSatisfying(Requirement.buildNPM("~1.2.3"))));
+        assertEquals("3.0.0-rc.1", value(sut.maxSatisfying(Requirement.buildNPM(">=3.0.0-alpha"))));
+        assertNull(sut.maxSatisfying(Requirement.buildNPM("^5.0.0")));
+    }
+
+    @Test
+    public void ignores_incomplete_versions() {
+        VersionCatalog catalog = VersionCatalog.of(Arrays.asList("1.2", "1.2.3"), Version.VersionType.LOOSE);
+
+        assertEquals(1, catalog.size());
+        assertTrue(VersionCatalog.empty().isEmpty());
+        assertNull(VersionCatalog.empty().latest());
+    }
+}
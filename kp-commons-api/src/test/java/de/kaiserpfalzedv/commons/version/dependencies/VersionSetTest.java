@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.dependencies;
+
+import de.kaiserpfalzedv.commons.version.Version;
+import de.kaiserpfalzedv.commons.version.semver.Requirement;
+import de.kaiserpfalzedv.commons.version.semver.Semver;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VersionSetTest {
+    private static final String[] REQUIREMENTS = {
+            "^1.2.0", "~2.3.4", "1.x || >=4.10.0 <5.0.0", ">=2.2.4", "<0.1.0", "1.2.3", "*", "^1.2.3-beta.2",
+            ">=2.0.0-alpha <2.1.0", "<3.0.0-rc.1", ">1.2.3-alpha <=1.2.3-rc.1", ">=1.2 <2", "^0.0.5", ">3.0.0 <2.0.0",
+            "^2.1.0", "~1.4", "<=4.2.0", ">0.5.0", ">=2.0.0 3.x", "~2.x || >=3.0.0 0.2.1"
+    };
+
+    private final VersionCatalog sut = VersionCatalog.of(Arrays.asList(
+            "2.0.0", "1.2.3", "1.2.10", "1.3.0-beta.1", "1.2.4", "1.3.0", "1.3.0-alpha", "1.4.2", "3.0.0-rc.1", "0.9.0"
+    ), Version.VersionType.STRICT);
+
+    private static List<String> values(final VersionSet set) {
+        List<String> result = new ArrayList<>();
+        for (Semver version : set) {
+            result.add(version.getValue());
+        }
+        return result;
+    }
+
+    private static Set<Integer> expected(final VersionCatalog catalog, final Requirement requirement) {
+        Set<Integer> result = new LinkedHashSet<>();
+        for (int i = 0; i < catalog.size(); i++) {
+            if (catalog.get(i).satisfies(requirement)) {
+                result.add(i);
+            }
+        }
+        return result;
+    }
+
+    private static Set<Integer> indexes(final VersionSet set) {
+        Set<Integer> result = new LinkedHashSet<>();
+        set.forEachIndex(result::add);
+        return result;
+    }
+
+    @Test
+    public void selects_versions_of_requirement() {
+        VersionSet set = sut.select(Requirement.buildNPM("^1.2.4"));
+
+        assertEquals(Arrays.asList("1.2.4", "1.2.10", "1.3.0", "1.4.2"), values(set));
+        assertEquals(4, set.cardinality());
+        assertEquals("1.2.4", set.first().getValue());
+        assertEquals("1.4.2", set.last().getValue());
+        assertEquals(value(sut.maxSatisfying(Requirement.buildNPM("^1.2.4"))), set.last().getValue());
+    }
+
+    @Test
+    public void combines_sets() {
+        VersionSet caret = sut.select(Requirement.buildNPM("^1.2.0"));
+        VersionSet upper = sut.select(Requirement.buildNPM("<1.3.0"));
+        VersionSet major = sut.select(Requirement.buildNPM(">=2.0.0-alpha"));
+
+        assertEquals(Arrays.asList("1.2.3", "1.2.4", "1.2.10"), values(caret.and(upper)));
+        assertEquals(Arrays.asList("1.3.0", "1.4.2"), values(caret.andNot(upper)));
+        assertEquals(Arrays.asList("1.2.3", "1.2.4", "1.2.10", "1.3.0", "1.4.2", "2.0.0", "3.0.0-rc.1"),
+                values(caret.or(major)));
+        assertTrue(caret.and(major).isEmpty());
+        assertNull(caret.and(major).last());
+        assertEquals(caret.and(upper), VersionSet.and(Arrays.asList(upper, caret, sut.all())));
+        assertEquals(sut.size(), sut.all().cardinality());
+    }
+
+    @Test
+    public void rejects_sets_of_other_catalogs() {
+        VersionCatalog other = VersionCatalog.of(Collections.singletonList("1.0.0"), Version.VersionType.STRICT);
+
+        assertThrows(IllegalArgumentException.class, () -> sut.all().and(other.all()));
+        assertThrows(IllegalArgumentException.class, () -> VersionSet.and(Collections.emptyList()));
+    }
+
+    @Test
+    public void matches_requirements_on_big_catalog() {
+        Random random = new Random(39);
+        String[] suffixes = {"", "-alpha", "-beta.2", "-rc.1"};
+
+        Set<String> published = new HashSet<>();
+        while (published.size() < 700) {
+            published.add(random.nextInt(6) + "." + random.nextInt(12) + "." + random.nextInt(12)
+                    + suffixes[random.nextInt(suffixes.length)]);
+        }
+        VersionCatalog catalog = VersionCatalog.of(published, Version.VersionType.NPM);
+
+        List<VersionSet> sets = new ArrayList<>();
+        List<Set<Integer>> expectations = new ArrayList<>();
+        for (String text : REQUIREMENTS) {
+            Requirement requirement = Requirement.buildNPM(text);
+            VersionSet set = catalog.select(requirement);
+
+            Set<Integer> expected = expected(catalog, requirement);
+            assertEquals(expected, indexes(set), text);
+            assertEquals(expected.size(), set.cardinality(), text);
+            for (int index : expected) {
+                assertTrue(set.contains(index), text);
+            }
+
+            sets.add(set);
+            expectations.add(expected);
+        }
+
+        for (int i = 0; i < sets.size(); i++) {
+            for (int j = 0; j < sets.size(); j++) {
+                Set<Integer> and = new HashSet<>(expectations.get(i));
+                and.retainAll(expectations.get(j));
+                Set<Integer> or = new HashSet<>(expectations.get(i));
+                or.addAll(expectations.get(j));
+                Set<Integer> andNot = new HashSet<>(expectations.get(i));
+                andNot.removeAll(expectations.get(j));
+
+                assertEquals(and, new HashSet<>(indexes(sets.get(i).and(sets.get(j)))));
+                assertEquals(or, new HashSet<>(indexes(sets.get(i).or(sets.get(j)))));
+                assertEquals(andNot, new HashSet<>(indexes(sets.get(i).andNot(sets.get(j)))));
+            }
+        }
+
+        // versions accepted by 300 dependents.
+        List<VersionSet> dependents = new ArrayList<>();
+        Set<Integer> accepted = new HashSet<>(indexes(catalog.all()));
+        for (int i = 0; i < 300; i++) {
+            int index = random.nextInt(sets.size());
+            dependents.add(sets.get(index));
+            accepted.retainAll(expectations.get(index));
+        }
+        VersionSet intersection = VersionSet.and(dependents);
+        assertEquals(accepted, new HashSet<>(indexes(intersection)));
+        assertFalse(intersection.contains(-1));
+    }
+
+    private static String value(final Version version) {
+        return version != null ? version.value() : null;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class CompiledRequirementTest {
+    private static final String[] REQUIREMENTS = {
+            "^1.2.0", ">=1.2.3-beta <2.0.0", "~1.2.3 || ^3.0.0", "<=1.2.3 || >1.9.9", "*", "1.2.3", ">2.0.0 <1.0.0",
+            "1.x || >=2.5.0 <2.6.0-rc.1", ">=1.2 <2", ">=2.0.0 3.x", "~2.x || >=3.0.0 0.2.1", ">=1.2.3-beta <1.2.3 || 1.2.3"
+    };
+    private static final String[] VERSIONS = {
+            "0.0.1", "0.2.1", "1.0.0", "1.2.0", "1.2.3-beta", "1.2.3", "1.2.4", "1.3.0-rc.1", "1.9.9", "2.0.0", "2.0.3", "2.5.0", "2.5.9",
+            "2.6.0-rc.0", "2.6.0", "3.0.0", "3.1.4", "4.0.0"
+    };
+
+    @Test
+    public void compiled_requirements_are_satisfied_like_requirements() {
+        for (int threshold : new int[]{0, 5, Integer.MAX_VALUE}) {
+            for (String r : REQUIREMENTS) {
+                Requirement requirement = Requirement.buildNPM(r);
+                CompiledRequirement compiled = new CompiledRequirement(requirement, threshold);
+                VersionCursor cursor = new VersionCursor(Semver.SemverType.NPM);
+
+                for (String v : VERSIONS) {
+                    Semver version = new Semver(v, Semver.SemverType.NPM);
+                    String message = r + " (" + threshold + "): " + v;
+
+                    assertEquals(requirement.isSatisfiedBy(version), compiled.isSatisfiedBy(version), message);
+                    assertEquals(requirement.isSatisfiedBy(version), compiled.isSatisfiedBy(cursor.point(v)), message);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void walks_the_versions_satisfying_the_requirement() {
+        Semver[] versions = new Semver[VERSIONS.length];
+        long[] keys = new long[VERSIONS.length];
+        for (int i = 0; i < VERSIONS.length; i++) {
+            versions[i] = new Semver(VERSIONS[i], Semver.SemverType.NPM);
+            keys[i] = VersionKey.of(versions[i]);
+        }
+
+        for (String r : REQUIREMENTS) {
+            Requirement requirement = Requirement.buildNPM(r);
+            CompiledRequirement compiled = new CompiledRequirement(requirement, 5);
+
+            List<Integer> expected = new ArrayList<>();
+            for (int i = 0; i < versions.length; i++) {
+                if (requirement.isSatisfiedBy(versions[i])) {
+                    expected.add(i);
+                }
+            }
+
+            List<Integer> ascending = new ArrayList<>();
+            int count = compiled.walk(0, versions.length, i -> keys[i], i -> versions[i], false, ascending::add);
+            assertEquals(expected, ascending, r);
+            assertEquals(expected.size(), count, r);
+
+            List<Integer> descending = new ArrayList<>();
+            compiled.walk(0, versions.length, i -> keys[i], i -> versions[i], true, descending::add);
+            Collections.reverse(descending);
+            assertEquals(expected, descending, r);
+
+            List<Integer> greatest = new ArrayList<>();
+            compiled.walk(0, versions.length, i -> keys[i], i -> versions[i], true, i -> !greatest.add(i));
+            assertEquals(expected.isEmpty() ? List.of() : List.of(expected.get(expected.size() - 1)), greatest, r);
+        }
+    }
+
+    @Test
+    public void does_not_use_keys_for_versions_not_described_by_their_numbers() {
+        // parsed as ">=2.0.03.x", which is not satisfied by 2.0.3.
+        CompiledRequirement compiled = Requirement.buildNPM(">=2.0.0 3.x").compile();
+
+        assertFalse(compiled.getRequirement().canonicalize().isExact());
+        assertNull(compiled.getKeyIntervals());
+        assertFalse(compiled.isSatisfiedBy(new Semver("2.0.3", Semver.SemverType.NPM)));
+    }
+
+    @Test
+    public void compiles_after_the_threshold() {
+        CompiledRequirement compiled = new CompiledRequirement(Requirement.buildNPM("^1.2.0 || ~2.1.0"), 3);
+        Semver version = new Semver("1.4.0");
+
+        compiled.isSatisfiedBy(version);
+        compiled.isSatisfiedBy(version);
+        assertFalse(compiled.isCompiled());
+
+        compiled.isSatisfiedBy(version);
+        assertTrue(compiled.isCompiled());
+        assertTrue(compiled.isSatisfiedBy(version));
+        assertTrue(compiled.isSatisfiedBy(new Semver("2.1.7")));
+        assertFalse(compiled.isSatisfiedBy(new Semver("2.2.0")));
+    }
+
+    @Test
+    public void does_not_compile_inexact_requirements() {
+        CompiledRequirement compiled = new CompiledRequirement(Requirement.buildNPM(">=1.2 <2"), 0);
+
+        assertFalse(compiled.isCompiled());
+    }
+
+    @Test
+    public void requirement_shares_the_compiled_instance() {
+        Requirement requirement = Requirement.buildNPM("^1.2.0");
+
+        assertSame(requirement.compile(), requirement.compile());
+        assertSame(requirement, requirement.compile().getRequirement());
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ConcurrentVersionCatalogTest {
+    private static final String[] REQUIREMENTS = {
+            "^1.2.0", "~2.3.4", "1.x || >=4.10.0 <5.0.0", ">=2.2.4", "<0.1.0", "1.2.3", "*", "^1.2.3-beta.2",
+            ">=2.0.0-alpha <2.1.0", "<3.0.0-rc.1", ">1.2.3-alpha <=1.2.3-rc.1", ">=1.2 <2", "^0.0.5", ">3.0.0 <2.0.0",
+            // overlapping and out of order alternatives
+            ">=1.0.0 || 1.5.0", ">=0.1.0 || 1.x", "3.x || 1.x || 2.2.x", ">=1.2.0-beta.2 <1.2.0 || 1.2.0",
+            "^1.5.0 || 1.2.3 || >=1.1.0 <1.6.0", "4.x || >=2.0.0-alpha <2.1.0 || ~2.0.3",
+            // versions not described by their numbers
+            ">=2.0.0 3.x", "~2.x || >=3.0.0 0.2.1"
+    };
+
+    private static Semver npm(final String version) {
+        return new Semver(version, Semver.SemverType.NPM);
+    }
+
+    @Test
+    public void publishes_and_yanks_versions() {
+        ConcurrentVersionCatalog sut = new ConcurrentVersionCatalog();
+
+        assertTrue(sut.publish("lodash", npm("4.17.19")));
+        assertTrue(sut.publish("lodash", npm("4.17.21-rc.1")));
+        assertTrue(sut.publish("lodash", npm("3.10.1")));
+        assertTrue(sut.publish("lodash", npm("4.17.20")));
+        assertFalse(sut.publish("lodash", npm("4.17.20+build")));
+        assertEquals(1, sut.size());
+
+        ConcurrentVersionCatalog.Snapshot before = sut.snapshot("lodash");
+        assertEquals(4, before.size());
+        assertEquals("4.17.20", before.latest().getValue());
+        assertEquals("4.17.21-rc.1", sut.maxSatisfying("lodash", Requirement.buildNPM(">=4.17.21-alpha")).getValue());
+
+        assertTrue(sut.yank("lodash", npm("4.17.20")));
+        assertFalse(sut.yank("lodash", npm("4.17.20")));
+        assertFalse(sut.yank("lodash", npm("4.17.22")));
+        assertFalse(sut.yank("left-pad", npm("1.0.0")));
+
+        ConcurrentVersionCatalog.Snapshot after = sut.snapshot("lodash");
+        assertEquals("4.17.19", after.latest().getValue());
+        assertEquals("4.17.19", after.maxSatisfying(Requirement.buildNPM("^4.0.0")).getValue());
+        assertTrue(after.contains(npm("4.17.20")));
+        assertTrue(after.isYanked(npm("4.17.20")));
+        assertEquals(3, after.versions().size());
+
+        // the snapshot taken before is not changed.
+        assertEquals("4.17.20", before.latest().getValue());
+        assertFalse(before.isYanked(npm("4.17.20")));
+    }
+
+    @Test
+    public void returns_empty_snapshot_for_unknown_packages() {
+        ConcurrentVersionCatalog sut = new ConcurrentVersionCatalog();
+
+        assertTrue(sut.snapshot("left-pad").isEmpty());
+        assertNull(sut.snapshot("left-pad").latest());
+        assertNull(sut.maxSatisfying("left-pad", Requirement.buildNPM("*")));
+    }
+
+    @Test
+    public void selects_the_maximum_of_overlapping_alternatives() {
+        ConcurrentVersionCatalog sut = new ConcurrentVersionCatalog();
+        for (String version : new String[]{"1.0.0", "1.5.0", "2.0.0", "3.1.4"}) {
+            sut.publish("overlapping", npm(version));
+        }
+
+        assertEquals("3.1.4", sut.maxSatisfying("overlapping", Requirement.buildNPM(">=1.0.0 || 1.5.0")).getValue());
+        assertEquals("3.1.4", sut.maxSatisfying("overlapping", Requirement.buildNPM(">=0.1.0 || 1.x")).getValue());
+        assertEquals("1.5.0", sut.maxSatisfying("overlapping", Requirement.buildNPM("1.x || 0.x")).getValue());
+
+        sut.yank("overlapping", npm("3.1.4"));
+        assertEquals("2.0.0", sut.maxSatisfying("overlapping", Requirement.buildNPM("1.5.0 || >=1.0.0")).getValue());
+    }
+
+    @Test
+    public void rejects_versions_without_key() {
+        ConcurrentVersionCatalog sut = new ConcurrentVersionCatalog();
+
+        assertThrows(VersionException.class, () -> sut.publish("maven", new Semver("1.0-SNAPSHOT", Semver.SemverType.MAVEN)));
+        assertThrows(VersionException.class, () -> sut.publish("loose", new Semver("1.2", Semver.SemverType.LOOSE)));
+    }
+
+    @Test
+    public void selects_same_versions_as_requirements() {
+        Random random = new Random(38);
+        ConcurrentVersionCatalog sut = new ConcurrentVersionCatalog();
+        List<Semver> published = new ArrayList<>();
+        String[] suffixes = {"", "-alpha", "-beta.2", "-rc.1"};
+
+        for (int i = 0; i < 600; i++) {
+            Semver version = npm(random.nextInt(6) + "." + random.nextInt(12) + "." + random.nextInt(12)
+                    + suffixes[random.nextInt(suffixes.length)]);
+            if (sut.publish("random", version)) {
+                published.add(version);
+            }
+        }
+        for (int i = 0; i < 60; i++) {
+            sut.yank("random", published.get(random.nextInt(published.size())));
+        }
+
+        ConcurrentVersionCatalog.Snapshot snapshot = sut.snapshot("random");
+        List<Semver> available = new ArrayList<>(snapshot.versions());
+        List<Semver> sorted = new ArrayList<>(available);
+        Collections.sort(sorted);
+        assertEquals(sorted, available);
+
+        for (String text : REQUIREMENTS) {
+            Requirement requirement = Requirement.buildNPM(text);
+
+            Semver expected = null;
+            for (Semver version : available) {
+                if (requirement.isSatisfiedBy(version) && (expected == null || version.isGreaterThan(expected))) {
+                    expected = version;
+                }
+            }
+
+            assertEquals(expected, snapshot.maxSatisfying(requirement), text);
+        }
+    }
+
+    @Test
+    public void readers_see_consistent_snapshots_while_writers_publish() throws Exception {
+        ConcurrentVersionCatalog sut = new ConcurrentVersionCatalog();
+        int writers = 4;
+        int perWriter = 500;
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 2);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicBoolean done = new AtomicBoolean();
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        sut.publish("shared", npm("1." + writer + "." + i));
+                        if (i % 10 == 9) {
+                            sut.yank("shared", npm("1." + writer + "." + (i - 5)));
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            List<Future<?>> readers = new ArrayList<>();
+            for (int r = 0; r < 2; r++) {
+                readers.add(executor.submit(() -> {
+                    start.await();
+                    Requirement requirement = Requirement.buildNPM("^1.0.0");
+                    while (!done.get()) {
+                        ConcurrentVersionCatalog.Snapshot snapshot = sut.snapshot("shared");
+                        Semver latest = snapshot.latest();
+                        Semver max = snapshot.maxSatisfying(requirement);
+                        assertEquals(latest, max);
+                        if (max != null) {
+                            assertFalse(snapshot.isYanked(max));
+                        }
+
+                        List<Semver> versions = snapshot.versions();
+                        for (int i = 1; i < versions.size(); i++) {
+                            assertTrue(versions.get(i).isGreaterThan(versions.get(i - 1)));
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            for (Future<?> reader : readers) {
+                reader.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        ConcurrentVersionCatalog.Snapshot snapshot = sut.snapshot("shared");
+        assertEquals(writers * perWriter, snapshot.size());
+        assertEquals(writers * (perWriter - perWriter / 10), snapshot.versions().size());
+        assertEquals("1." + (writers - 1) + "." + (perWriter - 1), snapshot.latest().getValue());
+    }
+}
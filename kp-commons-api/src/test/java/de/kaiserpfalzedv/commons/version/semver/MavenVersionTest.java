@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The orderings are the ones used by the tests of Maven's {@code ComparableVersion}.
+ */
+public class MavenVersionTest {
+    private static final String[] QUALIFIERS = {
+            "1-alpha2snapshot", "1-alpha2", "1-alpha-123", "1-beta-2", "1-beta123", "1-m2", "1-m11", "1-rc", "1-cr2",
+            "1-rc123", "1-SNAPSHOT", "1", "1-sp", "1-sp2", "1-sp123", "1-abc", "1-def", "1-pom-1", "1-1-snapshot",
+            "1-1", "1-2", "1-123"
+    };
+
+    private static final String[] NUMBERS = {
+            "2.0", "2.0.a", "2-1", "2.0.2", "2.0.123", "2.1.0", "2.1-a", "2.1b", "2.1-c", "2.1-1", "2.1.0.1", "2.2",
+            "2.123", "11.a2", "11.a11", "11.b2", "11.b11", "11.m2", "11.m11", "11", "11.a", "11b", "11c", "11m"
+    };
+
+    private static int compare(final String version1, final String version2) {
+        return Integer.signum(MavenVersion.of(version1).compareTo(MavenVersion.of(version2)));
+    }
+
+    private static void assertOrder(final String[] versions) {
+        for (int i = 0; i < versions.length; i++) {
+            for (int j = 0; j < versions.length; j++) {
+                assertEquals(Integer.signum(Integer.compare(i, j)), compare(versions[i], versions[j]),
+                        versions[i] + " <=> " + versions[j]);
+            }
+        }
+    }
+
+    private static void assertEqual(final String... versions) {
+        for (String version1 : versions) {
+            for (String version2 : versions) {
+                assertEquals(0, compare(version1, version2), version1 + " == " + version2);
+                assertEquals(MavenVersion.of(version1), MavenVersion.of(version2), version1 + " == " + version2);
+                assertEquals(MavenVersion.of(version1).hashCode(), MavenVersion.of(version2).hashCode(),
+                        version1 + " == " + version2);
+            }
+        }
+    }
+
+    @Test
+    public void orders_qualifiers() {
+        assertOrder(QUALIFIERS);
+    }
+
+    @Test
+    public void orders_numbers() {
+        assertOrder(NUMBERS);
+    }
+
+    @Test
+    public void treats_equivalent_versions_as_equal() {
+        assertEqual("1", "1.0", "1.0.0", "1-ga", "1.0.Final", "1-release", "1.0.0-GA");
+        assertEqual("1a1", "1-a1", "1-alpha-1", "1.0-ALPHA1", "1.0.0-alpha-1");
+        assertEqual("1b2", "1-beta-2", "1.0-BETA2");
+        assertEqual("1m3", "1-milestone-3", "1.0-M3");
+        assertEqual("1-rc4", "1-cr-4", "1.0-CR4");
+        assertEqual("1x", "1-x", "1.0.0-x");
+        assertEqual("1.0.1", "1.0.01", "1.00.1");
+        // a trailing ".X" is treated like "-X".
+        assertEqual("2.0.a", "2.0.0.a", "2-a");
+    }
+
+    @Test
+    public void splits_numbers_and_qualifier() {
+        MavenVersion version = MavenVersion.of("1.2.3-SNAPSHOT");
+        assertEquals(1, version.getMajor());
+        assertEquals(2, version.getMinor());
+        assertEquals(3, version.getPatch());
+        assertEquals("SNAPSHOT", version.getQualifier());
+        assertTrue(version.isPrerelease());
+
+        version = MavenVersion.of("2.0.Final");
+        assertEquals(0, version.getMinor());
+        assertNull(version.getPatch());
+        assertEquals(".Final", version.getQualifier());
+        assertFalse(version.isPrerelease());
+        assertFalse(MavenVersion.of("2.0-sp1").isPrerelease());
+    }
+
+    @Test
+    public void rejects_versions_without_number() {
+        assertThrows(VersionException.class, () -> MavenVersion.of("RELEASE"));
+        assertThrows(VersionException.class, () -> MavenVersion.of("1.0-1234567890123456789012"));
+    }
+
+    @Test
+    public void semver_uses_the_maven_ordering() {
+        Semver snapshot = new Semver("2.0-SNAPSHOT", Semver.SemverType.MAVEN);
+        Semver milestone = new Semver("2.0-M1", Semver.SemverType.MAVEN);
+        Semver release = new Semver("2.0.0.Final", Semver.SemverType.MAVEN);
+
+        assertTrue(milestone.isLowerThan(snapshot));
+        assertTrue(snapshot.isLowerThan(release));
+        assertTrue(release.isEquivalentTo(new Semver("2", Semver.SemverType.MAVEN)));
+        assertEquals("2.0.0.Final", Semver.create(Semver.SemverType.MAVEN, 2, 0, 0, release.getSuffixTokens(), null).getValue());
+        assertEquals("2.0-SNAPSHOT", Semver.create(Semver.SemverType.MAVEN, 2, 0, null, snapshot.getSuffixTokens(), null).getValue());
+        assertEquals(VersionKey.INVALID, VersionKey.of(release));
+    }
+
+    @Test
+    public void semver_equality_agrees_with_the_maven_ordering() {
+        Semver shortForm = new Semver("1.0", Semver.SemverType.MAVEN);
+        Semver longForm = new Semver("1.0.0", Semver.SemverType.MAVEN);
+
+        assertEquals(shortForm, longForm);
+        assertEquals(shortForm.hashCode(), longForm.hashCode());
+        assertEquals(Semver.VersionDiff.NONE, shortForm.diff(longForm));
+        assertEquals(Semver.VersionDiff.NONE, shortForm.diff(new Semver("1-ga", Semver.SemverType.MAVEN)));
+        assertEquals(Semver.VersionDiff.PATCH, shortForm.diff(new Semver("1.0.1", Semver.SemverType.MAVEN)));
+        assertEquals(Semver.VersionDiff.MINOR, shortForm.diff(new Semver("1.1", Semver.SemverType.MAVEN)));
+        assertEquals(Semver.VersionDiff.SUFFIX, shortForm.diff(new Semver("1.0-SNAPSHOT", Semver.SemverType.MAVEN)));
+        assertNotEquals(shortForm, new Semver("1.0-SNAPSHOT", Semver.SemverType.MAVEN));
+        assertNotEquals(shortForm, new Semver("1.0.0", Semver.SemverType.LOOSE));
+    }
+
+    @Test
+    public void requirements_use_maven_ranges() {
+        Requirement range = Requirement.buildMaven("[1.0,2.0)");
+        assertTrue(range.isSatisfiedBy("1.0"));
+        assertTrue(range.isSatisfiedBy("1.5-SNAPSHOT"));
+        assertTrue(range.isSatisfiedBy("2.0-RC1"));
+        assertFalse(range.isSatisfiedBy("2.0"));
+        assertFalse(range.isSatisfiedBy("1.0-SNAPSHOT"));
+
+        Requirement union = Requirement.buildMaven("(,1.0], [1.2,)");
+        assertTrue(union.isSatisfiedBy("0.9"));
+        assertTrue(union.isSatisfiedBy("1.0.Final"));
+        assertFalse(union.isSatisfiedBy("1.1"));
+        assertTrue(union.isSatisfiedBy("1.2"));
+
+        assertTrue(Requirement.buildMaven("[1.5]").isSatisfiedBy("1.5.0"));
+        assertTrue(Requirement.buildMaven("1.5").isSatisfiedBy("1.5.0.GA"));
+        assertTrue(Requirement.buildMaven("(1.0,)").compile().isSatisfiedBy(new Semver("1.0-sp1", Semver.SemverType.MAVEN)));
+        assertFalse(Requirement.buildMaven("[1.0,2.0)").canonicalize().isExact());
+
+        assertThrows(VersionException.class, () -> Requirement.buildMaven("[2.0,1.0]"));
+        assertThrows(VersionException.class, () -> Requirement.buildMaven("[1.0,2.0"));
+        assertThrows(VersionException.class, () -> Requirement.buildMaven("(1.0)"));
+        assertThrows(VersionException.class, () -> Requirement.buildMaven("[1.0,2.0),"));
+    }
+}
@@ -30,6 +30,7 @@ import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -610,4 +611,67 @@ public class RequirementTest {
         assertNotEquals(requirement.hashCode(), Requirement.buildStrict("1.2.4").hashCode());
         assertNotEquals(requirement.hashCode(), Requirement.buildNPM(">1.2.3").hashCode());
     }
+
+    @Test
+    public void canonicalize_equivalent_requirements() {
+        CanonicalRequirement expected = Requirement.buildNPM("^1.2.0").canonicalize();
+
+        assertEquals("[1.2.0,2.0.0)", expected.getValue());
+        assertTrue(expected.isExact());
+        assertEquals(expected, Requirement.buildNPM(">=1.2.0 <2.0.0").canonicalize());
+        assertEquals(expected, Requirement.buildNPM("1.2.x || 1.3 - 1").canonicalize());
+        assertEquals(expected, Requirement.buildNPM("~1.2.0 || >=1.3.0 <1.5.0 || ^1.5.0").canonicalize());
+        assertEquals(expected, Requirement.buildCocoapods("~> 1.2").canonicalize());
+        assertEquals(expected.hashCode(), Requirement.buildNPM(">=1.2.0 <2.0.0").canonicalize().hashCode());
+        assertTrue(Requirement.buildNPM("^1.2.0").isEquivalentTo(Requirement.buildNPM("<2.0.0 >=1.2.0")));
+    }
+
+    @Test
+    public void canonicalize_keeps_the_prerelease_rules() {
+        assertEquals("[1.2.3-beta,2.0.0) pre(1.2.3)", Requirement.buildNPM("^1.2.3-beta").canonicalize().getValue());
+        assertEquals("[1.0.0,) pre(*)", Requirement.buildNPM(">=1.0.0").canonicalize().getValue());
+        assertEquals("[1.2.3]", Requirement.buildNPM("1.2.3").canonicalize().getValue());
+        assertEquals("[1.2.3-rc.1] pre(1.2.3)", Requirement.buildNPM("1.2.3-rc.1").canonicalize().getValue());
+        assertEquals("{}", Requirement.buildNPM(">2.0.0 <1.0.0").canonicalize().getValue());
+
+        // a single range allows all prereleases, a conjunction does not
+        assertFalse(Requirement.buildNPM(">=1.0.0").isEquivalentTo(Requirement.buildNPM(">=1.0.0 <9999.0.0")));
+        assertFalse(Requirement.buildNPM("^1.2.3-beta").isEquivalentTo(Requirement.buildNPM("^1.2.3")));
+    }
+
+    @Test
+    public void canonicalize_falls_back_to_the_structure_for_incomplete_versions() {
+        CanonicalRequirement result = Requirement.buildNPM(">=1.2 <2").canonicalize();
+
+        assertFalse(result.isExact());
+        assertNotEquals(Requirement.buildNPM(">=1.2.0 <2.0.0").canonicalize(), result);
+    }
+
+    @Test
+    public void canonical_forms_are_satisfied_by_the_same_versions() {
+        String[] requirements = {
+                "^1.2.0", ">=1.2.0 <2.0.0", "1.2.x || 1.3 - 1.99", "^1.2.3-beta", ">=1.2.3-beta <2.0.0", "~1.2.3",
+                ">=1.2.3 <1.3.0", "<=1.2.3 || >=1.2.4", "<=1.2.3 || >=1.2.4 <3.0.0", "*", ">=0.0.0", "1.2.3 || 1.2.3",
+                ">1.0.0 <=2.0.0 || >=1.5.0 <3.0.0", "(>=1.0.0 || >=3.0.0) <2.0.0-alpha"
+        };
+        String[] versions = {
+                "0.0.1", "1.0.0", "1.1.0", "1.2.0", "1.2.3-alpha", "1.2.3-beta", "1.2.3-beta.2", "1.2.3", "1.2.4-rc.1",
+                "1.2.4", "1.3.0", "1.9.9", "2.0.0-alpha", "2.0.0-rc.1", "2.0.0", "2.5.0", "3.0.0", "9.9.9-x"
+        };
+
+        for (String r1 : requirements) {
+            for (String r2 : requirements) {
+                Requirement req1 = Requirement.buildNPM(r1);
+                Requirement req2 = Requirement.buildNPM(r2);
+                if (!req1.isEquivalentTo(req2)) {
+                    continue;
+                }
+
+                for (String version : versions) {
+                    Semver semver = new Semver(version, Semver.SemverType.NPM);
+                    assertEquals(req1.isSatisfiedBy(semver), req2.isSatisfiedBy(semver), r1 + " <-> " + r2 + ": " + version);
+                }
+            }
+        }
+    }
 }
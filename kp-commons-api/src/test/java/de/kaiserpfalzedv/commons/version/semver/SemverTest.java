@@ -30,6 +30,8 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.mockito.Mockito;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -194,6 +196,23 @@ public class SemverTest {
         assertFalse(new Semver("1.0.0-alpha.12.ab-c").isGreaterThan("1.0.0-alpha.12.ab-c"));
     }
 
+    @Test
+    public void isGreaterThan_with_classified_suffix_tokens() {
+        // known identifiers are compared by their rank, ignoring the case
+        assertTrue(new Semver("1.0.0-RC.1").isGreaterThan("1.0.0-beta.2"));
+        assertFalse(new Semver("1.0.0-Alpha").isGreaterThan("1.0.0-alpha"));
+        assertFalse(new Semver("1.0.0-alpha").isGreaterThan("1.0.0-ALPHA"));
+
+        // numbers are compared numerically, numbers are lower than identifiers
+        assertTrue(new Semver("1.0.0-beta.11").isGreaterThan("1.0.0-beta.9"));
+        assertTrue(new Semver("1.0.0-beta.rc").isGreaterThan("1.0.0-beta.11"));
+
+        // unknown identifiers and numbers exceeding an int are compared as text
+        assertTrue(new Semver("1.0.0-zeta").isGreaterThan("1.0.0-rc"));
+        assertTrue(new Semver("1.0.0-beta.x1").isGreaterThan("1.0.0-beta.11"));
+        assertFalse(new Semver("1.0.0-beta.2147483648").isGreaterThan("1.0.0-beta.3"));
+    }
+
     @Test
     public void isLowerThan_test() {
         // 1.0.0-alpha < 1.0.0-alpha.1 < 1.0.0-alpha.beta < 1.0.0-beta < 1.0.0-beta.2 < 1.0.0-beta.11 < 1.0.0-rc.1 < 1.0.0
@@ -428,4 +447,50 @@ public class SemverTest {
         assertFalse(new Semver("0.1.2+sHa.0nSFGKjkjsdf").isStable());
         assertFalse(new Semver("0.1.2").isStable());
     }
+
+    @Test
+    public void parse_from_bytes_like_strings() {
+        String[] versions = {
+                " v1.2.3-beta.11+sha.0nSFGKjkjsdf ", "1.2.3", "1.2", "1.x", "2", "1.2.3-", "1.2.3-rc.", "1.2.3-.", "1.2.3+b7",
+                "1.2.3-a+b+c", "1.2.3-SNAPSHOT", "1.2.3-ünicode.1"
+        };
+
+        for (String version : versions) {
+            byte[] data = ("[" + version + "]").getBytes(StandardCharsets.UTF_8);
+            Semver expected = new Semver(version, Semver.SemverType.NPM);
+
+            Semver fromBytes = new Semver(data, 1, data.length - 2, Semver.SemverType.NPM);
+            Semver fromBuffer = new Semver(ByteBuffer.allocateDirect(data.length).put(data), 1, data.length - 2, Semver.SemverType.NPM);
+
+            for (Semver actual : new Semver[]{fromBytes, fromBuffer}) {
+                assertEquals(expected, actual, version);
+                assertEquals(expected.getOriginalValue(), actual.getOriginalValue(), version);
+                assertEquals(expected.getMajor(), actual.getMajor(), version);
+                assertEquals(expected.getMinor(), actual.getMinor(), version);
+                assertEquals(expected.getPatch(), actual.getPatch(), version);
+                assertArrayEquals(expected.getSuffixTokens(), actual.getSuffixTokens(), version);
+                assertEquals(expected.getBuild(), actual.getBuild(), version);
+                assertEquals(0, expected.compareTo(actual), version);
+            }
+        }
+    }
+
+    @Test
+    public void parse_from_bytes_compares_without_creating_strings() {
+        byte[] data = "1.0.0-rc.2 1.0.0-rc.10".getBytes(StandardCharsets.US_ASCII);
+
+        Semver rc2 = new Semver(data, 0, 10, Semver.SemverType.STRICT);
+        Semver rc10 = new Semver(ByteBuffer.wrap(data), 11, 11, Semver.SemverType.STRICT);
+
+        assertTrue(rc10.isGreaterThan(rc2));
+        assertTrue(rc2.isLowerThan(new Semver("1.0.0-rc.3")));
+        assertEquals("1.0.0-rc.10", rc10.getValue());
+    }
+
+    @Test
+    public void parse_from_bytes_rejects_invalid_versions() {
+        byte[] data = "1.2".getBytes(StandardCharsets.US_ASCII);
+
+        Assertions.assertThrows(VersionException.class, () -> new Semver(data, 0, data.length, Semver.SemverType.STRICT));
+    }
 }
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SqlTranslatorTest {
+    private static final String[] SUFFIXES = {null, "alpha", "beta.2", "rc.1"};
+
+    private static Connection connection;
+    private static final List<Semver> VERSIONS = new ArrayList<>();
+
+    @BeforeAll
+    public static void createTable() throws SQLException {
+        connection = DriverManager.getConnection("jdbc:h2:mem:versions");
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE versions (id INT PRIMARY KEY, v_major INT NOT NULL, v_minor INT NOT NULL, "
+                    + "v_patch INT NOT NULL, v_prerelease BOOLEAN NOT NULL)");
+        }
+
+        try (PreparedStatement insert = connection.prepareStatement("INSERT INTO versions VALUES (?, ?, ?, ?, ?)")) {
+            for (int major = 0; major < 6; major++) {
+                for (int minor = 0; minor < 25; minor++) {
+                    for (int patch = 0; patch < 25; patch++) {
+                        for (String suffix : SUFFIXES) {
+                            Semver version = new Semver(major + "." + minor + "." + patch + (suffix != null ? "-" + suffix : ""), Semver.SemverType.NPM);
+
+                            insert.setInt(1, VERSIONS.size());
+                            insert.setInt(2, major);
+                            insert.setInt(3, minor);
+                            insert.setInt(4, patch);
+                            insert.setBoolean(5, suffix != null);
+                            insert.addBatch();
+
+                            VERSIONS.add(version);
+                        }
+                    }
+                }
+                insert.executeBatch();
+            }
+        }
+    }
+
+    @AfterAll
+    public static void dropTable() throws SQLException {
+        connection.close();
+    }
+
+    private static Set<Integer> select(final SqlPredicate predicate) throws SQLException {
+        Set<Integer> result = new HashSet<>();
+
+        try (PreparedStatement select = connection.prepareStatement("SELECT id FROM versions WHERE " + predicate.getWhere())) {
+            predicate.bind(select, 1);
+
+            try (ResultSet rows = select.executeQuery()) {
+                while (rows.next()) {
+                    result.add(rows.getInt(1));
+                }
+            }
+        }
+        return result;
+    }
+
+    private static void assertSelected(final Requirement requirement) throws SQLException {
+        SqlPredicate predicate = new SqlTranslator("v_major", "v_minor", "v_patch", "v_prerelease").translate(requirement);
+        Set<Integer> selected = select(predicate);
+
+        Set<Integer> expected = new HashSet<>();
+        for (int i = 0; i < VERSIONS.size(); i++) {
+            if (requirement.isSatisfiedBy(VERSIONS.get(i))) {
+                expected.add(i);
+            }
+        }
+
+        if (predicate.isExact()) {
+            assertEquals(expected, selected, requirement + " -> " + predicate);
+        } else {
+            assertTrue(selected.containsAll(expected), requirement + " -> " + predicate);
+            selected.removeIf(i -> !requirement.isSatisfiedBy(VERSIONS.get(i)));
+            assertEquals(expected, selected, requirement + " -> " + predicate);
+        }
+    }
+
+    @Test
+    public void translates_npm_requirements() throws SQLException {
+        for (String requirement : new String[]{
+                "^1.2.0", "~2.3.4", "1.x || >=4.10.0 <5.0.0", ">=2.20.24", "<0.1.0", "1.2.3", "*", ">3.0.0 <2.0.0",
+                "1.0.0 - 2.3", "<=1.2.3 || >=1.2.4 <2.0.0", "^0.0.5", ">=1.2 <2", "<3.4"
+        }) {
+            assertSelected(Requirement.buildNPM(requirement));
+        }
+    }
+
+    @Test
+    public void translates_npm_requirements_with_prereleases() throws SQLException {
+        for (String requirement : new String[]{"^1.2.3-beta.2", ">=2.0.0-alpha <2.1.0", "1.2.3-rc.1", "<3.0.0-rc.1", ">=1.0.0"}) {
+            assertSelected(Requirement.buildNPM(requirement));
+        }
+
+        assertTrue(new SqlTranslator().translate(Requirement.buildNPM(">=1.0.0 <2.0.0")).isExact());
+        assertFalse(new SqlTranslator().translate(Requirement.buildNPM("^1.2.3-beta.2")).isExact());
+    }
+
+    @Test
+    public void translates_other_requirements() throws SQLException {
+        assertSelected(Requirement.buildCocoapods("~> 1.2"));
+        assertSelected(Requirement.buildCocoapods("~> 2.3.4"));
+        assertSelected(Requirement.buildIvy("[1.0,2.0["));
+        assertSelected(Requirement.buildIvy("1.2.+"));
+        assertSelected(Requirement.buildStrict("3.4.5"));
+        assertSelected(Requirement.buildLoose("3.4"));
+    }
+
+    @Test
+    public void rejects_invalid_column_names() {
+        assertThrows(VersionException.class, () -> new SqlTranslator("major; DROP TABLE versions", "minor", "patch", "pre"));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import de.kaiserpfalzedv.commons.version.VersionException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VersionCursorTest {
+    private static final String[] VERSIONS = {
+            "1.0.0-alpha", "1.0.0-alpha.1", "1.0.0-alpha.beta", "1.0.0-beta", "1.0.0-beta.2", "1.0.0-beta.11",
+            "1.0.0-rc.1", "1.0.0-rc.1+build.5", "1.0.0", "1.0.0+build.7", "1.0.1", "1.2.3-SNAPSHOT", "1.2.3-beta",
+            "1.2.3-beta.", "1.2.3", "1.10.0", "2.0.0-x.7.z.92", "2.0.0"
+    };
+
+    @Test
+    public void comparisons_are_consistent_with_semver() {
+        VersionCursor cursor = new VersionCursor(Semver.SemverType.STRICT);
+        VersionCursor other = new VersionCursor(Semver.SemverType.STRICT);
+
+        for (String v1 : VERSIONS) {
+            Semver semver1 = new Semver(v1);
+            cursor.point(v1);
+
+            for (String v2 : VERSIONS) {
+                Semver semver2 = new Semver(v2);
+                other.point(v2);
+
+                String message = v1 + " <-> " + v2;
+                assertEquals(semver1.isGreaterThan(semver2), cursor.isGreaterThan(semver2), message);
+                assertEquals(semver1.isEquivalentTo(semver2), cursor.isEquivalentTo(semver2), message);
+                assertEquals(semver1.isLowerThan(semver2), cursor.isLowerThan(semver2), message);
+                assertEquals(semver1.compareTo(semver2), cursor.compareTo(semver2), message);
+                assertEquals(semver1.compareTo(semver2), cursor.compareTo(other), message);
+            }
+        }
+    }
+
+    @Test
+    public void ignores_trailing_empty_suffix_tokens() {
+        VersionCursor cursor = new VersionCursor(Semver.SemverType.STRICT).point("1.2.3-beta.");
+        VersionCursor other = new VersionCursor(Semver.SemverType.STRICT).point("1.2.3-beta");
+
+        assertFalse(cursor.isGreaterThan(new Semver("1.2.3-beta")));
+        assertFalse(cursor.isGreaterThan(other));
+        assertFalse(other.isGreaterThan(cursor));
+        assertTrue(cursor.isLowerThan(new Semver("1.2.3-beta.1")));
+    }
+
+    @Test
+    public void exposes_the_parsed_parts() {
+        VersionCursor cursor = new VersionCursor(Semver.SemverType.NPM).point(" v1.2.x-beta+exp ");
+
+        assertEquals(1, cursor.getMajor());
+        assertEquals(2, cursor.getMinor());
+        assertEquals(-1, cursor.getPatch());
+        assertTrue(cursor.hasSuffix());
+        assertTrue(cursor.hasBuild());
+        assertEquals(new Semver("1.2.x-beta+exp", Semver.SemverType.NPM).getValue(), cursor.toSemver().getValue());
+    }
+
+    @Test
+    public void satisfies_requirements_like_semver() {
+        VersionCursor cursor = new VersionCursor(Semver.SemverType.NPM);
+        Requirement requirement = Requirement.buildNPM(">=1.2.3-alpha <1.3.0 || ^2.0.0");
+
+        for (String version : new String[]{"1.2.3", "1.2.3-beta", "1.2.4-beta", "1.2.9", "1.3.0", "2.4.1", "3.0.0", "2.1.0-rc.1"}) {
+            assertEquals(
+                    requirement.isSatisfiedBy(new Semver(version, Semver.SemverType.NPM)),
+                    cursor.point(version).satisfies(requirement),
+                    version
+            );
+        }
+        assertTrue(cursor.point("1.2.3-beta").satisfies(requirement));
+        assertFalse(cursor.point("1.2.4-beta").satisfies(requirement));
+    }
+
+    @Test
+    public void points_to_ranges_of_chars_and_bytes() {
+        String line = "artifact=1.4.0-rc.2;";
+        byte[] bytes = line.getBytes(StandardCharsets.US_ASCII);
+        Semver expected = new Semver("1.4.0-rc.2");
+
+        VersionCursor cursor = new VersionCursor(Semver.SemverType.STRICT);
+
+        cursor.point(line, 9, 19);
+        assertEquals("1.4.0-rc.2", cursor.toString());
+        assertTrue(cursor.isEquivalentTo(expected));
+
+        cursor.point(bytes, 9, 10);
+        assertEquals("1.4.0-rc.2", cursor.toString());
+        assertTrue(cursor.isEquivalentTo(expected));
+        assertTrue(cursor.isLowerThan(new Semver("1.4.0-rc.10")));
+    }
+
+    @Test
+    public void rejects_invalid_versions() {
+        VersionCursor cursor = new VersionCursor(Semver.SemverType.STRICT);
+
+        assertThrows(VersionException.class, () -> cursor.point("1.2"));
+        assertThrows(VersionException.class, () -> cursor.point("a.2.3"));
+        assertThrows(VersionException.class, () -> cursor.point("1.2.3+"));
+    }
+}
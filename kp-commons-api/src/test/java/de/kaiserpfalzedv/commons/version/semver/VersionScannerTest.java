@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.version.semver;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class VersionScannerTest {
+    private static final String LOG = "Downloading commons-lang3-3.12.0.jar (junit 5.6.2, node v14.17.0)\n"
+            + "abc1.2.3 and 1.2.3a are no versions, 1.2 is loose. Released 2.0.0-beta.1+sha.5.";
+
+    private static List<String> scan(final Semver.SemverType type, final CharSequence text) {
+        List<String> result = new ArrayList<>();
+        new VersionScanner(type).scan(text, o -> result.add(o.offset() + ":" + o.text()));
+        return result;
+    }
+
+    @Test
+    public void scan_strict_versions() {
+        assertEquals(List.of("26:3.12.0", "44:5.6.2", "57:14.17.0", "126:2.0.0-beta.1+sha.5"), scan(Semver.SemverType.STRICT, LOG));
+    }
+
+    @Test
+    public void scan_npm_versions_with_prefix_and_wildcards() {
+        List<String> result = scan(Semver.SemverType.NPM, "node v14.17.0 accepts 1.x and 2.3.*; but not x.1");
+
+        assertEquals(List.of("5:v14.17.0", "22:1.x", "30:2.3.*"), result);
+    }
+
+    @Test
+    public void scan_loose_versions() {
+        List<String> result = scan(Semver.SemverType.LOOSE, "1.2 is loose, 3 too; 4.5.6-rc.1 has a suffix.");
+
+        assertEquals(List.of("0:1.2", "14:3", "21:4.5.6-rc.1"), result);
+    }
+
+    @Test
+    public void scan_reports_the_numeric_core() {
+        List<VersionScanner.Occurrence> seen = new ArrayList<>();
+        new VersionScanner(Semver.SemverType.STRICT).scan("v 1.22.333-alpha+b7", o -> {
+            assertEquals(1, o.major());
+            assertEquals(22, o.minor());
+            assertEquals(333, o.patch());
+            assertTrue(o.hasSuffix());
+            assertTrue(o.hasBuild());
+            assertEquals(new Semver("1.22.333-alpha+b7"), o.toSemver());
+            seen.add(o);
+        });
+
+        assertEquals(1, seen.size());
+    }
+
+    @Test
+    public void scan_ignores_invalid_numbers() {
+        List<VersionScanner.Occurrence> seen = new ArrayList<>();
+        long count = new VersionScanner(Semver.SemverType.STRICT).scan("1.2.99999999999 9.8.7-", o -> {
+            assertEquals("9.8.7", o.text());
+            assertFalse(o.hasSuffix());
+            seen.add(o);
+        });
+
+        assertEquals(1, count);
+        assertEquals(1, seen.size());
+    }
+
+    @Test
+    public void scan_reader_and_char_buffer_like_strings() throws IOException {
+        List<String> expected = scan(Semver.SemverType.STRICT, LOG);
+
+        List<String> reader = new ArrayList<>();
+        new VersionScanner(Semver.SemverType.STRICT).scan(new StringReader(LOG), o -> reader.add(o.offset() + ":" + o.text()));
+
+        assertEquals(expected, reader);
+        assertEquals(expected, scan(Semver.SemverType.STRICT, CharBuffer.wrap(LOG)));
+    }
+
+    @Test
+    public void scan_mapped_file_reports_byte_offsets() throws IOException {
+        Path file = Files.createTempFile("versions", ".txt");
+        try {
+            Files.write(file, "é 1.0.0\n".getBytes(StandardCharsets.UTF_8));
+
+            List<String> result = new ArrayList<>();
+            long count = new VersionScanner(Semver.SemverType.STRICT).scan(file, o -> result.add(o.offset() + ":" + o.text()));
+
+            assertEquals(1, count);
+            assertEquals(List.of("3:1.0.0"), result);
+        } finally {
+            Files.delete(file);
+        }
+    }
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.EventImmutable;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.store.Codec;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the ingestion rate of the {@link EventLog}: appending encoded events of a given size and appending events
+ * encoded by the serialization codec. The heap is limited to 256 MB, so a growing heap would fail the benchmark.
+ * Reading the payload of a random offset measures the zero-copy read.
+ *
+ * <pre>
+ *     gradle :kp-commons-impl:jmh
+ * </pre>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx256m"})
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 5)
+public class EventLogBenchmark {
+    private static final Codec<Event> CODEC = Codec.serialization(Event.class);
+
+    @Param({"128", "1024"})
+    public int payloadSize;
+
+    private Path directory;
+    private EventLog log;
+    private ByteBuffer payload;
+    private Event event;
+    private long timestamp;
+
+    @Setup(Level.Trial)
+    public void setup() throws IOException {
+        directory = Files.createTempDirectory("kp-commons-events-");
+        log = EventLog.open(directory, CODEC);
+
+        payload = ByteBuffer.allocateDirect(payloadSize);
+        event = EventImmutable.builder()
+                .metadata(MetadataImmutable.builder()
+                        .kind("Benchmark")
+                        .apiVersion(Version.from("1.0.0", Version.VersionType.STRICT))
+                        .uuid(UUID.randomUUID())
+                        .name("event")
+                        .created(OffsetDateTime.now())
+                        .build())
+                .data(new byte[payloadSize])
+                .build();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public long appendEncoded() {
+        return log.append(timestamp++, payload);
+    }
+
+    @Benchmark
+    public long appendEvent() {
+        return log.append(event);
+    }
+
+    @Benchmark
+    public int readPayload() {
+        long next = log.nextOffset();
+        if (next == 0) {
+            log.append(timestamp++, payload);
+            next = 1;
+        }
+        return log.payload(timestamp++ % next).remaining();
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import de.kaiserpfalzedv.commons.api.CompactMap;
+import de.kaiserpfalzedv.commons.api.DataObject;
+import de.kaiserpfalzedv.commons.api.DataPointer;
+import de.kaiserpfalzedv.commons.api.DataPointerImmutable;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares read-modify-write cycles of 8 threads using {@link DataObjectStore#tryUpdate(DataObject)} (retried while
+ * the version is stale) with the same cycles serialized by a global lock around read and
+ * {@link DataObjectStore#put(DataObject)}.
+ * <p>
+ * With {@code hot} all threads change the same object, otherwise they spread over 1024 objects. The changes only touch
+ * the annotations, so the updates are lock-free and only race on the object itself.
+ *
+ * <pre>
+ *     gradle :kp-commons-impl:jmh
+ * </pre>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(8)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class DataObjectStoreBenchmark {
+    private static final Version API_VERSION = Version.from("1.0.0", Version.VersionType.STRICT);
+    private static final int OBJECTS = 1024;
+
+    @Param({"true", "false"})
+    public boolean hot;
+
+    private final Object lock = new Object();
+    private DataObjectStore<DataPointer> store;
+    private UUID[] uuids;
+
+    @Setup
+    public void setup() {
+        store = new DataObjectStore<>(true, true, DataObjectStore.DEFAULT_STRIPES,
+                (object, metadata) -> DataPointerImmutable.copyOf(object).withMetadata(metadata));
+
+        uuids = new UUID[OBJECTS];
+        for (int i = 0; i < OBJECTS; i++) {
+            uuids[i] = UUID.randomUUID();
+            store.put(DataPointerImmutable.builder()
+                    .metadata(MetadataImmutable.builder()
+                            .kind("Benchmark")
+                            .apiVersion(API_VERSION)
+                            .uuid(uuids[i])
+                            .name("object-" + i)
+                            .labels(CompactMap.builder().put("app", "benchmark").build())
+                            .build())
+                    .build());
+        }
+    }
+
+    private UUID target() {
+        return hot ? uuids[0] : uuids[ThreadLocalRandom.current().nextInt(OBJECTS)];
+    }
+
+    private static DataPointer touch(final DataPointer object) {
+        return DataPointerImmutable.copyOf(object).withMetadata(MetadataImmutable.copyOf(object.metadata())
+                .withAnnotations(CompactMap.builder().put("touched", Long.toString(System.nanoTime())).build()));
+    }
+
+    @Benchmark
+    public DataPointer optimisticUpdate() {
+        UUID uuid = target();
+        Optional<DataPointer> result;
+        do {
+            // somebody else may be faster - read again.
+            result = store.tryUpdate(touch(store.get(uuid).orElseThrow()));
+        } while (result.isEmpty());
+        return result.get();
+    }
+
+    @Benchmark
+    public DataPointer lockedPut() {
+        UUID uuid = target();
+        synchronized (lock) {
+            DataPointer result = touch(store.get(uuid).orElseThrow());
+            store.put(result);
+            return result;
+        }
+    }
+}
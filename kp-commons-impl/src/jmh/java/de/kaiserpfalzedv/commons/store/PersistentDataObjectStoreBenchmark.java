@@ -0,0 +1,179 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import de.kaiserpfalzedv.commons.api.CompactMap;
+import de.kaiserpfalzedv.commons.api.DataPointer;
+import de.kaiserpfalzedv.commons.api.DataPointerImmutable;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Measures the sustained write throughput of a {@link PersistentDataObjectStore} with 1 and 16 writing threads (every
+ * write waits for its log record being forced to disk) and the time to recover a store of 100.000 objects from a
+ * snapshot and a log tail of 10.000 records.
+ * <p>
+ * The directory is created below {@code java.io.tmpdir}, which should be on the disk to measure.
+ *
+ * <pre>
+ *     gradle :kp-commons-impl:jmh
+ * </pre>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class PersistentDataObjectStoreBenchmark {
+    private static final Version API_VERSION = Version.from("1.0.0", Version.VersionType.STRICT);
+    private static final Codec<DataPointer> CODEC = Codec.serialization(DataPointer.class);
+
+    private static final int RECOVERED_OBJECTS = 100_000;
+    private static final int RECOVERED_TAIL = 10_000;
+
+    private static DataPointer object(final UUID uuid, final String name) {
+        return DataPointerImmutable.builder()
+                .metadata(MetadataImmutable.builder()
+                        .kind("Benchmark")
+                        .apiVersion(API_VERSION)
+                        .uuid(uuid)
+                        .name(name)
+                        .labels(CompactMap.builder().put("app", "benchmark").put("tier", "backend").build())
+                        .build())
+                .build();
+    }
+
+    private static Path directory() throws IOException {
+        return Files.createTempDirectory("kp-commons-store-");
+    }
+
+    private static void delete(final Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            files.sorted(Comparator.reverseOrder()).forEach(f -> f.toFile().delete());
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Writes {
+        @Param({"0", "100000"})
+        public long snapshotEvery;
+
+        PersistentDataObjectStore<DataPointer> store;
+        UUID[] uuids;
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            directory = directory();
+            store = PersistentDataObjectStore.open(directory, CODEC, new DataObjectStore<>(), snapshotEvery);
+
+            uuids = new UUID[10_000];
+            for (int i = 0; i < uuids.length; i++) {
+                uuids[i] = UUID.randomUUID();
+                store.put(object(uuids[i], "object-" + i));
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            store.close();
+            delete(directory);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class Recovery {
+        Path directory;
+
+        @Setup(Level.Trial)
+        public void setup() throws IOException {
+            directory = directory();
+
+            try (PersistentDataObjectStore<DataPointer> store = PersistentDataObjectStore.open(directory, CODEC,
+                    new DataObjectStore<>(), 0)) {
+                for (int i = 0; i < RECOVERED_OBJECTS; i++) {
+                    store.put(object(UUID.randomUUID(), "object-" + i));
+                }
+                store.snapshot();
+                for (int i = 0; i < RECOVERED_TAIL; i++) {
+                    store.put(object(UUID.randomUUID(), "tail-" + i));
+                }
+            }
+        }
+
+        @TearDown(Level.Trial)
+        public void tearDown() throws IOException {
+            delete(directory);
+        }
+    }
+
+    private static DataPointer write(final Writes state) {
+        int index = ThreadLocalRandom.current().nextInt(state.uuids.length);
+        return state.store.put(object(state.uuids[index], "object-" + index));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(1)
+    public DataPointer write1(final Writes state) {
+        return write(state);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.SECONDS)
+    @Threads(16)
+    public DataPointer write16(final Writes state) {
+        return write(state);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Measurement(iterations = 5, batchSize = 1)
+    public int recover(final Recovery state) {
+        try (PersistentDataObjectStore<DataPointer> store = PersistentDataObjectStore.open(state.directory, CODEC,
+                new DataObjectStore<>(), 0)) {
+            return store.size();
+        }
+    }
+}
@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.store.Codec;
+import de.kaiserpfalzedv.commons.store.PersistenceException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * A segmented, memory-mapped, append-only log of {@link Event events}.
+ * <p>
+ * Every event gets the next offset of the log. The records are written into segments of a fixed size; when a record
+ * does not fit anymore, the segment is forced to disk and a new one is started with the next offset. Every segment has
+ * an index of the offsets and a sparse index of the timestamps ({@link de.kaiserpfalzedv.commons.api.Metadata#created()
+ * created} of the event or the time of the append). Records and indexes live in mapped files only: appending does not
+ * grow the heap, {@link #payload(long)} returns a read-only view of the mapped file without copying the payload.
+ * <p>
+ * A single appender runs at a time. Reads never lock and see all records appended before {@link #nextOffset()} has
+ * been read. Records are durable after {@link #flush()}, a torn record at the end of the log is dropped when the log is
+ * opened again.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class EventLog implements AutoCloseable {
+    public static final int DEFAULT_SEGMENT_SIZE = 64 * 1024 * 1024;
+
+    private final Path directory;
+    private final Codec<Event> codec;
+    private final int segmentSize;
+
+    private final ReentrantLock appendLock = new ReentrantLock();
+    private final CRC32C crc = new CRC32C();
+
+    private volatile Segment[] segments;
+    private volatile long next;
+    private volatile boolean closed;
+
+    private EventLog(final Path directory, final Codec<Event> codec, final int segmentSize, final Segment[] segments) {
+        this.directory = directory;
+        this.codec = codec;
+        this.segmentSize = segmentSize;
+        this.segments = segments;
+
+        Segment last = segments[segments.length - 1];
+        this.next = last.count() > 0 ? last.offset(last.count() - 1) + 1 : last.base();
+    }
+
+    /**
+     * Opens the log in the directory with segments of {@link #DEFAULT_SEGMENT_SIZE}.
+     *
+     * @param directory the directory of the segments. It is created if it does not exist.
+     * @param codec     the codec for the events.
+     * @return the log.
+     */
+    public static EventLog open(final Path directory, final Codec<Event> codec) {
+        return open(directory, codec, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Opens the log in the directory. Existing segments keep their size.
+     *
+     * @param directory   the directory of the segments. It is created if it does not exist.
+     * @param codec       the codec for the events.
+     * @param segmentSize the size of new segments in bytes.
+     * @return the log.
+     */
+    public static EventLog open(final Path directory, final Codec<Event> codec, final int segmentSize) {
+        if (segmentSize < Segment.TIME_INTERVAL) {
+            throw new IllegalArgumentException("The segment size has to be at least " + Segment.TIME_INTERVAL
+                    + " bytes: " + segmentSize);
+        }
+
+        List<Long> bases;
+        try {
+            Files.createDirectories(directory);
+            EventLogCompactor.recover(directory);
+
+            try (Stream<Path> files = Files.list(directory)) {
+                bases = files
+                        .map(f -> f.getFileName().toString())
+                        .filter(f -> f.endsWith(".log"))
+                        .map(f -> Long.parseLong(f.substring(0, f.length() - 4)))
+                        .sorted()
+                        .collect(Collectors.toList());
+            }
+        } catch (IOException | NumberFormatException e) {
+            throw new PersistenceException("Can't open event log '" + directory + "': " + e.getMessage(), e);
+        }
+
+        Segment[] segments;
+        if (bases.isEmpty()) {
+            segments = new Segment[]{Segment.create(directory, 0, segmentSize)};
+        } else {
+            segments = new Segment[bases.size()];
+            for (int i = 0; i < segments.length; i++) {
+                segments[i] = Segment.open(directory, bases.get(i), i == segments.length - 1);
+            }
+        }
+
+        return new EventLog(directory, codec, segmentSize, segments);
+    }
+
+    /**
+     * Appends an event with the timestamp of its creation (or the current time if it has none).
+     *
+     * @param event the event.
+     * @return the offset of the event.
+     */
+    public long append(final Event event) {
+        long timestamp = event.metadata().created()
+                .map(c -> c.toInstant().toEpochMilli())
+                .orElseGet(System::currentTimeMillis);
+
+        return append(timestamp, ByteBuffer.wrap(codec.encode(event)));
+    }
+
+    /**
+     * Appends an encoded event.
+     *
+     * @param timestamp the timestamp of the event in milliseconds since the epoch.
+     * @param payload   the remaining bytes are the encoded event, the position of the buffer is not changed.
+     * @return the offset of the event.
+     */
+    public long append(final long timestamp, final ByteBuffer payload) {
+        if (!payload.hasRemaining() || payload.remaining() > segmentSize - Segment.HEADER) {
+            throw new IllegalArgumentException("The payload has to have 1 to " + (segmentSize - Segment.HEADER)
+                    + " bytes: " + payload.remaining());
+        }
+
+        appendLock.lock();
+        try {
+            if (closed) {
+                throw new IllegalStateException("The event log is closed.");
+            }
+
+            long result = next;
+            Segment[] current = segments;
+            Segment active = current[current.length - 1];
+            if (!active.append(result, timestamp, payload, crc)) {
+                active.flush();
+
+                active = Segment.create(directory, result, segmentSize);
+                Segment[] rolled = Arrays.copyOf(current, current.length + 1);
+                rolled[current.length] = active;
+                segments = rolled;
+
+                if (!active.append(result, timestamp, payload, crc)) {
+                    throw new RuntimeException("Code error. A record does not fit into an empty segment."); // Should never happen
+                }
+            }
+
+            next = result + 1;
+            return result;
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * @param offset the offset of the event.
+     * @return the decoded event.
+     * @throws NoSuchElementException if the log has no event with this offset.
+     */
+    public Event read(final long offset) {
+        return codec.decode(payload(offset));
+    }
+
+    /**
+     * @param offset the offset of the event.
+     * @return a read-only view of the encoded event within the mapped segment.
+     * @throws NoSuchElementException if the log has no event with this offset.
+     */
+    public ByteBuffer payload(final long offset) {
+        Segment segment = segment(offset);
+        return segment.payload(slot(segment, offset));
+    }
+
+    /**
+     * @param offset the offset of the event.
+     * @return the timestamp of the event in milliseconds since the epoch.
+     * @throws NoSuchElementException if the log has no event with this offset.
+     */
+    public long timestamp(final long offset) {
+        Segment segment = segment(offset);
+        return segment.timestamp(slot(segment, offset));
+    }
+
+    /**
+     * Finds the first event at or after a point in time. Events appended out of order (with an older timestamp than
+     * events before them) may be skipped.
+     *
+     * @param time the point in time.
+     * @return the offset of the first event with the time or a later one, {@link #nextOffset()} if there is none.
+     */
+    public long offsetOf(final Instant time) {
+        long timestamp = time.toEpochMilli();
+        long limit = next;
+
+        for (Segment segment : segments) {
+            if (segment.count() == 0 || segment.maxTimestamp() < timestamp) {
+                continue;
+            }
+
+            int slot = segment.slotOf(timestamp);
+            if (slot < segment.count()) {
+                return Math.min(segment.offset(slot), limit);
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Visits the events starting with an offset in order of their offsets. The payload buffers are read-only views of
+     * the mapped segments.
+     *
+     * @param from    the first offset to visit.
+     * @param visitor the visitor, returning false to stop.
+     * @return the offset after the last visited event (the offset to continue with).
+     */
+    public long scan(final long from, final RecordVisitor visitor) {
+        long limit = next;
+        long result = Math.max(from, startOffset());
+
+        for (Segment segment : segments) {
+            if (segment.count() == 0 || segment.offset(segment.count() - 1) < result) {
+                continue;
+            }
+
+            int slot = segment.slot(result);
+            if (slot < 0) {
+                slot = -slot - 1;
+            }
+
+            for (; slot < segment.count(); slot++) {
+                long offset = segment.offset(slot);
+                if (offset >= limit) {
+                    return Math.max(result, limit);
+                }
+                if (!visitor.visit(offset, segment.timestamp(slot), segment.payload(slot))) {
+                    return offset + 1;
+                }
+                result = offset + 1;
+            }
+        }
+        // everything before the limit has been visited.
+        return Math.max(result, limit);
+    }
+
+    /**
+     * @return the offset of the first segment.
+     */
+    public long startOffset() {
+        return segments[0].base();
+    }
+
+    /**
+     * @return the offset the next event will get.
+     */
+    public long nextOffset() {
+        return next;
+    }
+
+    /**
+     * Forces the appended events to disk.
+     */
+    public void flush() {
+        appendLock.lock();
+        try {
+            Segment[] current = segments;
+            current[current.length - 1].flush();
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Flushes the log and rejects further appends. The mapped segments are released by the garbage collector.
+     */
+    @Override
+    public void close() {
+        appendLock.lock();
+        try {
+            if (!closed) {
+                segments[segments.length - 1].flush();
+                closed = true;
+            }
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    Path directory() {
+        return directory;
+    }
+
+    /**
+     * @return the codec of the events, to decode the payloads visited by {@link #scan(long, RecordVisitor)}.
+     */
+    public Codec<Event> codec() {
+        return codec;
+    }
+
+    /**
+     * @return the segments, the last one is the segment appended to.
+     */
+    Segment[] segments() {
+        return segments;
+    }
+
+    /**
+     * Replaces a segment that is not appended to anymore. Readers still using the old segment may finish.
+     *
+     * @param old         the segment to replace.
+     * @param replacement the new segment or null to remove the old one.
+     */
+    void replace(final Segment old, final Segment replacement) {
+        appendLock.lock();
+        try {
+            Segment[] current = segments;
+            for (int i = 0; i < current.length - 1; i++) {
+                if (current[i] == old) {
+                    if (replacement != null) {
+                        Segment[] result = current.clone();
+                        result[i] = replacement;
+                        segments = result;
+                    } else {
+                        Segment[] result = new Segment[current.length - 1];
+                        System.arraycopy(current, 0, result, 0, i);
+                        System.arraycopy(current, i + 1, result, i, current.length - i - 1);
+                        segments = result;
+                    }
+                    return;
+                }
+            }
+            throw new IllegalArgumentException("Not a sealed segment of this event log: " + old.base());
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    private Segment segment(final long offset) {
+        // next is published after the segments, reading it first guarantees the segment of every offset below it.
+        long limit = next;
+        Segment[] current = segments;
+        if (offset >= limit || offset < current[0].base()) {
+            throw new NoSuchElementException("The event log has no offset " + offset + ".");
+        }
+
+        int low = 0;
+        int high = current.length - 1;
+        while (low < high) {
+            int middle = (low + high + 1) >>> 1;
+            if (current[middle].base() <= offset) {
+                low = middle;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return current[low];
+    }
+
+    private static int slot(final Segment segment, final long offset) {
+        int result = segment.slot(offset);
+        if (result < 0) {
+            throw new NoSuchElementException("The event log has no offset " + offset + ".");
+        }
+        return result;
+    }
+
+    /**
+     * Receives the records of {@link #scan(long, RecordVisitor)}.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+        /**
+         * @param offset    the offset of the event.
+         * @param timestamp the timestamp of the event in milliseconds since the epoch.
+         * @param payload   a read-only view of the encoded event.
+         * @return true to visit the next event.
+         */
+        boolean visit(long offset, long timestamp, ByteBuffer payload);
+    }
+}
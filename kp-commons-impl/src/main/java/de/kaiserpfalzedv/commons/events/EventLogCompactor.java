@@ -0,0 +1,362 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.Metadata;
+import de.kaiserpfalzedv.commons.store.PersistenceException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Compacts an {@link EventLog} by key like a compacted topic: only the newest event per kind, scope and name of its
+ * {@link Metadata} is kept. The newest event has the latest timestamp ({@link Metadata#created() created}), the later
+ * offset if the timestamps are equal. Tombstones (events with {@link Metadata#deleted() deleted} set) are kept as newest
+ * event until the retention after their deletion has passed, then they are dropped as well.
+ * <p>
+ * A run decodes every event once to find the newest offsets and then rewrites the segments that are not appended to
+ * anymore, dropping everything else. Offsets never change, the compacted segments have gaps. Reading and writing are
+ * limited to the configured bandwidth. Appends are never blocked by the compaction, the append lock is only held to
+ * swap the segments.
+ * <p>
+ * The compacted segments are written to {@code compaction/} within the log directory. When all of them are forced to
+ * disk, a marker file lists the changes, then the segments are moved into place. If the process stops in between,
+ * {@link EventLog#open(Path, de.kaiserpfalzedv.commons.store.Codec, int)} completes the changes of a marker and
+ * discards everything else.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class EventLogCompactor implements AutoCloseable {
+    private static final String DIRECTORY = "compaction";
+    private static final String MARKER = "COMPLETE";
+    private static final String[] SUFFIXES = {".log", ".index", ".timeindex"};
+
+    private final EventLog log;
+    private final long retention;
+    private final Throttle throttle;
+    private final ScheduledExecutorService executor;
+
+    private volatile RuntimeException failure;
+
+    /**
+     * @param log            the log to compact.
+     * @param retention      the time tombstones are kept after their deletion.
+     * @param bytesPerSecond the bandwidth for reading and writing segments.
+     */
+    public EventLogCompactor(final EventLog log, final Duration retention, final long bytesPerSecond) {
+        this.log = log;
+        this.retention = retention.toMillis();
+        this.throttle = new Throttle(bytesPerSecond);
+
+        this.executor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread result = new Thread(r, "compaction-" + log.directory().getFileName());
+            result.setDaemon(true);
+            return result;
+        });
+    }
+
+    /**
+     * Runs the compaction in the background. A failed run does not stop the compaction, the next run starts from the
+     * current state again. The failure is kept for {@link #failure()}.
+     *
+     * @param interval the time between the end of a run and the start of the next one.
+     */
+    public void start(final Duration interval) {
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                compact();
+                failure = null;
+            } catch (RuntimeException e) {
+                failure = e;
+            }
+        }, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @return the failure of the last background run, empty if it succeeded.
+     */
+    public Optional<RuntimeException> failure() {
+        return Optional.ofNullable(failure);
+    }
+
+    /**
+     * Compacts the log once.
+     *
+     * @return the number of events dropped.
+     */
+    public synchronized long compact() {
+        Segment[] segments = log.segments();
+        if (segments.length < 2) {
+            return 0;
+        }
+
+        long[] kept = newest(segments, System.currentTimeMillis() - retention);
+        Segment[] sealed = Arrays.copyOf(segments, segments.length - 1);
+
+        Path directory = clean(log.directory());
+        List<String> changes = new ArrayList<>();
+        long result = 0;
+
+        CRC32C crc = new CRC32C();
+        for (Segment segment : sealed) {
+            int keep = 0;
+            int bytes = 0;
+            for (int slot = 0; slot < segment.count(); slot++) {
+                if (Arrays.binarySearch(kept, segment.offset(slot)) >= 0) {
+                    keep++;
+                    bytes += Segment.HEADER + segment.payload(slot).remaining();
+                }
+            }
+            if (keep == segment.count()) {
+                continue;
+            }
+            result += segment.count() - keep;
+
+            if (keep == 0) {
+                changes.add("delete " + segment.base());
+                continue;
+            }
+
+            Segment compacted = Segment.create(directory, segment.base(), Math.max(Segment.TIME_INTERVAL, bytes));
+            for (int slot = 0; slot < segment.count(); slot++) {
+                long offset = segment.offset(slot);
+                if (Arrays.binarySearch(kept, offset) >= 0) {
+                    ByteBuffer payload = segment.payload(slot);
+                    throttle.acquire(Segment.HEADER + payload.remaining());
+                    compacted.append(offset, segment.timestamp(slot), payload, crc);
+                }
+            }
+            compacted.flush();
+            changes.add("replace " + segment.base());
+        }
+
+        if (changes.isEmpty()) {
+            return 0;
+        }
+
+        write(directory.resolve(MARKER), changes);
+        install(log.directory(), changes, log, sealed);
+        return result;
+    }
+
+    /**
+     * Finds the newest event per key of all events published when the run started.
+     *
+     * @return the sorted offsets of the events to keep.
+     */
+    private long[] newest(final Segment[] segments, final long expired) {
+        Map<Key, long[]> newest = new HashMap<>();
+
+        long limit = log.nextOffset();
+        for (Segment segment : segments) {
+            for (int slot = 0; slot < segment.count(); slot++) {
+                long offset = segment.offset(slot);
+                if (offset >= limit) {
+                    break;
+                }
+
+                ByteBuffer payload = segment.payload(slot);
+                throttle.acquire(Segment.HEADER + payload.remaining());
+
+                Metadata metadata = log.codec().decode(payload).metadata();
+                long timestamp = segment.timestamp(slot);
+                long deleted = metadata.deleted().map(d -> d.toInstant().toEpochMilli()).orElse(Long.MAX_VALUE);
+
+                long[] current = newest.computeIfAbsent(new Key(metadata), k -> new long[]{-1, Long.MIN_VALUE, 0});
+                if (timestamp >= current[1]) {
+                    current[0] = offset;
+                    current[1] = timestamp;
+                    current[2] = deleted;
+                }
+            }
+        }
+
+        return newest.values().stream()
+                .filter(e -> e[2] >= expired)
+                .mapToLong(e -> e[0])
+                .sorted()
+                .toArray();
+    }
+
+    private static void install(final Path directory, final List<String> changes, final EventLog log,
+                                final Segment[] sealed) {
+        for (String change : changes) {
+            long base = Long.parseLong(change.substring(change.indexOf(' ') + 1));
+            Segment old = Arrays.stream(sealed)
+                    .filter(s -> s.base() == base)
+                    .findFirst()
+                    .orElseThrow(() -> new RuntimeException("Code error. Unknown segment " + base)); // Should never happen
+
+            if (change.startsWith("replace ")) {
+                move(directory, base);
+                log.replace(old, Segment.open(directory, base, false));
+            } else {
+                log.replace(old, null);
+                old.delete();
+            }
+        }
+
+        clean(directory);
+    }
+
+    /**
+     * Completes the changes of an interrupted compaction and discards compacted segments not installed.
+     *
+     * @param directory the directory of the log.
+     */
+    static void recover(final Path directory) {
+        Path marker = directory.resolve(DIRECTORY).resolve(MARKER);
+        if (Files.exists(marker)) {
+            try {
+                for (String change : Files.readAllLines(marker, StandardCharsets.UTF_8)) {
+                    long base = Long.parseLong(change.substring(change.indexOf(' ') + 1));
+                    if (change.startsWith("replace ")) {
+                        move(directory, base);
+                    } else {
+                        for (String suffix : SUFFIXES) {
+                            Files.deleteIfExists(Segment.file(directory, base, suffix));
+                        }
+                    }
+                }
+            } catch (IOException | NumberFormatException e) {
+                throw new PersistenceException("Can't complete the compaction of '" + directory + "': "
+                        + e.getMessage(), e);
+            }
+        }
+
+        if (Files.isDirectory(directory.resolve(DIRECTORY))) {
+            clean(directory);
+        }
+    }
+
+    private static void move(final Path directory, final long base) {
+        Path compacted = directory.resolve(DIRECTORY);
+        try {
+            for (String suffix : SUFFIXES) {
+                Path source = Segment.file(compacted, base, suffix);
+                if (Files.exists(source)) {
+                    Files.move(source, Segment.file(directory, base, suffix), StandardCopyOption.REPLACE_EXISTING,
+                            StandardCopyOption.ATOMIC_MOVE);
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Can't install compacted segment " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @return the empty compaction directory.
+     */
+    private static Path clean(final Path directory) {
+        Path result = directory.resolve(DIRECTORY);
+        try {
+            if (Files.isDirectory(result)) {
+                List<Path> files;
+                try (Stream<Path> list = Files.list(result)) {
+                    // the marker goes last, the changes are complete as long as it exists.
+                    files = list.sorted(Comparator.comparing((Path f) -> f.endsWith(MARKER)))
+                            .collect(Collectors.toList());
+                }
+                for (Path file : files) {
+                    Files.deleteIfExists(file);
+                }
+            }
+            return Files.createDirectories(result);
+        } catch (IOException e) {
+            throw new PersistenceException("Can't clean '" + result + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static void write(final Path marker, final List<String> changes) {
+        try (FileChannel channel = FileChannel.open(marker, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer data = ByteBuffer.wrap(String.join("\n", changes).getBytes(StandardCharsets.UTF_8));
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+            channel.force(true);
+        } catch (IOException e) {
+            throw new PersistenceException("Can't write compaction marker '" + marker + "': " + e.getMessage(), e);
+        }
+
+        try (FileChannel directory = FileChannel.open(marker.getParent(), StandardOpenOption.READ)) {
+            directory.force(true);
+        } catch (IOException e) {
+            // not every platform can force a directory.
+        }
+    }
+
+    /**
+     * Stops the background compaction and waits for a running compaction.
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class Key {
+        private final String kind;
+        private final String scope;
+        private final String name;
+
+        private Key(final Metadata metadata) {
+            this.kind = metadata.kind();
+            this.scope = metadata.scope();
+            this.name = metadata.name();
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+            Key key = (Key) o;
+            return kind.equals(key.kind) && scope.equals(key.scope) && name.equals(key.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, scope, name);
+        }
+    }
+}
@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.Metadata;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.function.Function;
+
+/**
+ * Replays the events of an {@link EventLog} in parallel. The events are partitioned by a key taken from their
+ * {@link Metadata}: events with the same key are applied in the order of the log by one thread at a time, partitions
+ * are applied in parallel on the given pool.
+ * <p>
+ * A single reader collects batches of events, decodes every batch in parallel on the pool and routes the events to
+ * their partitions. The number of events routed but not applied yet is bounded, a slow partition slows the reader down.
+ * <p>
+ * The progress is checkpointed regularly and when the replay ends: the watermark (all events before it have been
+ * applied) and the last applied offset of every partition. A replay with the same checkpoint file resumes at the
+ * watermark and skips the events already applied by their partition. After a stop, a failed handler or an event that
+ * can not be decoded, every event is applied once. If the process dies, the events applied since the last checkpoint
+ * are applied again, so the delivery is at-least-once and the handler has to be idempotent. The checkpoint is only
+ * valid for the same partition key and number of partitions.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class EventReplay {
+    private static final int BATCH = 1024;
+
+    private final EventLog log;
+    private final Function<? super Metadata, ?> partitionKey;
+    private final Partition[] partitions;
+    private final Executor pool;
+    private final Path checkpoint;
+    private final long checkpointInterval;
+    private final int parallelism;
+
+    private volatile boolean stopped;
+    /** The offset the reader routes next. */
+    private volatile long routed;
+
+    /**
+     * @param log                the log to replay.
+     * @param partitionKey       the key of the partition (like {@link #scope()} or {@link #owner()}).
+     * @param partitions         the number of partitions.
+     * @param pool               the pool running decoding and partitions.
+     * @param parallelism        the number of threads of the pool used for decoding.
+     * @param checkpoint         the checkpoint file.
+     * @param checkpointInterval the time between checkpoints.
+     */
+    public EventReplay(final EventLog log, final Function<? super Metadata, ?> partitionKey, final int partitions,
+                       final Executor pool, final int parallelism, final Path checkpoint,
+                       final Duration checkpointInterval) {
+        if (partitions <= 0 || parallelism <= 0) {
+            throw new IllegalArgumentException("Partitions and parallelism have to be positive: " + partitions + ", "
+                    + parallelism);
+        }
+
+        this.log = log;
+        this.partitionKey = partitionKey;
+        this.pool = pool;
+        this.parallelism = parallelism;
+        this.checkpoint = checkpoint;
+        this.checkpointInterval = checkpointInterval.toNanos();
+
+        this.partitions = new Partition[partitions];
+        for (int i = 0; i < partitions; i++) {
+            this.partitions[i] = new Partition();
+        }
+    }
+
+    /**
+     * @return the scope of the metadata as partition key.
+     */
+    public static Function<Metadata, Object> scope() {
+        return Metadata::scope;
+    }
+
+    /**
+     * @return the UUID of the owner as partition key, the scope for events without owner.
+     */
+    public static Function<Metadata, Object> owner() {
+        return m -> m.owner().<Object>map(o -> o.metadata().uuid()).orElse(m.scope());
+    }
+
+    /**
+     * Replays all events appended before the replay started, starting where the last replay with the checkpoint
+     * stopped.
+     *
+     * @param handler the handler of the events. It is called by multiple threads, but never concurrently for events
+     *                of the same partition.
+     * @return the watermark: all events before it have been applied.
+     * @throws ReplayException if the handler failed or an event could not be decoded.
+     */
+    public long replay(final EventHandler handler) {
+        ReplayCheckpoint start = ReplayCheckpoint.read(checkpoint);
+        if (start == null) {
+            start = ReplayCheckpoint.start(partitions.length);
+        } else if (start.partitions() != partitions.length) {
+            throw new IllegalArgumentException("The checkpoint has been written with " + start.partitions()
+                    + " partitions instead of " + partitions.length + ".");
+        }
+
+        Semaphore inFlight = new Semaphore(partitions.length * BATCH);
+        for (int i = 0; i < partitions.length; i++) {
+            partitions[i].reset(handler, inFlight, start.applied(i));
+        }
+        stopped = false;
+        routed = start.watermark();
+
+        ReplayCheckpoint result;
+        try {
+            route(log.nextOffset());
+        } finally {
+            // waits until every routed event has been applied.
+            inFlight.acquireUninterruptibly(partitions.length * BATCH);
+            inFlight.release(partitions.length * BATCH);
+
+            result = checkpoint();
+            result.write(checkpoint);
+        }
+
+        Throwable failure = failure();
+        if (failure != null) {
+            throw new ReplayException("Replay failed at offset " + result.watermark() + ": " + failure.getMessage(),
+                    failure);
+        }
+        return result.watermark();
+    }
+
+    /**
+     * Reads, decodes and routes the events in batches.
+     *
+     * @param end the offset to stop at.
+     */
+    private void route(final long end) {
+        long[] offsets = new long[BATCH];
+        ByteBuffer[] payloads = new ByteBuffer[BATCH];
+        Event[] events = new Event[BATCH];
+        long checkpointed = System.nanoTime();
+
+        while (routed < end && !stopped && failure() == null) {
+            int[] count = {0};
+            long after = log.scan(routed, (offset, timestamp, payload) -> {
+                if (offset >= end) {
+                    return false;
+                }
+                offsets[count[0]] = offset;
+                payloads[count[0]++] = payload;
+                return count[0] < BATCH;
+            });
+
+            try {
+                decode(payloads, events, count[0]);
+            } catch (CompletionException e) {
+                throw new ReplayException("Can't decode the events from offset " + routed + ": "
+                        + e.getCause().getMessage(), e.getCause());
+            }
+            for (int i = 0; i < count[0]; i++) {
+                partitions[partition(events[i])].dispatch(offsets[i], events[i]);
+                events[i] = null;
+                payloads[i] = null;
+            }
+            routed = count[0] > 0 ? Math.min(after, end) : end;
+
+            if (System.nanoTime() - checkpointed >= checkpointInterval) {
+                checkpoint().write(checkpoint);
+                checkpointed = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Stops a running replay after the current batch. The replay waits for the routed events and writes the
+     * checkpoint.
+     */
+    public void stop() {
+        stopped = true;
+    }
+
+    private void decode(final ByteBuffer[] payloads, final Event[] events, final int count) {
+        int chunk = Math.max(64, (count + parallelism - 1) / parallelism);
+        CompletableFuture<?>[] tasks = new CompletableFuture<?>[(count + chunk - 1) / chunk];
+
+        for (int t = 0; t < tasks.length; t++) {
+            int from = t * chunk;
+            int to = Math.min(count, from + chunk);
+            tasks[t] = CompletableFuture.runAsync(() -> {
+                for (int i = from; i < to; i++) {
+                    events[i] = log.codec().decode(payloads[i]);
+                }
+            }, pool);
+        }
+        CompletableFuture.allOf(tasks).join();
+    }
+
+    private int partition(final Event event) {
+        int hash = partitionKey.apply(event.metadata()).hashCode();
+        return ((hash ^ (hash >>> 16)) & 0x7FFFFFFF) % partitions.length;
+    }
+
+    /**
+     * @return the current progress.
+     */
+    private ReplayCheckpoint checkpoint() {
+        // every event routed after this point has an offset of at least the one routed next.
+        long watermark = routed;
+        long[] applied = new long[partitions.length];
+        for (int i = 0; i < partitions.length; i++) {
+            synchronized (partitions[i]) {
+                applied[i] = partitions[i].applied;
+                watermark = Math.min(watermark, partitions[i].pending());
+            }
+        }
+        return new ReplayCheckpoint(watermark, applied);
+    }
+
+    private Throwable failure() {
+        for (Partition partition : partitions) {
+            synchronized (partition) {
+                if (partition.failure != null) {
+                    return partition.failure;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The events of a partition are applied by one task of the pool at a time.
+     */
+    private final class Partition implements Runnable {
+        private final ArrayDeque<Routed> queue = new ArrayDeque<>();
+
+        private EventHandler handler;
+        private Semaphore inFlight;
+
+        private long applied;
+        private long applying = Long.MAX_VALUE;
+        private boolean scheduled;
+        private Throwable failure;
+        private long failed = Long.MAX_VALUE;
+
+        synchronized void reset(final EventHandler handler, final Semaphore inFlight, final long applied) {
+            this.handler = handler;
+            this.inFlight = inFlight;
+            this.applied = applied;
+            this.applying = Long.MAX_VALUE;
+            this.failure = null;
+            this.failed = Long.MAX_VALUE;
+            this.queue.clear();
+        }
+
+        void dispatch(final long offset, final Event event) {
+            if (offset <= applied()) {
+                // applied before the replay has been interrupted.
+                return;
+            }
+
+            inFlight.acquireUninterruptibly();
+            synchronized (this) {
+                if (failure != null) {
+                    inFlight.release();
+                    return;
+                }
+
+                queue.add(new Routed(offset, event));
+                if (!scheduled) {
+                    scheduled = true;
+                    pool.execute(this);
+                }
+            }
+        }
+
+        private synchronized long applied() {
+            return applied;
+        }
+
+        /**
+         * @return the offset of the first event routed to this partition but not applied.
+         */
+        long pending() {
+            Routed first = queue.peek();
+            return Math.min(Math.min(applying, failed), first != null ? first.offset : Long.MAX_VALUE);
+        }
+
+        @Override
+        public void run() {
+            while (true) {
+                Routed next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        scheduled = false;
+                        return;
+                    }
+                    applying = next.offset;
+                }
+
+                long offset = next.offset;
+                try {
+                    handler.apply(offset, next.event);
+                } catch (RuntimeException | Error e) {
+                    synchronized (this) {
+                        failure = e;
+                        failed = offset;
+                        applying = Long.MAX_VALUE;
+                        scheduled = false;
+
+                        inFlight.release(queue.size() + 1);
+                        queue.clear();
+                    }
+                    return;
+                }
+
+                synchronized (this) {
+                    applied = offset;
+                    applying = Long.MAX_VALUE;
+                }
+                inFlight.release();
+            }
+        }
+    }
+
+    private static final class Routed {
+        private final long offset;
+        private final Event event;
+
+        private Routed(final long offset, final Event event) {
+            this.offset = offset;
+            this.event = event;
+        }
+    }
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.store.PersistenceException;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+
+/**
+ * The progress of an {@link EventReplay}: all events before the watermark have been applied, the events of every
+ * partition up to its last applied offset as well. The checkpoint is a properties file replaced atomically.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+final class ReplayCheckpoint {
+    private final long watermark;
+    private final long[] applied;
+
+    ReplayCheckpoint(final long watermark, final long[] applied) {
+        this.watermark = watermark;
+        this.applied = applied;
+    }
+
+    /**
+     * @param partitions the number of partitions.
+     * @return the checkpoint of a replay that has not started.
+     */
+    static ReplayCheckpoint start(final int partitions) {
+        long[] applied = new long[partitions];
+        Arrays.fill(applied, -1L);
+        return new ReplayCheckpoint(0, applied);
+    }
+
+    long watermark() {
+        return watermark;
+    }
+
+    /**
+     * @param partition the partition.
+     * @return the offset of the last event applied in the partition, -1 if there is none.
+     */
+    long applied(final int partition) {
+        return applied[partition];
+    }
+
+    int partitions() {
+        return applied.length;
+    }
+
+    /**
+     * @param file the checkpoint file.
+     * @return the checkpoint or null if the file does not exist.
+     */
+    static ReplayCheckpoint read(final Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+
+        Properties properties = new Properties();
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            properties.load(reader);
+
+            long[] applied = new long[Integer.parseInt(properties.getProperty("partitions"))];
+            for (int i = 0; i < applied.length; i++) {
+                applied[i] = Long.parseLong(properties.getProperty("applied." + i));
+            }
+            return new ReplayCheckpoint(Long.parseLong(properties.getProperty("watermark")), applied);
+        } catch (IOException | RuntimeException e) {
+            throw new PersistenceException("Can't read replay checkpoint '" + file + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param file the checkpoint file.
+     */
+    void write(final Path file) {
+        Properties properties = new Properties();
+        properties.setProperty("watermark", Long.toString(watermark));
+        properties.setProperty("partitions", Integer.toString(applied.length));
+        for (int i = 0; i < applied.length; i++) {
+            properties.setProperty("applied." + i, Long.toString(applied[i]));
+        }
+
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                Writer writer = Channels.newWriter(channel, StandardCharsets.UTF_8);
+                properties.store(writer, null);
+                writer.flush();
+                channel.force(true);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new PersistenceException("Can't write replay checkpoint '" + file + "': " + e.getMessage(), e);
+        }
+    }
+}
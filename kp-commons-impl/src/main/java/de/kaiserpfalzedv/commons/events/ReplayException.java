@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+/**
+ * An {@link EventHandler} failed or an event could not be decoded while replaying events. The progress up to the failed
+ * event has been checkpointed.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public class ReplayException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public ReplayException(final String msg, final Throwable cause) {
+        super(msg, cause);
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.store.PersistenceException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * A segment of the {@link EventLog}: three memory-mapped files of fixed size named by the offset of the first record.
+ * <ul>
+ * <li>{@code <base>.log} contains the records {@code [int length][int crc][long timestamp][payload]}, the checksum
+ * covers timestamp and payload.</li>
+ * <li>{@code <base>.index} contains {@code [int relative offset][int end position]} for every record. The records of
+ * a segment written by appends have consecutive offsets, so the entry of an offset is found directly. Compacted
+ * segments have gaps and are searched binary.</li>
+ * <li>{@code <base>.timeindex} contains {@code [long max timestamp][int slot + 1]} for every {@value #TIME_INTERVAL}
+ * bytes of records, the maximum timestamp of all records up to the slot of the index.</li>
+ * </ul>
+ * The files are zero-filled when created, an entry with end position 0 ends the index. Only a single thread writes a
+ * segment, other threads may read the records published to them.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+final class Segment {
+    static final int HEADER = 4 + 4 + 8;
+    static final int TIME_INTERVAL = 4096;
+
+    private static final int INDEX_ENTRY = 8;
+    private static final int TIME_ENTRY = 12;
+
+    private final long base;
+    private final Path directory;
+    private final MappedByteBuffer data;
+    private final MappedByteBuffer offsets;
+    private final MappedByteBuffer times;
+
+    /** The view used by the writer. */
+    private final ByteBuffer writer;
+
+    /** Published after the record and its index entries have been written. */
+    private volatile int count;
+    private int timeCount;
+    private int timeIndexed = -TIME_INTERVAL;
+    private long maxTimestamp = Long.MIN_VALUE;
+
+    private Segment(final Path directory, final long base, final MappedByteBuffer data,
+                    final MappedByteBuffer offsets, final MappedByteBuffer times) {
+        this.directory = directory;
+        this.base = base;
+        this.data = data;
+        this.offsets = offsets;
+        this.times = times;
+        this.writer = data.duplicate();
+    }
+
+    /**
+     * Creates a new empty segment, replacing existing files.
+     *
+     * @param directory the directory of the log.
+     * @param base      the offset of the first record.
+     * @param capacity  the size of the record file.
+     * @return the segment.
+     */
+    static Segment create(final Path directory, final long base, final int capacity) {
+        return new Segment(directory, base,
+                map(file(directory, base, ".log"), capacity, true),
+                map(file(directory, base, ".index"), indexSize(capacity), true),
+                map(file(directory, base, ".timeindex"), timeIndexSize(capacity), true));
+    }
+
+    /**
+     * Opens an existing segment. The indexes of the segment written last are rebuilt from its records since they may
+     * have been written partially, everything after the last valid record is cleared.
+     *
+     * @param directory the directory of the log.
+     * @param base      the offset of the first record.
+     * @param recover   true if the segment has been the last one.
+     * @return the segment.
+     */
+    static Segment open(final Path directory, final long base, final boolean recover) {
+        Path log = file(directory, base, ".log");
+        int capacity;
+        try {
+            capacity = (int) Files.size(log);
+        } catch (IOException e) {
+            throw new PersistenceException("Can't read event log segment '" + log + "': " + e.getMessage(), e);
+        }
+
+        Segment result = new Segment(directory, base,
+                map(log, capacity, false),
+                map(file(directory, base, ".index"), indexSize(capacity), false),
+                map(file(directory, base, ".timeindex"), timeIndexSize(capacity), false));
+
+        if (recover) {
+            result.recover();
+        } else {
+            result.load();
+        }
+        return result;
+    }
+
+    private void recover() {
+        CRC32C crc = new CRC32C();
+        int position = 0;
+        int previous = count(offsets, INDEX_ENTRY, 4, indexSize(data.capacity()) / INDEX_ENTRY);
+
+        while (position + HEADER < data.capacity()) {
+            int length = data.getInt(position);
+            if (length <= 0 || length > data.capacity() - position - HEADER) {
+                break;
+            }
+
+            crc.reset();
+            crc.update(data.duplicate().position(position + 8).limit(position + HEADER + length));
+            if ((int) crc.getValue() != data.getInt(position + 4)) {
+                break;
+            }
+
+            index(count, data.getLong(position + 8), position + HEADER + length);
+            position += HEADER + length;
+        }
+
+        // a torn record or records written after it may not be read again, pages still zero are not touched.
+        for (int i = position; i < data.capacity(); i++) {
+            if (data.get(i) != 0) {
+                data.put(i, (byte) 0);
+            }
+        }
+        for (int i = count; i < previous; i++) {
+            offsets.putLong(i * INDEX_ENTRY, 0L);
+        }
+        for (int i = timeCount * TIME_ENTRY; i < times.capacity(); i += TIME_ENTRY) {
+            if (times.getInt(i + 8) == 0) {
+                break;
+            }
+            times.putLong(i, 0L).putInt(i + 8, 0);
+        }
+
+        writer.position(position);
+    }
+
+    private void load() {
+        count = count(offsets, INDEX_ENTRY, 4, indexSize(data.capacity()) / INDEX_ENTRY);
+        timeCount = count(times, TIME_ENTRY, 8, timeIndexSize(data.capacity()) / TIME_ENTRY);
+        writer.position(count > 0 ? end(count - 1) : 0);
+
+        int from = 0;
+        if (timeCount > 0) {
+            maxTimestamp = times.getLong((timeCount - 1) * TIME_ENTRY);
+            from = times.getInt((timeCount - 1) * TIME_ENTRY + 8);
+        }
+        for (int slot = from; slot < count; slot++) {
+            maxTimestamp = Math.max(maxTimestamp, timestamp(slot));
+        }
+    }
+
+    /**
+     * Appends a record if it fits into the segment.
+     *
+     * @param offset    the offset of the record, greater than the offset of the last record.
+     * @param timestamp the timestamp of the record.
+     * @param payload   the remaining bytes are the payload, the position is not changed.
+     * @param crc       the checksum to use.
+     * @return false if the segment is full.
+     */
+    boolean append(final long offset, final long timestamp, final ByteBuffer payload, final CRC32C crc) {
+        int length = payload.remaining();
+        int position = writer.position();
+        if (HEADER + length > writer.remaining() || (count + 1) * INDEX_ENTRY > offsets.capacity()) {
+            return false;
+        }
+
+        int start = payload.position();
+        crc.reset();
+        writer.position(position + 8);
+        writer.putLong(timestamp);
+        writer.put(payload);
+        payload.position(start);
+        crc.update(data.duplicate().position(position + 8).limit(position + HEADER + length));
+
+        data.putInt(position + 4, (int) crc.getValue());
+        data.putInt(position, length);
+
+        index((int) (offset - base), timestamp, position + HEADER + length);
+        return true;
+    }
+
+    private void index(final int relativeOffset, final long timestamp, final int end) {
+        int slot = count;
+        offsets.putInt(slot * INDEX_ENTRY, relativeOffset).putInt(slot * INDEX_ENTRY + 4, end);
+
+        maxTimestamp = Math.max(maxTimestamp, timestamp);
+        int start = slot > 0 ? end(slot - 1) : 0;
+        if (start - timeIndexed >= TIME_INTERVAL) {
+            times.putLong(timeCount * TIME_ENTRY, maxTimestamp).putInt(timeCount * TIME_ENTRY + 8, slot + 1);
+            timeCount++;
+            timeIndexed = start;
+        }
+
+        count = slot + 1;
+    }
+
+    /**
+     * @return the offset of the first record.
+     */
+    long base() {
+        return base;
+    }
+
+    /**
+     * @return the number of records.
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return the number of bytes used by the records.
+     */
+    int size() {
+        return count > 0 ? end(count - 1) : 0;
+    }
+
+    /**
+     * @return the size of the record file.
+     */
+    int capacity() {
+        return data.capacity();
+    }
+
+    /**
+     * @return the greatest timestamp of all records.
+     */
+    long maxTimestamp() {
+        return maxTimestamp;
+    }
+
+    /**
+     * @param offset the offset of a record.
+     * @return the slot of the record with the offset or {@code -(insertion point) - 1} if there is no such record.
+     */
+    int slot(final long offset) {
+        int count = this.count;
+        long relative = offset - base;
+        if (relative < 0) {
+            return -1;
+        }
+        if (relative < count && relativeOffset((int) relative) == relative) {
+            return (int) relative;
+        }
+
+        int low = 0;
+        int high = count - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            int value = relativeOffset(middle);
+            if (value < relative) {
+                low = middle + 1;
+            } else if (value > relative) {
+                high = middle - 1;
+            } else {
+                return middle;
+            }
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * @param timestamp the timestamp searched.
+     * @return the first slot of a record with the timestamp or a later one, {@link #count()} if there is none.
+     */
+    int slotOf(final long timestamp) {
+        int count = this.count;
+        // the time index holds the maximum timestamps so far, all records up to an entry below the time are earlier.
+        int low = 0;
+        int high = Math.min(timeCount, count) - 1;
+        int from = 0;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (times.getLong(middle * TIME_ENTRY) < timestamp) {
+                from = times.getInt(middle * TIME_ENTRY + 8);
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+
+        for (int slot = from; slot < count; slot++) {
+            if (timestamp(slot) >= timestamp) {
+                return slot;
+            }
+        }
+        return count;
+    }
+
+    long offset(final int slot) {
+        return base + relativeOffset(slot);
+    }
+
+    long timestamp(final int slot) {
+        return data.getLong(start(slot) + 8);
+    }
+
+    /**
+     * @param slot the slot of the record.
+     * @return a read-only view of the payload within the mapped file.
+     */
+    ByteBuffer payload(final int slot) {
+        int start = start(slot);
+        return data.asReadOnlyBuffer().position(start + HEADER).limit(end(slot)).slice();
+    }
+
+    /**
+     * Forces the mapped files to disk.
+     */
+    void flush() {
+        data.force();
+        offsets.force();
+        times.force();
+    }
+
+    /**
+     * Deletes the files of the segment. The mapped buffers stay valid until they are garbage collected.
+     */
+    void delete() {
+        try {
+            Files.deleteIfExists(file(directory, base, ".log"));
+            Files.deleteIfExists(file(directory, base, ".index"));
+            Files.deleteIfExists(file(directory, base, ".timeindex"));
+        } catch (IOException e) {
+            throw new PersistenceException("Can't delete event log segment " + base + ": " + e.getMessage(), e);
+        }
+    }
+
+    private int relativeOffset(final int slot) {
+        return offsets.getInt(slot * INDEX_ENTRY);
+    }
+
+    private int start(final int slot) {
+        return slot > 0 ? end(slot - 1) : 0;
+    }
+
+    private int end(final int slot) {
+        return slot >= 0 ? offsets.getInt(slot * INDEX_ENTRY + 4) : 0;
+    }
+
+    static Path file(final Path directory, final long base, final String suffix) {
+        return directory.resolve(String.format("%020d%s", base, suffix));
+    }
+
+    private static int indexSize(final int capacity) {
+        return capacity / (HEADER + 1) * INDEX_ENTRY;
+    }
+
+    private static int timeIndexSize(final int capacity) {
+        return (capacity / TIME_INTERVAL + 2) * TIME_ENTRY;
+    }
+
+    /**
+     * @return the number of leading entries with a non-zero int at the given position within the entry.
+     */
+    private static int count(final ByteBuffer index, final int entry, final int at, final int capacity) {
+        int low = 0;
+        int high = capacity - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (index.getInt(middle * entry + at) != 0) {
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return low;
+    }
+
+    private static MappedByteBuffer map(final Path file, final int size, final boolean create) {
+        try (FileChannel channel = create
+                ? FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        } catch (IOException e) {
+            throw new PersistenceException("Can't map event log file '" + file + "': " + e.getMessage(), e);
+        }
+    }
+}
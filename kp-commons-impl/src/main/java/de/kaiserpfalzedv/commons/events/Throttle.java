@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.store.PersistenceException;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token bucket limiting the bandwidth of background I/O. The bucket holds the bytes of one second at most, bytes
+ * acquired beyond the tokens available are waited for.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+final class Throttle {
+    private final long bytesPerSecond;
+
+    private long available;
+    private long refilled = System.nanoTime();
+
+    /**
+     * @param bytesPerSecond the bandwidth.
+     */
+    Throttle(final long bytesPerSecond) {
+        if (bytesPerSecond <= 0) {
+            throw new IllegalArgumentException("The bandwidth has to be positive: " + bytesPerSecond);
+        }
+
+        this.bytesPerSecond = bytesPerSecond;
+        this.available = bytesPerSecond;
+    }
+
+    /**
+     * Takes the bytes from the bucket and waits until they would have been available.
+     *
+     * @param bytes the number of bytes read or written.
+     * @throws PersistenceException if the thread is interrupted while waiting.
+     */
+    synchronized void acquire(final long bytes) {
+        long now = System.nanoTime();
+        available = Math.min(bytesPerSecond,
+                available + (long) ((now - refilled) / (double) TimeUnit.SECONDS.toNanos(1) * bytesPerSecond));
+        refilled = now;
+
+        available -= bytes;
+        if (available < 0) {
+            try {
+                TimeUnit.NANOSECONDS.sleep((long) (-available / (double) bytesPerSecond * TimeUnit.SECONDS.toNanos(1)));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new PersistenceException("Interrupted while throttling the event log I/O.", e);
+            }
+        }
+    }
+}
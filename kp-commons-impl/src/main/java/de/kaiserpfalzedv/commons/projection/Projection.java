@@ -0,0 +1,356 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.projection;
+
+import de.kaiserpfalzedv.commons.api.DataSet;
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.State;
+import de.kaiserpfalzedv.commons.api.StateImmutable;
+import de.kaiserpfalzedv.commons.events.EventLog;
+import de.kaiserpfalzedv.commons.store.Codec;
+import de.kaiserpfalzedv.commons.store.DataObjectStore;
+import de.kaiserpfalzedv.commons.store.PersistenceException;
+import de.kaiserpfalzedv.commons.store.SnapshotFile;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+
+/**
+ * A read model of {@link DataSet data sets} kept current by folding the events of an {@link EventLog} with a
+ * {@link Projector}.
+ * <p>
+ * Every change appends a {@link State} to the {@link DataSet#state() state} of the data set: {@link State#CREATED}
+ * for a new data set (or one deleted before), {@link State#UPDATED} for a changed one and {@link State#DELETED} if
+ * the projector deletes it. The data of the state is the offset of the event, its UUID the UUID of the event. Deleted
+ * data sets stay in the read model with their state log. The state log is limited to the newest entries.
+ * <p>
+ * The projection applies events from the offset after the last applied event: {@link #catchUp()} applies everything
+ * appended since, {@link #start(Duration)} follows the log in a background thread. Events are applied in batches, so
+ * {@link #snapshot()} and {@link #close()} only wait for the current batch. The read model and the offset are
+ * checkpointed together as snapshot in the given directory, every {@code snapshotEvery} events (checked between the
+ * batches) or by {@link #snapshot()}; {@link #open(EventLog, Projector, Codec, DataObjectStore, Path, int, long)}
+ * restores the newest snapshot, so only events appended after it are applied again.
+ * <p>
+ * An event that can not be applied stops the projection at its offset. A failure of the background thread is rethrown
+ * by {@link #catchUp()} and {@link #close()} until the projection is started again.
+ *
+ * @param <T> the type of the data sets.
+ * @since 2.0.0 2026-10-19
+ */
+public final class Projection<T extends DataSet<?>> implements AutoCloseable {
+    /**
+     * The number of events applied while the projection is locked.
+     */
+    static final int BATCH = 1000;
+
+    private final EventLog log;
+    private final Projector<T> projector;
+    private final Codec<T> codec;
+    private final DataObjectStore<T> store;
+    private final Path directory;
+    private final int history;
+    private final long snapshotEvery;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+
+    /** The offset of the next event to apply. Written under the lock of the projection. */
+    private volatile long offset;
+    private volatile long snapshotted;
+
+    private volatile Thread follower;
+    private volatile boolean running;
+    private volatile ProjectionException failure;
+
+    private Projection(final EventLog log, final Projector<T> projector, final Codec<T> codec,
+                       final DataObjectStore<T> store, final Path directory, final int history,
+                       final long snapshotEvery, final long offset) {
+        this.log = log;
+        this.projector = projector;
+        this.codec = codec;
+        this.store = store;
+        this.directory = directory;
+        this.history = history;
+        this.snapshotEvery = snapshotEvery;
+        this.offset = offset;
+        this.snapshotted = offset;
+    }
+
+    /**
+     * Restores the newest snapshot of the projection.
+     *
+     * @param log       the event log.
+     * @param projector the projector.
+     * @param codec     the codec for the snapshots of the data sets.
+     * @param store     the empty store of the read model.
+     * @param directory the directory of the snapshots. It is created if it does not exist.
+     * @param history       the maximum number of entries of the state logs, 0 for no limit.
+     * @param snapshotEvery the number of applied events after which a snapshot is written, 0 for manual snapshots
+     *                      only.
+     * @param <T>           the type of the data sets.
+     * @return the projection, not caught up with the log yet.
+     */
+    public static <T extends DataSet<?>> Projection<T> open(final EventLog log, final Projector<T> projector,
+                                                             final Codec<T> codec, final DataObjectStore<T> store,
+                                                             final Path directory, final int history,
+                                                             final long snapshotEvery) {
+        if (store.size() != 0) {
+            throw new IllegalArgumentException("The store to restore into has to be empty.");
+        }
+        if (history < 0) {
+            throw new IllegalArgumentException("The history can't be negative: " + history);
+        }
+        if (snapshotEvery < 0) {
+            throw new IllegalArgumentException("The snapshot interval can't be negative: " + snapshotEvery);
+        }
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new PersistenceException("Can't create directory '" + directory + "': " + e.getMessage(), e);
+        }
+
+        long offset = 0;
+        Optional<Path> snapshot = SnapshotFile.latest(directory);
+        if (snapshot.isPresent()) {
+            List<T> datasets = new ArrayList<>();
+            offset = SnapshotFile.read(snapshot.get(), codec, datasets);
+            datasets.forEach(store::put);
+        }
+
+        return new Projection<>(log, projector, codec, store, directory, history, snapshotEvery, offset);
+    }
+
+    /**
+     * Applies all events appended since the last applied one.
+     *
+     * @return the offset of the next event to apply.
+     * @throws ProjectionException if an event could not be applied or the background thread failed.
+     */
+    public long catchUp() {
+        ProjectionException failed = failure;
+        if (failed != null) {
+            throw failed;
+        }
+        return catchUp(log.nextOffset(), () -> true);
+    }
+
+    /**
+     * Applies batches of events until the target offset has been reached or the projection should not proceed.
+     * Snapshots that are due are written between the batches.
+     */
+    private long catchUp(final long target, final BooleanSupplier proceed) {
+        long result;
+        do {
+            result = applyBatch();
+
+            if (snapshotEvery > 0 && result - snapshotted >= snapshotEvery) {
+                snapshot();
+            }
+        } while (result < target && proceed.getAsBoolean());
+        return result;
+    }
+
+    /**
+     * @return the offset after the batch.
+     */
+    private synchronized long applyBatch() {
+        Codec<Event> events = log.codec();
+        int[] applied = {0};
+
+        try {
+            offset = log.scan(offset, (o, timestamp, payload) -> {
+                apply(o, events.decode(payload));
+
+                // published per event, so readers of offset() see the progress of a batch.
+                offset = o + 1;
+                return ++applied[0] < BATCH;
+            });
+        } catch (RuntimeException e) {
+            throw new ProjectionException("Can't apply the event at offset " + offset + ": " + e.getMessage(), e);
+        }
+        return offset;
+    }
+
+    private void apply(final long offset, final Event event) {
+        Optional<UUID> key = projector.key(event);
+        if (key.isEmpty()) {
+            return;
+        }
+
+        Optional<T> current = store.get(key.get());
+        Optional<T> live = current.filter(c -> !deleted(c));
+        Optional<T> result = projector.apply(live, event);
+
+        T changed;
+        if (result.isPresent()) {
+            if (!key.get().equals(result.get().metadata().uuid())) {
+                throw new IllegalStateException("The projector changed the UUID " + key.get() + " to "
+                        + result.get().metadata().uuid() + " at offset " + offset + ".");
+            }
+
+            String kind = live.isEmpty() ? State.CREATED : State.UPDATED;
+            changed = projector.withState(result.get(), state(current, kind, offset, event));
+        } else if (live.isPresent()) {
+            changed = projector.withState(live.get(), state(current, State.DELETED, offset, event));
+        } else {
+            return;
+        }
+
+        store.put(changed);
+    }
+
+    private List<State> state(final Optional<T> current, final String kind, final long offset, final Event event) {
+        List<State> previous = current.flatMap(DataSet::state).orElse(Collections.emptyList());
+
+        int from = history > 0 ? Math.max(0, previous.size() + 1 - history) : 0;
+        List<State> result = new ArrayList<>(previous.size() + 1 - from);
+        result.addAll(previous.subList(from, previous.size()));
+        result.add(StateImmutable.builder()
+                .kind(kind)
+                .data(offset)
+                .uuid(event.metadata().uuid())
+                .created(event.metadata().created().orElseGet(OffsetDateTime::now))
+                .build());
+
+        return Collections.unmodifiableList(result);
+    }
+
+    private static boolean deleted(final DataSet<?> dataset) {
+        List<State> state = dataset.state().orElse(Collections.emptyList());
+        return !state.isEmpty() && State.DELETED.equals(state.get(state.size() - 1).kind());
+    }
+
+    /**
+     * Writes a snapshot of the read model with the offset of the next event to apply. The projection only waits for
+     * the copy of the read model (and the current batch of events to finish).
+     *
+     * @return the offset of the snapshot.
+     */
+    public long snapshot() {
+        snapshotLock.lock();
+        try {
+            List<T> datasets;
+            long result;
+            synchronized (this) {
+                datasets = store.snapshot();
+                result = offset;
+                snapshotted = result;
+            }
+
+            SnapshotFile.write(directory, result, datasets, codec);
+            return result;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Follows the log in a background thread: new events are applied within the poll interval. If the thread fails,
+     * it stops and its failure is rethrown by {@link #catchUp()} and {@link #close()}. Starting the projection again
+     * retries the failed event.
+     *
+     * @param poll the time to wait when all events have been applied.
+     */
+    public synchronized void start(final Duration poll) {
+        if (follower != null) {
+            throw new IllegalStateException("The projection is already following the log.");
+        }
+
+        failure = null;
+        running = true;
+        follower = new Thread(() -> {
+            try {
+                while (running) {
+                    long before = offset;
+                    long after = catchUp(log.nextOffset(), () -> running);
+
+                    if (after == before) {
+                        LockSupport.parkNanos(poll.toNanos());
+                    }
+                }
+            } catch (ProjectionException e) {
+                failure = e;
+            } catch (RuntimeException e) {
+                failure = new ProjectionException("The projection failed at offset " + offset + ": "
+                        + e.getMessage(), e);
+            } finally {
+                synchronized (this) {
+                    if (follower == Thread.currentThread()) {
+                        follower = null;
+                        running = false;
+                    }
+                }
+            }
+        }, "projection-" + directory.getFileName());
+        follower.setDaemon(true);
+        follower.start();
+    }
+
+    /**
+     * @return the offset of the next event to apply.
+     */
+    public long offset() {
+        return offset;
+    }
+
+    /**
+     * @return the read model. It has to be changed by the projection only.
+     */
+    public DataObjectStore<T> store() {
+        return store;
+    }
+
+    /**
+     * Stops following the log.
+     *
+     * @throws ProjectionException if the background thread failed.
+     */
+    @Override
+    public void close() {
+        Thread current;
+        synchronized (this) {
+            running = false;
+            current = follower;
+            follower = null;
+        }
+
+        if (current != null) {
+            LockSupport.unpark(current);
+            try {
+                current.join(TimeUnit.MINUTES.toMillis(1));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.projection;
+
+import de.kaiserpfalzedv.commons.api.DataSet;
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.State;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Folds {@link Event events} into data sets of a read model. The {@link DataSet#state() state} of the data sets is
+ * maintained by the {@link Projection}, projectors only change metadata and data.
+ *
+ * @param <T> the type of the data sets.
+ * @since 2.0.0 2026-10-19
+ */
+public interface Projector<T extends DataSet<?>> {
+    /**
+     * @param event the event.
+     * @return the UUID of the data set changed by the event, empty if the event does not change the read model.
+     */
+    Optional<UUID> key(Event event);
+
+    /**
+     * @param current the current data set, empty if there is none or it has been deleted.
+     * @param event   the event.
+     * @return the new data set with the same UUID, empty if the event deletes it.
+     */
+    Optional<T> apply(Optional<T> current, Event event);
+
+    /**
+     * @param dataset the data set.
+     * @param state   the new state log of the data set.
+     * @return a copy of the data set with the state log.
+     */
+    T withState(T dataset, List<State> state);
+}
@@ -0,0 +1,396 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.selector;
+
+import de.kaiserpfalzedv.commons.api.CompactMap;
+import de.kaiserpfalzedv.commons.api.DataObject;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * An in-memory inverted index selecting objects by their labels.
+ * <p>
+ * Every object gets an int id. For every label key the index keeps the posting list (ascending ids) of the objects
+ * having the key and one list per value. A {@link LabelSelector} is evaluated on these lists: the lists of the
+ * requirements that need the label ({@code =}, {@code in}, existence) are intersected starting with the smallest one,
+ * the ids of the others are found by galloping search. Only the remaining candidates are checked against the negative
+ * requirements ({@code !=}, {@code notin}, {@code !key}) by their labels. So the costs depend on the size of the
+ * smallest list instead of the number of objects.
+ * <p>
+ * The labels are copied into a {@link CompactMap} when an object is added. The index is thread safe: any number of
+ * selections run in parallel, updates are exclusive.
+ *
+ * @param <K> the type of the keys identifying the objects.
+ * @param <V> the type of the objects.
+ * @since 2.0.0 2026-10-19
+ */
+public final class LabelIndex<K, V> {
+    private final Function<? super V, ? extends K> keyOf;
+    private final Function<? super V, ? extends Map<String, String>> labelsOf;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final HashMap<K, Integer> ids = new HashMap<>();
+    private Object[] values = new Object[16];
+    private Object[] labels = new Object[16];
+
+    /**
+     * The ids in use and the ids of removed objects (reused by the next objects added).
+     */
+    private final Postings live = new Postings();
+    private int[] free = new int[16];
+    private int freeCount = 0;
+    private int next = 0;
+
+    private final HashMap<String, Label> keys = new HashMap<>();
+
+    /**
+     * @param keyOf    extracts the unique key of an object.
+     * @param labelsOf extracts the labels of an object.
+     */
+    public LabelIndex(final Function<? super V, ? extends K> keyOf,
+                      final Function<? super V, ? extends Map<String, String>> labelsOf) {
+        this.keyOf = keyOf;
+        this.labelsOf = labelsOf;
+    }
+
+    /**
+     * @param <T> the type of the objects.
+     * @return an index of data objects, identified by the UUID of their metadata.
+     */
+    public static <T extends DataObject> LabelIndex<UUID, T> forDataObjects() {
+        return new LabelIndex<>(o -> o.metadata().uuid(), o -> o.metadata().labels());
+    }
+
+    /**
+     * The postings of a label key.
+     */
+    private static final class Label {
+        private final Postings all = new Postings();
+        private final HashMap<String, Postings> values = new HashMap<>();
+    }
+
+    /**
+     * Adds an object or replaces the object with the same key.
+     *
+     * @param value the object to add.
+     * @return the replaced object or null.
+     */
+    public V put(final V value) {
+        K key = Objects.requireNonNull(keyOf.apply(value), "key");
+        Map<String, String> valueLabels = CompactMap.copyOf(Objects.requireNonNull(labelsOf.apply(value), "labels"));
+
+        lock.writeLock().lock();
+        try {
+            Integer existing = ids.get(key);
+            V result = null;
+            int id;
+            if (existing != null) {
+                id = existing;
+                result = value(id);
+                reindex(id, labels(id), valueLabels);
+            } else {
+                id = allocate();
+                ids.put(key, id);
+                live.add(id);
+                index(id, valueLabels);
+            }
+
+            values[id] = value;
+            labels[id] = valueLabels;
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param key the key of the object.
+     * @return the removed object or null.
+     */
+    public V remove(final K key) {
+        lock.writeLock().lock();
+        try {
+            Integer id = ids.remove(key);
+            if (id == null) {
+                return null;
+            }
+
+            V result = value(id);
+            unindex(id, labels(id));
+            live.remove(id);
+            values[id] = null;
+            labels[id] = null;
+
+            if (freeCount == free.length) {
+                free = Arrays.copyOf(free, freeCount << 1);
+            }
+            free[freeCount++] = id;
+            return result;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @param key the key of the object.
+     * @return the object or null.
+     */
+    public V get(final K key) {
+        lock.readLock().lock();
+        try {
+            Integer id = ids.get(key);
+            return id != null ? value(id) : null;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @return the number of objects.
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param selector the selector to match.
+     * @return the matching objects (in no specific order).
+     */
+    public List<V> select(final LabelSelector selector) {
+        List<V> result = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            evaluate(selector, result);
+        } finally {
+            lock.readLock().unlock();
+        }
+        return result;
+    }
+
+    /**
+     * @param selector the selector to match.
+     * @return the number of matching objects.
+     */
+    public int count(final LabelSelector selector) {
+        lock.readLock().lock();
+        try {
+            return evaluate(selector, null);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * @param result the list receiving the matching objects (may be null to count only).
+     * @return the number of matching objects.
+     */
+    private int evaluate(final LabelSelector selector, final List<V> result) {
+        List<Postings> positive = new ArrayList<>();
+        List<LabelSelector.Requirement> negative = new ArrayList<>();
+
+        for (LabelSelector.Requirement requirement : selector.requirements()) {
+            if (!requirement.operator().needsLabel()) {
+                negative.add(requirement);
+                continue;
+            }
+
+            Postings postings = postings(requirement);
+            if (postings == null || postings.size() == 0) {
+                return 0;
+            }
+            positive.add(postings);
+        }
+
+        if (positive.isEmpty()) {
+            positive.add(live);
+        }
+        positive.sort(Comparator.comparingInt(Postings::size));
+
+        Postings smallest = positive.get(0);
+        int[] cursors = new int[positive.size()];
+        int count = 0;
+
+        candidates:
+        for (int cursor = smallest.first(); cursor != smallest.end(); cursor = smallest.next(cursor)) {
+            int id = smallest.get(cursor);
+
+            for (int list = 1; list < cursors.length; list++) {
+                Postings other = positive.get(list);
+                int position = other.seek(cursors[list], id);
+                cursors[list] = position;
+
+                if (position == other.end()) {
+                    break candidates;
+                }
+                if (other.get(position) != id) {
+                    continue candidates;
+                }
+            }
+
+            if (!negative.isEmpty()) {
+                Map<String, String> objectLabels = labels(id);
+                for (LabelSelector.Requirement requirement : negative) {
+                    if (!requirement.matches(objectLabels)) {
+                        continue candidates;
+                    }
+                }
+            }
+
+            count++;
+            if (result != null) {
+                result.add(value(id));
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return the objects having the label required or null if there are none.
+     */
+    private Postings postings(final LabelSelector.Requirement requirement) {
+        Label label = keys.get(requirement.key());
+        if (label == null) {
+            return null;
+        }
+
+        switch (requirement.operator()) {
+            case EXISTS:
+                return label.all;
+            case EQUALS:
+                return label.values.get(requirement.values().iterator().next());
+            case IN:
+                List<Postings> lists = new ArrayList<>(requirement.values().size());
+                for (String value : requirement.values()) {
+                    Postings postings = label.values.get(value);
+                    if (postings != null) {
+                        lists.add(postings);
+                    }
+                }
+                if (lists.size() <= 1) {
+                    return lists.isEmpty() ? null : lists.get(0);
+                }
+                return Postings.union(lists.toArray(new Postings[0]));
+            default:
+                throw new RuntimeException("Code error. No positive operator: " + requirement.operator()); // Should never happen
+        }
+    }
+
+    private void index(final int id, final Map<String, String> objectLabels) {
+        for (Map.Entry<String, String> entry : objectLabels.entrySet()) {
+            index(id, entry.getKey(), entry.getValue(), true);
+        }
+    }
+
+    private void unindex(final int id, final Map<String, String> objectLabels) {
+        for (Map.Entry<String, String> entry : objectLabels.entrySet()) {
+            unindex(id, entry.getKey(), entry.getValue(), true);
+        }
+    }
+
+    /**
+     * Moves an object from the postings of its previous labels to the ones of its current labels. Unchanged labels
+     * keep their postings, a changed value keeps the posting of the key.
+     */
+    private void reindex(final int id, final Map<String, String> previous, final Map<String, String> current) {
+        for (Map.Entry<String, String> entry : previous.entrySet()) {
+            String value = current.get(entry.getKey());
+            if (!entry.getValue().equals(value)) {
+                unindex(id, entry.getKey(), entry.getValue(), value == null);
+            }
+        }
+        for (Map.Entry<String, String> entry : current.entrySet()) {
+            String value = previous.get(entry.getKey());
+            if (!entry.getValue().equals(value)) {
+                index(id, entry.getKey(), entry.getValue(), value == null);
+            }
+        }
+    }
+
+    private void index(final int id, final String key, final String value, final boolean withKey) {
+        Label label = keys.computeIfAbsent(key, k -> new Label());
+        if (withKey) {
+            label.all.add(id);
+        }
+        label.values.computeIfAbsent(value, v -> new Postings()).add(id);
+    }
+
+    private void unindex(final int id, final String key, final String value, final boolean withKey) {
+        Label label = keys.get(key);
+        if (withKey) {
+            label.all.remove(id);
+        }
+
+        Postings postings = label.values.get(value);
+        postings.remove(id);
+        if (postings.size() == 0) {
+            label.values.remove(value);
+        }
+        if (label.all.size() == 0) {
+            keys.remove(key);
+        }
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            return free[--freeCount];
+        }
+
+        if (next == values.length) {
+            values = Arrays.copyOf(values, next << 1);
+            labels = Arrays.copyOf(labels, next << 1);
+        }
+        return next++;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V value(final int id) {
+        return (V) values[id];
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, String> labels(final int id) {
+        return (Map<String, String>) labels[id];
+    }
+
+    @Override
+    public String toString() {
+        lock.readLock().lock();
+        try {
+            return "LabelIndex[size=" + live.size() + ", keys=" + new TreeSet<>(keys.keySet()) + "]";
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+}
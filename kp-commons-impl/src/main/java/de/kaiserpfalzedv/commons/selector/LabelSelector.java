@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.selector;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+/**
+ * A label selector like the ones of the Kubernetes API: a list of requirements separated by commas, all of them have to
+ * be satisfied by the labels of an object.
+ *
+ * <pre>
+ *     app=web,tier in (fe,be),!canary
+ * </pre>
+ * <p>
+ * Supported requirements are {@code key}, {@code !key}, {@code key=value}, {@code key==value}, {@code key!=value},
+ * {@code key in (v1,v2)} and {@code key notin (v1,v2)}. Like in Kubernetes, {@code !=} and {@code notin} are satisfied
+ * by objects without the label, too. The empty selector matches every object. Selectors are immutable.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class LabelSelector {
+    private static final LabelSelector EVERYTHING = new LabelSelector(Collections.emptyList());
+
+    private static final Pattern NAME = Pattern.compile("[A-Za-z0-9]([-A-Za-z0-9_.]{0,61}[A-Za-z0-9])?");
+    private static final Pattern PREFIX = Pattern.compile("[a-z0-9]([-a-z0-9]*[a-z0-9])?(\\.[a-z0-9]([-a-z0-9]*[a-z0-9])?)*");
+    private static final int MAX_PREFIX = 253;
+
+    private final List<Requirement> requirements;
+
+    private LabelSelector(final List<Requirement> requirements) {
+        this.requirements = Collections.unmodifiableList(requirements);
+    }
+
+    /**
+     * @return the selector matching every object.
+     */
+    public static LabelSelector everything() {
+        return EVERYTHING;
+    }
+
+    /**
+     * @param selector the textual selector.
+     * @return the parsed selector.
+     * @throws LabelSelectorException if the selector is invalid.
+     */
+    public static LabelSelector parse(final String selector) {
+        return new Parser(selector).parse();
+    }
+
+    /**
+     * @param labels the labels to select from (all of them have to be matched).
+     * @return the selector matching objects having all these labels.
+     * @throws LabelSelectorException if a key or value is invalid.
+     */
+    public static LabelSelector of(final Map<String, String> labels) {
+        List<Requirement> result = new ArrayList<>(labels.size());
+        for (Map.Entry<String, String> label : labels.entrySet()) {
+            result.add(new Requirement(checkKey(label.getKey()), Operator.EQUALS,
+                    Collections.singleton(checkValue(label.getValue()))));
+        }
+        return new LabelSelector(result);
+    }
+
+    /**
+     * @return the requirements in the order of the selector.
+     */
+    public List<Requirement> requirements() {
+        return requirements;
+    }
+
+    /**
+     * @return true if the selector matches every object.
+     */
+    public boolean isEmpty() {
+        return requirements.isEmpty();
+    }
+
+    /**
+     * @param labels the labels of an object.
+     * @return true if all requirements are satisfied.
+     */
+    public boolean matches(final Map<String, String> labels) {
+        for (Requirement requirement : requirements) {
+            if (!requirement.matches(labels)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String checkKey(final String key) {
+        int slash = key.indexOf('/');
+        String name = slash >= 0 ? key.substring(slash + 1) : key;
+
+        if (!NAME.matcher(name).matches()) {
+            throw new LabelSelectorException("Invalid label key: " + key);
+        }
+        if (slash >= 0) {
+            String prefix = key.substring(0, slash);
+            if (prefix.length() > MAX_PREFIX || !PREFIX.matcher(prefix).matches()) {
+                throw new LabelSelectorException("Invalid label key prefix: " + key);
+            }
+        }
+        return key;
+    }
+
+    private static String checkValue(final String value) {
+        if (!value.isEmpty() && !NAME.matcher(value).matches()) {
+            throw new LabelSelectorException("Invalid label value: " + value);
+        }
+        return value;
+    }
+
+    @Override
+    public boolean equals(final Object o) {
+        if (this == o) return true;
+        if (!(o instanceof LabelSelector)) return false;
+        return requirements.equals(((LabelSelector) o).requirements);
+    }
+
+    @Override
+    public int hashCode() {
+        return requirements.hashCode();
+    }
+
+    /**
+     * @return the selector in its textual form (may be parsed again).
+     */
+    @Override
+    public String toString() {
+        StringBuilder result = new StringBuilder();
+        for (Requirement requirement : requirements) {
+            if (result.length() > 0) {
+                result.append(',');
+            }
+            result.append(requirement);
+        }
+        return result.toString();
+    }
+
+    public enum Operator {
+        EQUALS,
+        NOT_EQUALS,
+        IN,
+        NOT_IN,
+        EXISTS,
+        DOES_NOT_EXIST;
+
+        /**
+         * @return true if the requirement can only be satisfied by objects having the label.
+         */
+        public boolean needsLabel() {
+            return this == EQUALS || this == IN || this == EXISTS;
+        }
+    }
+
+    /**
+     * A single requirement of a selector.
+     */
+    public static final class Requirement {
+        private final String key;
+        private final Operator operator;
+        private final Set<String> values;
+
+        Requirement(final String key, final Operator operator, final Set<String> values) {
+            this.key = key;
+            this.operator = operator;
+            this.values = Collections.unmodifiableSet(new TreeSet<>(values));
+        }
+
+        public String key() {
+            return key;
+        }
+
+        public Operator operator() {
+            return operator;
+        }
+
+        /**
+         * @return the values in ascending order (a single value for {@code =} and {@code !=}, none for the existence
+         * checks).
+         */
+        public Set<String> values() {
+            return values;
+        }
+
+        /**
+         * @param labels the labels of an object.
+         * @return true if the labels satisfy the requirement.
+         */
+        public boolean matches(final Map<String, String> labels) {
+            String value = labels.get(key);
+
+            switch (operator) {
+                case EQUALS:
+                case IN:
+                    return value != null && values.contains(value);
+                case NOT_EQUALS:
+                case NOT_IN:
+                    return value == null || !values.contains(value);
+                case EXISTS:
+                    return value != null;
+                case DOES_NOT_EXIST:
+                    return value == null;
+                default:
+                    throw new RuntimeException("Code error. Unknown operator: " + operator); // Should never happen
+            }
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Requirement)) return false;
+            Requirement that = (Requirement) o;
+            return key.equals(that.key) && operator == that.operator && values.equals(that.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(key, operator, values);
+        }
+
+        @Override
+        public String toString() {
+            switch (operator) {
+                case EQUALS:
+                    return key + "=" + values.iterator().next();
+                case NOT_EQUALS:
+                    return key + "!=" + values.iterator().next();
+                case IN:
+                    return key + " in (" + String.join(",", values) + ")";
+                case NOT_IN:
+                    return key + " notin (" + String.join(",", values) + ")";
+                case EXISTS:
+                    return key;
+                case DOES_NOT_EXIST:
+                    return "!" + key;
+                default:
+                    throw new RuntimeException("Code error. Unknown operator: " + operator); // Should never happen
+            }
+        }
+    }
+
+    /**
+     * Parses the textual form of a selector.
+     */
+    private static final class Parser {
+        private final String text;
+        private int position;
+
+        private Parser(final String text) {
+            this.text = text;
+        }
+
+        private LabelSelector parse() {
+            skipWhitespace();
+            if (position == text.length()) {
+                return EVERYTHING;
+            }
+
+            List<Requirement> result = new ArrayList<>();
+            while (true) {
+                result.add(requirement());
+
+                skipWhitespace();
+                if (position == text.length()) {
+                    return new LabelSelector(result);
+                }
+                expect(',');
+            }
+        }
+
+        private Requirement requirement() {
+            skipWhitespace();
+            if (peek() == '!') {
+                position++;
+                skipWhitespace();
+                return new Requirement(key(), Operator.DOES_NOT_EXIST, Collections.emptySet());
+            }
+
+            String key = key();
+            skipWhitespace();
+
+            char next = peek();
+            if (next == 0 || next == ',') {
+                return new Requirement(key, Operator.EXISTS, Collections.emptySet());
+            }
+            if (text.startsWith("==", position)) {
+                position += 2;
+                return new Requirement(key, Operator.EQUALS, Collections.singleton(value()));
+            }
+            if (next == '=') {
+                position++;
+                return new Requirement(key, Operator.EQUALS, Collections.singleton(value()));
+            }
+            if (text.startsWith("!=", position)) {
+                position += 2;
+                return new Requirement(key, Operator.NOT_EQUALS, Collections.singleton(value()));
+            }
+
+            String word = word();
+            if ("in".equals(word)) {
+                return new Requirement(key, Operator.IN, set());
+            }
+            if ("notin".equals(word)) {
+                return new Requirement(key, Operator.NOT_IN, set());
+            }
+            throw error("Expected an operator");
+        }
+
+        private Set<String> set() {
+            skipWhitespace();
+            expect('(');
+            skipWhitespace();
+            if (peek() == ')') {
+                throw error("Expected at least one value");
+            }
+
+            Set<String> result = new TreeSet<>();
+            while (true) {
+                result.add(value());
+                skipWhitespace();
+                if (peek() == ')') {
+                    position++;
+                    return result;
+                }
+                expect(',');
+            }
+        }
+
+        private String key() {
+            int start = position;
+            while (position < text.length() && isKeyCharacter(text.charAt(position))) {
+                position++;
+            }
+            if (start == position) {
+                throw error("Expected a label key");
+            }
+            return checkKey(text.substring(start, position));
+        }
+
+        private String value() {
+            skipWhitespace();
+            int start = position;
+            while (position < text.length() && isValueCharacter(text.charAt(position))) {
+                position++;
+            }
+            return checkValue(text.substring(start, position));
+        }
+
+        private String word() {
+            int start = position;
+            while (position < text.length() && Character.isLetter(text.charAt(position))) {
+                position++;
+            }
+            return text.substring(start, position);
+        }
+
+        private void expect(final char expected) {
+            if (peek() != expected) {
+                throw error("Expected '" + expected + "'");
+            }
+            position++;
+        }
+
+        private char peek() {
+            return position < text.length() ? text.charAt(position) : 0;
+        }
+
+        private void skipWhitespace() {
+            while (position < text.length() && Character.isWhitespace(text.charAt(position))) {
+                position++;
+            }
+        }
+
+        private LabelSelectorException error(final String message) {
+            return new LabelSelectorException(message + " at position " + position + ": " + text);
+        }
+
+        private static boolean isKeyCharacter(final char c) {
+            return isValueCharacter(c) || c == '/';
+        }
+
+        private static boolean isValueCharacter(final char c) {
+            return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.';
+        }
+    }
+}
@@ -0,0 +1,317 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.selector;
+
+import java.util.Arrays;
+
+/**
+ * A posting list: the ascending ids of the objects having a label (or label value).
+ * <p>
+ * The ids are kept in sorted blocks of up to {@value #BLOCK} ids, so adding (ids of removed objects are reused) and
+ * removing an id within the list only moves the ids of a single block. Ids of new objects are mostly higher than all
+ * ids in the list, so adding is an append in most cases. Positions within the list are cursors (block and offset
+ * within the block), only valid until the list is changed. Not thread safe, the {@link LabelIndex} guards its lists.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+final class Postings {
+    private static final int SHIFT = 8;
+    static final int BLOCK = 1 << SHIFT;
+    private static final int OFFSET = BLOCK - 1;
+
+    private int[][] blocks = new int[1][];
+    private int[] counts = new int[1];
+    private int blockCount;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return the cursor of the first id ({@link #end()} if the list is empty).
+     */
+    int first() {
+        return 0;
+    }
+
+    /**
+     * @return the cursor after the last id.
+     */
+    int end() {
+        return blockCount << SHIFT;
+    }
+
+    /**
+     * @param cursor the cursor of an id.
+     * @return the cursor of the next id or {@link #end()}.
+     */
+    int next(final int cursor) {
+        int block = cursor >>> SHIFT;
+        return (cursor & OFFSET) + 1 < counts[block] ? cursor + 1 : (block + 1) << SHIFT;
+    }
+
+    int get(final int cursor) {
+        return blocks[cursor >>> SHIFT][cursor & OFFSET];
+    }
+
+    void add(final int id) {
+        if (blockCount == 0 || last(blockCount - 1) < id) {
+            append(id);
+            return;
+        }
+
+        int block = blockOf(id);
+        int index = Arrays.binarySearch(blocks[block], 0, counts[block], id);
+        if (index >= 0) {
+            return;
+        }
+        index = -index - 1;
+
+        if (counts[block] == BLOCK) {
+            split(block);
+            if (index > BLOCK / 2) {
+                block++;
+                index -= BLOCK / 2;
+            }
+        }
+
+        int count = counts[block];
+        int[] ids = grow(block);
+        System.arraycopy(ids, index, ids, index + 1, count - index);
+        ids[index] = id;
+        counts[block]++;
+        size++;
+    }
+
+    boolean remove(final int id) {
+        if (blockCount == 0 || last(blockCount - 1) < id) {
+            return false;
+        }
+
+        int block = blockOf(id);
+        int[] ids = blocks[block];
+        int count = counts[block];
+        int index = Arrays.binarySearch(ids, 0, count, id);
+        if (index < 0) {
+            return false;
+        }
+
+        System.arraycopy(ids, index + 1, ids, index, count - index - 1);
+        counts[block]--;
+        size--;
+
+        if (counts[block] == 0) {
+            removeBlock(block);
+        } else if (block + 1 < blockCount && counts[block] + counts[block + 1] <= BLOCK / 2) {
+            // keeps the blocks from fragmenting after many removals.
+            int[] merged = Arrays.copyOf(blocks[block], Math.max(blocks[block].length, BLOCK / 2));
+            System.arraycopy(blocks[block + 1], 0, merged, counts[block], counts[block + 1]);
+            blocks[block] = merged;
+            counts[block] += counts[block + 1];
+            removeBlock(block + 1);
+        }
+        return true;
+    }
+
+    /**
+     * Finds the first id not lower than the given one at or after a cursor. The search gallops over the blocks from
+     * {@code from}, so walking through the list in ascending order costs O(log distance) per step.
+     *
+     * @return the cursor or {@link #end()} if all ids are lower.
+     */
+    int seek(final int from, final int id) {
+        int block = from >>> SHIFT;
+        if (block >= blockCount) {
+            return end();
+        }
+
+        int offset = from & OFFSET;
+        if (last(block) < id) {
+            int low = block + 1;
+            int step = 1;
+            int high = low;
+            while (high < blockCount && last(high) < id) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            if (high > blockCount) {
+                high = blockCount;
+            }
+
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (last(middle) < id) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            if (low == blockCount) {
+                return end();
+            }
+            block = low;
+            offset = 0;
+        }
+
+        int[] ids = blocks[block];
+        int low = offset;
+        int high = counts[block];
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (ids[middle] < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return (block << SHIFT) | low;
+    }
+
+    /**
+     * Merges the lists, the next id is taken from a heap of the list heads.
+     *
+     * @return the ids contained in any of the lists.
+     */
+    static Postings union(final Postings[] lists) {
+        int[] cursors = new int[lists.length];
+        int[] heap = new int[lists.length];
+        int heapSize = 0;
+        for (int i = 0; i < lists.length; i++) {
+            if (lists[i].size > 0) {
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = heapSize / 2 - 1; i >= 0; i--) {
+            siftDown(lists, cursors, heap, heapSize, i);
+        }
+
+        Postings result = new Postings();
+        while (heapSize > 0) {
+            int list = heap[0];
+            int id = lists[list].get(cursors[list]);
+            if (result.size == 0 || result.last(result.blockCount - 1) != id) {
+                result.append(id);
+            }
+
+            cursors[list] = lists[list].next(cursors[list]);
+            if (cursors[list] == lists[list].end()) {
+                heap[0] = heap[--heapSize];
+            }
+            siftDown(lists, cursors, heap, heapSize, 0);
+        }
+        return result;
+    }
+
+    private static void siftDown(final Postings[] lists, final int[] cursors, final int[] heap, final int size,
+                                 final int index) {
+        int current = index;
+        while (true) {
+            int smallest = current;
+            for (int child = 2 * current + 1; child <= 2 * current + 2 && child < size; child++) {
+                if (head(lists, cursors, heap[child]) < head(lists, cursors, heap[smallest])) {
+                    smallest = child;
+                }
+            }
+            if (smallest == current) {
+                return;
+            }
+
+            int swap = heap[current];
+            heap[current] = heap[smallest];
+            heap[smallest] = swap;
+            current = smallest;
+        }
+    }
+
+    private static int head(final Postings[] lists, final int[] cursors, final int list) {
+        return lists[list].get(cursors[list]);
+    }
+
+    private int last(final int block) {
+        return blocks[block][counts[block] - 1];
+    }
+
+    /**
+     * @return the first block with a last id not lower than the given one. There has to be one.
+     */
+    private int blockOf(final int id) {
+        int low = 0;
+        int high = blockCount - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (last(middle) < id) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void append(final int id) {
+        if (blockCount == 0 || counts[blockCount - 1] == BLOCK) {
+            // the first block grows with the list, later ones follow full blocks.
+            insertBlock(blockCount, new int[blockCount == 0 ? 4 : BLOCK], 0);
+        }
+
+        int block = blockCount - 1;
+        grow(block)[counts[block]++] = id;
+        size++;
+    }
+
+    /**
+     * @return the ids of the block with room for another id.
+     */
+    private int[] grow(final int block) {
+        int[] ids = blocks[block];
+        if (counts[block] == ids.length) {
+            ids = Arrays.copyOf(ids, Math.min(BLOCK, ids.length + (ids.length >>> 1)));
+            blocks[block] = ids;
+        }
+        return ids;
+    }
+
+    private void split(final int block) {
+        int[] upper = Arrays.copyOfRange(blocks[block], BLOCK / 2, BLOCK);
+        counts[block] = BLOCK / 2;
+        insertBlock(block + 1, upper, BLOCK / 2);
+    }
+
+    private void insertBlock(final int index, final int[] ids, final int count) {
+        if (blockCount == blocks.length) {
+            int capacity = blockCount + (blockCount >>> 1) + 1;
+            blocks = Arrays.copyOf(blocks, capacity);
+            counts = Arrays.copyOf(counts, capacity);
+        }
+
+        System.arraycopy(blocks, index, blocks, index + 1, blockCount - index);
+        System.arraycopy(counts, index, counts, index + 1, blockCount - index);
+        blocks[index] = ids;
+        counts[index] = count;
+        blockCount++;
+    }
+
+    private void removeBlock(final int index) {
+        System.arraycopy(blocks, index + 1, blocks, index, blockCount - index - 1);
+        System.arraycopy(counts, index + 1, counts, index, blockCount - index - 1);
+        blockCount--;
+        blocks[blockCount] = null;
+    }
+}
@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+
+/**
+ * Converts objects into the bytes written to a log or snapshot and back. Codecs are used by multiple threads at once.
+ *
+ * @param <T> the type of the objects.
+ * @since 2.0.0 2026-10-19
+ */
+public interface Codec<T> {
+    /**
+     * @param object the object to encode.
+     * @return the encoded object.
+     * @throws PersistenceException if the object can not be encoded.
+     */
+    byte[] encode(T object);
+
+    /**
+     * Decodes the remaining bytes of the buffer. The buffer may be a view of a mapped file, the position of the buffer
+     * may be changed.
+     *
+     * @param data the encoded object.
+     * @return the decoded object.
+     * @throws PersistenceException if the data can not be decoded.
+     */
+    T decode(ByteBuffer data);
+
+    /**
+     * The java serialization works for all immutables of the api since they are {@link Serializable}. Every object is
+     * written with the class descriptors of its classes, so fields are read by name and not by the layout of the local
+     * class. The immutables of the api declare a fixed {@code serialVersionUID}: attributes can be added as
+     * {@link java.util.Optional} (they are empty when reading older data) and attributes can be removed. Other changes
+     * (like changing the type of an attribute) need a new {@code serialVersionUID}, older data fails to decode then.
+     *
+     * @param type the type of the objects.
+     * @param <T>  the type of the objects.
+     * @return a codec using the java serialization.
+     */
+    static <T extends Serializable> Codec<T> serialization(final Class<T> type) {
+        return new Codec<>() {
+            @Override
+            public byte[] encode(final T object) {
+                ByteArrayOutputStream result = new ByteArrayOutputStream(512);
+                try (ObjectOutputStream out = new ObjectOutputStream(result)) {
+                    out.writeObject(object);
+                } catch (IOException e) {
+                    throw new PersistenceException("Can't serialize object: " + e.getMessage(), e);
+                }
+                return result.toByteArray();
+            }
+
+            @Override
+            public T decode(final ByteBuffer data) {
+                try (ObjectInputStream in = new LoaderObjectInputStream(new BufferInputStream(data), type.getClassLoader())) {
+                    return type.cast(in.readObject());
+                } catch (IOException | ClassNotFoundException | ClassCastException e) {
+                    throw new PersistenceException("Can't deserialize object: " + e.getMessage(), e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Reads a buffer without copying it into an array first.
+     */
+    final class BufferInputStream extends InputStream {
+        private final ByteBuffer data;
+
+        BufferInputStream(final ByteBuffer data) {
+            this.data = data;
+        }
+
+        @Override
+        public int read() {
+            return data.hasRemaining() ? data.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(final byte[] b, final int off, final int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!data.hasRemaining()) {
+                return -1;
+            }
+
+            int result = Math.min(len, data.remaining());
+            data.get(b, off, result);
+            return result;
+        }
+
+        @Override
+        public int available() {
+            return data.remaining();
+        }
+    }
+
+    /**
+     * Loads the classes of the stream by the class loader of the decoded type or the context class loader.
+     */
+    final class LoaderObjectInputStream extends ObjectInputStream {
+        private final ClassLoader classLoader;
+
+        LoaderObjectInputStream(final InputStream in, final ClassLoader classLoader) throws IOException {
+            super(in);
+            this.classLoader = classLoader;
+        }
+
+        private Class<?> load(final String name) throws ClassNotFoundException {
+            try {
+                return Class.forName(name, false, classLoader);
+            } catch (ClassNotFoundException e) {
+                ClassLoader context = Thread.currentThread().getContextClassLoader();
+                if (context == null || context == classLoader) {
+                    throw e;
+                }
+                return Class.forName(name, false, context);
+            }
+        }
+
+        @Override
+        protected Class<?> resolveClass(final ObjectStreamClass descriptor) throws ClassNotFoundException {
+            return load(descriptor.getName());
+        }
+    }
+}
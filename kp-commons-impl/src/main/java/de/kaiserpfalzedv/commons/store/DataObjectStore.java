@@ -0,0 +1,529 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import de.kaiserpfalzedv.commons.api.DataObject;
+import de.kaiserpfalzedv.commons.api.DataPointer;
+import de.kaiserpfalzedv.commons.api.Metadata;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.selector.LabelIndex;
+import de.kaiserpfalzedv.commons.selector.LabelSelector;
+
+import de.kaiserpfalzedv.commons.version.Version;
+import de.kaiserpfalzedv.commons.version.VersionImmutable;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiFunction;
+
+/**
+ * A concurrent in-memory store of data objects.
+ * <p>
+ * Objects are stored by the {@link Metadata#uuid() UUID} of their metadata. Kind, scope and name of the metadata form
+ * a unique secondary key. Optionally the objects are indexed by the UUID of their {@link Metadata#owner() owner} and by
+ * their {@link Metadata#labels() labels} (see {@link LabelIndex}).
+ * <p>
+ * Reads by UUID, name and owner are lock-free (lookups within concurrent hash maps). Writes lock one of a fixed number
+ * of stripes chosen by the UUID, so writes of different objects run in parallel while all indexes of a single object
+ * are updated together. Name conflicts between different objects are decided atomically by the name index.
+ * <p>
+ * {@link #update(DataObject)} and {@link #tryUpdate(DataObject)} implement optimistic concurrency on the
+ * {@link Metadata#version() version} of the metadata: the update is only stored if its version is the version of the
+ * stored object, the stored object gets the next version. Updates that do not touch indexed attributes (name, owner,
+ * labels) are lock-free, they are decided by an atomic replace of the stored object: one of concurrent updates of the
+ * same object wins, the others have to read the object again. All other writes install the object by an atomic
+ * replace as well, so they never overwrite such an update.
+ * <p>
+ * {@link #snapshot()} holds all stripes while it copies the objects, so the copy reflects a single point in time for
+ * all writes but the lock-free updates. Those are atomic per object, every object is copied with one of the versions
+ * it had while the copy was taken.
+ *
+ * @param <T> the type of the objects stored.
+ * @since 2.0.0 2026-10-19
+ */
+public final class DataObjectStore<T extends DataObject> {
+    public static final int DEFAULT_STRIPES = 64;
+
+    private final ConcurrentHashMap<UUID, T> objects = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Name, UUID> names = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, Set<UUID>> owned;
+    private final LabelIndex<UUID, T> labels;
+
+    private final BiFunction<? super T, ? super Metadata, ? extends T> withMetadata;
+
+    private final ReentrantLock[] stripes;
+
+    /**
+     * Creates a store with owner and label index.
+     */
+    public DataObjectStore() {
+        this(true, true, DEFAULT_STRIPES);
+    }
+
+    /**
+     * @param indexOwners true if the objects should be indexed by their owner.
+     * @param indexLabels true if the objects should be indexed by their labels.
+     * @param stripes     the number of write locks.
+     */
+    public DataObjectStore(final boolean indexOwners, final boolean indexLabels, final int stripes) {
+        this(indexOwners, indexLabels, stripes, null);
+    }
+
+    /**
+     * @param indexOwners  true if the objects should be indexed by their owner.
+     * @param indexLabels  true if the objects should be indexed by their labels.
+     * @param stripes      the number of write locks.
+     * @param withMetadata creates a copy of an object with other metadata (needed by {@link #update(DataObject)}).
+     */
+    public DataObjectStore(final boolean indexOwners, final boolean indexLabels, final int stripes,
+                           final BiFunction<? super T, ? super Metadata, ? extends T> withMetadata) {
+        if (stripes <= 0) {
+            throw new IllegalArgumentException("The number of stripes has to be positive: " + stripes);
+        }
+
+        this.owned = indexOwners ? new ConcurrentHashMap<>() : null;
+        this.labels = indexLabels ? LabelIndex.forDataObjects() : null;
+        this.withMetadata = withMetadata;
+
+        this.stripes = new ReentrantLock[stripes];
+        for (int i = 0; i < stripes; i++) {
+            this.stripes[i] = new ReentrantLock();
+        }
+    }
+
+    /**
+     * Adds an object or replaces the object with the same UUID.
+     *
+     * @param object the object to store.
+     * @return the replaced object or null.
+     * @throws DuplicateNameException if another object has the same kind, scope and name.
+     */
+    public T put(final T object) {
+        UUID uuid = object.metadata().uuid();
+
+        ReentrantLock stripe = stripe(uuid);
+        stripe.lock();
+        try {
+            // a lock-free update may have replaced the object in between.
+            T previous;
+            do {
+                previous = objects.get(uuid);
+            } while (!store(uuid, previous, object));
+            return previous;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Stores the changed version of an object. The version of the metadata of the object has to be the version of
+     * the stored object, the object is stored with the next version.
+     *
+     * @param object the changed object.
+     * @return the object stored (with the next version).
+     * @throws StaleVersionException  if the stored object has another version.
+     * @throws NoSuchElementException if there is no object with the UUID.
+     * @throws DuplicateNameException if another object has the same kind, scope and name.
+     * @throws IllegalStateException  if the store has been created without the function to copy the objects.
+     */
+    public T update(final T object) {
+        UUID uuid = object.metadata().uuid();
+        return tryUpdate(object).orElseThrow(() -> stale(uuid, objects.get(uuid), object));
+    }
+
+    /**
+     * Stores the changed version of an object like {@link #update(DataObject)}, but reports a stale version by the
+     * result instead of an exception. Meant for loops reading and changing the object until the update succeeds.
+     *
+     * @param object the changed object.
+     * @return the object stored (with the next version) or empty if the stored object has another version.
+     * @throws NoSuchElementException if there is no object with the UUID.
+     * @throws DuplicateNameException if another object has the same kind, scope and name.
+     * @throws IllegalStateException  if the store has been created without the function to copy the objects.
+     */
+    public Optional<T> tryUpdate(final T object) {
+        checkCopyable();
+
+        UUID uuid = object.metadata().uuid();
+        T current = objects.get(uuid);
+        if (current == null) {
+            throw new NoSuchElementException("No object " + uuid + " stored.");
+        }
+        if (!current.metadata().version().equals(object.metadata().version())) {
+            return Optional.empty();
+        }
+
+        T result = withNextVersion(object);
+
+        if (isIndexedEqually(current, result)) {
+            // the indexes stay valid, so only the stored object is swapped.
+            return objects.replace(uuid, current, result) ? Optional.of(result) : Optional.empty();
+        }
+
+        ReentrantLock stripe = stripe(uuid);
+        stripe.lock();
+        try {
+            return store(uuid, current, result) ? Optional.of(result) : Optional.empty();
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * Checks a {@link #put(DataObject)} without storing the object, for callers that log the change before it becomes
+     * visible. The caller has to keep other writers of the UUID and the name away until the object is stored.
+     *
+     * @param object the object to store.
+     * @throws DuplicateNameException if another object has the same kind, scope and name.
+     */
+    void checkPut(final T object) {
+        Name name = Name.of(object.metadata());
+        UUID holder = names.get(name);
+        if (holder != null && !holder.equals(object.metadata().uuid())) {
+            throw new DuplicateNameException("Name " + name + " is used by " + holder + " already.");
+        }
+    }
+
+    /**
+     * Checks an {@link #update(DataObject)} without storing the object (see {@link #checkPut(DataObject)}).
+     *
+     * @param object the changed object.
+     * @return the object to store with {@link #put(DataObject)} (with the next version).
+     */
+    T checkUpdate(final T object) {
+        checkCopyable();
+
+        UUID uuid = object.metadata().uuid();
+        checkVersion(uuid, objects.get(uuid), object);
+
+        T result = withNextVersion(object);
+        checkPut(result);
+        return result;
+    }
+
+    private void checkCopyable() {
+        if (withMetadata == null) {
+            throw new IllegalStateException("The store can not copy the objects to change their version.");
+        }
+    }
+
+    private T withNextVersion(final T object) {
+        return withMetadata.apply(object, MetadataImmutable.copyOf(object.metadata())
+                .withVersion(next(object.metadata().version())));
+    }
+
+    /**
+     * Replaces the object and updates the indexes. The caller holds the lock of the stripe.
+     *
+     * @return false if the stored object is not the previous one anymore, nothing has been changed then.
+     */
+    private boolean store(final UUID uuid, final T previous, final T object) {
+        Name name = Name.of(object.metadata());
+        Name previousName = previous != null ? Name.of(previous.metadata()) : null;
+        boolean reserved = false;
+        if (!name.equals(previousName)) {
+            UUID holder = names.putIfAbsent(name, uuid);
+            if (holder != null && !holder.equals(uuid)) {
+                throw new DuplicateNameException("Name " + name + " is used by " + holder + " already.");
+            }
+            reserved = holder == null;
+        }
+
+        boolean stored = previous != null
+                ? objects.replace(uuid, previous, object)
+                : objects.putIfAbsent(uuid, object) == null;
+        if (!stored) {
+            if (reserved) {
+                names.remove(name, uuid);
+            }
+            return false;
+        }
+
+        if (previousName != null && !name.equals(previousName)) {
+            names.remove(previousName, uuid);
+        }
+        if (owned != null) {
+            updateOwner(uuid, previous != null ? owner(previous) : null, owner(object));
+        }
+        if (labels != null) {
+            labels.put(object);
+        }
+        return true;
+    }
+
+    /**
+     * @param uuid the UUID of the object.
+     * @return the removed object or null.
+     */
+    public T remove(final UUID uuid) {
+        ReentrantLock stripe = stripe(uuid);
+        stripe.lock();
+        try {
+            T previous = objects.remove(uuid);
+            if (previous == null) {
+                return null;
+            }
+
+            names.remove(Name.of(previous.metadata()), uuid);
+            if (owned != null) {
+                updateOwner(uuid, owner(previous), null);
+            }
+            if (labels != null) {
+                labels.remove(uuid);
+            }
+            return previous;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    /**
+     * @param uuid the UUID of the object.
+     * @return the object.
+     */
+    public Optional<T> get(final UUID uuid) {
+        return Optional.ofNullable(objects.get(uuid));
+    }
+
+    /**
+     * @param kind  the kind of the object.
+     * @param scope the scope of the object.
+     * @param name  the name of the object.
+     * @return the object.
+     */
+    public Optional<T> get(final String kind, final String scope, final String name) {
+        Name key = new Name(kind, scope, name);
+
+        UUID uuid = names.get(key);
+        if (uuid == null) {
+            return Optional.empty();
+        }
+
+        // the object may have been renamed since the name has been read.
+        T result = objects.get(uuid);
+        return result != null && key.equals(Name.of(result.metadata())) ? Optional.of(result) : Optional.empty();
+    }
+
+    /**
+     * @param owner the UUID of the owner.
+     * @return the objects owned.
+     * @throws IllegalStateException if the store has no owner index.
+     */
+    public List<T> getOwnedBy(final UUID owner) {
+        if (owned == null) {
+            throw new IllegalStateException("The store has no owner index.");
+        }
+
+        Set<UUID> uuids = owned.get(owner);
+        if (uuids == null) {
+            return Collections.emptyList();
+        }
+
+        List<T> result = new ArrayList<>(uuids.size());
+        for (UUID uuid : uuids) {
+            T object = objects.get(uuid);
+            if (object != null && owner.equals(owner(object))) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Selects the objects by their labels. Without label index all objects are checked.
+     *
+     * @param selector the label selector.
+     * @return the objects matching the selector.
+     */
+    public List<T> select(final LabelSelector selector) {
+        if (labels != null) {
+            // the index may hold an older version of an object changed by update().
+            List<T> result = new ArrayList<>();
+            for (T indexed : labels.select(selector)) {
+                T object = objects.get(indexed.metadata().uuid());
+                if (object != null && selector.matches(object.metadata().labels())) {
+                    result.add(object);
+                }
+            }
+            return result;
+        }
+
+        List<T> result = new ArrayList<>();
+        for (T object : objects.values()) {
+            if (selector.matches(object.metadata().labels())) {
+                result.add(object);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Copies all objects while no write is in progress.
+     *
+     * @return the objects stored at a single point in time.
+     */
+    public List<T> snapshot() {
+        for (ReentrantLock stripe : stripes) {
+            stripe.lock();
+        }
+        try {
+            return Collections.unmodifiableList(new ArrayList<>(objects.values()));
+        } finally {
+            for (int i = stripes.length - 1; i >= 0; i--) {
+                stripes[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * @return the number of objects.
+     */
+    public int size() {
+        return objects.size();
+    }
+
+    private ReentrantLock stripe(final UUID uuid) {
+        int hash = uuid.hashCode();
+        return stripes[((hash ^ (hash >>> 16)) & 0x7FFFFFFF) % stripes.length];
+    }
+
+    private static void checkVersion(final UUID uuid, final DataObject current, final DataObject update) {
+        if (current == null) {
+            throw new NoSuchElementException("No object " + uuid + " stored.");
+        }
+        if (!current.metadata().version().equals(update.metadata().version())) {
+            throw stale(uuid, current, update);
+        }
+    }
+
+    private static RuntimeException stale(final UUID uuid, final DataObject current, final DataObject update) {
+        if (current == null) {
+            return new NoSuchElementException("No object " + uuid + " stored.");
+        }
+        return new StaleVersionException("Object " + uuid + " has version "
+                + current.metadata().version().map(Version::value).orElse("<none>") + ", the update is based on "
+                + update.metadata().version().map(Version::value).orElse("<none>") + ".");
+    }
+
+    /**
+     * @return true if the indexes of both objects are the same.
+     */
+    private boolean isIndexedEqually(final T current, final T update) {
+        return Name.of(current.metadata()).equals(Name.of(update.metadata()))
+                && (owned == null || Objects.equals(owner(current), owner(update)))
+                && (labels == null || current.metadata().labels().equals(update.metadata().labels()));
+    }
+
+    /**
+     * The versions of the objects count the changes: the last number of the version is incremented, objects without
+     * version get version 1.
+     *
+     * @param version the current version.
+     * @return the next version.
+     */
+    static Version next(final Optional<Version> version) {
+        if (version.isEmpty()) {
+            return Version.from("1", Version.VersionType.LOOSE);
+        }
+
+        Version current = version.get();
+        VersionImmutable.Builder result = VersionImmutable.builder().major(current.major());
+        if (current.type().isPresent()) {
+            result.type(current.type().get());
+        }
+
+        if (current.patch().isPresent()) {
+            result.minor(current.minor().orElse(0)).patch(current.patch().get() + 1);
+        } else if (current.minor().isPresent()) {
+            result.minor(current.minor().get() + 1);
+        } else {
+            result.major(current.major() + 1);
+        }
+        return result.build();
+    }
+
+    private void updateOwner(final UUID uuid, final UUID previous, final UUID current) {
+        if (Objects.equals(previous, current)) {
+            return;
+        }
+
+        if (current != null) {
+            owned.compute(current, (o, uuids) -> {
+                Set<UUID> result = uuids != null ? uuids : ConcurrentHashMap.newKeySet();
+                result.add(uuid);
+                return result;
+            });
+        }
+        if (previous != null) {
+            owned.computeIfPresent(previous, (o, uuids) -> {
+                uuids.remove(uuid);
+                return uuids.isEmpty() ? null : uuids;
+            });
+        }
+    }
+
+    private static UUID owner(final DataObject object) {
+        Optional<DataPointer> owner = object.metadata().owner();
+        return owner.isPresent() ? owner.get().metadata().uuid() : null;
+    }
+
+    /**
+     * The unique secondary key of an object.
+     */
+    private static final class Name {
+        private final String kind;
+        private final String scope;
+        private final String name;
+
+        private Name(final String kind, final String scope, final String name) {
+            this.kind = kind;
+            this.scope = scope;
+            this.name = name;
+        }
+
+        private static Name of(final Metadata metadata) {
+            return new Name(metadata.kind(), metadata.scope(), metadata.name());
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Name)) return false;
+            Name that = (Name) o;
+            return kind.equals(that.kind) && scope.equals(that.scope) && name.equals(that.name);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(kind, scope, name);
+        }
+
+        @Override
+        public String toString() {
+            return kind + ":" + scope + "/" + name;
+        }
+    }
+}
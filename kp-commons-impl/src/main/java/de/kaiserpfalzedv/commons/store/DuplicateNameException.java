@@ -0,0 +1,31 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+/**
+ * The kind, scope and name of an object are used by another object of the store already.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public class DuplicateNameException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public DuplicateNameException(final String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,409 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import de.kaiserpfalzedv.commons.api.DataObject;
+import de.kaiserpfalzedv.commons.selector.LabelSelector;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * A {@link DataObjectStore} persisted in a local directory by a write ahead log and compacted snapshots.
+ * <p>
+ * Every change is checked against the store and appended to the log under a short global lock, it is applied to the
+ * store when its log record is durable. So readers never see a change that may be lost. A write returns when its
+ * change has been applied. Concurrent writers share a single write and force of the log (group commit), so the
+ * throughput is not limited by the latency of {@code fsync}. While a change is pending (logged but not applied), other
+ * writers of the same UUID or name wait for it. Objects are encoded before the lock is taken, only
+ * {@link #update(DataObject)} has to encode the new version within the lock.
+ * <p>
+ * Every {@code snapshotEvery} records a background thread writes a snapshot of all objects and deletes the log segments
+ * contained in it. {@link #open(Path, Codec, DataObjectStore, long)} loads the newest snapshot and replays the log
+ * records written after it.
+ *
+ * @param <T> the type of the objects stored.
+ * @since 2.0.0 2026-10-19
+ */
+public final class PersistentDataObjectStore<T extends DataObject> implements AutoCloseable {
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+
+    private final Path directory;
+    private final Codec<T> codec;
+    private final DataObjectStore<T> store;
+    private final WriteAheadLog log;
+    private final long snapshotEvery;
+
+    private final ReentrantLock order = new ReentrantLock();
+    private final Condition applied = order.newCondition();
+
+    /**
+     * The UUIDs and names of the changes logged but not applied to the store yet. Guarded by {@link #order}.
+     */
+    private final Set<Object> pending = new HashSet<>();
+    private boolean quiescing;
+    private final ReentrantLock snapshotLock = new ReentrantLock();
+    private final AtomicLong sinceSnapshot = new AtomicLong();
+    private final AtomicBoolean snapshotScheduled = new AtomicBoolean();
+    private final ExecutorService snapshots;
+    private volatile PersistenceException snapshotFailure;
+
+    private PersistentDataObjectStore(final Path directory, final Codec<T> codec, final DataObjectStore<T> store,
+                                      final WriteAheadLog log, final long snapshotEvery) {
+        this.directory = directory;
+        this.codec = codec;
+        this.store = store;
+        this.log = log;
+        this.snapshotEvery = snapshotEvery;
+
+        this.snapshots = Executors.newSingleThreadExecutor(r -> {
+            Thread result = new Thread(r, "snapshot-" + directory.getFileName());
+            result.setDaemon(true);
+            return result;
+        });
+    }
+
+    /**
+     * Recovers the objects persisted in the directory into the (empty) store.
+     *
+     * @param directory     the directory of log and snapshots. It is created if it does not exist.
+     * @param codec         the codec for the objects.
+     * @param store         the empty store to recover into.
+     * @param snapshotEvery the number of log records after which a snapshot is written, 0 for manual snapshots only.
+     * @param <T>           the type of the objects stored.
+     * @return the persisted store.
+     * @throws PersistenceException if the directory can not be read.
+     */
+    public static <T extends DataObject> PersistentDataObjectStore<T> open(final Path directory, final Codec<T> codec,
+                                                                           final DataObjectStore<T> store,
+                                                                           final long snapshotEvery) {
+        if (store.size() != 0) {
+            throw new IllegalArgumentException("The store to recover into has to be empty.");
+        }
+        if (snapshotEvery < 0) {
+            throw new IllegalArgumentException("The snapshot interval can't be negative: " + snapshotEvery);
+        }
+
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new PersistenceException("Can't create directory '" + directory + "': " + e.getMessage(), e);
+        }
+
+        long sequence = 0;
+        Optional<Path> snapshot = SnapshotFile.latest(directory);
+        if (snapshot.isPresent()) {
+            List<T> objects = new ArrayList<>();
+            sequence = SnapshotFile.read(snapshot.get(), codec, objects);
+            objects.forEach(store::put);
+        }
+
+        long last = WriteAheadLog.replay(directory, sequence, (s, type, payload) -> {
+            switch (type) {
+                case PUT:
+                    store.put(codec.decode(payload));
+                    break;
+                case REMOVE:
+                    store.remove(new UUID(payload.getLong(), payload.getLong()));
+                    break;
+                default:
+                    throw new PersistenceException("Unknown record type " + type + " in log record " + s + ".");
+            }
+        });
+
+        return new PersistentDataObjectStore<>(directory, codec, store, new WriteAheadLog(directory, last + 1),
+                snapshotEvery);
+    }
+
+    /**
+     * Adds an object or replaces the object with the same UUID.
+     *
+     * @param object the object to store.
+     * @return the replaced object or null.
+     * @throws DuplicateNameException if another object has the same kind, scope and name.
+     * @see DataObjectStore#put(DataObject)
+     */
+    public T put(final T object) {
+        byte[] payload = codec.encode(object);
+        List<Object> keys = List.of(object.metadata().uuid(), name(object));
+
+        long sequence;
+        order.lock();
+        try {
+            reserve(keys);
+            try {
+                store.checkPut(object);
+                sequence = log.append(PUT, payload);
+            } catch (RuntimeException e) {
+                release(keys);
+                throw e;
+            }
+        } finally {
+            order.unlock();
+        }
+
+        return written(sequence, keys, () -> store.put(object));
+    }
+
+    /**
+     * Updates an object if its version is the version of the stored object.
+     *
+     * @param object the changed object.
+     * @return the stored object with the next version.
+     * @see DataObjectStore#update(DataObject)
+     */
+    public T update(final T object) {
+        List<Object> keys = List.of(object.metadata().uuid(), name(object));
+
+        T result;
+        long sequence;
+        order.lock();
+        try {
+            reserve(keys);
+            try {
+                result = store.checkUpdate(object);
+                sequence = log.append(PUT, codec.encode(result));
+            } catch (RuntimeException e) {
+                release(keys);
+                throw e;
+            }
+        } finally {
+            order.unlock();
+        }
+
+        written(sequence, keys, () -> store.put(result));
+        return result;
+    }
+
+    /**
+     * @param uuid the UUID of the object to remove.
+     * @return the removed object or null.
+     */
+    public T remove(final UUID uuid) {
+        byte[] payload = ByteBuffer.allocate(16)
+                .putLong(uuid.getMostSignificantBits())
+                .putLong(uuid.getLeastSignificantBits())
+                .array();
+
+        List<Object> keys = List.of(uuid);
+
+        long sequence;
+        order.lock();
+        try {
+            reserve(keys);
+            try {
+                if (store.get(uuid).isEmpty()) {
+                    release(keys);
+                    return null;
+                }
+                sequence = log.append(REMOVE, payload);
+            } catch (RuntimeException e) {
+                release(keys);
+                throw e;
+            }
+        } finally {
+            order.unlock();
+        }
+
+        return written(sequence, keys, () -> store.remove(uuid));
+    }
+
+    /**
+     * @param uuid the UUID of the object.
+     * @return the object.
+     */
+    public Optional<T> get(final UUID uuid) {
+        return store.get(uuid);
+    }
+
+    /**
+     * @param kind  the kind of the object.
+     * @param scope the scope of the object.
+     * @param name  the name of the object.
+     * @return the object.
+     */
+    public Optional<T> get(final String kind, final String scope, final String name) {
+        return store.get(kind, scope, name);
+    }
+
+    /**
+     * @param owner the UUID of the owner.
+     * @return the objects owned.
+     * @see DataObjectStore#getOwnedBy(UUID)
+     */
+    public List<T> getOwnedBy(final UUID owner) {
+        return store.getOwnedBy(owner);
+    }
+
+    /**
+     * @param selector the label selector.
+     * @return the objects matching the selector.
+     * @see DataObjectStore#select(LabelSelector)
+     */
+    public List<T> select(final LabelSelector selector) {
+        return store.select(selector);
+    }
+
+    /**
+     * @return the number of objects.
+     */
+    public int size() {
+        return store.size();
+    }
+
+    /**
+     * Writes a snapshot of all objects and deletes the log segments it contains. Writers are only blocked while the
+     * objects are copied.
+     *
+     * @return the sequence of the last log record contained in the snapshot.
+     */
+    public long snapshot() {
+        snapshotLock.lock();
+        try {
+            // the older segments are completely contained in the snapshot and may be deleted afterwards.
+            log.roll();
+
+            List<T> objects;
+            long sequence;
+            order.lock();
+            try {
+                // every logged change has to be applied before the store is copied.
+                quiescing = true;
+                while (!pending.isEmpty()) {
+                    applied.awaitUninterruptibly();
+                }
+
+                objects = store.snapshot();
+                sequence = log.lastSequence();
+                sinceSnapshot.set(0);
+            } finally {
+                quiescing = false;
+                applied.signalAll();
+                order.unlock();
+            }
+
+            // the snapshot may not contain records that are not durable yet.
+            log.sync(sequence);
+            SnapshotFile.write(directory, sequence, objects, codec);
+            log.trim(sequence);
+
+            return sequence;
+        } finally {
+            snapshotLock.unlock();
+        }
+    }
+
+    /**
+     * Waits for a running snapshot and closes the log.
+     *
+     * @throws PersistenceException if the last background snapshot failed.
+     */
+    @Override
+    public void close() {
+        snapshots.shutdown();
+        try {
+            snapshots.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        log.close();
+
+        if (snapshotFailure != null) {
+            throw snapshotFailure;
+        }
+    }
+
+    /**
+     * Waits until no pending change uses one of the keys and reserves them. The caller holds {@link #order}.
+     */
+    private void reserve(final List<Object> keys) {
+        while (quiescing || keys.stream().anyMatch(pending::contains)) {
+            applied.awaitUninterruptibly();
+        }
+        pending.addAll(keys);
+    }
+
+    /**
+     * The caller holds {@link #order}.
+     */
+    private void release(final List<Object> keys) {
+        pending.removeAll(keys);
+        applied.signalAll();
+    }
+
+    private static List<String> name(final DataObject object) {
+        return List.of(object.metadata().kind(), object.metadata().scope(), object.metadata().name());
+    }
+
+    /**
+     * Waits for the log record and applies the change to the store. If the log fails, the change is not applied.
+     */
+    private T written(final long sequence, final List<Object> keys, final Supplier<T> change) {
+        T result;
+        try {
+            log.sync(sequence);
+            result = change.get();
+        } finally {
+            order.lock();
+            try {
+                release(keys);
+            } finally {
+                order.unlock();
+            }
+        }
+
+        if (snapshotEvery > 0 && sinceSnapshot.incrementAndGet() >= snapshotEvery
+                && snapshotScheduled.compareAndSet(false, true)) {
+            try {
+                snapshots.execute(() -> {
+                    try {
+                        snapshot();
+                        snapshotFailure = null;
+                    } catch (PersistenceException e) {
+                        snapshotFailure = e;
+                    } finally {
+                        snapshotScheduled.set(false);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                // the store is closing.
+                snapshotScheduled.set(false);
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * A compacted snapshot of all objects in a file {@code snapshot-<sequence>.dat} containing
+ * {@code [int magic][long sequence][int count]} followed by {@code [int length][object]} for every object and the
+ * {@code [int crc]} of all bytes before.
+ * <p>
+ * The file is written under a temporary name and moved into place when it is complete, so a crash never leaves a
+ * partial snapshot behind. Besides the {@link PersistentDataObjectStore} it stores the state of projections, the
+ * sequence is the offset of the event log then.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class SnapshotFile {
+    private static final String PREFIX = "snapshot-";
+    private static final String SUFFIX = ".dat";
+    private static final int MAGIC = 0x4B505331; // "KPS1"
+
+    private SnapshotFile() {}
+
+    /**
+     * Writes a new snapshot and deletes the older ones.
+     *
+     * @param directory the directory of the snapshots.
+     * @param sequence  the sequence of the last log record contained in the snapshot.
+     * @param objects   the objects.
+     * @param codec     the codec for the objects.
+     * @param <T>       the type of the objects.
+     */
+    public static <T> void write(final Path directory, final long sequence, final Collection<T> objects,
+                                 final Codec<T> codec) {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, sequence, SUFFIX));
+        Path temporary = directory.resolve(file.getFileName() + ".tmp");
+
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            CRC32 crc = new CRC32();
+            DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024), crc));
+
+            out.writeInt(MAGIC);
+            out.writeLong(sequence);
+            out.writeInt(objects.size());
+            for (T object : objects) {
+                byte[] data = codec.encode(object);
+                out.writeInt(data.length);
+                out.write(data);
+            }
+            out.writeInt((int) crc.getValue());
+            out.flush();
+
+            channel.force(true);
+        } catch (IOException e) {
+            throw new PersistenceException("Can't write snapshot '" + temporary + "': " + e.getMessage(), e);
+        }
+
+        try {
+            Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE);
+            syncDirectory(directory);
+
+            for (Path older : snapshots(directory)) {
+                if (older.compareTo(file) < 0) {
+                    Files.deleteIfExists(older);
+                }
+            }
+        } catch (IOException e) {
+            throw new PersistenceException("Can't store snapshot '" + file + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * @param directory the directory of the snapshots.
+     * @return the newest snapshot.
+     */
+    public static Optional<Path> latest(final Path directory) {
+        List<Path> result = snapshots(directory);
+        return result.isEmpty() ? Optional.empty() : Optional.of(result.get(result.size() - 1));
+    }
+
+    /**
+     * Reads a snapshot completely and checks its checksum before returning any object. The objects are decoded in
+     * parallel.
+     *
+     * @param file    the snapshot.
+     * @param codec   the codec for the objects.
+     * @param objects receives the objects.
+     * @param <T>     the type of the objects.
+     * @return the sequence of the last log record contained in the snapshot.
+     */
+    public static <T> long read(final Path file, final Codec<T> codec, final Collection<? super T> objects) {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer data = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (data.remaining() < 20 || data.getInt(0) != MAGIC) {
+                throw new PersistenceException("Not a snapshot: " + file);
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(data.duplicate().limit(data.limit() - 4));
+            if ((int) crc.getValue() != data.getInt(data.limit() - 4)) {
+                throw new PersistenceException("Corrupted snapshot: " + file);
+            }
+
+            long result = data.getLong(4);
+            int count = data.getInt(12);
+
+            int[] offsets = new int[count + 1];
+            offsets[0] = 16;
+            for (int i = 0; i < count; i++) {
+                offsets[i + 1] = offsets[i] + 4 + data.getInt(offsets[i]);
+            }
+
+            // the objects are independent of each other, decoding is the main cost of the recovery.
+            List<T> decoded = IntStream.range(0, count)
+                    .parallel()
+                    .mapToObj(i -> codec.decode(data.duplicate().position(offsets[i] + 4).limit(offsets[i + 1]).slice()))
+                    .collect(Collectors.toList());
+
+            objects.addAll(decoded);
+            return result;
+        } catch (IOException e) {
+            throw new PersistenceException("Can't read snapshot '" + file + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static List<Path> snapshots(final Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(f -> f.getFileName().toString().startsWith(PREFIX) && f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            throw new PersistenceException("Can't list snapshots in '" + directory + "': " + e.getMessage(), e);
+        }
+    }
+
+    static void syncDirectory(final Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // not every platform can force a directory, the rename is still durable on the next metadata sync.
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+/**
+ * The version of an update does not match the version of the stored object: the object has been changed since the
+ * caller read it.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public class StaleVersionException extends RuntimeException {
+    private static final long serialVersionUID = 1L;
+
+    public StaleVersionException(final String msg) {
+        super(msg);
+    }
+}
@@ -0,0 +1,382 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only log of records in segment files {@code wal-<first sequence>.log}. Every record is
+ * {@code [int length][int crc][long sequence][byte type][payload]}, the checksum covers sequence, type and payload.
+ * <p>
+ * Appending only copies the record into a buffer. {@link #sync(long)} makes records durable with group commit: the
+ * first waiting thread writes and forces everything appended so far, the threads arriving meanwhile wait for it and
+ * are served by the next single write and force.
+ * <p>
+ * A torn or corrupted record ends the segment on replay. A reopened log always starts a new segment with the record
+ * after the last valid one, so only records that have never been synced can be lost. A segment not continuing the
+ * records before it means records have been lost that may have been synced, so the replay fails.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+final class WriteAheadLog implements Closeable {
+    private static final String PREFIX = "wal-";
+    private static final String SUFFIX = ".log";
+    private static final int HEADER = 4 + 4 + 8 + 1;
+
+    private final Path directory;
+    private final Object lock = new Object();
+
+    private FileChannel channel;
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private ByteBuffer spare = ByteBuffer.allocate(64 * 1024);
+    private long nextSequence;
+    private long durable;
+    private boolean flushing;
+    private boolean closed;
+    private PersistenceException failure;
+
+    /**
+     * Opens a new segment.
+     *
+     * @param directory    the directory of the segments.
+     * @param nextSequence the sequence of the first record to append.
+     */
+    WriteAheadLog(final Path directory, final long nextSequence) {
+        this.directory = directory;
+        this.nextSequence = nextSequence;
+        this.durable = nextSequence - 1;
+        this.channel = create(nextSequence);
+    }
+
+    /**
+     * Appends a record. It is not durable before {@link #sync(long)} has been called.
+     *
+     * @param type    the type of the record.
+     * @param payload the payload of the record.
+     * @return the sequence of the record.
+     */
+    long append(final byte type, final byte[] payload) {
+        synchronized (lock) {
+            if (failure != null) {
+                throw failure;
+            }
+            if (closed) {
+                throw new IllegalStateException("The write ahead log is closed.");
+            }
+
+            if (pending.remaining() < HEADER + payload.length) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + HEADER + payload.length));
+                pending.flip();
+                grown.put(pending);
+                pending = grown;
+            }
+
+            long result = nextSequence++;
+            int start = pending.position();
+            pending.putInt(payload.length).putInt(0).putLong(result).put(type).put(payload);
+
+            CRC32 crc = new CRC32();
+            crc.update(pending.array(), start + 8, HEADER - 8 + payload.length);
+            pending.putInt(start + 4, (int) crc.getValue());
+
+            return result;
+        }
+    }
+
+    /**
+     * Waits until the record with the given sequence (and all records before it) has been written and forced to disk.
+     *
+     * @param sequence the sequence of the record.
+     */
+    void sync(final long sequence) {
+        FileChannel target;
+        ByteBuffer batch;
+        long upTo;
+
+        synchronized (lock) {
+            while (true) {
+                if (failure != null) {
+                    throw failure;
+                }
+                if (durable >= sequence) {
+                    return;
+                }
+                if (!flushing) {
+                    break;
+                }
+                await();
+            }
+
+            flushing = true;
+            target = channel;
+            batch = pending;
+            pending = spare;
+            upTo = nextSequence - 1;
+        }
+
+        write(target, batch, upTo, false);
+    }
+
+    /**
+     * Closes the current segment and starts a new one with the next record. Everything appended before is durable
+     * afterwards.
+     *
+     * @return the sequence of the first record of the new segment.
+     */
+    long roll() {
+        FileChannel target;
+        ByteBuffer batch;
+        long upTo;
+
+        synchronized (lock) {
+            while (flushing) {
+                await();
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            flushing = true;
+            target = channel;
+            batch = pending;
+            pending = spare;
+            upTo = nextSequence - 1;
+        }
+
+        write(target, batch, upTo, true);
+        return upTo + 1;
+    }
+
+    /**
+     * @return the sequence of the last appended record.
+     */
+    long lastSequence() {
+        synchronized (lock) {
+            return nextSequence - 1;
+        }
+    }
+
+    /**
+     * Deletes all segments containing only records up to the given sequence.
+     *
+     * @param sequence the last sequence not needed anymore.
+     */
+    void trim(final long sequence) {
+        List<Path> segments = segments(directory);
+        for (int i = 0; i < segments.size() - 1; i++) {
+            if (start(segments.get(i + 1)) > sequence + 1) {
+                break;
+            }
+
+            try {
+                Files.deleteIfExists(segments.get(i));
+            } catch (IOException e) {
+                throw new PersistenceException("Can't delete log segment '" + segments.get(i) + "': " + e.getMessage(), e);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        long last;
+        synchronized (lock) {
+            if (closed) {
+                return;
+            }
+            last = nextSequence - 1;
+        }
+
+        try {
+            sync(last);
+        } finally {
+            synchronized (lock) {
+                while (flushing) {
+                    await();
+                }
+                closed = true;
+
+                try {
+                    channel.close();
+                } catch (IOException e) {
+                    throw new PersistenceException("Can't close log segment: " + e.getMessage(), e);
+                }
+            }
+        }
+    }
+
+    private void write(final FileChannel target, final ByteBuffer batch, final long upTo, final boolean roll) {
+        PersistenceException error = null;
+        FileChannel next = null;
+
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) {
+                target.write(batch);
+            }
+            target.force(false);
+
+            if (roll) {
+                target.close();
+                next = create(upTo + 1);
+            }
+        } catch (IOException e) {
+            error = new PersistenceException("Can't write log segment: " + e.getMessage(), e);
+        } catch (PersistenceException e) {
+            error = e;
+        }
+
+        synchronized (lock) {
+            batch.clear();
+            spare = batch;
+            flushing = false;
+
+            if (error != null) {
+                // the state of the segment is unknown, so nothing is accepted anymore.
+                failure = error;
+            } else {
+                durable = upTo;
+                if (next != null) {
+                    channel = next;
+                }
+            }
+            lock.notifyAll();
+        }
+
+        if (error != null) {
+            throw error;
+        }
+    }
+
+    private void await() {
+        try {
+            lock.wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new PersistenceException("Interrupted while waiting for the write ahead log.", e);
+        }
+    }
+
+    private FileChannel create(final long start) {
+        Path file = directory.resolve(String.format("%s%020d%s", PREFIX, start, SUFFIX));
+        try {
+            // an existing segment with this start can only contain records that never have been synced.
+            FileChannel result = FileChannel.open(file, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+            SnapshotFile.syncDirectory(directory);
+            return result;
+        } catch (IOException e) {
+            throw new PersistenceException("Can't create log segment '" + file + "': " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Receives the records of a replayed log.
+     */
+    @FunctionalInterface
+    interface RecordConsumer {
+        /**
+         * @param sequence the sequence of the record.
+         * @param type     the type of the record.
+         * @param payload  the payload of the record, only valid during the call.
+         */
+        void accept(long sequence, byte type, ByteBuffer payload);
+    }
+
+    /**
+     * Replays all valid records following the given sequence in order.
+     *
+     * @param directory the directory of the segments.
+     * @param after     the sequence of the last record already known.
+     * @param consumer  the consumer of the records.
+     * @return the sequence of the last valid record (or {@code after} if there is none).
+     * @throws PersistenceException if records are missing (a segment does not continue the records before it).
+     */
+    static long replay(final Path directory, final long after, final RecordConsumer consumer) {
+        long result = after;
+        long last = -1;
+
+        for (Path segment : segments(directory)) {
+            long expected = start(segment);
+            // the first segment may start before the known records, the following ones continue the valid records.
+            if (last < 0 ? expected > after + 1 : expected != last + 1) {
+                throw new PersistenceException("Log segment '" + segment + "' starts with record " + expected
+                        + ", but the log before ends with record " + (last < 0 ? after : last) + ".");
+            }
+
+            try (FileChannel file = FileChannel.open(segment, StandardOpenOption.READ)) {
+                MappedByteBuffer data = file.map(FileChannel.MapMode.READ_ONLY, 0, file.size());
+
+                while (data.remaining() >= HEADER) {
+                    int position = data.position();
+                    int length = data.getInt(position);
+                    if (length < 0 || length > data.remaining() - HEADER || data.getLong(position + 8) != expected) {
+                        break;
+                    }
+
+                    CRC32 crc = new CRC32();
+                    crc.update(data.duplicate().position(position + 8).limit(position + HEADER + length));
+                    if ((int) crc.getValue() != data.getInt(position + 4)) {
+                        break;
+                    }
+
+                    if (expected > result) {
+                        ByteBuffer payload = data.duplicate().position(position + HEADER).limit(position + HEADER + length);
+                        consumer.accept(expected, data.get(position + 16), payload.slice());
+                        result = expected;
+                    }
+
+                    data.position(position + HEADER + length);
+                    expected++;
+                }
+                last = expected - 1;
+            } catch (IOException e) {
+                throw new PersistenceException("Can't read log segment '" + segment + "': " + e.getMessage(), e);
+            }
+        }
+
+        return result;
+    }
+
+    private static List<Path> segments(final Path directory) {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(f -> f.getFileName().toString().startsWith(PREFIX) && f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted()
+                    .collect(Collectors.toCollection(ArrayList::new));
+        } catch (IOException e) {
+            throw new PersistenceException("Can't list log segments in '" + directory + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static long start(final Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.EventImmutable;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.store.Codec;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+import static de.kaiserpfalzedv.commons.events.EventLogTest.CODEC;
+import static de.kaiserpfalzedv.commons.events.EventLogTest.event;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventLogCompactorTest {
+    private static final int SEGMENT_SIZE = 16 * 1024;
+
+    @TempDir
+    Path directory;
+
+    private static Event tombstone(final String name, final long created, final long deleted) {
+        Event event = event("test", name, created, "deleted");
+        return EventImmutable.copyOf(event).withMetadata(MetadataImmutable.copyOf(event.metadata())
+                .withDeleted(OffsetDateTime.ofInstant(Instant.ofEpochMilli(deleted), ZoneOffset.UTC)));
+    }
+
+    /**
+     * Appends events until the segment of the last appended event is sealed.
+     */
+    private static void seal(final EventLog log) {
+        int segments = log.segments().length;
+        for (int i = 0; log.segments().length == segments; i++) {
+            log.append(event("filler", "filler", i, "filler"));
+        }
+    }
+
+    private static Map<Long, Event> events(final EventLog log) {
+        Map<Long, Event> result = new HashMap<>();
+        log.scan(0, (offset, timestamp, payload) -> {
+            result.put(offset, CODEC.decode(payload));
+            return true;
+        });
+        return result;
+    }
+
+    @Test
+    public void keeps_the_newest_event_per_key() {
+        try (EventLog log = EventLog.open(directory, CODEC, SEGMENT_SIZE);
+             EventLogCompactor sut = new EventLogCompactor(log, Duration.ofHours(1), Long.MAX_VALUE)) {
+            Map<String, Long> newest = new HashMap<>();
+            for (int version = 0; version < 10; version++) {
+                for (int key = 0; key < 20; key++) {
+                    newest.put("key-" + key, log.append(event("test", "key-" + key, 1000 + version, "v" + version)));
+                }
+            }
+            // an older event appended later does not win.
+            long late = log.append(event("test", "key-0", 500, "late"));
+            seal(log);
+
+            long before = log.nextOffset();
+            assertTrue(sut.compact() >= 180);
+            assertEquals(before, log.nextOffset());
+
+            Map<Long, Event> events = events(log);
+            for (Map.Entry<String, Long> key : newest.entrySet()) {
+                assertEquals(key.getKey(), events.get(key.getValue()).metadata().name());
+                assertEquals("v9", events.get(key.getValue()).data().orElseThrow());
+            }
+            assertFalse(events.containsKey(late));
+            assertEquals(20, events.values().stream().filter(e -> e.metadata().scope().equals("test")).count());
+            assertThrows(NoSuchElementException.class, () -> log.read(late));
+
+            assertEquals(before, log.append(event("test", "after", 2000, "after")));
+            assertEquals(0, sut.compact(), "the compacted log has nothing to drop");
+        }
+
+        try (EventLog log = EventLog.open(directory, CODEC, SEGMENT_SIZE)) {
+            assertEquals(21, events(log).values().stream().filter(e -> e.metadata().scope().equals("test")).count());
+        }
+    }
+
+    @Test
+    public void drops_tombstones_after_retention() {
+        long now = System.currentTimeMillis();
+
+        try (EventLog log = EventLog.open(directory, CODEC, SEGMENT_SIZE);
+             EventLogCompactor sut = new EventLogCompactor(log, Duration.ofHours(1), Long.MAX_VALUE)) {
+            log.append(event("test", "expired", now - 10_000_000, "created"));
+            log.append(tombstone("expired", now - 9_000_000, now - 9_000_000));
+            log.append(event("test", "recent", now - 10_000, "created"));
+            long recent = log.append(tombstone("recent", now - 1_000, now - 1_000));
+            seal(log);
+
+            sut.compact();
+
+            List<String> names = new ArrayList<>();
+            events(log).values().forEach(e -> names.add(e.metadata().name()));
+            assertFalse(names.contains("expired"));
+            assertTrue(log.read(recent).metadata().deleted().isPresent());
+        }
+    }
+
+    @Test
+    public void discards_incomplete_compactions() throws IOException {
+        try (EventLog log = EventLog.open(directory, CODEC, SEGMENT_SIZE)) {
+            log.append(event("test", "kept", 1000, "kept"));
+            seal(log);
+        }
+
+        // compacted segments without marker never have been installed.
+        Path compaction = Files.createDirectories(directory.resolve("compaction"));
+        Files.write(Segment.file(compaction, 0, ".log"), new byte[SEGMENT_SIZE]);
+
+        try (EventLog log = EventLog.open(directory, CODEC, SEGMENT_SIZE)) {
+            assertEquals("kept", log.read(0).metadata().name());
+        }
+        assertFalse(Files.exists(Segment.file(compaction, 0, ".log")));
+    }
+
+    @Test
+    public void completes_marked_compactions() throws IOException {
+        try (EventLog log = EventLog.open(directory, CODEC, SEGMENT_SIZE)) {
+            seal(log);
+        }
+
+        Path compaction = Files.createDirectories(directory.resolve("compaction"));
+        Files.write(compaction.resolve("COMPLETE"), "delete 0".getBytes());
+
+        try (EventLog log = EventLog.open(directory, CODEC, SEGMENT_SIZE)) {
+            assertTrue(log.startOffset() > 0);
+            assertThrows(NoSuchElementException.class, () -> log.read(0));
+        }
+    }
+
+    @Test
+    public void keeps_the_failure_of_background_runs() throws InterruptedException {
+        try (EventLog log = EventLog.open(directory, CODEC, SEGMENT_SIZE)) {
+            seal(log);
+        }
+
+        Codec<Event> broken = new Codec<>() {
+            @Override
+            public byte[] encode(final Event object) {
+                return CODEC.encode(object);
+            }
+
+            @Override
+            public Event decode(final ByteBuffer data) {
+                throw new IllegalStateException("broken codec");
+            }
+        };
+
+        try (EventLog log = EventLog.open(directory, broken, SEGMENT_SIZE);
+             EventLogCompactor sut = new EventLogCompactor(log, Duration.ofHours(1), Long.MAX_VALUE)) {
+            assertTrue(sut.failure().isEmpty());
+
+            sut.start(Duration.ofMillis(10));
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (sut.failure().isEmpty() && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+
+            assertEquals("broken codec", sut.failure().orElseThrow().getMessage());
+        }
+    }
+
+    @Test
+    public void limits_the_bandwidth() {
+        Throttle sut = new Throttle(1024 * 1024);
+
+        long start = System.nanoTime();
+        sut.acquire(1024 * 1024);
+        sut.acquire(512 * 1024);
+        long elapsed = System.nanoTime() - start;
+
+        assertTrue(elapsed >= Duration.ofMillis(400).toNanos(), "waited " + elapsed + " ns");
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.EventImmutable;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.store.Codec;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventLogTest {
+    private static final Version API_VERSION = Version.from("1.0.0", Version.VersionType.STRICT);
+    static final Codec<Event> CODEC = Codec.serialization(Event.class);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * @param scope   the scope of the event.
+     * @param name    the name of the event.
+     * @param created the creation time in milliseconds since the epoch.
+     * @param data    the data of the event.
+     * @return an event of kind "Test".
+     */
+    static Event event(final String scope, final String name, final long created, final String data) {
+        return EventImmutable.builder()
+                .metadata(MetadataImmutable.builder()
+                        .kind("Test")
+                        .apiVersion(API_VERSION)
+                        .uuid(UUID.randomUUID())
+                        .scope(scope)
+                        .name(name)
+                        .created(OffsetDateTime.ofInstant(Instant.ofEpochMilli(created), ZoneOffset.UTC))
+                        .build())
+                .data(data)
+                .build();
+    }
+
+    private static ByteBuffer bytes(final String value) {
+        return ByteBuffer.wrap(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String string(final ByteBuffer value) {
+        byte[] result = new byte[value.remaining()];
+        value.get(result);
+        return new String(result, StandardCharsets.UTF_8);
+    }
+
+    private long segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(f -> f.toString().endsWith(".log")).count();
+        }
+    }
+
+    @Test
+    public void reads_appended_events_by_offset() {
+        try (EventLog sut = EventLog.open(directory, CODEC)) {
+            Event first = event("a", "first", 1000, "one");
+            Event second = event("a", "second", 2000, "two");
+
+            assertEquals(0, sut.append(first));
+            assertEquals(1, sut.append(second));
+
+            assertEquals(first, sut.read(0));
+            assertEquals(second, sut.read(1));
+            assertEquals(2000, sut.timestamp(1));
+            assertEquals(2, sut.nextOffset());
+            assertThrows(NoSuchElementException.class, () -> sut.read(2));
+        }
+    }
+
+    @Test
+    public void returns_read_only_views_of_payloads() {
+        try (EventLog sut = EventLog.open(directory, CODEC)) {
+            ByteBuffer payload = bytes("payload");
+            sut.append(1, payload);
+            assertEquals(0, payload.position(), "the position of the appended payload is kept");
+
+            ByteBuffer result = sut.payload(0);
+            assertTrue(result.isReadOnly());
+            assertThrows(ReadOnlyBufferException.class, () -> result.put(0, (byte) 0));
+            assertEquals("payload", string(result));
+        }
+    }
+
+    @Test
+    public void rolls_fixed_size_segments() throws IOException {
+        try (EventLog sut = EventLog.open(directory, CODEC, 4096)) {
+            for (int i = 0; i < 1000; i++) {
+                assertEquals(i, sut.append(i, bytes("event-" + i)));
+            }
+
+            for (int i = 0; i < 1000; i++) {
+                assertEquals("event-" + i, string(sut.payload(i)));
+            }
+            assertThrows(IllegalArgumentException.class, () -> sut.append(0, ByteBuffer.allocate(4096)));
+        }
+
+        assertTrue(segments() > 1);
+    }
+
+    @Test
+    public void reads_the_latest_event_while_segments_roll() throws InterruptedException {
+        try (EventLog sut = EventLog.open(directory, CODEC, 4096)) {
+            sut.append(0, bytes("event-0"));
+
+            AtomicReference<Throwable> failure = new AtomicReference<>();
+            Thread writer = new Thread(() -> {
+                try {
+                    for (int i = 1; i < 20_000; i++) {
+                        sut.append(i, bytes("event-" + i));
+                    }
+                } catch (Throwable e) {
+                    failure.set(e);
+                }
+            });
+            writer.start();
+
+            while (writer.isAlive()) {
+                long offset = sut.nextOffset() - 1;
+                assertEquals("event-" + offset, string(sut.payload(offset)));
+                assertEquals(offset, sut.timestamp(offset));
+            }
+            writer.join();
+
+            assertNull(failure.get());
+            assertEquals(20_000, sut.nextOffset());
+        }
+    }
+
+    @Test
+    public void continues_after_reopen_without_torn_records() throws IOException {
+        try (EventLog sut = EventLog.open(directory, CODEC, 4096)) {
+            for (int i = 0; i < 500; i++) {
+                sut.append(i, bytes("event-" + i));
+            }
+        }
+
+        Path last;
+        try (Stream<Path> files = Files.list(directory)) {
+            last = files.filter(f -> f.toString().endsWith(".log")).sorted().reduce((a, b) -> b).orElseThrow();
+        }
+        try (EventLog sut = EventLog.open(directory, CODEC, 4096)) {
+            assertEquals(500, sut.nextOffset());
+        }
+
+        // a record with a broken checksum after the last valid one.
+        try (EventLog sut = EventLog.open(directory, CODEC, 4096)) {
+            sut.append(500, bytes("torn"));
+        }
+        byte[] data = Files.readAllBytes(last);
+        int position = 0;
+        while (true) {
+            int length = ByteBuffer.wrap(data, position, 4).getInt();
+            if (ByteBuffer.wrap(data, position + 16, length).equals(bytes("torn"))) {
+                break;
+            }
+            position += 16 + length;
+        }
+        data[position + 16] ^= 0x7F;
+        Files.write(last, data);
+
+        try (EventLog sut = EventLog.open(directory, CODEC, 4096)) {
+            assertEquals(500, sut.nextOffset());
+            assertEquals(500, sut.append(500, bytes("next")));
+            assertEquals("event-499", string(sut.payload(499)));
+        }
+
+        try (EventLog sut = EventLog.open(directory, CODEC, 4096)) {
+            assertEquals(501, sut.nextOffset());
+            assertEquals("next", string(sut.payload(500)));
+        }
+    }
+
+    @Test
+    public void finds_offsets_by_time() {
+        try (EventLog sut = EventLog.open(directory, CODEC, 8192)) {
+            for (int i = 0; i < 2000; i++) {
+                sut.append(10_000 + i * 10, bytes("event-" + i));
+            }
+
+            assertEquals(0, sut.offsetOf(Instant.ofEpochMilli(0)));
+            assertEquals(0, sut.offsetOf(Instant.ofEpochMilli(10_000)));
+            assertEquals(1235, sut.offsetOf(Instant.ofEpochMilli(22_345)));
+            assertEquals(1999, sut.offsetOf(Instant.ofEpochMilli(29_990)));
+            assertEquals(2000, sut.offsetOf(Instant.ofEpochMilli(30_000)));
+        }
+    }
+
+    @Test
+    public void scans_from_an_offset() {
+        try (EventLog sut = EventLog.open(directory, CODEC, 4096)) {
+            for (int i = 0; i < 300; i++) {
+                sut.append(i, bytes("event-" + i));
+            }
+
+            List<String> visited = new ArrayList<>();
+            long next = sut.scan(250, (offset, timestamp, payload) -> {
+                visited.add(offset + ":" + string(payload));
+                return visited.size() < 10;
+            });
+            assertEquals(260, next);
+            assertEquals("250:event-250", visited.get(0));
+            assertEquals("259:event-259", visited.get(9));
+
+            visited.clear();
+            assertEquals(300, sut.scan(next, (offset, timestamp, payload) -> visited.add(string(payload))));
+            assertEquals(40, visited.size());
+            assertEquals(300, sut.scan(300, (offset, timestamp, payload) -> true));
+        }
+    }
+}
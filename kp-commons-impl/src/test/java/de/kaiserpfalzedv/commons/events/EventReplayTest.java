@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.events;
+
+import de.kaiserpfalzedv.commons.api.DataPointerImmutable;
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.EventImmutable;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.store.Codec;
+import de.kaiserpfalzedv.commons.store.PersistenceException;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static de.kaiserpfalzedv.commons.events.EventLogTest.CODEC;
+import static de.kaiserpfalzedv.commons.events.EventLogTest.event;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class EventReplayTest {
+    private static final int EVENTS = 5000;
+    private static final int SCOPES = 50;
+
+    @TempDir
+    Path directory;
+
+    private ExecutorService pool;
+    private EventLog log;
+
+    @BeforeEach
+    public void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+        log = EventLog.open(directory.resolve("log"), CODEC, 1024 * 1024);
+        for (int i = 0; i < EVENTS; i++) {
+            log.append(event("scope-" + (i % SCOPES), "event-" + i, i, Integer.toString(i)));
+        }
+    }
+
+    @AfterEach
+    public void tearDown() {
+        log.close();
+        pool.shutdownNow();
+    }
+
+    private EventReplay replay(final int partitions) {
+        return new EventReplay(log, EventReplay.scope(), partitions, pool, 4, directory.resolve("checkpoint"),
+                Duration.ofMillis(1));
+    }
+
+    @Test
+    public void keeps_the_order_per_key() {
+        Map<String, List<Long>> applied = new ConcurrentHashMap<>();
+        Set<String> running = ConcurrentHashMap.newKeySet();
+        AtomicBoolean concurrent = new AtomicBoolean();
+
+        long watermark = replay(8).replay((offset, event) -> {
+            String scope = event.metadata().scope();
+            if (!running.add(scope)) {
+                concurrent.set(true);
+            }
+            applied.computeIfAbsent(scope, s -> Collections.synchronizedList(new ArrayList<>())).add(offset);
+            running.remove(scope);
+        });
+
+        assertEquals(EVENTS, watermark);
+        assertEquals(SCOPES, applied.size());
+        assertFalse(concurrent.get(), "events of a key are never applied concurrently");
+        for (List<Long> offsets : applied.values()) {
+            assertEquals(EVENTS / SCOPES, offsets.size());
+            List<Long> sorted = new ArrayList<>(offsets);
+            Collections.sort(sorted);
+            assertEquals(sorted, offsets);
+        }
+
+        assertEquals(EVENTS, replay(8).replay((offset, event) -> {
+            throw new IllegalStateException("nothing left to replay");
+        }));
+    }
+
+    @Test
+    public void resumes_after_a_failure_applying_every_event_once() {
+        Set<Long> applied = ConcurrentHashMap.newKeySet();
+        List<Long> duplicates = Collections.synchronizedList(new ArrayList<>());
+
+        ReplayException failure = assertThrows(ReplayException.class, () -> replay(8).replay((offset, event) -> {
+            if (offset == 3210) {
+                throw new IllegalStateException("failed");
+            }
+            if (!applied.add(offset)) {
+                duplicates.add(offset);
+            }
+        }));
+        assertTrue(failure.getMessage().contains("failed"));
+        assertTrue(applied.size() < EVENTS);
+
+        assertEquals(EVENTS, replay(8).replay((offset, event) -> {
+            if (!applied.add(offset)) {
+                duplicates.add(offset);
+            }
+        }));
+
+        assertEquals(EVENTS, applied.size());
+        assertEquals(List.of(), duplicates);
+    }
+
+    @Test
+    public void resumes_after_a_failure_decoding_an_event() {
+        log.close();
+        log = EventLog.open(directory.resolve("log"), new Codec<>() {
+            @Override
+            public byte[] encode(final Event object) {
+                return CODEC.encode(object);
+            }
+
+            @Override
+            public Event decode(final ByteBuffer data) {
+                Event result = CODEC.decode(data);
+                if (result.metadata().name().equals("event-3210")) {
+                    throw new PersistenceException("broken event");
+                }
+                return result;
+            }
+        }, 1024 * 1024);
+        Set<Long> applied = ConcurrentHashMap.newKeySet();
+
+        ReplayException failure = assertThrows(ReplayException.class,
+                () -> replay(8).replay((offset, event) -> applied.add(offset)));
+        assertTrue(failure.getCause() instanceof PersistenceException);
+        assertTrue(applied.size() < EVENTS);
+
+        log.close();
+        log = EventLog.open(directory.resolve("log"), CODEC, 1024 * 1024);
+        assertEquals(EVENTS, replay(8).replay((offset, event) -> assertTrue(applied.add(offset),
+                "applied twice: " + offset)));
+        assertEquals(EVENTS, applied.size());
+    }
+
+    @Test
+    public void resumes_after_stop() {
+        Set<Long> applied = ConcurrentHashMap.newKeySet();
+        EventReplay sut = replay(4);
+
+        long watermark = sut.replay((offset, event) -> {
+            applied.add(offset);
+            if (offset == 1000) {
+                sut.stop();
+            }
+        });
+        assertTrue(watermark < EVENTS);
+
+        assertEquals(EVENTS, sut.replay((offset, event) -> assertTrue(applied.add(offset), "applied twice: " + offset)));
+        assertEquals(EVENTS, applied.size());
+    }
+
+    @Test
+    public void rejects_checkpoints_of_other_partitions() {
+        replay(8).replay((offset, event) -> {});
+
+        assertThrows(IllegalArgumentException.class, () -> replay(4).replay((offset, event) -> {}));
+    }
+
+    @Test
+    public void partitions_by_owner() {
+        UUID owner = UUID.randomUUID();
+        Event event = event("scope", "owned", 0, "owned");
+        Event owned = EventImmutable.copyOf(event)
+                .withMetadata(MetadataImmutable.copyOf(event.metadata()).withOwner(DataPointerImmutable.builder()
+                        .metadata(MetadataImmutable.builder()
+                                .kind("Owner")
+                                .apiVersion(Version.from("1.0.0", Version.VersionType.STRICT))
+                                .uuid(owner)
+                                .name("owner")
+                                .build())
+                        .build()));
+
+        assertEquals(owner, EventReplay.owner().apply(owned.metadata()));
+        assertEquals("scope", EventReplay.owner().apply(event.metadata()));
+    }
+}
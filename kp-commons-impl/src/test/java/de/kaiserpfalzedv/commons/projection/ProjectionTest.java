@@ -0,0 +1,359 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.projection;
+
+import de.kaiserpfalzedv.commons.api.DataSet;
+import de.kaiserpfalzedv.commons.api.Event;
+import de.kaiserpfalzedv.commons.api.EventImmutable;
+import de.kaiserpfalzedv.commons.api.Metadata;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.api.State;
+import de.kaiserpfalzedv.commons.events.EventLog;
+import de.kaiserpfalzedv.commons.store.Codec;
+import de.kaiserpfalzedv.commons.store.DataObjectStore;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ProjectionTest {
+    private static final Version API_VERSION = Version.from("1.0.0", Version.VersionType.STRICT);
+    private static final Codec<Event> EVENTS = Codec.serialization(Event.class);
+    private static final Codec<Counter> COUNTERS = Codec.serialization(Counter.class);
+
+    @TempDir
+    Path directory;
+
+    /**
+     * A counter named like the events changing it. The data of the events is the number to add or "delete".
+     */
+    static final class Counter implements DataSet<Integer> {
+        private static final long serialVersionUID = 1L;
+
+        private final Metadata metadata;
+        private final Integer data;
+        private final List<State> state;
+
+        Counter(final Metadata metadata, final Integer data, final List<State> state) {
+            this.metadata = metadata;
+            this.data = data;
+            this.state = state;
+        }
+
+        @Override
+        public Metadata metadata() {
+            return metadata;
+        }
+
+        @Override
+        public Optional<Integer> data() {
+            return Optional.ofNullable(data);
+        }
+
+        @Override
+        public Optional<List<State>> state() {
+            return Optional.ofNullable(state);
+        }
+
+        int value() {
+            return data;
+        }
+
+        List<String> kinds() {
+            return state.stream().map(State::kind).collect(Collectors.toList());
+        }
+    }
+
+    static class Counting implements Projector<Counter> {
+        @Override
+        public Optional<UUID> key(final Event event) {
+            if (!"counter".equals(event.metadata().scope())) {
+                return Optional.empty();
+            }
+            return Optional.of(uuid(event.metadata().name()));
+        }
+
+        @Override
+        public Optional<Counter> apply(final Optional<Counter> current, final Event event) {
+            String data = (String) event.data().orElseThrow();
+            if ("delete".equals(data)) {
+                return Optional.empty();
+            }
+
+            int value = current.map(Counter::value).orElse(0) + Integer.parseInt(data);
+            return Optional.of(new Counter(
+                    MetadataImmutable.builder()
+                            .kind("Counter")
+                            .apiVersion(API_VERSION)
+                            .uuid(uuid(event.metadata().name()))
+                            .name(event.metadata().name())
+                            .build(),
+                    value,
+                    current.flatMap(Counter::state).orElse(null)
+            ));
+        }
+
+        @Override
+        public Counter withState(final Counter dataset, final List<State> state) {
+            return new Counter(dataset.metadata(), dataset.value(), state);
+        }
+    }
+
+    private static UUID uuid(final String name) {
+        return UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Event event(final String scope, final String name, final String data) {
+        return EventImmutable.builder()
+                .metadata(MetadataImmutable.builder()
+                        .kind("Test")
+                        .apiVersion(API_VERSION)
+                        .uuid(UUID.randomUUID())
+                        .scope(scope)
+                        .name(name)
+                        .created(OffsetDateTime.now())
+                        .build())
+                .data(data)
+                .build();
+    }
+
+    private Projection<Counter> open(final EventLog log, final int history) {
+        return open(log, new Counting(), history, 0);
+    }
+
+    private Projection<Counter> open(final EventLog log, final Projector<Counter> projector, final int history,
+                                     final long snapshotEvery) {
+        return Projection.open(log, projector, COUNTERS, new DataObjectStore<>(), directory.resolve("projection"),
+                history, snapshotEvery);
+    }
+
+    private static Counter counter(final Projection<Counter> projection, final String name) {
+        return projection.store().get(uuid(name)).orElseThrow();
+    }
+
+    @Test
+    public void shouldLogCreatedUpdatedAndDeletedStates() {
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS);
+             Projection<Counter> sut = open(log, 0)) {
+            log.append(event("counter", "a", "1"));
+            log.append(event("counter", "a", "2"));
+            log.append(event("counter", "a", "delete"));
+            log.append(event("counter", "a", "delete"));
+            log.append(event("counter", "a", "5"));
+
+            assertEquals(5, sut.catchUp());
+
+            Counter result = counter(sut, "a");
+            assertEquals(5, result.value());
+            assertEquals(List.of(State.CREATED, State.UPDATED, State.DELETED, State.CREATED), result.kinds());
+            assertEquals(log.read(2).metadata().uuid(), result.state().orElseThrow().get(2).uuid());
+            assertEquals(4L, result.state().orElseThrow().get(3).data());
+        }
+    }
+
+    @Test
+    public void shouldIgnoreEventsWithoutKey() {
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS);
+             Projection<Counter> sut = open(log, 0)) {
+            log.append(event("other", "a", "1"));
+            log.append(event("counter", "b", "delete"));
+
+            assertEquals(2, sut.catchUp());
+            assertEquals(0, sut.store().size());
+        }
+    }
+
+    @Test
+    public void shouldLimitTheStateLog() {
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS);
+             Projection<Counter> sut = open(log, 2)) {
+            for (int i = 0; i < 5; i++) {
+                log.append(event("counter", "a", "1"));
+            }
+            sut.catchUp();
+
+            Counter result = counter(sut, "a");
+            assertEquals(5, result.value());
+            assertEquals(List.of(State.UPDATED, State.UPDATED), result.kinds());
+            assertEquals(4L, result.state().orElseThrow().get(1).data());
+        }
+    }
+
+    @Test
+    public void shouldApplyOnlyNewEventsWhenCatchingUp() {
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS);
+             Projection<Counter> sut = open(log, 0)) {
+            log.append(event("counter", "a", "1"));
+            assertEquals(1, sut.catchUp());
+            assertEquals(1, sut.catchUp());
+
+            log.append(event("counter", "a", "2"));
+            log.append(event("counter", "b", "3"));
+            assertEquals(3, sut.catchUp());
+
+            assertEquals(3, counter(sut, "a").value());
+            assertEquals(2, counter(sut, "a").kinds().size());
+            assertEquals(3, counter(sut, "b").value());
+        }
+    }
+
+    @Test
+    public void shouldResumeFromTheSnapshot() {
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS)) {
+            try (Projection<Counter> sut = open(log, 0)) {
+                log.append(event("counter", "a", "1"));
+                log.append(event("counter", "b", "2"));
+                sut.catchUp();
+
+                assertEquals(2, sut.snapshot());
+            }
+
+            log.append(event("counter", "a", "3"));
+            log.append(event("counter", "b", "delete"));
+
+            try (Projection<Counter> sut = open(log, 0)) {
+                assertEquals(2, sut.offset());
+                assertEquals(1, counter(sut, "a").value());
+
+                assertEquals(4, sut.catchUp());
+                assertEquals(4, counter(sut, "a").value());
+                assertEquals(List.of(State.CREATED, State.UPDATED), counter(sut, "a").kinds());
+                assertEquals(List.of(State.CREATED, State.DELETED), counter(sut, "b").kinds());
+            }
+        }
+    }
+
+    @Test
+    public void shouldFollowTheLog() throws InterruptedException {
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS);
+             Projection<Counter> sut = open(log, new Counting(), 0, 2)) {
+            sut.start(Duration.ofMillis(1));
+            assertThrows(IllegalStateException.class, () -> sut.start(Duration.ofMillis(1)));
+
+            log.append(event("counter", "a", "1"));
+            log.append(event("counter", "a", "2"));
+            log.append(event("counter", "a", "3"));
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (sut.offset() < 3 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            assertEquals(3, sut.offset());
+            assertEquals(6, counter(sut, "a").value());
+        }
+
+        // the follower has written a snapshot after two events at least.
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS);
+             Projection<Counter> sut = open(log, 0)) {
+            assertTrue(sut.offset() >= 2);
+            assertFalse(sut.store().get(uuid("a")).isEmpty());
+        }
+    }
+
+    @Test
+    public void shouldSnapshotBetweenBatches() {
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS)) {
+            for (int i = 0; i < 2 * Projection.BATCH + 500; i++) {
+                log.append(event("counter", "a", "1"));
+            }
+
+            try (Projection<Counter> sut = open(log, new Counting(), 1, Projection.BATCH)) {
+                assertEquals(2 * Projection.BATCH + 500, sut.catchUp());
+            }
+
+            // the snapshots have been written after the first two batches.
+            try (Projection<Counter> sut = open(log, 1)) {
+                assertEquals(2 * Projection.BATCH, sut.offset());
+                assertEquals(2 * Projection.BATCH, counter(sut, "a").value());
+            }
+        }
+    }
+
+    @Test
+    public void shouldRethrowTheFailureOfTheFollower() throws InterruptedException {
+        AtomicBoolean broken = new AtomicBoolean(true);
+        AtomicInteger attempts = new AtomicInteger();
+        Projector<Counter> failing = new Counting() {
+            @Override
+            public Optional<Counter> apply(final Optional<Counter> current, final Event event) {
+                if ("boom".equals(event.metadata().name())) {
+                    attempts.incrementAndGet();
+                    if (broken.get()) {
+                        throw new IllegalArgumentException("boom");
+                    }
+                }
+                return super.apply(current, event);
+            }
+        };
+
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS)) {
+            Projection<Counter> sut = open(log, failing, 0, 0);
+            sut.start(Duration.ofMillis(1));
+            log.append(event("counter", "a", "1"));
+            log.append(event("counter", "boom", "1"));
+
+            long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+            while (attempts.get() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+
+            ProjectionException failure = assertThrows(ProjectionException.class, sut::close);
+            assertTrue(failure.getMessage().contains("offset 1"), failure.getMessage());
+            assertThrows(ProjectionException.class, sut::catchUp);
+            assertEquals(1, sut.offset());
+
+            // a restarted projection retries the failed event.
+            broken.set(false);
+            sut.start(Duration.ofMillis(1));
+            while (sut.offset() < 2 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            sut.close();
+
+            assertEquals(2, sut.offset());
+            assertEquals(1, counter(sut, "boom").value());
+        }
+    }
+
+    @Test
+    public void shouldRejectFilledStores() {
+        DataObjectStore<Counter> store = new DataObjectStore<>();
+        store.put(new Counting().apply(Optional.empty(), event("counter", "a", "1")).orElseThrow());
+
+        try (EventLog log = EventLog.open(directory.resolve("log"), EVENTS)) {
+            assertThrows(IllegalArgumentException.class,
+                    () -> Projection.open(log, new Counting(), COUNTERS, store, directory.resolve("projection"), 0, 0));
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.selector;
+
+import de.kaiserpfalzedv.commons.api.CompactMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LabelIndexTest {
+    private static final String[] SELECTORS = {
+            "app=web", "app=web,tier in (fe,be),!canary", "tier", "!tier", "env!=prod", "env notin (prod,test)",
+            "app in (web,db,cache),env=prod", "app=web,env=prod,tier=fe,zone=z3", "canary,app=db", "", "app=missing",
+            "missing", "app=web,tier notin (fe)", "zone in (z1,z2,z9),env!=dev"
+    };
+
+    private static final class Item {
+        private final int id;
+        private final Map<String, String> labels;
+
+        private Item(final int id, final Map<String, String> labels) {
+            this.id = id;
+            this.labels = CompactMap.copyOf(labels);
+        }
+    }
+
+    private static LabelIndex<Integer, Item> index() {
+        return new LabelIndex<>(item -> item.id, item -> item.labels);
+    }
+
+    private static Item random(final Random random, final int id) {
+        Map<String, String> labels = new HashMap<>();
+        labels.put("app", new String[]{"web", "db", "cache", "batch"}[random.nextInt(4)]);
+        labels.put("env", new String[]{"prod", "test", "dev"}[random.nextInt(3)]);
+        if (random.nextInt(3) > 0) {
+            labels.put("tier", new String[]{"fe", "be"}[random.nextInt(2)]);
+        }
+        if (random.nextInt(10) == 0) {
+            labels.put("canary", "true");
+        }
+        labels.put("zone", "z" + random.nextInt(10));
+        return new Item(id, labels);
+    }
+
+    private static Set<Integer> ids(final List<Item> items) {
+        Set<Integer> result = new HashSet<>();
+        for (Item item : items) {
+            result.add(item.id);
+        }
+        return result;
+    }
+
+    @Test
+    public void puts_replaces_and_removes_objects() {
+        LabelIndex<Integer, Item> sut = index();
+        Map<String, String> labels = new HashMap<>();
+        labels.put("app", "web");
+
+        Item first = new Item(1, labels);
+        assertNull(sut.put(first));
+        assertEquals(1, sut.count(LabelSelector.parse("app=web")));
+
+        labels.put("app", "db");
+        Item second = new Item(1, labels);
+        assertSame(first, sut.put(second));
+        assertEquals(0, sut.count(LabelSelector.parse("app=web")));
+        assertEquals(1, sut.count(LabelSelector.parse("app=db")));
+        assertSame(second, sut.get(1));
+
+        assertSame(second, sut.remove(1));
+        assertNull(sut.remove(1));
+        assertEquals(0, sut.size());
+        assertEquals(0, sut.count(LabelSelector.everything()));
+    }
+
+    @Test
+    public void moves_only_changed_labels_of_replaced_objects() {
+        LabelIndex<Integer, Item> sut = index();
+        sut.put(new Item(1, Map.of("app", "web", "env", "prod", "canary", "true")));
+        sut.put(new Item(2, Map.of("app", "web", "env", "test")));
+
+        sut.put(new Item(1, Map.of("app", "web", "env", "test", "tier", "fe")));
+
+        assertEquals(2, sut.count(LabelSelector.parse("app=web")));
+        assertEquals(2, sut.count(LabelSelector.parse("env=test")));
+        assertEquals(2, sut.count(LabelSelector.parse("env")));
+        assertEquals(0, sut.count(LabelSelector.parse("env=prod")));
+        assertEquals(0, sut.count(LabelSelector.parse("canary")));
+        assertEquals(1, sut.count(LabelSelector.parse("tier=fe,env in (prod,test)")));
+        assertEquals("LabelIndex[size=2, keys=[app, env, tier]]", sut.toString());
+    }
+
+    @Test
+    public void selects_same_objects_as_linear_scan() {
+        Random random = new Random(43);
+        LabelIndex<Integer, Item> sut = index();
+        Map<Integer, Item> expected = new HashMap<>();
+
+        for (int round = 0; round < 3; round++) {
+            for (int i = 0; i < 20_000; i++) {
+                int id = random.nextInt(30_000);
+                if (random.nextInt(5) == 0) {
+                    sut.remove(id);
+                    expected.remove(id);
+                } else {
+                    Item item = random(random, id);
+                    sut.put(item);
+                    expected.put(id, item);
+                }
+            }
+            assertEquals(expected.size(), sut.size());
+
+            for (String text : SELECTORS) {
+                LabelSelector selector = LabelSelector.parse(text);
+
+                List<Item> matching = new ArrayList<>();
+                for (Item item : expected.values()) {
+                    if (selector.matches(item.labels)) {
+                        matching.add(item);
+                    }
+                }
+
+                List<Item> selected = sut.select(selector);
+                assertEquals(matching.size(), selected.size(), text);
+                assertEquals(ids(matching), ids(selected), text);
+                assertEquals(matching.size(), sut.count(selector), text);
+            }
+        }
+    }
+
+    @Test
+    public void selects_fast_on_big_index() {
+        Random random = new Random(44);
+        LabelIndex<Integer, Item> sut = index();
+        for (int i = 0; i < 200_000; i++) {
+            sut.put(random(random, i));
+        }
+
+        LabelSelector selector = LabelSelector.parse("app=web,env=prod,tier=fe,zone=z3,!canary");
+        int expected = sut.count(selector);
+        assertTrue(expected > 0);
+
+        long start = System.nanoTime();
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected, sut.select(selector).size());
+        }
+        long millis = (System.nanoTime() - start) / 1_000_000;
+        assertTrue(millis < 5_000, "100 selections took " + millis + " ms");
+    }
+}
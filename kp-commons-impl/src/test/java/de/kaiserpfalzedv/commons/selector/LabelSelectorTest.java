@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.selector;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LabelSelectorTest {
+    private static Map<String, String> labels(final String... keyValues) {
+        Map<String, String> result = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            result.put(keyValues[i], keyValues[i + 1]);
+        }
+        return result;
+    }
+
+    @Test
+    public void parses_all_operators() {
+        LabelSelector sut = LabelSelector.parse(" app = web , tier in (fe, be),!canary,env!=prod,zone notin (a,b),release,x==y ");
+
+        assertEquals(7, sut.requirements().size());
+        assertEquals(LabelSelector.Operator.EQUALS, sut.requirements().get(0).operator());
+        assertEquals(LabelSelector.Operator.IN, sut.requirements().get(1).operator());
+        assertEquals(new TreeSet<>(Arrays.asList("be", "fe")), sut.requirements().get(1).values());
+        assertEquals(LabelSelector.Operator.DOES_NOT_EXIST, sut.requirements().get(2).operator());
+        assertEquals(LabelSelector.Operator.NOT_EQUALS, sut.requirements().get(3).operator());
+        assertEquals(LabelSelector.Operator.NOT_IN, sut.requirements().get(4).operator());
+        assertEquals(LabelSelector.Operator.EXISTS, sut.requirements().get(5).operator());
+        assertEquals(LabelSelector.Operator.EQUALS, sut.requirements().get(6).operator());
+
+        assertEquals("app=web,tier in (be,fe),!canary,env!=prod,zone notin (a,b),release,x=y", sut.toString());
+        assertEquals(sut, LabelSelector.parse(sut.toString()));
+    }
+
+    @Test
+    public void parses_keys_with_prefix_and_empty_values() {
+        LabelSelector sut = LabelSelector.parse("app.kubernetes.io/name=web,empty=");
+
+        assertTrue(sut.matches(labels("app.kubernetes.io/name", "web", "empty", "")));
+        assertTrue(LabelSelector.parse("").isEmpty());
+        assertTrue(LabelSelector.parse("  ").matches(labels()));
+    }
+
+    @Test
+    public void matches_like_kubernetes() {
+        LabelSelector sut = LabelSelector.parse("app=web,tier in (fe,be),!canary");
+
+        assertTrue(sut.matches(labels("app", "web", "tier", "fe")));
+        assertTrue(sut.matches(labels("app", "web", "tier", "be", "other", "x")));
+        assertFalse(sut.matches(labels("app", "web", "tier", "db")));
+        assertFalse(sut.matches(labels("app", "web", "tier", "fe", "canary", "true")));
+        assertFalse(sut.matches(labels("tier", "fe")));
+
+        // != and notin match objects without the label.
+        assertTrue(LabelSelector.parse("env!=prod").matches(labels()));
+        assertTrue(LabelSelector.parse("env notin (prod,test)").matches(labels("env", "dev")));
+        assertFalse(LabelSelector.parse("env notin (prod,test)").matches(labels("env", "test")));
+    }
+
+    @Test
+    public void creates_selector_from_labels() {
+        LabelSelector sut = LabelSelector.of(labels("app", "web"));
+
+        assertEquals(LabelSelector.parse("app=web"), sut);
+        assertTrue(sut.matches(labels("app", "web", "tier", "fe")));
+    }
+
+    @Test
+    public void rejects_invalid_selectors() {
+        for (String selector : new String[]{
+                "app=web,", "=web", "app in fe", "app in (fe", "app ~ web", "app=we b", "-app=web", "app=web-",
+                "Example.COM/app=web", "app=" + repeat('a', 64), "app in ()", "!"
+        }) {
+            assertThrows(LabelSelectorException.class, () -> LabelSelector.parse(selector), selector);
+        }
+    }
+
+    private static String repeat(final char c, final int count) {
+        char[] result = new char[count];
+        Arrays.fill(result, c);
+        return new String(result);
+    }
+}
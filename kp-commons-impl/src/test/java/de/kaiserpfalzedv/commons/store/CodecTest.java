@@ -0,0 +1,124 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+package de.kaiserpfalzedv.commons.store;
+
+import de.kaiserpfalzedv.commons.api.DataPointerImmutable;
+import de.kaiserpfalzedv.commons.api.EventImmutable;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.api.StateImmutable;
+import de.kaiserpfalzedv.commons.version.VersionImmutable;
+import org.junit.jupiter.api.Test;
+
+import java.io.ObjectStreamClass;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class CodecTest {
+    /**
+     * The older shape of {@link Shape2}.
+     */
+    static final class Shape1 implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final int count;
+
+        Shape1(final String name, final int count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    /**
+     * Drops the count and adds an optional note.
+     */
+    static final class Shape2 implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final String note;
+
+        Shape2(final String name, final String note) {
+            this.name = name;
+            this.note = note;
+        }
+
+        Optional<String> note() {
+            return Optional.ofNullable(note);
+        }
+    }
+
+    /**
+     * Changes the type of the count without a new {@code serialVersionUID}.
+     */
+    static final class Shape3 implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final String name;
+        private final String count;
+
+        Shape3(final String name, final String count) {
+            this.name = name;
+            this.count = count;
+        }
+    }
+
+    /**
+     * @return the data of the older shape as if it had been written by the class of the newer one.
+     */
+    private static ByteBuffer written(final Shape1 object, final Class<?> newer) {
+        byte[] data = Codec.serialization(Shape1.class).encode(object);
+        byte[] from = Shape1.class.getName().getBytes(StandardCharsets.UTF_8);
+        byte[] to = newer.getName().getBytes(StandardCharsets.UTF_8);
+
+        for (int i = 0; i + from.length <= data.length; i++) {
+            if (Arrays.equals(data, i, i + from.length, from, 0, from.length)) {
+                System.arraycopy(to, 0, data, i, to.length);
+            }
+        }
+        return ByteBuffer.wrap(data);
+    }
+
+    @Test
+    public void reads_data_written_by_an_older_class_shape() {
+        Shape2 result = Codec.serialization(Shape2.class).decode(written(new Shape1("older", 42), Shape2.class));
+
+        assertEquals("older", result.name);
+        assertEquals(Optional.empty(), result.note());
+    }
+
+    @Test
+    public void rejects_data_of_an_incompatible_class_shape() {
+        ByteBuffer data = written(new Shape1("older", 42), Shape3.class);
+
+        assertThrows(PersistenceException.class, () -> Codec.serialization(Shape3.class).decode(data));
+    }
+
+    @Test
+    public void pins_the_serial_version_of_stored_immutables() {
+        for (Class<?> type : Arrays.asList(MetadataImmutable.class, DataPointerImmutable.class, EventImmutable.class,
+                StateImmutable.class, VersionImmutable.class)) {
+            assertEquals(1L, ObjectStreamClass.lookup(type).getSerialVersionUID(), type.getName());
+        }
+    }
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import de.kaiserpfalzedv.commons.api.CompactMap;
+import de.kaiserpfalzedv.commons.api.DataPointer;
+import de.kaiserpfalzedv.commons.api.DataPointerImmutable;
+import de.kaiserpfalzedv.commons.api.MetadataImmutable;
+import de.kaiserpfalzedv.commons.selector.LabelSelector;
+import de.kaiserpfalzedv.commons.version.Version;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class DataObjectStoreTest {
+    private static final Version API_VERSION = Version.from("1.0.0", Version.VersionType.STRICT);
+
+    static DataPointer object(final UUID uuid, final String name, final DataPointer owner, final String... labels) {
+        CompactMap.Builder map = CompactMap.builder();
+        for (int i = 0; i < labels.length; i += 2) {
+            map.put(labels[i], labels[i + 1]);
+        }
+
+        MetadataImmutable.Builder metadata = MetadataImmutable.builder()
+                .kind("Test")
+                .apiVersion(API_VERSION)
+                .uuid(uuid)
+                .name(name)
+                .labels(map.build());
+        if (owner != null) {
+            metadata.owner(owner);
+        }
+        return DataPointerImmutable.builder().metadata(metadata.build()).build();
+    }
+
+    @Test
+    public void finds_objects_by_uuid_and_name() {
+        DataObjectStore<DataPointer> sut = new DataObjectStore<>();
+        UUID uuid = UUID.randomUUID();
+        DataPointer object = object(uuid, "first", null);
+
+        assertNull(sut.put(object));
+        assertSame(object, sut.get(uuid).orElseThrow());
+        assertSame(object, sut.get("Test", "./.", "first").orElseThrow());
+        assertFalse(sut.get("Test", "./.", "second").isPresent());
+        assertFalse(sut.get("Other", "./.", "first").isPresent());
+
+        DataPointer renamed = object(uuid, "second", null);
+        assertSame(object, sut.put(renamed));
+        assertFalse(sut.get("Test", "./.", "first").isPresent());
+        assertSame(renamed, sut.get("Test", "./.", "second").orElseThrow());
+
+        assertSame(renamed, sut.remove(uuid));
+        assertNull(sut.remove(uuid));
+        assertFalse(sut.get("Test", "./.", "second").isPresent());
+        assertEquals(0, sut.size());
+    }
+
+    @Test
+    public void rejects_duplicate_names() {
+        DataObjectStore<DataPointer> sut = new DataObjectStore<>();
+        sut.put(object(UUID.randomUUID(), "taken", null));
+
+        assertThrows(DuplicateNameException.class, () -> sut.put(object(UUID.randomUUID(), "taken", null)));
+        assertEquals(1, sut.size());
+    }
+
+    @Test
+    public void indexes_owners_and_labels() {
+        DataObjectStore<DataPointer> sut = new DataObjectStore<>();
+        DataPointer owner = object(UUID.randomUUID(), "owner", null, "app", "web");
+        DataPointer child = object(UUID.randomUUID(), "child", owner, "app", "web", "tier", "fe");
+        sut.put(owner);
+        sut.put(child);
+
+        assertEquals(List.of(child), sut.getOwnedBy(owner.metadata().uuid()));
+        assertEquals(2, sut.select(LabelSelector.parse("app=web")).size());
+        assertEquals(List.of(child), sut.select(LabelSelector.parse("app=web,tier in (fe,be)")));
+
+        sut.put(object(child.metadata().uuid(), "child", null, "app", "db"));
+        assertTrue(sut.getOwnedBy(owner.metadata().uuid()).isEmpty());
+        assertEquals(List.of(owner), sut.select(LabelSelector.parse("app=web")));
+
+        DataObjectStore<DataPointer> unindexed = new DataObjectStore<>(false, false, 4);
+        unindexed.put(child);
+        assertEquals(List.of(child), unindexed.select(LabelSelector.parse("tier=fe")));
+        assertThrows(IllegalStateException.class, () -> unindexed.getOwnedBy(owner.metadata().uuid()));
+    }
+
+    @Test
+    public void grants_name_to_a_single_writer() throws Exception {
+        DataObjectStore<DataPointer> sut = new DataObjectStore<>();
+        AtomicInteger winners = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int n = 0; n < 500; n++) {
+                        try {
+                            sut.put(object(UUID.randomUUID(), "name-" + n, null));
+                            winners.incrementAndGet();
+                        } catch (DuplicateNameException e) {
+                            // lost the race.
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(500, winners.get());
+        assertEquals(500, sut.size());
+    }
+
+    @Test
+    public void snapshots_are_consistent_under_concurrent_writes() throws Exception {
+        DataObjectStore<DataPointer> sut = new DataObjectStore<>();
+        int writers = 4;
+        int perWriter = 5_000;
+        AtomicBoolean done = new AtomicBoolean();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(writers + 1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int w = 0; w < writers; w++) {
+                int writer = w;
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < perWriter; i++) {
+                        UUID uuid = new UUID(writer, i);
+                        sut.put(object(uuid, "w" + writer + "-" + i, null, "generation", "1"));
+                        sut.put(object(uuid, "w" + writer + "-" + i, null, "generation", "2"));
+                    }
+                    return null;
+                }));
+            }
+
+            Future<?> reader = executor.submit(() -> {
+                start.await();
+                int last = 0;
+                while (!done.get()) {
+                    List<DataPointer> snapshot = sut.snapshot();
+                    assertTrue(snapshot.size() >= last);
+                    last = snapshot.size();
+
+                    Set<UUID> uuids = new HashSet<>();
+                    for (DataPointer object : snapshot) {
+                        assertTrue(uuids.add(object.metadata().uuid()));
+                    }
+                }
+                return null;
+            });
+
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            reader.get(60, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(writers * perWriter, sut.snapshot().size());
+        assertEquals(writers * perWriter, sut.select(LabelSelector.parse("generation=2")).size());
+        assertTrue(sut.select(LabelSelector.parse("generation=1")).isEmpty());
+    }
+    private static DataObjectStore<DataPointer> versioned() {
+        return new DataObjectStore<>(true, true, DataObjectStore.DEFAULT_STRIPES,
+                (object, metadata) -> DataPointerImmutable.copyOf(object).withMetadata(metadata));
+    }
+
+    private static DataPointer withAnnotation(final DataPointer object, final String key, final String value) {
+        Map<String, String> annotations = new HashMap<>(object.metadata().annotations());
+        annotations.put(key, value);
+
+        return DataPointerImmutable.copyOf(object).withMetadata(
+                MetadataImmutable.copyOf(object.metadata()).withAnnotations(CompactMap.copyOf(annotations)));
+    }
+
+    @Test
+    public void updates_only_current_version() {
+        DataObjectStore<DataPointer> sut = versioned();
+        UUID uuid = UUID.randomUUID();
+        sut.put(object(uuid, "versioned", null, "app", "web"));
+
+        DataPointer read = sut.get(uuid).orElseThrow();
+        DataPointer first = sut.update(withAnnotation(read, "change", "1"));
+        assertEquals("1", first.metadata().version().orElseThrow().value());
+        assertSame(first, sut.get(uuid).orElseThrow());
+
+        // based on the version read before the first update.
+        assertThrows(StaleVersionException.class, () -> sut.update(withAnnotation(read, "change", "2")));
+
+        DataPointer second = sut.update(withAnnotation(first, "change", "2"));
+        assertEquals("2", second.metadata().version().orElseThrow().value());
+        assertEquals("2", sut.get(uuid).orElseThrow().metadata().annotations().get("change"));
+
+        assertThrows(NoSuchElementException.class, () -> sut.update(object(UUID.randomUUID(), "missing", null)));
+        assertThrows(IllegalStateException.class, () -> new DataObjectStore<DataPointer>().update(second));
+    }
+
+    @Test
+    public void updates_indexes_of_changed_labels() {
+        DataObjectStore<DataPointer> sut = versioned();
+        UUID uuid = UUID.randomUUID();
+        sut.put(object(uuid, "labeled", null, "app", "web"));
+
+        DataPointer read = sut.get(uuid).orElseThrow();
+        DataPointer changed = DataPointerImmutable.copyOf(read).withMetadata(MetadataImmutable.copyOf(read.metadata())
+                .withLabels(CompactMap.builder().put("app", "db").build()));
+        sut.update(changed);
+
+        assertTrue(sut.select(LabelSelector.parse("app=web")).isEmpty());
+        assertEquals("1", sut.select(LabelSelector.parse("app=db")).get(0).metadata().version().orElseThrow().value());
+
+        // the label index returns the latest version of objects changed without label changes.
+        DataPointer annotated = sut.update(withAnnotation(sut.get(uuid).orElseThrow(), "note", "x"));
+        assertSame(annotated, sut.select(LabelSelector.parse("app=db")).get(0));
+    }
+
+    @Test
+    public void reports_stale_versions_without_exception() {
+        DataObjectStore<DataPointer> sut = versioned();
+        UUID uuid = UUID.randomUUID();
+        sut.put(object(uuid, "versioned", null, "app", "web"));
+
+        DataPointer read = sut.get(uuid).orElseThrow();
+        DataPointer annotated = sut.tryUpdate(withAnnotation(read, "change", "1")).orElseThrow();
+        assertEquals("1", annotated.metadata().version().orElseThrow().value());
+
+        // a change of the indexed attributes does not overwrite the lock-free update.
+        DataPointer renamed = DataPointerImmutable.copyOf(read).withMetadata(MetadataImmutable.copyOf(read.metadata())
+                .withName("renamed"));
+        assertTrue(sut.tryUpdate(renamed).isEmpty());
+        assertSame(annotated, sut.get(uuid).orElseThrow());
+
+        // the name has not been taken by the failed update.
+        UUID other = UUID.randomUUID();
+        sut.put(object(other, "renamed", null));
+        assertEquals(other, sut.get("Test", "./.", "renamed").orElseThrow().metadata().uuid());
+
+        assertThrows(NoSuchElementException.class, () -> sut.tryUpdate(object(UUID.randomUUID(), "missing", null)));
+    }
+
+    @Test
+    public void counts_versions() {
+        assertEquals("1", DataObjectStore.next(Optional.empty()).value());
+        assertEquals("4", DataObjectStore.next(Optional.of(Version.from("3", Version.VersionType.LOOSE))).value());
+        assertEquals("1.3", DataObjectStore.next(Optional.of(Version.from("1.2", Version.VersionType.LOOSE))).value());
+        assertEquals("1.2.4", DataObjectStore.next(Optional.of(Version.from("1.2.3", Version.VersionType.STRICT))).value());
+    }
+
+    @Test
+    public void loses_no_update_under_contention() throws Exception {
+        DataObjectStore<DataPointer> sut = versioned();
+        UUID uuid = UUID.randomUUID();
+        sut.put(object(uuid, "counter", null));
+
+        int threads = 8;
+        int increments = 500;
+        AtomicInteger conflicts = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < increments; i++) {
+                        while (true) {
+                            DataPointer current = sut.get(uuid).orElseThrow();
+                            int count = Integer.parseInt(current.metadata().annotations().getOrDefault("count", "0"));
+                            try {
+                                sut.update(withAnnotation(current, "count", Integer.toString(count + 1)));
+                                break;
+                            } catch (StaleVersionException e) {
+                                conflicts.incrementAndGet();
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        DataPointer result = sut.get(uuid).orElseThrow();
+        assertEquals(Integer.toString(threads * increments), result.metadata().annotations().get("count"));
+        assertEquals(Integer.toString(threads * increments), result.metadata().version().orElseThrow().value());
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.store;
+
+import de.kaiserpfalzedv.commons.api.DataPointer;
+import de.kaiserpfalzedv.commons.api.DataPointerImmutable;
+import de.kaiserpfalzedv.commons.selector.LabelSelector;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static de.kaiserpfalzedv.commons.store.DataObjectStoreTest.object;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class PersistentDataObjectStoreTest {
+    private static final Codec<DataPointer> CODEC = Codec.serialization(DataPointer.class);
+
+    @TempDir
+    Path directory;
+
+    private PersistentDataObjectStore<DataPointer> open(final long snapshotEvery) {
+        return PersistentDataObjectStore.open(directory, CODEC,
+                new DataObjectStore<>(true, true, DataObjectStore.DEFAULT_STRIPES,
+                        (object, metadata) -> DataPointerImmutable.copyOf(object).withMetadata(metadata)),
+                snapshotEvery);
+    }
+
+    private List<String> files(final String prefix) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(f -> f.getFileName().toString())
+                    .filter(f -> f.startsWith(prefix))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void recovers_changes_from_the_log() {
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID removed = UUID.randomUUID();
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            sut.put(object(first, "first", null, "app", "web"));
+            sut.put(object(second, "second", null, "app", "db"));
+            sut.put(object(removed, "removed", null));
+            sut.update(sut.get(second).orElseThrow());
+            sut.remove(removed);
+        }
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            assertEquals(2, sut.size());
+            assertEquals("first", sut.get(first).orElseThrow().metadata().name());
+            assertEquals("1", sut.get(second).orElseThrow().metadata().version().orElseThrow().value());
+            assertFalse(sut.get(removed).isPresent());
+            assertEquals(1, sut.select(LabelSelector.parse("app=web")).size());
+        }
+    }
+
+    @Test
+    public void recovers_snapshot_and_log_tail() throws IOException {
+        UUID uuid = UUID.randomUUID();
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            for (int i = 0; i < 10; i++) {
+                sut.put(object(UUID.randomUUID(), "object-" + i, null));
+            }
+            assertEquals(10, sut.snapshot());
+
+            sut.put(object(uuid, "after-snapshot", null));
+            sut.remove(sut.get("Test", "./.", "object-0").orElseThrow().metadata().uuid());
+        }
+
+        assertEquals(1, files("snapshot-").size());
+        assertEquals(1, files("wal-").size(), "the segments contained in the snapshot are deleted");
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            assertEquals(10, sut.size());
+            assertTrue(sut.get(uuid).isPresent());
+            assertFalse(sut.get("Test", "./.", "object-0").isPresent());
+        }
+    }
+
+    @Test
+    public void ignores_a_torn_record() throws IOException {
+        UUID uuid = UUID.randomUUID();
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            sut.put(object(uuid, "durable", null));
+        }
+
+        Path segment = directory.resolve(files("wal-").get(0));
+        byte[] record = Files.readAllBytes(segment);
+        // a second record that did not make it completely to disk.
+        Files.write(segment, Arrays.copyOf(record, record.length / 2), StandardOpenOption.APPEND);
+
+        UUID next = UUID.randomUUID();
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            assertEquals(1, sut.size());
+            sut.put(object(next, "next", null));
+        }
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            assertEquals(2, sut.size());
+            assertTrue(sut.get(uuid).isPresent());
+            assertTrue(sut.get(next).isPresent());
+        }
+    }
+
+    @Test
+    public void rejects_records_missing_within_the_log() throws IOException {
+        // every session writes a segment of its own.
+        for (int i = 0; i < 3; i++) {
+            try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+                sut.put(object(UUID.randomUUID(), "object-" + i, null));
+            }
+        }
+
+        Path segment = directory.resolve(files("wal-").get(1));
+        byte[] record = Files.readAllBytes(segment);
+        record[record.length - 1] ^= 0xFF;
+        Files.write(segment, record);
+
+        assertThrows(PersistenceException.class, () -> open(0));
+    }
+
+    @Test
+    public void recovers_the_state_readers_have_seen() throws Exception {
+        int threads = 4;
+        int updates = 100;
+        List<UUID> uuids = new ArrayList<>();
+        List<DataPointer> seen = new ArrayList<>();
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(150)) {
+            for (int i = 0; i < 4; i++) {
+                UUID uuid = UUID.randomUUID();
+                uuids.add(uuid);
+                sut.put(object(uuid, "object-" + i, null));
+            }
+
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> tasks = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    tasks.add(executor.submit(() -> {
+                        for (int i = 0; i < updates; i++) {
+                            UUID uuid = uuids.get(i % uuids.size());
+                            try {
+                                sut.update(sut.get(uuid).orElseThrow());
+                            } catch (StaleVersionException e) {
+                                // another thread has been faster.
+                            }
+                        }
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    task.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+
+            uuids.forEach(uuid -> seen.add(sut.get(uuid).orElseThrow()));
+        }
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            for (DataPointer object : seen) {
+                assertEquals(object, sut.get(object.metadata().uuid()).orElseThrow());
+            }
+        }
+    }
+
+    @Test
+    public void writes_snapshots_in_the_background() throws IOException {
+        try (PersistentDataObjectStore<DataPointer> sut = open(10)) {
+            for (int i = 0; i < 25; i++) {
+                sut.put(object(UUID.randomUUID(), "object-" + i, null));
+            }
+        }
+
+        assertEquals(1, files("snapshot-").size());
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(10)) {
+            assertEquals(25, sut.size());
+        }
+    }
+
+    @Test
+    public void recovers_all_concurrent_writes() throws Exception {
+        int threads = 8;
+        int writes = 200;
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(500)) {
+            ExecutorService executor = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> tasks = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    int thread = t;
+                    tasks.add(executor.submit(() -> {
+                        for (int i = 0; i < writes; i++) {
+                            sut.put(object(UUID.randomUUID(), thread + "-" + i, null));
+                        }
+                    }));
+                }
+                for (Future<?> task : tasks) {
+                    task.get(60, TimeUnit.SECONDS);
+                }
+            } finally {
+                executor.shutdownNow();
+            }
+        }
+
+        try (PersistentDataObjectStore<DataPointer> sut = open(0)) {
+            assertEquals(threads * writes, sut.size());
+        }
+    }
+
+    @Test
+    public void rejects_a_filled_store() {
+        DataObjectStore<DataPointer> store = new DataObjectStore<>();
+        store.put(object(UUID.randomUUID(), "filled", null));
+
+        assertThrows(IllegalArgumentException.class, () -> PersistentDataObjectStore.open(directory, CODEC, store, 0));
+    }
+}
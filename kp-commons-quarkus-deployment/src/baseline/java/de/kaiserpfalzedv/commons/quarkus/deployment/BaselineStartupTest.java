@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.quarkus.deployment;
+
+import io.quarkus.test.QuarkusUnitTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Starts the test application of {@code KpCommonsProcessorTest} without the extension and records the measurement as
+ * baseline for it.
+ */
+public class BaselineStartupTest {
+    private static final Logger LOG = LoggerFactory.getLogger(BaselineStartupTest.class);
+
+    @RegisterExtension
+    static final QuarkusUnitTest TEST = new QuarkusUnitTest()
+            .setArchiveProducer(StartupMeasurement::archive);
+
+    @Test
+    public void shouldRecordTheBaseline() throws IOException {
+        Path file = StartupMeasurement.baseline();
+        assumeTrue(file != null, "the baseline is only recorded within the build");
+
+        Properties measured = StartupMeasurement.measured();
+        LOG.info("Startup in JVM mode without the extension: {} ms, resident set size {} kB",
+                measured.getProperty(StartupMeasurement.STARTUP_MILLIS), measured.getProperty(StartupMeasurement.RSS_KB));
+
+        StartupMeasurement.store(measured, file);
+    }
+}
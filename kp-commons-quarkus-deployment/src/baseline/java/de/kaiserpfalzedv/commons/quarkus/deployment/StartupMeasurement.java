@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.quarkus.deployment;
+
+import io.quarkus.runtime.StartupEvent;
+import org.jboss.shrinkwrap.api.ShrinkWrap;
+import org.jboss.shrinkwrap.api.spec.JavaArchive;
+
+import javax.enterprise.context.ApplicationScoped;
+import javax.enterprise.event.Observes;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the startup of the test application in JVM mode: the time from building the archive to the startup event
+ * (augmentation and boot) and the resident set size at the startup event. The test classes are loaded by the JUnit and
+ * by the Quarkus class loader, so the values are passed as system properties.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+public final class StartupMeasurement {
+    /**
+     * The system property with the file of the baseline measurement.
+     */
+    public static final String BASELINE = "kp-commons.startup.baseline";
+
+    public static final String STARTUP_MILLIS = "startup.millis";
+    public static final String RSS_KB = "rss.kb";
+
+    private static final String STARTING = "kp-commons.test.starting";
+    private static final String PREFIX = "kp-commons.test.";
+
+    private StartupMeasurement() {}
+
+    /**
+     * @return the archive of the test application, the startup is measured from now on.
+     */
+    public static JavaArchive archive() {
+        System.setProperty(STARTING, Long.toString(System.nanoTime()));
+        return ShrinkWrap.create(JavaArchive.class).addClasses(StartupMeasurement.class, StartupObserver.class);
+    }
+
+    @ApplicationScoped
+    public static class StartupObserver {
+        void onStart(@Observes final StartupEvent event) {
+            long startup = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - Long.parseLong(System.getProperty(STARTING)));
+
+            System.setProperty(PREFIX + STARTUP_MILLIS, Long.toString(startup));
+            System.setProperty(PREFIX + RSS_KB, Long.toString(residentSetSize()));
+        }
+    }
+
+    /**
+     * @return the startup in milliseconds and the resident set size in kB (-1 if it can't be read).
+     */
+    public static Properties measured() {
+        Properties result = new Properties();
+        result.setProperty(STARTUP_MILLIS, System.getProperty(PREFIX + STARTUP_MILLIS));
+        result.setProperty(RSS_KB, System.getProperty(PREFIX + RSS_KB));
+        return result;
+    }
+
+    /**
+     * @return the file of the baseline measurement or null if the test does not run within the build.
+     */
+    public static Path baseline() {
+        String file = System.getProperty(BASELINE);
+        return file != null ? Paths.get(file) : null;
+    }
+
+    public static void store(final Properties measurement, final Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (OutputStream out = Files.newOutputStream(file)) {
+            measurement.store(out, "startup of the test application without the extension");
+        }
+    }
+
+    public static Properties load(final Path file) throws IOException {
+        Properties result = new Properties();
+        try (InputStream in = Files.newInputStream(file)) {
+            result.load(in);
+        }
+        return result;
+    }
+
+    private static long residentSetSize() {
+        Path status = Paths.get("/proc/self/status");
+        if (!Files.isReadable(status)) {
+            return -1;
+        }
+
+        try {
+            for (String line : Files.readAllLines(status, StandardCharsets.US_ASCII)) {
+                if (line.startsWith("VmRSS:")) {
+                    return Long.parseLong(line.substring(6).replace("kB", "").trim());
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.quarkus.deployment;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import de.kaiserpfalzedv.commons.quarkus.runtime.VersionEngineRecorder;
+import io.quarkus.deployment.annotations.BuildProducer;
+import io.quarkus.deployment.annotations.BuildStep;
+import io.quarkus.deployment.annotations.ExecutionTime;
+import io.quarkus.deployment.annotations.Record;
+import io.quarkus.deployment.builditem.CombinedIndexBuildItem;
+import io.quarkus.deployment.builditem.FeatureBuildItem;
+import io.quarkus.deployment.builditem.IndexDependencyBuildItem;
+import io.quarkus.deployment.builditem.nativeimage.ReflectiveClassBuildItem;
+import org.jboss.jandex.AnnotationInstance;
+import org.jboss.jandex.AnnotationTarget;
+import org.jboss.jandex.DotName;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * The build steps of the kp-commons extension.
+ * <ul>
+ *     <li>The API library is added to the Jandex index of the application.</li>
+ *     <li>All classes generated by Immutables (the {@code *Immutable} types with their builders and JSON delegates)
+ *     and the Jackson annotated types are registered for reflection, Jackson needs them in a native image.</li>
+ *     <li>The classes of the version engine with static tables are initialized in the static init phase.</li>
+ * </ul>
+ *
+ * @since 2.0.0 2026-10-19
+ */
+class KpCommonsProcessor {
+    static final String FEATURE = "kp-commons";
+
+    private static final String GROUP_ID = "de.kaiserpfalz-edv.commons";
+    private static final String API_ARTIFACT_ID = "kp-commons-api";
+    private static final String PACKAGE = "de.kaiserpfalzedv.commons.";
+
+    /**
+     * Immutables marks all generated classes with this annotation (class retention, but indexed by Jandex).
+     */
+    private static final DotName IMMUTABLES_GENERATED = DotName.createSimple("org.immutables.value.Generated");
+    private static final DotName JSON_DESERIALIZE = DotName.createSimple(JsonDeserialize.class.getName());
+
+    static final List<String> VERSION_ENGINE = Arrays.asList(
+            "de.kaiserpfalzedv.commons.version.semver.Tokenizer",
+            "de.kaiserpfalzedv.commons.version.semver.Requirement",
+            "de.kaiserpfalzedv.commons.version.semver.CompiledRequirement",
+            "de.kaiserpfalzedv.commons.version.semver.PrereleaseIdentifier",
+            "de.kaiserpfalzedv.commons.version.semver.SqlTranslator"
+    );
+
+    @BuildStep
+    FeatureBuildItem feature() {
+        return new FeatureBuildItem(FEATURE);
+    }
+
+    @BuildStep
+    IndexDependencyBuildItem indexApi() {
+        return new IndexDependencyBuildItem(GROUP_ID, API_ARTIFACT_ID);
+    }
+
+    @BuildStep
+    void registerForReflection(final CombinedIndexBuildItem index,
+                               final BuildProducer<ReflectiveClassBuildItem> reflectiveClasses) {
+        Set<String> classes = new TreeSet<>();
+        collect(index, IMMUTABLES_GENERATED, classes);
+        collect(index, JSON_DESERIALIZE, classes);
+
+        if (!classes.isEmpty()) {
+            reflectiveClasses.produce(new ReflectiveClassBuildItem(true, true, classes.toArray(new String[0])));
+        }
+    }
+
+    @BuildStep
+    @Record(ExecutionTime.STATIC_INIT)
+    void initializeVersionEngine(final VersionEngineRecorder recorder) {
+        recorder.initialize(VERSION_ENGINE);
+    }
+
+    private static void collect(final CombinedIndexBuildItem index, final DotName annotation, final Set<String> classes) {
+        for (AnnotationInstance instance : index.getIndex().getAnnotations(annotation)) {
+            if (instance.target().kind() != AnnotationTarget.Kind.CLASS) {
+                continue;
+            }
+
+            String name = instance.target().asClass().name().toString();
+            if (name.startsWith(PACKAGE)) {
+                classes.add(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.quarkus.deployment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import de.kaiserpfalzedv.commons.version.Version;
+import de.kaiserpfalzedv.commons.version.VersionImmutable;
+import de.kaiserpfalzedv.commons.version.semver.Requirement;
+import io.quarkus.test.QuarkusUnitTest;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.RegisterExtension;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Starts an application with the extension in JVM mode and compares the startup time (augmentation and boot) and the
+ * resident set size with the same application without the extension, recorded by {@code BaselineStartupTest}.
+ */
+public class KpCommonsProcessorTest {
+    private static final Logger LOG = LoggerFactory.getLogger(KpCommonsProcessorTest.class);
+
+    /**
+     * The startup may take half as long again as the baseline plus a second for the noise of short startups.
+     */
+    private static final long STARTUP_OVERHEAD_PERCENT = 50L;
+    private static final long STARTUP_NOISE_MILLIS = 1_000L;
+
+    /**
+     * The extension may add 32 MiB to the resident set size of the baseline.
+     */
+    private static final long RSS_OVERHEAD_KB = 32L * 1024L;
+
+    @RegisterExtension
+    static final QuarkusUnitTest TEST = new QuarkusUnitTest()
+            .setArchiveProducer(StartupMeasurement::archive);
+
+    @Inject
+    ObjectMapper mapper;
+
+    @Test
+    public void shouldReadAndWriteImmutables() throws IOException {
+        Version version = Version.from("1.2.3-beta.1+build.7", Version.VersionType.STRICT);
+
+        String json = mapper.writeValueAsString(version);
+        Version result = mapper.readValue(json, VersionImmutable.class);
+
+        assertEquals(version.value(), result.value());
+    }
+
+    @Test
+    public void shouldUseInitializedVersionEngine() {
+        assertTrue(Requirement.buildNPM("^1.2.0").isSatisfiedBy("1.4.2"));
+    }
+
+    @Test
+    public void shouldStartLikeTheBaseline() throws IOException {
+        Path file = StartupMeasurement.baseline();
+        assumeTrue(file != null && Files.isReadable(file), "no baseline recorded, run the baselineTest task");
+
+        Properties baseline = StartupMeasurement.load(file);
+        Properties measured = StartupMeasurement.measured();
+
+        long baselineStartup = Long.parseLong(baseline.getProperty(StartupMeasurement.STARTUP_MILLIS));
+        long startup = Long.parseLong(measured.getProperty(StartupMeasurement.STARTUP_MILLIS));
+        LOG.info("Startup in JVM mode: {} ms with the extension, {} ms without", startup, baselineStartup);
+        assertTrue(startup <= baselineStartup * (100L + STARTUP_OVERHEAD_PERCENT) / 100L + STARTUP_NOISE_MILLIS,
+                "startup took " + startup + " ms, the baseline " + baselineStartup + " ms");
+
+        long baselineRss = Long.parseLong(baseline.getProperty(StartupMeasurement.RSS_KB));
+        long rss = Long.parseLong(measured.getProperty(StartupMeasurement.RSS_KB));
+        assumeTrue(rss > 0 && baselineRss > 0, "resident set size is only measured on linux");
+        LOG.info("Resident set size in JVM mode: {} kB with the extension, {} kB without", rss, baselineRss);
+        assertTrue(rss <= baselineRss + RSS_OVERHEAD_KB,
+                "resident set size is " + rss + " kB, the baseline " + baselineRss + " kB");
+    }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2020  Kaiserpfalz EDV-Service, Roland T. Lichti.
+ *
+ * This is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with Foobar.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package de.kaiserpfalzedv.commons.quarkus.runtime;
+
+import io.quarkus.runtime.annotations.Recorder;
+
+import java.util.List;
+
+/**
+ * Initializes the classes of the version engine during the static initialization of the application.
+ * <p>
+ * The static tables of these classes (tokenizer characters, compiled patterns) are created by their static
+ * initializers. Running them within the static init phase stores them in the image heap of a native image and moves
+ * their costs out of the first request in JVM mode.
+ *
+ * @since 2.0.0 2026-10-19
+ */
+@Recorder
+public class VersionEngineRecorder {
+    /**
+     * @param classes the names of the classes to initialize.
+     */
+    public void initialize(final List<String> classes) {
+        ClassLoader loader = Thread.currentThread().getContextClassLoader();
+
+        for (String name : classes) {
+            try {
+                Class.forName(name, true, loader);
+            } catch (ClassNotFoundException e) {
+                throw new IllegalStateException("Class of the version engine not found: " + name, e);
+            }
+        }
+    }
+}